@@ -32,6 +32,10 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        // android.util.Log y demás clases del framework devuelven valores por defecto en tests JVM
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -44,13 +48,17 @@ dependencies {
     implementation(libs.navigation.fragment)
     implementation(libs.navigation.ui)
     testImplementation(libs.junit)
+    testImplementation("androidx.arch.core:core-testing:2.2.0")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
     // Networking - Retrofit2
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
-    implementation("com.squareup.okhttp3:logging-interceptor:4.11.0")
+    implementation("com.squareup.okhttp3:okhttp:4.11.0")
+
+    // Formato binario compacto (MessagePack) para listados grandes
+    implementation("org.msgpack:msgpack-core:0.9.8")
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
 
 }
\ No newline at end of file
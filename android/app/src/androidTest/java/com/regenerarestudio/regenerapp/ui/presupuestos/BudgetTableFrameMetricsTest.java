@@ -0,0 +1,250 @@
+package com.regenerarestudio.regenerapp.ui.presupuestos;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.regenerarestudio.regenerapp.ProjectSelectionActivity;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tiempo de frame de la tabla del presupuesto inicial (1.000 filas) al editar un item
+ * Compara la actualización con diff (una fila) contra el refresco completo que se usaba antes
+ * (notifyDataSetChanged). Los percentiles quedan en logcat con la etiqueta BudgetFrameMetrics.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BudgetTableFrameMetricsTest {
+
+    private static final String TAG = "BudgetFrameMetrics";
+
+    private static final int ROWS = 1000;
+    private static final int WARMUP_EDITS = 5;
+    private static final int MEASURED_EDITS = 30;
+    private static final int EDITED_ROW = 5;   // fila visible
+
+    // Espera tras cada edición: diff en segundo plano + animación de cambio
+    private static final long SETTLE_MS = 300;
+
+    // Margen para el ruido del dispositivo al comparar percentiles
+    private static final double SLACK_MS = 4.0;
+
+    private final List<Long> frameDurations = Collections.synchronizedList(new ArrayList<>());
+
+    private ActivityScenario<ProjectSelectionActivity> scenario;
+    private HandlerThread metricsThread;
+    private Window.OnFrameMetricsAvailableListener frameListener;
+    private BudgetInitialAdapter adapter;
+    private List<BudgetItem> items;
+
+    @Before
+    public void setUp() {
+        metricsThread = new HandlerThread("frame-metrics");
+        metricsThread.start();
+
+        items = buildItems();
+        scenario = ActivityScenario.launch(ProjectSelectionActivity.class);
+        scenario.onActivity(activity -> {
+            // Solo la tabla en pantalla: el adapter real sobre 1.000 filas
+            RecyclerView recyclerView = new RecyclerView(activity);
+            recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+            adapter = new BudgetInitialAdapter(items);
+            recyclerView.setAdapter(adapter);
+            activity.setContentView(recyclerView);
+
+            frameListener = (window, frameMetrics, dropCount) -> {
+                if (frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 0) {
+                    frameDurations.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+                }
+            };
+            activity.getWindow().addOnFrameMetricsAvailableListener(frameListener,
+                    new Handler(metricsThread.getLooper()));
+        });
+        settle();
+    }
+
+    @After
+    public void tearDown() {
+        scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(frameListener));
+        scenario.close();
+        metricsThread.quitSafely();
+    }
+
+    // ==========================================
+    // PRUEBAS
+    // ==========================================
+
+    @Test
+    public void singleEdit_rebindsOnlyThatRow() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        RecyclerView.AdapterDataObserver observer = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                events.add("all");
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                events.add("changed:" + positionStart + ":" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                events.add("inserted:" + positionStart + ":" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                events.add("removed:" + positionStart + ":" + itemCount);
+            }
+        };
+        scenario.onActivity(activity -> adapter.registerAdapterDataObserver(observer));
+
+        scenario.onActivity(activity -> submitEdit(1));
+        settle();
+
+        scenario.onActivity(activity -> adapter.unregisterAdapterDataObserver(observer));
+        assertEquals(Collections.singletonList("changed:" + EDITED_ROW + ":1"), events);
+    }
+
+    @Test
+    public void singleEdit_framesNoSlowerThanFullRefresh() {
+        measure(WARMUP_EDITS, this::notifyAllEdit);
+        double[] fullRefresh = measure(MEASURED_EDITS, this::notifyAllEdit);
+
+        measure(WARMUP_EDITS, this::submitEdit);
+        double[] diffed = measure(MEASURED_EDITS, this::submitEdit);
+
+        double fullP50 = percentile(fullRefresh, 50);
+        double fullP90 = percentile(fullRefresh, 90);
+        double diffP50 = percentile(diffed, 50);
+        double diffP90 = percentile(diffed, 90);
+        Log.i(TAG, String.format("%d filas - refresco completo p50=%.2fms p90=%.2fms | diff p50=%.2fms p90=%.2fms",
+                ROWS, fullP50, fullP90, diffP50, diffP90));
+
+        assertTrue("diff p90 " + diffP90 + "ms > refresco completo p90 " + fullP90 + "ms",
+                diffP90 <= fullP90 + SLACK_MS);
+    }
+
+    // ==========================================
+    // EDICIONES
+    // ==========================================
+
+    private interface Edit {
+        void apply(int version);
+    }
+
+    /**
+     * Camino actual: item nuevo (otro precio) y updateItems → diff en segundo plano
+     */
+    private void submitEdit(int version) {
+        BudgetItem edited = copyOf(items.get(EDITED_ROW));
+        edited.setUnitPrice(10.0 + version);
+        edited.setTotalPrice(edited.getQuantity() * edited.getUnitPrice());
+        items.set(EDITED_ROW, edited);
+        adapter.updateItems(items);
+    }
+
+    /**
+     * Camino anterior: se modifica la fila y se revincula todo con notifyDataSetChanged
+     */
+    private void notifyAllEdit(int version) {
+        BudgetItem edited = adapter.getItem(EDITED_ROW);
+        edited.setUnitPrice(10.0 + version);
+        edited.setTotalPrice(edited.getQuantity() * edited.getUnitPrice());
+        adapter.notifyDataSetChanged();
+    }
+
+    /**
+     * Suma de la duración de los frames dibujados por cada edición, en ms
+     */
+    private double[] measure(int edits, Edit edit) {
+        double[] costs = new double[edits];
+        for (int i = 0; i < edits; i++) {
+            int version = i;
+            frameDurations.clear();
+            scenario.onActivity(activity -> edit.apply(version));
+            settle();
+
+            long total = 0;
+            synchronized (frameDurations) {
+                for (long duration : frameDurations) {
+                    total += duration;
+                }
+            }
+            costs[i] = total / 1_000_000.0;
+        }
+        return costs;
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private void settle() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        SystemClock.sleep(SETTLE_MS);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    private static List<BudgetItem> buildItems() {
+        String[] categories = {"construction", "lighting", "electrical", "labor", "others"};
+        List<BudgetItem> list = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            BudgetItem item = new BudgetItem();
+            item.setId((long) (i + 1));
+            item.setProjectId(1L);
+            item.setDescription("Item de presupuesto " + (i + 1));
+            item.setCategory(categories[i % categories.length]);
+            item.setQuantity(1.0 + i % 7);
+            item.setUnit("m2");
+            item.setUnitPrice(5.0 + i % 13);
+            item.setTotalPrice(item.getQuantity() * item.getUnitPrice());
+            item.setSupplierName("Proveedor " + (i % 20));
+            list.add(item);
+        }
+        return list;
+    }
+
+    private static BudgetItem copyOf(BudgetItem source) {
+        BudgetItem copy = new BudgetItem();
+        copy.setId(source.getId());
+        copy.setProjectId(source.getProjectId());
+        copy.setDescription(source.getDescription());
+        copy.setCategory(source.getCategory());
+        copy.setCategoryDisplay(source.getCategoryDisplay());
+        copy.setQuantity(source.getQuantity());
+        copy.setUnit(source.getUnit());
+        copy.setUnitPrice(source.getUnitPrice());
+        copy.setTotalPrice(source.getTotalPrice());
+        copy.setSupplierName(source.getSupplierName());
+        return copy;
+    }
+
+    private static double percentile(double[] values, int percentile) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -19,6 +19,9 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentTransaction;
 
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
+import com.regenerarestudio.regenerapp.data.sync.MutationOutbox;
 import com.regenerarestudio.regenerapp.databinding.ActivityMainBinding;
 import com.regenerarestudio.regenerapp.ui.calculadora.CalculadoraFragment;
 import com.regenerarestudio.regenerapp.ui.presupuestos.PresupuestosFragment;
@@ -51,6 +54,12 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        // Habilitar caché HTTP aunque se entre directo con un proyecto guardado
+        ApiClient.init(this);
+
+        // Reenviar escrituras que quedaron en la cola offline
+        MutationOutbox.getInstance(this);
+
         // Verificar si hay proyecto seleccionado
         if (!checkProjectSelection()) {
             // Si no hay proyecto, ir a pantalla de selección
@@ -202,6 +211,8 @@ public class MainActivity extends AppCompatActivity {
                 .setTitle("Cambiar Proyecto")
                 .setMessage(getString(R.string.msg_cambiar_proyecto))
                 .setPositiveButton(getString(R.string.btn_cambiar), (dialog, which) -> {
+                    // Las respuestas del proyecto actual ya no se van a mostrar
+                    CallTracker.cancelAllTrackers();
                     // Limpiar proyecto seleccionado
                     clearProjectSelection();
                     // Ir a selección de proyectos
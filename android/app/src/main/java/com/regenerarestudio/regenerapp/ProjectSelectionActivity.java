@@ -15,6 +15,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.regenerarestudio.regenerapp.data.models.Project;
+import com.regenerarestudio.regenerapp.data.api.NetworkTelemetry;
 import com.regenerarestudio.regenerapp.data.network.NetworkStateManager;
 import com.regenerarestudio.regenerapp.databinding.ActivityProjectSelectionBinding;
 import com.regenerarestudio.regenerapp.ui.proyectos.ProjectAdapter;
@@ -34,8 +35,8 @@ public class ProjectSelectionActivity extends AppCompatActivity {
     private ProyectosViewModel proyectosViewModel;
     private LinearProgressIndicator progressIndicator;
 
-    // Para filtros de búsqueda
-    private String currentSearchQuery = "";
+    // Traza de arranque: la primera lista pintada ya se reportó
+    private boolean startupReported = false;
 
     private static final String PREFS_NAME = "RegenerAppPrefs";
     private static final String KEY_SELECTED_PROJECT_ID = "selected_project_id";
@@ -43,6 +44,8 @@ public class ProjectSelectionActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Traza de arranque: tiempo hasta el primer byte de la carga de proyectos
+        NetworkTelemetry.getInstance().markStartup();
         super.onCreate(savedInstanceState);
 
         binding = ActivityProjectSelectionBinding.inflate(getLayoutInflater());
@@ -55,8 +58,9 @@ public class ProjectSelectionActivity extends AppCompatActivity {
         setupPhaseFilters();
         observeViewModel();
 
-        // Cargar proyectos desde API
-        loadProjects();
+        // Sin recarga aquí: un ViewModel nuevo (primer arranque o proceso restaurado) ya pidió
+        // los proyectos en su constructor, y uno conservado (rotación) mantiene su lista y su
+        // carga en curso. El usuario puede forzarla con el botón de actualizar.
     }
 
     private void setupToolbar() {
@@ -85,6 +89,11 @@ public class ProjectSelectionActivity extends AppCompatActivity {
 
     private void setupViewModel() {
         proyectosViewModel = new ViewModelProvider(this).get(ProyectosViewModel.class);
+
+        // Última lista conocida en el primer frame; la red la actualiza después con un diff
+        long lastSelectedId = getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .getLong(KEY_SELECTED_PROJECT_ID, -1L);
+        proyectosViewModel.restoreSnapshot(lastSelectedId);
     }
 
     private void setupPhaseFilters() {
@@ -105,8 +114,8 @@ public class ProjectSelectionActivity extends AppCompatActivity {
                 // Si es chip_all o cualquier otro, phaseFilter se queda vacío (todos)
             }
 
-            // Aplicar filtro al ViewModel
-            proyectosViewModel.applyFilters(currentSearchQuery, "", phaseFilter);
+            // Aplicar filtro al ViewModel (conserva la búsqueda actual)
+            proyectosViewModel.setPhaseFilter(phaseFilter);
         });
     }
 
@@ -114,7 +123,7 @@ public class ProjectSelectionActivity extends AppCompatActivity {
         // Observar lista de proyectos
         proyectosViewModel.getProjects().observe(this, projects -> {
             if (projects != null) {
-                projectAdapter.updateProjects(projects);
+                projectAdapter.updateProjects(projects, this::onProjectsRendered);
 
                 // Mostrar mensaje si no hay proyectos
                 if (projects.isEmpty()) {
@@ -141,6 +150,24 @@ public class ProjectSelectionActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Primera lista aplicada al adapter: marca de "interactivo" para la traza de arranque
+     * (log de NetworkTelemetry y reportFullyDrawn para las métricas del sistema)
+     */
+    private void onProjectsRendered() {
+        if (startupReported || binding == null || projectAdapter.getItemCount() == 0) {
+            return;
+        }
+        startupReported = true;
+
+        int count = projectAdapter.getItemCount();
+        // Después del siguiente layout: la lista ya está dibujada
+        binding.rvProjects.post(() -> {
+            NetworkTelemetry.getInstance().logStartupMilestone("lista de proyectos interactiva (" + count + " proyectos)");
+            reportFullyDrawn();
+        });
+    }
+
     private void handleNetworkState(NetworkStateManager.NetworkState networkState) {
         switch (networkState.getState()) {
             case LOADING:
@@ -259,10 +286,8 @@ public class ProjectSelectionActivity extends AppCompatActivity {
     }
 
     private void applyFilters(String query) {
-        currentSearchQuery = query;
-
-        // Usar el ViewModel para aplicar filtros
-        proyectosViewModel.applyFilters(query, "", "");
+        // El ViewModel filtra en segundo plano y conserva la fase elegida
+        proyectosViewModel.setSearchQuery(query);
     }
 
     @Override
@@ -285,16 +310,6 @@ public class ProjectSelectionActivity extends AppCompatActivity {
         Toast.makeText(this, "Debe seleccionar un proyecto para continuar", Toast.LENGTH_LONG).show();
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-
-        // Aplicar filtros actuales al regresar a la actividad
-        if (!currentSearchQuery.isEmpty()) {
-            applyFilters(currentSearchQuery);
-        }
-    }
-
     @Override
     protected void onDestroy() {
         super.onDestroy();
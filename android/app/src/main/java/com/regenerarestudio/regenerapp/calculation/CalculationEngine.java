@@ -0,0 +1,429 @@
+package com.regenerarestudio.regenerapp.calculation;
+
+import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de cálculo local (Java puro, sin Android ni red)
+ * Replica exactamente las fórmulas de backend/apps/calculations/views.py para que el resultado
+ * se muestre al instante y sin conexión. El servidor solo se usa después para guardar el cálculo.
+ *
+ * Pintura y perfiles usan Decimal en Django: aquí se replican con BigDecimal y el mismo contexto
+ * (28 dígitos, HALF_EVEN). El resto usa float en Python, equivalente a double en Java.
+ */
+public final class CalculationEngine {
+
+    // Contexto por defecto de decimal.Decimal en Python
+    private static final MathContext PYTHON_DECIMAL = new MathContext(28, RoundingMode.HALF_EVEN);
+
+    // Pintura
+    private static final BigDecimal PAINT_WASTE_FACTOR = new BigDecimal("0.05");
+    private static final BigDecimal LITERS_PER_GALLON = new BigDecimal("3.785");
+
+    // Gypsum (plancha estándar 1.22m x 2.44m)
+    private static final double GYPSUM_SHEET_AREA = 1.22 * 2.44;
+    private static final double GYPSUM_WASTE_FACTOR = 0.10;
+
+    // Empaste
+    private static final double EMPASTE_KG_PER_SQM_PER_LAYER = 0.5;
+    private static final double EMPASTE_WASTE_FACTOR = 0.05;
+    private static final double EMPASTE_KG_PER_SACK = 25.0;
+
+    // Cintas LED
+    private static final double LED_DEFAULT_METERS_PER_ROLL = 5.0;
+    private static final double LED_WATTS_PER_DRIVER = 60.0;
+    private static final double LED_DRIVER_SAFETY_FACTOR = 0.8;
+
+    // Cables
+    private static final double CABLE_DEFAULT_METERS_PER_ROLL = 100.0;
+    private static final double CABLE_SAFETY_FACTOR = 0.10;
+
+    // Perfiles
+    private static final BigDecimal PROFILE_STANDARD_LENGTH = new BigDecimal("2.0");
+    private static final BigDecimal PROFILE_WASTE_FACTOR = new BigDecimal("0.10");
+
+    private CalculationEngine() {}
+
+    /**
+     * Calcular según el código del backend (paint, gypsum, empaste, led_strip, profiles, cable)
+     * @throws IllegalArgumentException si el tipo no existe o faltan parámetros obligatorios
+     */
+    public static CalculationResponse calculate(String calculationTypeCode, Map<String, Object> parameters) {
+        if (calculationTypeCode == null) {
+            throw new IllegalArgumentException("Tipo de calculadora no especificado");
+        }
+
+        switch (calculationTypeCode.toLowerCase()) {
+            case "paint":
+                return calculatePaint(parameters);
+            case "gypsum":
+                return calculateGypsum(parameters);
+            case "empaste":
+                return calculateEmpaste(parameters);
+            case "led_strip":
+                return calculateLedStrip(parameters);
+            case "profiles":
+                return calculateProfiles(parameters);
+            case "cable":
+                return calculateCable(parameters);
+            default:
+                throw new IllegalArgumentException("Tipo de calculadora no soportado: " + calculationTypeCode);
+        }
+    }
+
+    /**
+     * Indica si el motor local sabe calcular este tipo
+     */
+    public static boolean supports(String calculationTypeCode) {
+        if (calculationTypeCode == null) return false;
+        switch (calculationTypeCode.toLowerCase()) {
+            case "paint":
+            case "gypsum":
+            case "empaste":
+            case "led_strip":
+            case "profiles":
+            case "cable":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Campo de medida que cambia entre espacios en el modo multi-espacio
+     */
+    public static String measureFieldFor(String calculationTypeCode) {
+        if (calculationTypeCode == null) return null;
+        switch (calculationTypeCode.toLowerCase()) {
+            case "paint":
+                return "area_to_paint";
+            case "gypsum":
+            case "empaste":
+                return "area_to_cover";
+            case "led_strip":
+            case "profiles":
+            case "cable":
+                return "total_length";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Calcular todos los espacios en una pasada con los mismos parámetros comunes
+     * @throws IllegalArgumentException indicando el espacio con datos inválidos
+     */
+    public static MultiRoomCalculation calculateRooms(String calculationTypeCode,
+                                                      Map<String, Object> sharedParameters,
+                                                      List<MultiRoomCalculation.Room> rooms) {
+        String measureField = measureFieldFor(calculationTypeCode);
+        if (measureField == null) {
+            throw new IllegalArgumentException("Tipo de calculadora no soportado: " + calculationTypeCode);
+        }
+        if (rooms == null || rooms.isEmpty()) {
+            throw new IllegalArgumentException("Ingresa al menos un espacio");
+        }
+
+        List<CalculationResponse> results = new ArrayList<>(rooms.size());
+        List<Map<String, Object>> roomParameters = new ArrayList<>(rooms.size());
+        for (MultiRoomCalculation.Room room : rooms) {
+            Map<String, Object> parameters = new HashMap<>(sharedParameters);
+            parameters.put(measureField, room.getMeasure());
+            try {
+                results.add(calculate(calculationTypeCode, parameters));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(room.getSpace() + ": " + e.getMessage());
+            }
+            roomParameters.add(parameters);
+        }
+        return new MultiRoomCalculation(calculationTypeCode.toLowerCase(), rooms, results, roomParameters);
+    }
+
+    // ==========================================
+    // CALCULADORAS
+    // ==========================================
+
+    /**
+     * Pintura: área * capas / rendimiento + 5% de desperdicio, equivalente en galones
+     */
+    static CalculationResponse calculatePaint(Map<String, Object> parameters) {
+        BigDecimal area = requireDecimal(parameters, "area_to_paint", 2, new BigDecimal("0.01"));
+        int coats = requireInt(parameters, "number_of_coats", 1, 10);
+        BigDecimal coverage = requireDecimal(parameters, "coverage_per_liter", 2, new BigDecimal("0.1"));
+        String paintType = requireText(parameters, "paint_type");
+
+        BigDecimal totalArea = area.multiply(BigDecimal.valueOf(coats), PYTHON_DECIMAL);
+        BigDecimal litersNeeded = totalArea.divide(coverage, PYTHON_DECIMAL);
+        BigDecimal litersWithWaste = litersNeeded.multiply(BigDecimal.ONE.add(PAINT_WASTE_FACTOR), PYTHON_DECIMAL);
+        BigDecimal gallonsNeeded = litersWithWaste.divide(LITERS_PER_GALLON, PYTHON_DECIMAL);
+
+        Map<String, Object> detailed = new LinkedHashMap<>();
+        detailed.put("total_area", totalArea.doubleValue());
+        detailed.put("base_liters_needed", litersNeeded.doubleValue());
+        detailed.put("waste_factor_applied", PAINT_WASTE_FACTOR.doubleValue());
+        detailed.put("gallons_equivalent", gallonsNeeded.doubleValue());
+
+        Map<String, Object> specific = new LinkedHashMap<>();
+        specific.put("area_to_paint", area.doubleValue());
+        specific.put("number_of_coats", coats);
+        specific.put("paint_type", paintType);
+        specific.put("coverage_per_liter", coverage.doubleValue());
+        specific.put("gallons_needed", gallonsNeeded.doubleValue());
+
+        return buildResponse("paint", litersWithWaste.doubleValue(), "litros", detailed, specific);
+    }
+
+    /**
+     * Gypsum: planchas de 1.22x2.44 con 10% de desperdicio y metros lineales de perfil
+     */
+    static CalculationResponse calculateGypsum(Map<String, Object> parameters) {
+        double area = requireDecimal(parameters, "area_to_cover", 2, new BigDecimal("0.01")).doubleValue();
+        double thickness = requireDecimal(parameters, "thickness", 1, new BigDecimal("1.0")).doubleValue();
+        String gypsumType = requireText(parameters, "gypsum_type");
+
+        double sheetsBase = area / GYPSUM_SHEET_AREA;
+        int sheetsNeeded = (int) Math.ceil(sheetsBase * (1 + GYPSUM_WASTE_FACTOR));
+
+        double perimeterEstimate = 2 * Math.sqrt(area);
+        double internalReinforcement = area * 0.5;
+        double linearMetersProfile = perimeterEstimate + internalReinforcement;
+
+        Map<String, Object> detailed = new LinkedHashMap<>();
+        detailed.put("sheet_area", GYPSUM_SHEET_AREA);
+        detailed.put("sheets_base", sheetsBase);
+        detailed.put("waste_factor_applied", GYPSUM_WASTE_FACTOR);
+        detailed.put("linear_meters_profile", linearMetersProfile);
+
+        Map<String, Object> specific = new LinkedHashMap<>();
+        specific.put("area_to_cover", area);
+        specific.put("thickness", thickness);
+        specific.put("gypsum_type", gypsumType);
+        specific.put("linear_meters_profile", linearMetersProfile);
+
+        return buildResponse("gypsum", sheetsNeeded, "planchas", detailed, specific);
+    }
+
+    /**
+     * Empaste: 0.5 kg por m² por capa, 5% de desperdicio, sacos de 25 kg
+     */
+    static CalculationResponse calculateEmpaste(Map<String, Object> parameters) {
+        double area = requireDecimal(parameters, "area_to_cover", 2, new BigDecimal("0.01")).doubleValue();
+        String empasteType = requireText(parameters, "empaste_type");
+        // El formulario envía "number_of_coats"; el backend espera "number_of_layers"
+        String layersKey = parameters.containsKey("number_of_layers") ? "number_of_layers" : "number_of_coats";
+        int layers = requireInt(parameters, layersKey, 1, 10);
+
+        double totalKgNeeded = area * layers * EMPASTE_KG_PER_SQM_PER_LAYER;
+        double totalKgWithWaste = totalKgNeeded * (1 + EMPASTE_WASTE_FACTOR);
+        int sacksNeeded = (int) Math.ceil(totalKgWithWaste / EMPASTE_KG_PER_SACK);
+
+        Map<String, Object> detailed = new LinkedHashMap<>();
+        detailed.put("total_kg_needed", totalKgNeeded);
+        detailed.put("waste_factor_applied", EMPASTE_WASTE_FACTOR);
+        detailed.put("total_kg_with_waste", totalKgWithWaste);
+        detailed.put("kg_per_sack", EMPASTE_KG_PER_SACK);
+
+        Map<String, Object> specific = new LinkedHashMap<>();
+        specific.put("area_to_cover", area);
+        specific.put("empaste_type", empasteType);
+        specific.put("number_of_layers", layers);
+        specific.put("total_kg", totalKgWithWaste);
+
+        return buildResponse("empaste", sacksNeeded, "sacos", detailed, specific);
+    }
+
+    /**
+     * Cintas LED: potencia total, rollos y drivers de 60W cargados al 80%
+     */
+    static CalculationResponse calculateLedStrip(Map<String, Object> parameters) {
+        double length = requireDecimal(parameters, "total_length", 2, new BigDecimal("0.01")).doubleValue();
+        double powerPerMeter = requireDecimal(parameters, "power_per_meter", 2, new BigDecimal("0.1")).doubleValue();
+        double metersPerRoll = optionalDecimal(parameters, "meters_per_roll", 2,
+                new BigDecimal("0.1"), LED_DEFAULT_METERS_PER_ROLL);
+        String voltage = requireText(parameters, "voltage");
+        String stripType = requireText(parameters, "strip_type");
+
+        double totalPower = length * powerPerMeter;
+        int rollsNeeded = (int) Math.ceil(length / metersPerRoll);
+        int driversNeeded = (int) Math.ceil(totalPower / LED_WATTS_PER_DRIVER);
+        int driversWithSafety = (int) Math.ceil(totalPower / (LED_WATTS_PER_DRIVER * LED_DRIVER_SAFETY_FACTOR));
+
+        Map<String, Object> detailed = new LinkedHashMap<>();
+        detailed.put("total_power", totalPower);
+        detailed.put("rolls_needed", rollsNeeded);
+        detailed.put("drivers_basic", driversNeeded);
+        detailed.put("drivers_with_safety", driversWithSafety);
+        detailed.put("safety_factor_applied", LED_DRIVER_SAFETY_FACTOR);
+
+        Map<String, Object> specific = new LinkedHashMap<>();
+        specific.put("total_length", length);
+        specific.put("power_per_meter", powerPerMeter);
+        specific.put("voltage", voltage);
+        specific.put("strip_type", stripType);
+        specific.put("total_power", totalPower);
+        specific.put("drivers_needed", driversWithSafety);
+        specific.put("rolls_needed", rollsNeeded);
+        specific.put("meters_per_roll", metersPerRoll);
+
+        return buildResponse("led_strip", length, "metros", detailed, specific);
+    }
+
+    /**
+     * Cables: longitud + 10% de seguridad, rollos de 100 m por defecto
+     */
+    static CalculationResponse calculateCable(Map<String, Object> parameters) {
+        double length = requireDecimal(parameters, "total_length", 2, new BigDecimal("0.01")).doubleValue();
+        double metersPerRoll = optionalDecimal(parameters, "meters_per_roll", 2,
+                new BigDecimal("1.0"), CABLE_DEFAULT_METERS_PER_ROLL);
+        String wireGauge = requireText(parameters, "wire_gauge");
+        String cableType = requireText(parameters, "cable_type");
+        String installationType = requireText(parameters, "installation_type");
+
+        double lengthWithSafety = length * (1 + CABLE_SAFETY_FACTOR);
+        int rollsNeeded = (int) Math.ceil(lengthWithSafety / metersPerRoll);
+
+        Map<String, Object> detailed = new LinkedHashMap<>();
+        detailed.put("base_length", length);
+        detailed.put("safety_factor_applied", CABLE_SAFETY_FACTOR);
+        detailed.put("rolls_needed", rollsNeeded);
+        detailed.put("total_meters_purchased", rollsNeeded * metersPerRoll);
+
+        Map<String, Object> specific = new LinkedHashMap<>();
+        specific.put("total_length", lengthWithSafety);
+        specific.put("wire_gauge", wireGauge);
+        specific.put("cable_type", cableType);
+        specific.put("installation_type", installationType);
+        specific.put("rolls_needed", rollsNeeded);
+        specific.put("meters_per_roll", metersPerRoll);
+
+        return buildResponse("cable", lengthWithSafety, "metros", detailed, specific);
+    }
+
+    /**
+     * Perfiles: longitud + 10% de desperdicio en barras de 2 m, accesorios según el kit
+     */
+    static CalculationResponse calculateProfiles(Map<String, Object> parameters) {
+        // El backend no valida este request: Decimal(str(valor)) sobre el valor recibido
+        BigDecimal totalLength = toDecimal(parameters.get("total_length"), "total_length");
+        String profileType = requireText(parameters, "profile_type");
+        String profileSize = requireText(parameters, "profile_size");
+        String finishType = requireText(parameters, "finish_type");
+        Object accessoriesValue = parameters.get("accessories_needed");
+        String accessoriesNeeded = accessoriesValue != null ? accessoriesValue.toString() : "Básicos";
+
+        BigDecimal lengthWithWaste = totalLength.multiply(BigDecimal.ONE.add(PROFILE_WASTE_FACTOR), PYTHON_DECIMAL);
+        int profilesNeeded = lengthWithWaste.divide(PROFILE_STANDARD_LENGTH, PYTHON_DECIMAL)
+                .setScale(0, RoundingMode.CEILING).intValueExact();
+        int accessoriesCount = "Completos".equals(accessoriesNeeded)
+                ? profilesNeeded
+                : (int) Math.ceil(profilesNeeded / 2.0);
+
+        Map<String, Object> detailed = new LinkedHashMap<>();
+        detailed.put("base_length", totalLength.doubleValue());
+        detailed.put("waste_factor_applied", PROFILE_WASTE_FACTOR.doubleValue());
+        detailed.put("profiles_needed", profilesNeeded);
+        detailed.put("standard_length", PROFILE_STANDARD_LENGTH.doubleValue());
+        detailed.put("accessories_count", accessoriesCount);
+
+        Map<String, Object> specific = new LinkedHashMap<>();
+        specific.put("total_length", lengthWithWaste.doubleValue());
+        specific.put("profile_type", profileType);
+        specific.put("profile_size", profileSize);
+        specific.put("finish_type", finishType);
+        specific.put("profiles_needed", profilesNeeded);
+        specific.put("accessories_count", accessoriesCount);
+
+        return buildResponse("profiles", lengthWithWaste.doubleValue(), "metros", detailed, specific);
+    }
+
+    // ==========================================
+    // UTILIDADES
+    // ==========================================
+
+    private static CalculationResponse buildResponse(String type, double quantity, String unit,
+                                                     Map<String, Object> detailed,
+                                                     Map<String, Object> specific) {
+        CalculationResponse response = new CalculationResponse();
+        response.setCalculationType(type);
+        response.setCalculatedQuantity(quantity);
+        response.setUnit(unit);
+        // Sin material seleccionado el backend tampoco calcula costo
+        response.setEstimatedCost(null);
+        response.setDetailedResults(detailed);
+        response.setSpecificDetails(specific);
+        // Las sugerencias de materiales llegan cuando el servidor guarda el cálculo
+        response.setMaterialSuggestions(new ArrayList<>());
+        return response;
+    }
+
+    /**
+     * Validación equivalente a DecimalField de DRF (decimales máximos y valor mínimo)
+     */
+    private static BigDecimal requireDecimal(Map<String, Object> parameters, String key,
+                                             int decimalPlaces, BigDecimal minValue) {
+        BigDecimal value = toDecimal(parameters.get(key), key);
+        if (value.stripTrailingZeros().scale() > decimalPlaces) {
+            throw new IllegalArgumentException(key + ": máximo " + decimalPlaces + " decimales");
+        }
+        if (value.compareTo(minValue) < 0) {
+            throw new IllegalArgumentException(key + ": debe ser mayor o igual a " + minValue.toPlainString());
+        }
+        return value;
+    }
+
+    private static double optionalDecimal(Map<String, Object> parameters, String key, int decimalPlaces,
+                                          BigDecimal minValue, double defaultValue) {
+        if (parameters.get(key) == null) {
+            return defaultValue;
+        }
+        return requireDecimal(parameters, key, decimalPlaces, minValue).doubleValue();
+    }
+
+    private static int requireInt(Map<String, Object> parameters, String key, int minValue, int maxValue) {
+        BigDecimal value = toDecimal(parameters.get(key), key);
+        int intValue;
+        try {
+            intValue = value.intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(key + ": debe ser un número entero");
+        }
+        if (intValue < minValue || intValue > maxValue) {
+            throw new IllegalArgumentException(key + ": debe estar entre " + minValue + " y " + maxValue);
+        }
+        return intValue;
+    }
+
+    private static String requireText(Map<String, Object> parameters, String key) {
+        Object value = parameters.get(key);
+        if (value == null || value.toString().trim().isEmpty()) {
+            throw new IllegalArgumentException(key + ": campo obligatorio");
+        }
+        return value.toString();
+    }
+
+    private static BigDecimal toDecimal(Object value, String key) {
+        if (value == null) {
+            throw new IllegalArgumentException(key + ": campo obligatorio");
+        }
+        try {
+            if (value instanceof Integer || value instanceof Long) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            }
+            if (value instanceof Number) {
+                // Igual que str(float) en Python: representación decimal más corta
+                return new BigDecimal(Double.toString(((Number) value).doubleValue()));
+            }
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + ": número inválido");
+        }
+    }
+}
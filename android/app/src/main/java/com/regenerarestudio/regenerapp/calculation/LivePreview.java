@@ -0,0 +1,99 @@
+package com.regenerarestudio.regenerapp.calculation;
+
+import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Vista previa del cálculo mientras se escribe (nunca se guarda en el servidor)
+ * Espera DEBOUNCE_MS tras la última tecla y calcula con {@link CalculationEngine} fuera del hilo
+ * principal. Cada pedido invalida los anteriores: un cálculo que termina después de una tecla más
+ * reciente se descarta. Con parámetros incompletos se entrega null en lugar de un error.
+ *
+ * Java puro: el hilo principal y los ejecutores los pone quien la usa (CalculadoraViewModel).
+ */
+public final class LivePreview {
+
+    // Espera tras la última tecla antes de recalcular
+    public static final long DEBOUNCE_MS = 120;
+
+    /**
+     * Recibe la vista previa en el hilo principal (null = sin vista previa)
+     */
+    public interface Listener {
+        void onPreview(CalculationResponse preview);
+    }
+
+    /**
+     * Tareas diferidas en el hilo principal (en la app, un Handler del Looper principal)
+     */
+    public interface Scheduler {
+        void postDelayed(Runnable task, long delayMs);
+
+        void removeCallbacks(Runnable task);
+    }
+
+    private final Scheduler mainThread;
+    private final Executor background;
+    private final Executor deliver;
+    private final Listener listener;
+
+    private volatile int generation;
+    private Runnable scheduled;
+
+    /**
+     * @param mainThread debounce en el hilo principal
+     * @param background donde corre el cálculo
+     * @param deliver    hilo principal, para entregar el resultado
+     */
+    public LivePreview(Scheduler mainThread, Executor background, Executor deliver, Listener listener) {
+        this.mainThread = mainThread;
+        this.background = background;
+        this.deliver = deliver;
+        this.listener = listener;
+    }
+
+    /**
+     * Pedir una vista previa con los valores actuales del formulario (llamar desde el hilo principal)
+     */
+    public void request(String calculationTypeCode, Map<String, Object> parameters) {
+        final int requested = ++generation;
+        final Map<String, Object> snapshot = new HashMap<>(parameters);
+
+        if (scheduled != null) {
+            mainThread.removeCallbacks(scheduled);
+        }
+
+        scheduled = () -> background.execute(() -> {
+            if (requested != generation) return;
+
+            CalculationResponse preview;
+            try {
+                preview = CalculationEngine.calculate(calculationTypeCode, snapshot);
+            } catch (IllegalArgumentException e) {
+                preview = null;
+            }
+
+            final CalculationResponse result = preview;
+            deliver.execute(() -> {
+                if (requested == generation) {
+                    listener.onPreview(result);
+                }
+            });
+        });
+        mainThread.postDelayed(scheduled, DEBOUNCE_MS);
+    }
+
+    /**
+     * Descartar la vista previa pendiente (la ya entregada la limpia quien la muestra)
+     */
+    public void cancel() {
+        generation++;
+        if (scheduled != null) {
+            mainThread.removeCallbacks(scheduled);
+            scheduled = null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.regenerarestudio.regenerapp.calculation;
+
+import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado del modo multi-espacio: un cálculo por espacio con los mismos parámetros comunes
+ * (tipo de pintura, capas, etc.) y una medida distinta por espacio.
+ */
+public class MultiRoomCalculation {
+
+    /**
+     * Espacio ingresado por el usuario con su medida (m² o metros según la calculadora)
+     */
+    public static class Room {
+        private final String space;
+        private final double measure;
+
+        public Room(String space, double measure) {
+            this.space = space;
+            this.measure = measure;
+        }
+
+        public String getSpace() { return space; }
+        public double getMeasure() { return measure; }
+    }
+
+    private final String calculationType;
+    private final List<Room> rooms;
+    private final List<CalculationResponse> results;
+    private final List<Map<String, Object>> roomParameters;
+
+    MultiRoomCalculation(String calculationType, List<Room> rooms,
+                         List<CalculationResponse> results, List<Map<String, Object>> roomParameters) {
+        this.calculationType = calculationType;
+        this.rooms = Collections.unmodifiableList(new ArrayList<>(rooms));
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+        this.roomParameters = Collections.unmodifiableList(new ArrayList<>(roomParameters));
+    }
+
+    public String getCalculationType() { return calculationType; }
+    public List<Room> getRooms() { return rooms; }
+    public List<CalculationResponse> getResults() { return results; }
+
+    public int getRoomCount() {
+        return results.size();
+    }
+
+    public String getUnit() {
+        return results.isEmpty() ? "" : results.get(0).getUnit();
+    }
+
+    /**
+     * Suma de cantidades de todos los espacios
+     */
+    public double getTotalQuantity() {
+        double total = 0;
+        for (CalculationResponse result : results) {
+            total += result.getCalculatedQuantity();
+        }
+        return total;
+    }
+
+    public String getFormattedTotalQuantity() {
+        return String.format("%.2f %s", getTotalQuantity(), getUnit());
+    }
+
+    /**
+     * Cuerpo para POST /calculations/calculate/batch/ (resultados ya calculados localmente)
+     */
+    public Map<String, Object> toBatchRequest(long projectId, boolean addToBudget,
+                                              Double unitPrice, Long supplierId, String notes) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            CalculationResponse result = results.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("space", rooms.get(i).getSpace());
+            item.put("input_data", roomParameters.get(i));
+            item.put("calculated_quantity", result.getCalculatedQuantity());
+            item.put("unit", result.getUnit());
+            item.put("estimated_cost", result.getEstimatedCost());
+            item.put("detailed_results", result.getDetailedResults());
+            items.add(item);
+        }
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("project_id", projectId);
+        request.put("calculation_type", calculationType);
+        request.put("add_to_budget", addToBudget);
+        request.put("items", items);
+        if (unitPrice != null) {
+            request.put("unit_price", Math.round(unitPrice * 100.0) / 100.0);
+        }
+        if (supplierId != null) {
+            request.put("supplier_id", supplierId);
+        }
+        if (notes != null && !notes.trim().isEmpty()) {
+            request.put("notes", notes);
+        }
+        return request;
+    }
+}
@@ -6,16 +6,29 @@ import android.util.Log;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 /**
  * Cliente de APIs con configuración de Retrofit para consumir backend Django
- * Maneja la configuración de red, timeouts, logs y conversión JSON
+ * Maneja la configuración de red, timeouts, telemetría y conversión JSON
  */
 public class ApiClient {
 
@@ -31,10 +44,48 @@ public class ApiClient {
     private static final int READ_TIMEOUT = 30;
     private static final int WRITE_TIMEOUT = 30;
 
+    // Pool de conexiones compartido por todos los clientes (sobrevive a resetClient/setBaseUrl)
+    // Keep-alive por debajo del timeout de inactividad del balanceador de Azure (~4 min),
+    // así no se reutilizan conexiones que el servidor ya cerró
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final int KEEP_ALIVE_MINUTES = 3;
+    private static final ConnectionPool CONNECTION_POOL =
+            new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+
+    // Con HTTP/2 las peticiones en paralelo comparten una conexión; se permite más concurrencia por host
+    private static final int MAX_REQUESTS_PER_HOST = 10;
+
+    // Endpoint liviano para precalentar la conexión (HEAD /api/ping/ -> 204)
+    private static final String PREWARM_PATH = "ping/";
+
+    private static OkHttpClient httpClient = null;
     private static Retrofit retrofit = null;
     private static ApiService apiService = null;
+    private static Gson gson = null;
+    private static Context appContext = null;
+    private static Cache httpCache = null;
     private static String currentBaseUrl = BASE_URL_LOCAL; // Por defecto usar local
 
+    /**
+     * Inicializar con el contexto de aplicación para habilitar la caché HTTP en disco
+     * Si Retrofit ya fue creado sin caché, se recrea para incluirla
+     */
+    public static synchronized void init(Context context) {
+        if (appContext != null) {
+            return;
+        }
+        appContext = context.getApplicationContext();
+        httpCache = new Cache(new File(appContext.getCacheDir(), CachePolicy.CACHE_DIRECTORY),
+                CachePolicy.CACHE_SIZE_BYTES);
+        Log.i(TAG, "Caché HTTP inicializada en: " + httpCache.directory().getAbsolutePath());
+
+        // El cliente se recrea con la caché; el pool de conexiones se conserva
+        httpClient = null;
+        if (retrofit != null) {
+            resetClient();
+        }
+    }
+
     /**
      * Obtener instancia única de Retrofit (Singleton)
      */
@@ -65,45 +116,107 @@ public class ApiClient {
      * Crear instancia de Retrofit con todas las configuraciones
      */
     private static Retrofit createRetrofit() {
-        // Configurar logging para desarrollo
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(
-                message -> Log.d(TAG, "HTTP: " + message)
-        );
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+        return new Retrofit.Builder()
+                .baseUrl(currentBaseUrl)
+                .client(getHttpClient())
+                // MessagePack primero: solo toma los endpoints anotados, el resto va a Gson
+                .addConverterFactory(MessagePackConverterFactory.create(getGson()))
+                .addConverterFactory(GsonConverterFactory.create(getGson()))
+                .build();
+    }
 
+    /**
+     * Cliente OkHttp compartido (no depende de la URL base, así cambiar de URL no abre conexiones nuevas)
+     */
+    static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            httpClient = createHttpClient();
+        }
+        return httpClient;
+    }
+
+    private static OkHttpClient createHttpClient() {
         // Configurar cliente OkHttp
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
         OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder()
                 .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
                 .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
                 .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(true);
+                .retryOnConnectionFailure(true)
+                .connectionPool(CONNECTION_POOL)
+                .dispatcher(dispatcher)
+                // HTTP/2 por ALPN en HTTPS (producción); los servidores locales http:// usan HTTP/1.1
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
 
-        // Agregar interceptor de logging solo en modo desarrollo
-        try {
-            // Intentar acceder a BuildConfig generado por Android
-            Class<?> buildConfigClass = Class.forName("com.regenerarestudio.regenerapp.BuildConfig");
-            boolean isDebug = buildConfigClass.getField("DEBUG").getBoolean(null);
-            if (isDebug) {
-                httpClientBuilder.addInterceptor(loggingInterceptor);
-            }
-        } catch (Exception e) {
-            // Si no se puede acceder a BuildConfig, agregar el interceptor por defecto
-            httpClientBuilder.addInterceptor(loggingInterceptor);
+        // Caché HTTP en disco con revalidación condicional (ETag / Last-Modified -> 304)
+        if (httpCache != null) {
+            httpClientBuilder
+                    .cache(httpCache)
+                    .addInterceptor(new CachePolicy.OfflineCacheInterceptor(appContext))
+                    .addNetworkInterceptor(new CachePolicy.NetworkCacheInterceptor());
         }
 
-        // Configurar Gson para manejar fechas y nulls
-        Gson gson = new GsonBuilder()
-                .setLenient() // Ser más flexible con JSON malformado
-                .setDateFormat("yyyy-MM-dd HH:mm:ss") // Formato de fechas Django
-                .serializeNulls() // Incluir campos null en JSON
-                .create();
+        // Compresión gzip: cuerpos de petición grandes y métricas de tamaño en red por endpoint
+        httpClientBuilder
+                .addInterceptor(new CompressionPolicy.GzipRequestInterceptor())
+                .addNetworkInterceptor(new CompressionPolicy.ResponseStatsInterceptor());
 
-        // Crear instancia de Retrofit
-        return new Retrofit.Builder()
-                .baseUrl(currentBaseUrl)
-                .client(httpClientBuilder.build())
-                .addConverterFactory(GsonConverterFactory.create(gson))
+        // Accept: application/msgpack en los endpoints marcados con @MessagePack
+        httpClientBuilder.addInterceptor(new MessagePackConverterFactory.AcceptInterceptor());
+
+        // Telemetría de red por endpoint (tiempos, tamaños, códigos y reintentos; sin leer cuerpos)
+        httpClientBuilder.eventListenerFactory(NetworkTelemetry.getInstance().eventListenerFactory());
+
+        return httpClientBuilder.build();
+    }
+
+    /**
+     * Precalentar la conexión con el servidor configurado (DNS + TCP + TLS)
+     * Se envía un HEAD liviano en segundo plano; la conexión queda en el pool y la
+     * primera llamada real (getProjects) ya no paga el establecimiento.
+     */
+    public static void prewarmConnection() {
+        HttpUrl url = HttpUrl.parse(currentBaseUrl + PREWARM_PATH);
+        if (url == null) {
+            return;
+        }
+
+        Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .tag(String.class, NetworkTelemetry.PREWARM_ENDPOINT)
                 .build();
+
+        Log.d(TAG, "Precalentando conexión con " + url.host());
+        getHttpClient().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.d(TAG, "No se pudo precalentar la conexión: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Obtener instancia única de Gson
+     * Compartida con la caché local para que el JSON guardado en disco use la misma configuración
+     */
+    public static synchronized Gson getGson() {
+        if (gson == null) {
+            // Configurar Gson para manejar fechas y nulls
+            gson = new GsonBuilder()
+                    .setLenient() // Ser más flexible con JSON malformado
+                    .setDateFormat("yyyy-MM-dd HH:mm:ss") // Formato de fechas Django
+                    .serializeNulls() // Incluir campos null en JSON
+                    .create();
+        }
+        return gson;
     }
 
     /**
@@ -111,6 +224,10 @@ public class ApiClient {
      */
     public static void setBaseUrl(String baseUrl) {
         if (!baseUrl.equals(currentBaseUrl)) {
+            // Mismo host: se conservan las conexiones abiertas; otro host: ya no sirven
+            if (!hostOf(baseUrl).equals(hostOf(currentBaseUrl))) {
+                CONNECTION_POOL.evictAll();
+            }
             currentBaseUrl = baseUrl;
             // FORZAR recreación inmediata
             retrofit = null;
@@ -123,6 +240,11 @@ public class ApiClient {
         }
     }
 
+    private static String hostOf(String baseUrl) {
+        HttpUrl url = HttpUrl.parse(baseUrl);
+        return url != null ? url.host() + ":" + url.port() : baseUrl;
+    }
+
     /**
      * Configurar para desarrollo local (emulador)
      */
@@ -159,6 +281,19 @@ public class ApiClient {
         return currentBaseUrl.contains("10.0.2.2") || currentBaseUrl.contains("192.168.") || currentBaseUrl.contains("localhost");
     }
 
+    /**
+     * Estadísticas de la caché HTTP para debug (aciertos, revalidaciones 304, peticiones a red)
+     */
+    public static void logCacheStats() {
+        if (httpCache == null) {
+            Log.d(TAG, "Caché HTTP: No inicializada");
+            return;
+        }
+        Log.d(TAG, "Caché HTTP - peticiones: " + httpCache.requestCount() +
+                ", red: " + httpCache.networkCount() +
+                ", aciertos: " + httpCache.hitCount());
+    }
+
     /**
      * Reiniciar cliente de APIs (útil para testing o cambios de configuración)
      */
@@ -183,6 +318,13 @@ public class ApiClient {
 
         Log.d(TAG, "ApiService: " + (apiService != null ? "Inicializado" : "No inicializado"));
         Log.d(TAG, "¿Servidor local?: " + isUsingLocalServer());
+        logCacheStats();
+        Log.d(TAG, "Conexiones - abiertas: " + CONNECTION_POOL.connectionCount() +
+                ", inactivas: " + CONNECTION_POOL.idleConnectionCount());
+        RequestCoalescer.getInstance().logStats();
+        MessagePackConverterFactory.logStats();
+        CompressionPolicy.logStats();
+        NetworkTelemetry.getInstance().logSummary();
         Log.d(TAG, "=== FIN DEBUG ===");
     }
 
@@ -190,6 +332,8 @@ public class ApiClient {
      * Configurar automáticamente la URL según el contexto
      */
     public static void configureForEnvironment(Context context, boolean isEmulator) {
+        init(context);
+
         try {
             // Intentar acceder a BuildConfig para determinar si es DEBUG
             Class<?> buildConfigClass = Class.forName("com.regenerarestudio.regenerapp.BuildConfig");
@@ -217,5 +361,8 @@ public class ApiClient {
                 Log.i(TAG, "Configurado para dispositivo físico (por defecto) - URL: " + BASE_URL_DEVICE);
             }
         }
+
+        // Abrir la conexión con el servidor elegido antes de la primera llamada
+        prewarmConnection();
     }
 }
\ No newline at end of file
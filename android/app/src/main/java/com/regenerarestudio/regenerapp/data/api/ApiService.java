@@ -1,12 +1,17 @@
 package com.regenerarestudio.regenerapp.data.api;
 
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
 import com.regenerarestudio.regenerapp.data.models.Material;
 import com.regenerarestudio.regenerapp.data.models.Project;
 import com.regenerarestudio.regenerapp.data.models.Supplier;
 import com.regenerarestudio.regenerapp.data.responses.ApiResponse;
+import com.regenerarestudio.regenerapp.data.responses.BulkWriteResponse;
 import com.regenerarestudio.regenerapp.data.responses.DashboardResponse;
 import com.regenerarestudio.regenerapp.data.responses.PaginatedResponse;
 import com.regenerarestudio.regenerapp.data.responses.ProjectSelectionResponse;
+import com.regenerarestudio.regenerapp.data.responses.SupplierPriceMatrixResponse;
+import com.regenerarestudio.regenerapp.data.responses.SyncDeltaResponse;
 
 import java.util.List;
 import java.util.Map;
@@ -15,6 +20,7 @@ import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
@@ -42,7 +48,9 @@ public interface ApiService {
             @Query("status") String status,
             @Query("start_date") String startDate,
             @Query("end_date") String endDate,
-            @Query("only_selected") Boolean onlySelected
+            @Query("only_selected") Boolean onlySelected,
+            @Query("page") Integer page,
+            @Query("page_size") Integer pageSize
     );
 
     /**
@@ -74,6 +82,13 @@ public interface ApiService {
     @GET("projects/projects/{id}/dashboard/")
     Call<DashboardResponse> getDashboardTyped(@Path("id") Long projectId);
 
+    /**
+     * Recalcular resumen financiero y devolver el dashboard en una sola llamada
+     * POST /api/projects/projects/{id}/refresh_dashboard/
+     */
+    @POST("projects/projects/{id}/refresh_dashboard/")
+    Call<DashboardResponse> refreshDashboard(@Path("id") Long projectId);
+
     /**
      * Crear un nuevo proyecto
      * POST /api/projects/projects/
@@ -98,7 +113,9 @@ public interface ApiService {
      */
     @GET("materials/categories/")
     Call<PaginatedResponse<Material.MaterialCategory>> getMaterialCategories(
-            @Query("category_type") String categoryType
+            @Query("category_type") String categoryType,
+            @Query("page") Integer page,
+            @Query("page_size") Integer pageSize
     );
 
     /**
@@ -110,7 +127,20 @@ public interface ApiService {
             @Query("search") String search,
             @Query("category") Long categoryId,
             @Query("unit") String unit,
-            @Query("category_type") String categoryType
+            @Query("category_type") String categoryType,
+            @Query("page") Integer page,
+            @Query("page_size") Integer pageSize
+    );
+
+    /**
+     * Sincronización incremental del catálogo activo (para la búsqueda sin conexión)
+     * GET /api/materials/materials/catalog/?since={token}
+     * Sin token devuelve el catálogo completo (full = true)
+     */
+    @GET("materials/materials/catalog/")
+    @MessagePack
+    Call<SyncDeltaResponse<Material>> syncMaterialCatalog(
+            @Query("since") String sinceToken
     );
 
     /**
@@ -148,12 +178,15 @@ public interface ApiService {
      * GET /api/suppliers/suppliers/
      */
     @GET("suppliers/suppliers/")
+    @MessagePack
     Call<PaginatedResponse<Supplier>> getSuppliers(
             @Query("search") String search,
             @Query("supplier_type") String supplierType,
             @Query("city") String city,
             @Query("is_preferred") Boolean isPreferred,
-            @Query("is_active") Boolean isActive
+            @Query("is_active") Boolean isActive,
+            @Query("page") Integer page,
+            @Query("page_size") Integer pageSize
     );
 
     /**
@@ -177,31 +210,69 @@ public interface ApiService {
      * GET /api/suppliers/prices/
      */
     @GET("suppliers/prices/")
+    @MessagePack
     Call<PaginatedResponse<Map<String, Object>>> getSupplierPrices(
             @Query("supplier") Long supplierId,
             @Query("material") Long materialId
     );
 
+    /**
+     * Matriz completa de precios vigentes (material × proveedor, formato columnar)
+     * GET /api/suppliers/prices/matrix/
+     */
+    @GET("suppliers/prices/matrix/")
+    @MessagePack
+    Call<SupplierPriceMatrixResponse> getSupplierPriceMatrix();
+
 // ==========================================
 // PRESUPUESTOS - Budgets APIs - URLS CORREGIDAS CON PAGINATEDRESPONSE
 // ==========================================
 
     /**
-     * Obtener presupuesto inicial de un proyecto - CORREGIDO PARA USAR PAGINATEDRESPONSE
-     * GET /api/budgets/budget-items/?project={projectId}
+     * Obtener presupuesto inicial de un proyecto (una página)
+     * GET /api/budgets/budget-items/?project={projectId}&page={page}&page_size={pageSize}
      */
     @GET("budgets/budget-items/")
-    Call<PaginatedResponse<Map<String, Object>>> getInitialBudget(
-            @Query("project") Long projectId
+    @MessagePack
+    Call<PaginatedResponse<BudgetItem>> getInitialBudget(
+            @Query("project") Long projectId,
+            @Query("page") Integer page,
+            @Query("page_size") Integer pageSize
     );
 
     /**
-     * Obtener gastos reales de un proyecto - CORREGIDO PARA USAR PAGINATEDRESPONSE
-     * GET /api/budgets/real-expenses/?project={projectId}
+     * Obtener gastos reales de un proyecto (una página)
+     * GET /api/budgets/real-expenses/?project={projectId}&page={page}&page_size={pageSize}
      */
     @GET("budgets/real-expenses/")
-    Call<PaginatedResponse<Map<String, Object>>> getExpenses(
-            @Query("project") Long projectId
+    @MessagePack
+    Call<PaginatedResponse<ExpenseItem>> getExpenses(
+            @Query("project") Long projectId,
+            @Query("page") Integer page,
+            @Query("page_size") Integer pageSize
+    );
+
+    /**
+     * Sincronización incremental del presupuesto inicial (filas cambiadas + eliminadas)
+     * GET /api/budgets/budget-items/sync/?project={projectId}&since={token}
+     * Sin token devuelve la lista completa (full = true)
+     */
+    @GET("budgets/budget-items/sync/")
+    @MessagePack
+    Call<SyncDeltaResponse<BudgetItem>> syncInitialBudget(
+            @Query("project") Long projectId,
+            @Query("since") String sinceToken
+    );
+
+    /**
+     * Sincronización incremental de gastos reales
+     * GET /api/budgets/real-expenses/sync/?project={projectId}&since={token}
+     */
+    @GET("budgets/real-expenses/sync/")
+    @MessagePack
+    Call<SyncDeltaResponse<ExpenseItem>> syncExpenses(
+            @Query("project") Long projectId,
+            @Query("since") String sinceToken
     );
 
     /**
@@ -222,53 +293,88 @@ public interface ApiService {
             @Query("project") Long projectId
     );
 
+    // ==========================================
+    // ESCRITURAS DESDE LA COLA OFFLINE (Idempotency-Key / If-Match)
+    // ==========================================
+
     /**
-     * Agregar item al presupuesto inicial
+     * Crear item del presupuesto; un reintento con la misma clave devuelve el item ya creado
      * POST /api/budgets/budget-items/
      */
     @POST("budgets/budget-items/")
-    Call<Map<String, Object>> addToBudget(@Body Map<String, Object> budgetItem);
-
-    /**
-     * Agregar gasto real
-     * POST /api/budgets/real-expenses/
-     */
-    @POST("budgets/real-expenses/")
-    Call<Map<String, Object>> addExpense(@Body Map<String, Object> expense);
+    Call<BudgetItem> addToBudget(
+            @Body Map<String, Object> budgetItem,
+            @Header("Idempotency-Key") String idempotencyKey
+    );
 
     /**
-     * Actualizar item del presupuesto inicial
+     * Actualizar item del presupuesto; 409 si cambió desde baseVersion (updated_at)
      * PUT /api/budgets/budget-items/{id}/
      */
     @PUT("budgets/budget-items/{id}/")
-    Call<Map<String, Object>> updateBudgetItem(
+    Call<BudgetItem> updateBudgetItem(
             @Path("id") Long budgetItemId,
-            @Body Map<String, Object> budgetItem
+            @Body Map<String, Object> budgetItem,
+            @Header("Idempotency-Key") String idempotencyKey,
+            @Header("If-Match") String baseVersion
     );
 
     /**
-     * Eliminar item del presupuesto inicial
+     * Eliminar item del presupuesto; un reintento responde 204 aunque ya no exista
      * DELETE /api/budgets/budget-items/{id}/
      */
     @DELETE("budgets/budget-items/{id}/")
-    Call<Void> deleteBudgetItem(@Path("id") Long budgetItemId);
+    Call<Void> deleteBudgetItem(
+            @Path("id") Long budgetItemId,
+            @Header("Idempotency-Key") String idempotencyKey
+    );
 
     /**
-     * Actualizar gasto real
+     * Crear gasto real; un reintento con la misma clave devuelve el gasto ya creado
+     * POST /api/budgets/real-expenses/
+     */
+    @POST("budgets/real-expenses/")
+    Call<ExpenseItem> addExpense(
+            @Body Map<String, Object> expense,
+            @Header("Idempotency-Key") String idempotencyKey
+    );
+
+    /**
+     * Actualizar gasto real; 409 si cambió desde baseVersion (updated_at)
      * PUT /api/budgets/real-expenses/{id}/
      */
     @PUT("budgets/real-expenses/{id}/")
-    Call<Map<String, Object>> updateExpense(
+    Call<ExpenseItem> updateExpense(
             @Path("id") Long expenseId,
-            @Body Map<String, Object> expense
+            @Body Map<String, Object> expense,
+            @Header("Idempotency-Key") String idempotencyKey,
+            @Header("If-Match") String baseVersion
     );
 
     /**
-     * Eliminar gasto real
+     * Eliminar gasto real; un reintento responde 204 aunque ya no exista
      * DELETE /api/budgets/real-expenses/{id}/
      */
     @DELETE("budgets/real-expenses/{id}/")
-    Call<Void> deleteExpense(@Path("id") Long expenseId);
+    Call<Void> deleteExpense(
+            @Path("id") Long expenseId,
+            @Header("Idempotency-Key") String idempotencyKey
+    );
+
+    /**
+     * Varias escrituras del presupuesto en una sola petición (una transacción en el servidor)
+     * POST /api/budgets/budget-items/bulk/
+     * Body: {"operations": [{"op": "create|update|delete", "key": "...", "id": 5, "data": {...}}]}
+     */
+    @POST("budgets/budget-items/bulk/")
+    Call<BulkWriteResponse<BudgetItem>> bulkBudgetItems(@Body Map<String, Object> operations);
+
+    /**
+     * Varias escrituras de gastos reales en una sola petición
+     * POST /api/budgets/real-expenses/bulk/
+     */
+    @POST("budgets/real-expenses/bulk/")
+    Call<BulkWriteResponse<ExpenseItem>> bulkExpenses(@Body Map<String, Object> operations);
 
     /**
      * Copiar item del presupuesto a gastos reales
@@ -360,6 +466,13 @@ public interface ApiService {
     @POST("calculations/calculate/cables/")
     Call<Map<String, Object>> calculateCables(@Body Map<String, Object> parameters);
 
+    /**
+     * Guardar varios cálculos (modo multi-espacio) y sus items de presupuesto en una transacción
+     * POST /api/calculations/calculate/batch/
+     */
+    @POST("calculations/calculate/batch/")
+    Call<Map<String, Object>> calculateBatch(@Body Map<String, Object> batchRequest);
+
     /**
      * Obtener historial de cálculos de un proyecto
      * GET /api/calculations/calculations/
@@ -391,6 +504,13 @@ public interface ApiService {
     @GET("budgets/financial-summary/for_selected_project/")
     Call<Map<String, Object>> getFinancialSummaryForSelectedProject();
 
+    /**
+     * Obtener resumen financiero del proyecto seleccionado, recalculándolo en el servidor
+     * GET /api/budgets/financial-summary/for_selected_project/?refresh=true
+     */
+    @GET("budgets/financial-summary/for_selected_project/")
+    Call<Map<String, Object>> getFinancialSummaryForSelectedProject(@Query("refresh") boolean refresh);
+
     /**
      * Refrescar/actualizar resumen financiero específico
      * POST /api/budgets/financial-summary/{id}/refresh/
@@ -0,0 +1,96 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.regenerarestudio.regenerapp.data.network.NetworkStateManager;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Políticas de caché HTTP del cliente
+ * La frescura de cada endpoint la decide el servidor (API_CACHE_POLICIES en settings.py,
+ * enviada en Cache-Control); la app no mantiene una copia de esa tabla.
+ *
+ * - Respuestas con Cache-Control: OkHttp respeta el max-age / no-cache del servidor
+ * - Respuestas sin Cache-Control: se guardan pero se revalidan siempre con If-None-Match (304)
+ * - Sin conexión: se acepta cualquier copia guardada hasta MAX_STALE_OFFLINE_SECONDS
+ */
+public final class CachePolicy {
+
+    private static final String TAG = "CachePolicy";
+
+    // Tamaño máximo de la caché HTTP en disco
+    public static final long CACHE_SIZE_BYTES = 20L * 1024 * 1024; // 20 MB
+    public static final String CACHE_DIRECTORY = "http_cache";
+
+    // Tiempo máximo que se acepta una copia vencida cuando no hay red
+    private static final int MAX_STALE_OFFLINE_SECONDS = (int) TimeUnit.DAYS.toSeconds(7);
+
+    // Respuestas sin política del servidor: se guardan, pero siempre se revalidan
+    private static final String REVALIDATE_ALWAYS = "private, no-cache";
+
+    private CachePolicy() {
+    }
+
+    // ==========================================
+    // INTERCEPTORES
+    // ==========================================
+
+    /**
+     * Interceptor de red: el Cache-Control del servidor siempre gana
+     * Solo completa las respuestas GET que llegan sin él (ej: un backend sin ApiCacheControlMiddleware),
+     * para que OkHttp no invente una frescura heurística y revalide con el ETag.
+     */
+    public static class NetworkCacheInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+
+            if (!"GET".equals(request.method()) || !response.isSuccessful()
+                    || response.header("Cache-Control") != null) {
+                return response;
+            }
+
+            return response.newBuilder()
+                    .header("Cache-Control", REVALIDATE_ALWAYS)
+                    .build();
+        }
+    }
+
+    /**
+     * Interceptor de aplicación: sin conexión, responder con la copia en disco aunque esté vencida
+     */
+    public static class OfflineCacheInterceptor implements Interceptor {
+
+        private final Context context;
+
+        public OfflineCacheInterceptor(Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+
+            if ("GET".equals(request.method()) && !NetworkStateManager.isNetworkAvailable(context)) {
+                Log.d(TAG, "Sin conexión, usando caché HTTP para: " + request.url().encodedPath());
+                request = request.newBuilder()
+                        .cacheControl(new CacheControl.Builder()
+                                .onlyIfCached()
+                                .maxStale(MAX_STALE_OFFLINE_SECONDS, TimeUnit.SECONDS)
+                                .build())
+                        .build();
+            }
+
+            return chain.proceed(request);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
+import com.regenerarestudio.regenerapp.data.repository.SharedLoad;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Seguimiento de las peticiones en curso de un ViewModel
+ * Cada petición se registra con un nombre de recurso (ej: "budget_items", "dashboard"):
+ * - Una petición nueva del mismo recurso cancela y reemplaza a la anterior
+ * - cancelAll() al cambiar de proyecto y release() en onCleared() cancelan todas
+ * - Las respuestas de peticiones reemplazadas o canceladas nunca llegan al callback,
+ *   aunque ya estuvieran en camino (así no pisan los LiveData del proyecto nuevo)
+ *
+ * Pensado para usarse desde el hilo principal (como los ViewModels).
+ */
+public final class CallTracker {
+
+    private static final String TAG = "CallTracker";
+
+    // Trackers vivos (para cancelar todo al cambiar de proyecto desde MainActivity)
+    private static final Set<CallTracker> liveTrackers = new CopyOnWriteArraySet<>();
+
+    // Métricas
+    private static final AtomicLong cancelledCalls = new AtomicLong();
+    private static final AtomicLong droppedResponses = new AtomicLong();
+
+    private final String owner;
+
+    // Recurso -> generación de la petición vigente (las demás se descartan)
+    private final Map<String, Long> generations = new HashMap<>();
+    // Recurso -> forma de cancelar la llamada de red vigente
+    private final Map<String, Runnable> cancellers = new HashMap<>();
+    private long nextGeneration = 0;
+    private boolean released = false;
+
+    public CallTracker(@NonNull String owner) {
+        this.owner = owner;
+        liveTrackers.add(this);
+    }
+
+    // ==========================================
+    // REGISTRO DE PETICIONES
+    // ==========================================
+
+    /**
+     * Encolar una llamada Retrofit propia del recurso
+     */
+    public <T> Call<T> enqueue(@NonNull String resource, @NonNull Call<T> call, @NonNull Callback<T> callback) {
+        long generation = begin(resource);
+        attach(resource, call);
+        call.enqueue(guard(resource, generation, callback));
+        return call;
+    }
+
+    /**
+     * Encolar una llamada GET compartida ({@link RequestCoalescer}) del recurso
+     * Cancelarla solo afecta a esta pantalla: el resto de receptores la relanzan.
+     */
+    public <T> Call<T> enqueueShared(@NonNull String resource, @NonNull String coalesceKey,
+                                     @NonNull Call<T> call, @NonNull Callback<T> callback) {
+        long generation = begin(resource);
+        Call<T> network = RequestCoalescer.getInstance().enqueue(coalesceKey, call, guard(resource, generation, callback));
+        attach(resource, network);
+        return network;
+    }
+
+    /**
+     * Envolver el callback de un repositorio: solo entrega si sigue siendo la petición vigente
+     * Para poder cancelar también la red, registrar la llamada devuelta con {@link #attach}.
+     */
+    public <T> RepositoryCallback<T> wrap(@NonNull String resource, @NonNull RepositoryCallback<T> callback) {
+        long generation = begin(resource);
+        return new RepositoryCallback<T>() {
+            @Override
+            public void onData(T data, boolean fromCache) {
+                if (isCurrent(resource, generation)) {
+                    callback.onData(data, fromCache);
+                } else {
+                    dropped(resource);
+                }
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                if (isCurrent(resource, generation)) {
+                    callback.onError(error, hasCachedData);
+                } else {
+                    dropped(resource);
+                }
+            }
+        };
+    }
+
+    /**
+     * Asociar la llamada de red de la petición vigente del recurso (para poder cancelarla)
+     */
+    public void attach(@NonNull String resource, Call<?> call) {
+        if (call != null) {
+            attachCanceller(resource, call::cancel);
+        }
+    }
+
+    /**
+     * Asociar la espera de esta pantalla sobre una carga compartida del recurso
+     * (listado paginado o sincronización, ver BaseRepository). Cancelarla no afecta a las demás pantallas.
+     */
+    public void attach(@NonNull String resource, SharedLoad load) {
+        if (load != null) {
+            attachCanceller(resource, load::cancel);
+        }
+    }
+
+    private void attachCanceller(String resource, Runnable canceller) {
+        synchronized (this) {
+            if (!released) {
+                cancellers.put(resource, canceller);
+                return;
+            }
+        }
+        canceller.run();
+    }
+
+    // ==========================================
+    // CANCELACIÓN
+    // ==========================================
+
+    /**
+     * Cancelar la petición en curso del recurso
+     */
+    public void cancel(@NonNull String resource) {
+        Runnable canceller;
+        synchronized (this) {
+            generations.remove(resource);
+            canceller = cancellers.remove(resource);
+        }
+        if (canceller != null) {
+            cancelledCalls.incrementAndGet();
+            canceller.run();
+        }
+    }
+
+    /**
+     * Cancelar todas las peticiones en curso (cambio de proyecto, limpiar pantalla)
+     */
+    public void cancelAll() {
+        List<Runnable> pending;
+        synchronized (this) {
+            generations.clear();
+            pending = new ArrayList<>(cancellers.values());
+            cancellers.clear();
+        }
+        if (!pending.isEmpty()) {
+            Log.d(TAG, owner + " - cancelando " + pending.size() + " peticiones en curso");
+        }
+        cancelledCalls.addAndGet(pending.size());
+        for (Runnable canceller : pending) {
+            canceller.run();
+        }
+    }
+
+    /**
+     * Cancelar todo y dejar de aceptar peticiones (llamar en onCleared())
+     */
+    public void release() {
+        synchronized (this) {
+            released = true;
+        }
+        cancelAll();
+        liveTrackers.remove(this);
+    }
+
+    /**
+     * Cancelar las peticiones de todas las pantallas (al cambiar de proyecto)
+     */
+    public static void cancelAllTrackers() {
+        for (CallTracker tracker : liveTrackers) {
+            tracker.cancelAll();
+        }
+    }
+
+    // ==========================================
+    // INTERNOS
+    // ==========================================
+
+    /**
+     * Nueva petición del recurso: la anterior queda reemplazada
+     */
+    private long begin(String resource) {
+        Runnable previous;
+        long generation;
+        synchronized (this) {
+            previous = cancellers.remove(resource);
+            generation = ++nextGeneration;
+            if (!released) {
+                generations.put(resource, generation);
+            }
+        }
+        if (previous != null) {
+            Log.d(TAG, owner + " - petición anterior de " + resource + " reemplazada");
+            cancelledCalls.incrementAndGet();
+            previous.run();
+        }
+        return generation;
+    }
+
+    private synchronized boolean isCurrent(String resource, long generation) {
+        Long current = generations.get(resource);
+        return !released && current != null && current == generation;
+    }
+
+    private synchronized boolean finish(String resource, long generation) {
+        if (!isCurrent(resource, generation)) {
+            return false;
+        }
+        cancellers.remove(resource);
+        return true;
+    }
+
+    private <T> Callback<T> guard(String resource, long generation, Callback<T> callback) {
+        return new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                if (finish(resource, generation)) {
+                    callback.onResponse(call, response);
+                } else {
+                    dropped(resource);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                if (finish(resource, generation)) {
+                    callback.onFailure(call, t);
+                } else {
+                    dropped(resource);
+                }
+            }
+        };
+    }
+
+    private void dropped(String resource) {
+        droppedResponses.incrementAndGet();
+        Log.d(TAG, owner + " - respuesta obsoleta de " + resource + " descartada");
+    }
+
+    // ==========================================
+    // MÉTRICAS
+    // ==========================================
+
+    public static long getCancelledCount() {
+        return cancelledCalls.get();
+    }
+
+    public static long getDroppedCount() {
+        return droppedResponses.get();
+    }
+}
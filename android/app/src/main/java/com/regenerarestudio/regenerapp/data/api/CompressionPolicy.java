@@ -0,0 +1,241 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.GzipSink;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * Compresión gzip de la API en ambos sentidos
+ *
+ * - Respuestas: OkHttp ya pide Accept-Encoding: gzip y descomprime solo; el backend
+ *   comprime a partir de API_GZIP_MIN_LENGTH (settings.py) y envía X-Uncompressed-Length
+ * - Peticiones: los cuerpos POST/PUT/PATCH desde MIN_REQUEST_GZIP_BYTES se envían con
+ *   Content-Encoding: gzip (operaciones bulk, lotes de cálculos); si el servidor responde
+ *   415 se reenvía sin comprimir y no se vuelve a intentar
+ * - Métricas por endpoint (nombre del método de ApiService): bytes en red vs. sin comprimir
+ */
+public final class CompressionPolicy {
+
+    private static final String TAG = "CompressionPolicy";
+
+    // Por debajo de este tamaño gzip no compensa (cabecera + CPU)
+    static final long MIN_REQUEST_GZIP_BYTES = 1024;
+
+    static final String HEADER_UNCOMPRESSED_LENGTH = "X-Uncompressed-Length";
+
+    private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+
+    // false si el servidor rechazó un cuerpo comprimido (servidor antiguo)
+    private static volatile boolean requestGzipSupported = true;
+
+    private static final Map<String, EndpointStats> statsByEndpoint = new ConcurrentHashMap<>();
+
+    private CompressionPolicy() {
+    }
+
+    /**
+     * Nombre con el que se agrupan las métricas: método de ApiService, o la ruta si no hay
+     */
+    static String endpointOf(Request request) {
+        // Peticiones internas (ej: precalentamiento) llevan su nombre como tag
+        String label = request.tag(String.class);
+        if (label != null) {
+            return label;
+        }
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            return invocation.method().getName();
+        }
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    /**
+     * Volver al estado inicial (gzip de peticiones activo, sin métricas)
+     */
+    @VisibleForTesting
+    static void reset() {
+        requestGzipSupported = true;
+        statsByEndpoint.clear();
+    }
+
+    @VisibleForTesting
+    static EndpointStats statsOf(String endpoint) {
+        return statsByEndpoint.get(endpoint);
+    }
+
+    private static EndpointStats statsFor(String endpoint) {
+        return statsByEndpoint.computeIfAbsent(endpoint, key -> new EndpointStats());
+    }
+
+    // ==========================================
+    // INTERCEPTORES
+    // ==========================================
+
+    /**
+     * Interceptor de aplicación: comprime los cuerpos de petición grandes
+     */
+    public static final class GzipRequestInterceptor implements Interceptor {
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Request request = chain.request();
+            RequestBody body = request.body();
+            if (!requestGzipSupported || body == null || request.header("Content-Encoding") != null) {
+                return chain.proceed(request);
+            }
+
+            long length = body.contentLength();
+            if (length < MIN_REQUEST_GZIP_BYTES) {
+                return chain.proceed(request);
+            }
+
+            ByteString compressed = gzip(body);
+            statsFor(endpointOf(request)).recordRequest(compressed.size(), length);
+
+            Request gzipped = request.newBuilder()
+                    .header("Content-Encoding", "gzip")
+                    .method(request.method(), RequestBody.create(compressed, body.contentType()))
+                    .build();
+            Response response = chain.proceed(gzipped);
+
+            if (response.code() == HTTP_UNSUPPORTED_MEDIA_TYPE) {
+                Log.w(TAG, "El servidor no acepta cuerpos gzip, se envían sin comprimir");
+                requestGzipSupported = false;
+                response.close();
+                return chain.proceed(request);
+            }
+            return response;
+        }
+
+        private static ByteString gzip(RequestBody body) throws IOException {
+            Buffer buffer = new Buffer();
+            try (BufferedSink sink = Okio.buffer(new GzipSink(buffer))) {
+                body.writeTo(sink);
+            }
+            return buffer.readByteString();
+        }
+    }
+
+    /**
+     * Interceptor de red: mide el tamaño en red de las respuestas (antes de descomprimir)
+     */
+    public static final class ResponseStatsInterceptor implements Interceptor {
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Response response = chain.proceed(chain.request());
+            if (response.body() == null) {
+                return response;
+            }
+
+            long wireBytes = response.body().contentLength();
+            if (wireBytes < 0) {
+                return response;
+            }
+
+            long originalBytes = wireBytes;
+            if ("gzip".equalsIgnoreCase(response.header("Content-Encoding"))) {
+                originalBytes = parseLength(response.header(HEADER_UNCOMPRESSED_LENGTH), wireBytes);
+            }
+            statsFor(endpointOf(chain.request())).recordResponse(wireBytes, originalBytes);
+            return response;
+        }
+
+        private static long parseLength(String value, long fallback) {
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+    }
+
+    // ==========================================
+    // MÉTRICAS
+    // ==========================================
+
+    /**
+     * Relación de compresión por endpoint (bytes en red / bytes sin comprimir)
+     */
+    public static void logStats() {
+        if (statsByEndpoint.isEmpty()) {
+            Log.d(TAG, "Compresión: sin peticiones registradas");
+            return;
+        }
+        Log.d(TAG, "Compresión por endpoint (gzip de peticiones " +
+                (requestGzipSupported ? "activo" : "desactivado") + "):");
+
+        List<String> endpoints = new ArrayList<>(statsByEndpoint.keySet());
+        endpoints.sort(String::compareTo);
+        for (String endpoint : endpoints) {
+            Log.d(TAG, "  " + endpoint + " - " + statsByEndpoint.get(endpoint));
+        }
+    }
+
+    static final class EndpointStats {
+        final AtomicLong responses = new AtomicLong();
+        final AtomicLong responseWireBytes = new AtomicLong();
+        final AtomicLong responseOriginalBytes = new AtomicLong();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong requestWireBytes = new AtomicLong();
+        final AtomicLong requestOriginalBytes = new AtomicLong();
+
+        void recordResponse(long wire, long original) {
+            responses.incrementAndGet();
+            responseWireBytes.addAndGet(wire);
+            responseOriginalBytes.addAndGet(original);
+        }
+
+        void recordRequest(long wire, long original) {
+            requests.incrementAndGet();
+            requestWireBytes.addAndGet(wire);
+            requestOriginalBytes.addAndGet(original);
+        }
+
+        private static String ratio(long wire, long original) {
+            return original > 0 ? (wire * 100 / original) + "%" : "-";
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            if (responses.get() > 0) {
+                text.append(String.format("respuestas: %d, %d -> %d bytes (%s)",
+                        responses.get(), responseOriginalBytes.get(), responseWireBytes.get(),
+                        ratio(responseWireBytes.get(), responseOriginalBytes.get())));
+            }
+            if (requests.get() > 0) {
+                if (text.length() > 0) {
+                    text.append("; ");
+                }
+                text.append(String.format("peticiones gzip: %d, %d -> %d bytes (%s)",
+                        requests.get(), requestOriginalBytes.get(), requestWireBytes.get(),
+                        ratio(requestWireBytes.get(), requestOriginalBytes.get())));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un endpoint de {@link ApiService} para pedir la respuesta en MessagePack
+ * El cliente envía Accept: application/msgpack y, si el servidor responde JSON
+ * (servidor antiguo o error), se decodifica con Gson como siempre.
+ *
+ * Usar solo en listados grandes: los modelos se leen con los mismos TypeAdapters que el JSON.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MessagePack {
+}
@@ -0,0 +1,249 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import org.msgpack.core.MessageFormat;
+import org.msgpack.core.MessageUnpacker;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Invocation;
+import retrofit2.Retrofit;
+
+/**
+ * Converter de Retrofit para respuestas MessagePack (endpoints marcados con {@link MessagePack})
+ *
+ * El binario se convierte a un árbol de Gson y se lee con el mismo TypeAdapter que el JSON,
+ * así los modelos (@JsonAdapter de BudgetItem, ExpenseItem...) no cambian.
+ * Si la respuesta llega como JSON se delega en el siguiente converter (Gson).
+ * Se registra antes de GsonConverterFactory; los endpoints sin anotación no pasan por aquí.
+ */
+public final class MessagePackConverterFactory extends Converter.Factory {
+
+    private static final String TAG = "MessagePackConverter";
+
+    public static final String MEDIA_SUBTYPE = "msgpack";
+
+    // El servidor elige MessagePack si lo tiene; si no, JSON
+    static final String ACCEPT_HEADER = "application/msgpack, application/json;q=0.9";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    // Métricas por formato (para comparar tamaño y tiempo de decodificación en el dispositivo)
+    private static final FormatStats msgpackStats = new FormatStats("msgpack");
+    private static final FormatStats jsonStats = new FormatStats("json");
+
+    private final Gson gson;
+
+    public static MessagePackConverterFactory create(@NonNull Gson gson) {
+        return new MessagePackConverterFactory(gson);
+    }
+
+    private MessagePackConverterFactory(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type,
+                                                            @NonNull Annotation[] annotations,
+                                                            @NonNull Retrofit retrofit) {
+        if (!isMessagePack(annotations)) {
+            return null;
+        }
+
+        Converter<ResponseBody, ?> jsonConverter = retrofit.nextResponseBodyConverter(this, type, annotations);
+        TypeAdapter<?> adapter = gson.getAdapter(TypeToken.get(type));
+        return body -> convert(body, adapter, jsonConverter);
+    }
+
+    private static Object convert(ResponseBody body, TypeAdapter<?> adapter,
+                                  Converter<ResponseBody, ?> jsonConverter) throws IOException {
+        MediaType contentType = body.contentType();
+        boolean binary = contentType != null && contentType.subtype().endsWith(MEDIA_SUBTYPE);
+        long start = System.nanoTime();
+
+        if (!binary) {
+            long length = body.contentLength();
+            Object result = jsonConverter.convert(body);
+            jsonStats.record(length, System.nanoTime() - start);
+            return result;
+        }
+
+        try (MessageUnpacker unpacker = org.msgpack.core.MessagePack.newDefaultUnpacker(body.byteStream())) {
+            JsonElement tree = readValue(unpacker);
+            Object result = adapter.fromJsonTree(tree);
+            msgpackStats.record(unpacker.getTotalReadBytes(), System.nanoTime() - start);
+            return result;
+        } finally {
+            body.close();
+        }
+    }
+
+    /**
+     * Leer un valor MessagePack como elemento de Gson (mismos tipos que produciría el JSON)
+     */
+    static JsonElement readValue(MessageUnpacker unpacker) throws IOException {
+        MessageFormat format = unpacker.getNextFormat();
+        switch (format.getValueType()) {
+            case NIL:
+                unpacker.unpackNil();
+                return JsonNull.INSTANCE;
+
+            case BOOLEAN:
+                return new JsonPrimitive(unpacker.unpackBoolean());
+
+            case INTEGER:
+                if (format == MessageFormat.UINT64) {
+                    return new JsonPrimitive(unpacker.unpackBigInteger());
+                }
+                return new JsonPrimitive(unpacker.unpackLong());
+
+            case FLOAT:
+                return new JsonPrimitive(unpacker.unpackDouble());
+
+            case STRING:
+                return new JsonPrimitive(unpacker.unpackString());
+
+            case ARRAY: {
+                int size = unpacker.unpackArrayHeader();
+                JsonArray array = new JsonArray();
+                for (int i = 0; i < size; i++) {
+                    array.add(readValue(unpacker));
+                }
+                return array;
+            }
+
+            case MAP: {
+                int size = unpacker.unpackMapHeader();
+                JsonObject object = new JsonObject();
+                for (int i = 0; i < size; i++) {
+                    JsonElement key = readValue(unpacker);
+                    String name = key.isJsonPrimitive() ? key.getAsString() : key.toString();
+                    object.add(name, readValue(unpacker));
+                }
+                return object;
+            }
+
+            case BINARY: {
+                byte[] payload = unpacker.readPayload(unpacker.unpackBinaryHeader());
+                return new JsonPrimitive(Base64.encodeToString(payload, Base64.NO_WRAP));
+            }
+
+            case EXTENSION:
+            default:
+                unpacker.skipValue();
+                return JsonNull.INSTANCE;
+        }
+    }
+
+    private static boolean isMessagePack(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof MessagePack) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==========================================
+    // NEGOCIACIÓN (ACCEPT)
+    // ==========================================
+
+    /**
+     * Agrega Accept: application/msgpack a las llamadas de endpoints marcados con {@link MessagePack}
+     * Interceptor de aplicación: la caché HTTP guarda cada formato por separado (Vary: Accept).
+     * Los errores que lleguen en MessagePack se pasan a JSON, porque errorBody().string()
+     * se muestra tal cual en los mensajes de error.
+     */
+    public static final class AcceptInterceptor implements Interceptor {
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Request request = chain.request();
+            Invocation invocation = request.tag(Invocation.class);
+            if (invocation == null
+                    || !invocation.method().isAnnotationPresent(MessagePack.class)
+                    || request.header("Accept") != null) {
+                return chain.proceed(request);
+            }
+            Response response = chain.proceed(request.newBuilder().header("Accept", ACCEPT_HEADER).build());
+            ResponseBody body = response.body();
+            if (response.isSuccessful() || body == null || body.contentType() == null
+                    || !body.contentType().subtype().endsWith(MEDIA_SUBTYPE)) {
+                return response;
+            }
+
+            String json;
+            try (MessageUnpacker unpacker = org.msgpack.core.MessagePack.newDefaultUnpacker(body.byteStream())) {
+                json = readValue(unpacker).toString();
+            } catch (IOException e) {
+                Log.w(TAG, "Error MessagePack ilegible (HTTP " + response.code() + ")", e);
+                json = "{}";
+            } finally {
+                body.close();
+            }
+            return response.newBuilder()
+                    .body(ResponseBody.create(json, JSON))
+                    .build();
+        }
+    }
+
+    // ==========================================
+    // MÉTRICAS
+    // ==========================================
+
+    public static void logStats() {
+        Log.d(TAG, "Formato de red (endpoints @MessagePack):");
+        msgpackStats.log();
+        jsonStats.log();
+    }
+
+    private static final class FormatStats {
+        private final String name;
+        private final AtomicLong responses = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong decodeNanos = new AtomicLong();
+
+        FormatStats(String name) {
+            this.name = name;
+        }
+
+        void record(long length, long nanos) {
+            responses.incrementAndGet();
+            if (length > 0) {
+                bytes.addAndGet(length);
+            }
+            decodeNanos.addAndGet(nanos);
+        }
+
+        void log() {
+            long count = responses.get();
+            if (count == 0) {
+                Log.d(TAG, "  " + name + ": sin respuestas");
+                return;
+            }
+            Log.d(TAG, String.format("  %s: %d respuestas, %d bytes promedio, %.2f ms decodificación promedio",
+                    name, count, bytes.get() / count, decodeNanos.get() / 1_000_000.0 / count));
+        }
+    }
+}
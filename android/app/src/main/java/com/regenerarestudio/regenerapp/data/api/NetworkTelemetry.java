@@ -0,0 +1,520 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Telemetría de red de bajo costo (reemplaza al HttpLoggingInterceptor con Level.BODY)
+ *
+ * Un EventListener de OkHttp mide cada llamada sin leer ni copiar los cuerpos:
+ * DNS, conexión (incluye TLS), tiempo hasta el primer byte, descarga, bytes enviados
+ * y recibidos, código HTTP y reintentos de OkHttp. Los registros se guardan en un
+ * buffer circular en memoria (los últimos BUFFER_CAPACITY) con resúmenes de percentiles
+ * por endpoint, visibles en Configuración y exportables a un archivo CSV.
+ */
+public final class NetworkTelemetry {
+
+    private static final String TAG = "NetworkTelemetry";
+
+    // Cantidad de llamadas que se conservan (las más antiguas se descartan)
+    static final int BUFFER_CAPACITY = 500;
+
+    private static final String EXPORT_DIRECTORY = "telemetry";
+
+    // Nombre del precalentamiento de conexión (ApiClient.prewarmConnection)
+    public static final String PREWARM_ENDPOINT = "prewarm";
+
+    // Primera llamada del arranque cuyo primer byte se traza
+    private static final String STARTUP_ENDPOINT = "getProjects";
+
+    private static NetworkTelemetry instance;
+
+    /**
+     * Medición de una llamada HTTP (tiempos en milisegundos, -1 = no aplica)
+     */
+    public static final class CallRecord {
+        public final long timestamp;
+        public final String endpoint;
+        public final String method;
+        public final int status;          // 0 = sin respuesta (error o cancelada)
+        public final String error;
+        public final long dnsMs;
+        public final long connectMs;
+        public final long ttfbMs;
+        public final long downloadMs;
+        public final long totalMs;
+        public final long requestBytes;
+        public final long responseBytes;
+        public final int retries;
+        public final boolean connectionReused;
+        public final String protocol;
+        final long firstByteNanos;         // instante absoluto del primer byte (0 = sin respuesta)
+
+        CallRecord(CallListener l, int status, String error, long endNanos) {
+            this.timestamp = l.startMillis;
+            this.endpoint = l.endpoint;
+            this.method = l.httpMethod;
+            this.status = status;
+            this.error = error;
+            this.dnsMs = millisBetween(l.dnsStart, l.dnsEnd);
+            this.connectMs = millisBetween(l.connectStart, l.connectEnd);
+            this.ttfbMs = millisBetween(l.requestStart, l.responseHeadersStart);
+            this.downloadMs = millisBetween(l.responseHeadersStart, l.responseBodyEnd);
+            this.totalMs = millisBetween(l.callStart, endNanos);
+            this.requestBytes = l.requestBytes;
+            this.responseBytes = l.responseBytes;
+            this.retries = Math.max(0, l.attempts - 1);
+            this.connectionReused = l.connectStart == 0;
+            this.protocol = l.protocol;
+            this.firstByteNanos = l.responseHeadersStart;
+        }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 400;
+        }
+    }
+
+    /**
+     * Resumen por endpoint (percentiles sobre los registros del buffer)
+     */
+    public static final class EndpointSummary {
+        public final String endpoint;
+        public final int calls;
+        public final int failures;
+        public final int retries;
+        public final long p50Ms;
+        public final long p90Ms;
+        public final long p99Ms;
+        public final long p50TtfbMs;
+        public final long avgResponseBytes;
+
+        EndpointSummary(String endpoint, List<CallRecord> records) {
+            this.endpoint = endpoint;
+            this.calls = records.size();
+
+            int failed = 0;
+            int retried = 0;
+            long bytes = 0;
+            List<Long> totals = new ArrayList<>();
+            List<Long> ttfbs = new ArrayList<>();
+            for (CallRecord record : records) {
+                if (!record.isSuccessful()) {
+                    failed++;
+                }
+                retried += record.retries;
+                bytes += Math.max(0, record.responseBytes);
+                totals.add(record.totalMs);
+                if (record.ttfbMs >= 0) {
+                    ttfbs.add(record.ttfbMs);
+                }
+            }
+            this.failures = failed;
+            this.retries = retried;
+            this.avgResponseBytes = calls > 0 ? bytes / calls : 0;
+
+            Collections.sort(totals);
+            Collections.sort(ttfbs);
+            this.p50Ms = percentile(totals, 50);
+            this.p90Ms = percentile(totals, 90);
+            this.p99Ms = percentile(totals, 99);
+            this.p50TtfbMs = percentile(ttfbs, 50);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s: %d llamadas, %d fallidas, %d reintentos | p50 %d ms, p90 %d ms, p99 %d ms | TTFB p50 %d ms | %d B prom.",
+                    endpoint, calls, failures, retries, p50Ms, p90Ms, p99Ms, p50TtfbMs, avgResponseBytes);
+        }
+    }
+
+    // Buffer circular
+    private final CallRecord[] buffer = new CallRecord[BUFFER_CAPACITY];
+    private int nextIndex = 0;
+    private int size = 0;
+    private long totalRecorded = 0;
+
+    // Traza de arranque (tiempo hasta el primer byte de la primera carga de proyectos)
+    private long startupNanos = 0;
+    private CallRecord startupRecord;
+
+    @VisibleForTesting
+    NetworkTelemetry() {
+    }
+
+    public static synchronized NetworkTelemetry getInstance() {
+        if (instance == null) {
+            instance = new NetworkTelemetry();
+        }
+        return instance;
+    }
+
+    /**
+     * Fábrica de listeners para OkHttpClient.Builder.eventListenerFactory()
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener(this, call.request());
+    }
+
+    // ==========================================
+    // REGISTRO
+    // ==========================================
+
+    synchronized void record(CallRecord record) {
+        traceStartup(record);
+        buffer[nextIndex] = record;
+        nextIndex = (nextIndex + 1) % BUFFER_CAPACITY;
+        if (size < BUFFER_CAPACITY) {
+            size++;
+        }
+        totalRecorded++;
+    }
+
+    /**
+     * Registros del buffer, del más antiguo al más reciente
+     */
+    public synchronized List<CallRecord> getRecords() {
+        List<CallRecord> records = new ArrayList<>(size);
+        int start = (nextIndex - size + BUFFER_CAPACITY) % BUFFER_CAPACITY;
+        for (int i = 0; i < size; i++) {
+            records.add(buffer[(start + i) % BUFFER_CAPACITY]);
+        }
+        return records;
+    }
+
+    public synchronized long getTotalRecorded() {
+        return totalRecorded;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < BUFFER_CAPACITY; i++) {
+            buffer[i] = null;
+        }
+        nextIndex = 0;
+        size = 0;
+    }
+
+    // ==========================================
+    // TRAZA DE ARRANQUE
+    // ==========================================
+
+    /**
+     * Marcar el inicio del arranque (onCreate de ProjectSelectionActivity)
+     */
+    public synchronized void markStartup() {
+        if (startupNanos == 0) {
+            startupNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Registrar un hito del arranque (ej: lista interactiva) con el tiempo desde markStartup()
+     */
+    public synchronized void logStartupMilestone(String label) {
+        if (startupNanos == 0) {
+            return;
+        }
+        Log.i(TAG, "Arranque - " + label + " a " + (System.nanoTime() - startupNanos) / 1_000_000 +
+                " ms del inicio");
+    }
+
+    /**
+     * Llamada de la traza de arranque (null mientras no llegue el primer byte de getProjects)
+     */
+    @VisibleForTesting
+    synchronized CallRecord getStartupRecord() {
+        return startupRecord;
+    }
+
+    /**
+     * Milisegundos desde markStartup() hasta el primer byte de la primera carga de proyectos (-1 = aún no)
+     */
+    @VisibleForTesting
+    synchronized long getStartupFirstByteMs() {
+        if (startupRecord == null) {
+            return -1;
+        }
+        return (startupRecord.firstByteNanos - startupNanos) / 1_000_000;
+    }
+
+    /**
+     * Registrar en el log cuánto tardó el primer byte de la primera carga de proyectos
+     * desde el arranque, y lo que costó establecer la conexión (en el precalentamiento o
+     * en la propia llamada). Comparar con y sin precalentamiento: "conexión reutilizada".
+     */
+    private void traceStartup(CallRecord record) {
+        if (startupNanos == 0 || startupRecord != null) {
+            return;
+        }
+
+        if (PREWARM_ENDPOINT.equals(record.endpoint)) {
+            Log.i(TAG, String.format(Locale.US,
+                    "Arranque - precalentamiento: DNS %d ms, conexión %d ms, primer byte %d ms (%s)",
+                    record.dnsMs, record.connectMs, record.ttfbMs,
+                    record.status > 0 ? record.protocol : record.error));
+            return;
+        }
+
+        if (!STARTUP_ENDPOINT.equals(record.endpoint) || record.firstByteNanos == 0) {
+            return;
+        }
+        startupRecord = record;
+        Log.i(TAG, String.format(Locale.US,
+                "Arranque - primer byte de %s a %d ms del inicio (DNS %d ms, conexión %d ms, TTFB %d ms, " +
+                        "conexión reutilizada: %s, %s)",
+                record.endpoint, getStartupFirstByteMs(),
+                record.dnsMs, record.connectMs, record.ttfbMs,
+                record.connectionReused ? "sí" : "no", record.protocol));
+    }
+
+    // ==========================================
+    // RESÚMENES Y EXPORTACIÓN
+    // ==========================================
+
+    /**
+     * Resumen por endpoint, ordenado por cantidad de llamadas
+     */
+    public List<EndpointSummary> getSummaries() {
+        Map<String, List<CallRecord>> byEndpoint = new LinkedHashMap<>();
+        for (CallRecord record : getRecords()) {
+            List<CallRecord> records = byEndpoint.get(record.endpoint);
+            if (records == null) {
+                records = new ArrayList<>();
+                byEndpoint.put(record.endpoint, records);
+            }
+            records.add(record);
+        }
+
+        List<EndpointSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, List<CallRecord>> entry : byEndpoint.entrySet()) {
+            summaries.add(new EndpointSummary(entry.getKey(), entry.getValue()));
+        }
+        summaries.sort((a, b) -> b.calls - a.calls);
+        return summaries;
+    }
+
+    /**
+     * Texto del resumen para la pantalla de diagnóstico
+     */
+    public String getSummaryText() {
+        List<EndpointSummary> summaries = getSummaries();
+        if (summaries.isEmpty()) {
+            return "Sin llamadas registradas";
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Llamadas en memoria: ").append(getRecords().size())
+                .append(" (total ").append(getTotalRecorded()).append(")\n");
+        for (EndpointSummary summary : summaries) {
+            text.append("\n").append(summary);
+        }
+        return text.toString();
+    }
+
+    public void logSummary() {
+        Log.d(TAG, "Telemetría de red:");
+        for (EndpointSummary summary : getSummaries()) {
+            Log.d(TAG, "  " + summary);
+        }
+    }
+
+    /**
+     * Exportar el buffer a CSV en el almacenamiento privado de la app
+     *
+     * @return el archivo creado
+     */
+    public File exportCsv(@NonNull Context context) throws IOException {
+        File directory = context.getExternalFilesDir(EXPORT_DIRECTORY);
+        if (directory == null) {
+            directory = new File(context.getFilesDir(), EXPORT_DIRECTORY);
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear " + directory.getAbsolutePath());
+        }
+
+        SimpleDateFormat fileFormat = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US);
+        File file = new File(directory, "network_" + fileFormat.format(new Date()) + ".csv");
+
+        SimpleDateFormat rowFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.US);
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("timestamp,endpoint,method,status,error,dns_ms,connect_ms,ttfb_ms,download_ms," +
+                    "total_ms,request_bytes,response_bytes,retries,connection_reused,protocol\n");
+            for (CallRecord r : getRecords()) {
+                writer.write(rowFormat.format(new Date(r.timestamp)) + "," + csv(r.endpoint) + "," +
+                        r.method + "," + r.status + "," + csv(r.error) + "," + r.dnsMs + "," +
+                        r.connectMs + "," + r.ttfbMs + "," + r.downloadMs + "," + r.totalMs + "," +
+                        r.requestBytes + "," + r.responseBytes + "," + r.retries + "," +
+                        r.connectionReused + "," + csv(r.protocol) + "\n");
+            }
+        }
+        Log.i(TAG, "Telemetría exportada: " + file.getAbsolutePath());
+        return file;
+    }
+
+    private static String csv(@Nullable String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    static long percentile(List<Long> sorted, int percent) {
+        if (sorted.isEmpty()) {
+            return -1;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static long millisBetween(long startNanos, long endNanos) {
+        if (startNanos == 0 || endNanos == 0 || endNanos < startNanos) {
+            return -1;
+        }
+        return (endNanos - startNanos) / 1_000_000;
+    }
+
+    // ==========================================
+    // LISTENER POR LLAMADA
+    // ==========================================
+
+    /**
+     * Listener de una llamada: solo guarda marcas de tiempo y contadores
+     */
+    private static final class CallListener extends EventListener {
+        private final NetworkTelemetry telemetry;
+        final String endpoint;
+        final String httpMethod;
+        final long startMillis = System.currentTimeMillis();
+
+        long callStart;
+        long dnsStart;
+        long dnsEnd;
+        long connectStart;
+        long connectEnd;
+        long requestStart;
+        long responseHeadersStart;
+        long responseBodyEnd;
+        long requestBytes = -1;
+        long responseBytes = -1;
+        int attempts = 0;
+        int status = 0;
+        String protocol;
+        private boolean finished = false;
+
+        CallListener(NetworkTelemetry telemetry, Request request) {
+            this.telemetry = telemetry;
+            this.endpoint = CompressionPolicy.endpointOf(request);
+            this.httpMethod = request.method();
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> addresses) {
+            dnsEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy,
+                               @Nullable Protocol protocol) {
+            connectEnd = System.nanoTime();
+            if (protocol != null) {
+                this.protocol = protocol.toString();
+            }
+        }
+
+        @Override
+        public void requestHeadersStart(@NonNull Call call) {
+            // Cada envío de cabeceras es un intento (los reintentos de OkHttp vuelven a pasar por aquí)
+            attempts++;
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            requestBytes = byteCount;
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            responseHeadersStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+            status = response.code();
+            if (protocol == null) {
+                protocol = response.protocol().toString();
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            responseBodyEnd = System.nanoTime();
+            responseBytes = byteCount;
+        }
+
+        @Override
+        public void cacheHit(@NonNull Call call, @NonNull Response response) {
+            status = response.code();
+            protocol = "cache";
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(status, null);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(0, call.isCanceled() ? "cancelada" : ioe.getClass().getSimpleName());
+        }
+
+        private void finish(int finalStatus, String error) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            telemetry.record(new CallRecord(this, finalStatus, error, System.nanoTime()));
+        }
+    }
+}
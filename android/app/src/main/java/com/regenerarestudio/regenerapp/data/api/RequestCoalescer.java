@@ -0,0 +1,289 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Deduplicación de peticiones GET en curso ("single-flight")
+ * Si varias pantallas piden lo mismo (misma clave) mientras la primera petición sigue en curso,
+ * todas comparten esa única llamada de red y el mismo resultado ya parseado.
+ *
+ * Claves: usar la misma clave de recurso que la caché local (ej: "dashboard:project:5").
+ */
+public final class RequestCoalescer {
+
+    private static final String TAG = "RequestCoalescer";
+
+    /**
+     * Receptor del resultado compartido
+     */
+    public interface Listener<T> {
+        void onSuccess(T result);
+        void onFailure(Throwable error);
+    }
+
+    private static final RequestCoalescer INSTANCE = new RequestCoalescer();
+
+    // Peticiones en curso: clave -> receptores (el primero es quien inició la petición)
+    private final Map<String, List<Listener<?>>> inFlight = new HashMap<>();
+
+    // Métricas
+    private final AtomicLong networkRequests = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final Map<String, Long> coalescedByKey = new TreeMap<>();
+
+    public static RequestCoalescer getInstance() {
+        return INSTANCE;
+    }
+
+    private RequestCoalescer() {}
+
+    // ==========================================
+    // API GENÉRICA (JOIN / COMPLETE)
+    // ==========================================
+
+    /**
+     * Unirse a la petición en curso para la clave
+     * @return true si no había ninguna: quien llama debe iniciar la petición y luego
+     *         llamar a {@link #complete} o {@link #fail}
+     */
+    public synchronized boolean join(@NonNull String key, @NonNull Listener<?> listener) {
+        List<Listener<?>> listeners = inFlight.get(key);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            listeners.add(listener);
+            inFlight.put(key, listeners);
+            networkRequests.incrementAndGet();
+            return true;
+        }
+
+        listeners.add(listener);
+        coalescedRequests.incrementAndGet();
+        Long previous = coalescedByKey.get(key);
+        coalescedByKey.put(key, previous == null ? 1L : previous + 1);
+        Log.d(TAG, "Petición compartida para " + key + " (" + listeners.size() + " esperando)");
+        return false;
+    }
+
+    /**
+     * Quitar un receptor de la petición en curso: deja de recibir el resultado
+     * @return true si era el último receptor (nadie más la espera: quien la inició debe cancelarla)
+     */
+    public synchronized boolean leave(@NonNull String key, @NonNull Listener<?> listener) {
+        List<Listener<?>> listeners = inFlight.get(key);
+        if (listeners == null || !listeners.remove(listener)) {
+            return false;
+        }
+        if (!listeners.isEmpty()) {
+            return false;
+        }
+        inFlight.remove(key);
+        return true;
+    }
+
+    /**
+     * Indica si hay una petición en curso para la clave
+     */
+    public synchronized boolean isInFlight(@NonNull String key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * Entregar el resultado a todos los receptores de la clave
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void complete(@NonNull String key, T result) {
+        for (Listener<?> listener : drain(key)) {
+            ((Listener<T>) listener).onSuccess(result);
+        }
+    }
+
+    /**
+     * Entregar el error a todos los receptores de la clave
+     */
+    public void fail(@NonNull String key, @NonNull Throwable error) {
+        for (Listener<?> listener : drain(key)) {
+            listener.onFailure(error);
+        }
+    }
+
+    /**
+     * Quitar la clave y devolver sus receptores (la próxima petición volverá a la red)
+     */
+    public synchronized List<Listener<?>> drain(@NonNull String key) {
+        List<Listener<?>> listeners = inFlight.remove(key);
+        return listeners != null ? listeners : Collections.emptyList();
+    }
+
+    // ==========================================
+    // LLAMADAS RETROFIT
+    // ==========================================
+
+    /**
+     * Encolar una llamada GET compartida: si ya hay una igual en curso, no se usa la red
+     * y el callback recibe la misma respuesta (mismo body parseado).
+     * Si quien inició la llamada la cancela, los demás la relanzan con un clon.
+     *
+     * @return la llamada de red que atenderá a este callback
+     */
+    public <T> Call<T> enqueue(@NonNull String key, @NonNull Call<T> call, @NonNull Callback<T> callback) {
+        CallListener<T> listener = new CallListener<>(callback);
+        if (!join(key, listener)) {
+            return call;
+        }
+        startCall(key, call);
+        return call;
+    }
+
+    private <T> void startCall(String key, Call<T> call) {
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                List<Listener<?>> listeners = drain(key);
+                if (response.isSuccessful()) {
+                    deliverResponse(listeners, call, response);
+                } else {
+                    deliverErrorResponse(listeners, call, response);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                List<Listener<?>> listeners = drain(key);
+                if (call.isCanceled() && listeners.size() > 1) {
+                    // Solo quien canceló pierde la respuesta; el resto sigue esperando
+                    deliverFailure(listeners.subList(0, 1), call, t);
+                    relaunch(key, call, listeners.subList(1, listeners.size()));
+                    return;
+                }
+                deliverFailure(listeners, call, t);
+            }
+        });
+    }
+
+    private synchronized <T> void relaunch(String key, Call<T> cancelled, List<Listener<?>> waiting) {
+        List<Listener<?>> current = inFlight.get(key);
+        if (current != null) {
+            // Ya hay otra petición en curso: los que esperaban se unen a ella
+            current.addAll(waiting);
+            return;
+        }
+        inFlight.put(key, new ArrayList<>(waiting));
+        networkRequests.incrementAndGet();
+        Log.d(TAG, "Relanzando " + key + " para " + waiting.size() + " receptores");
+        startCall(key, cancelled.clone());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deliverResponse(List<Listener<?>> listeners, Call<T> call, Response<T> response) {
+        for (Listener<?> listener : listeners) {
+            ((CallListener<T>) listener).deliver(call, response);
+        }
+    }
+
+    /**
+     * El errorBody solo se puede leer una vez: se copia para cada receptor
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void deliverErrorResponse(List<Listener<?>> listeners, Call<T> call, Response<T> response) {
+        byte[] errorBytes = new byte[0];
+        MediaType contentType = null;
+        if (response.errorBody() != null) {
+            contentType = response.errorBody().contentType();
+            try {
+                errorBytes = response.errorBody().bytes();
+            } catch (IOException e) {
+                Log.w(TAG, "No se pudo leer el error de " + call.request().url(), e);
+            }
+        }
+
+        for (Listener<?> listener : listeners) {
+            Response<T> copy = Response.error(ResponseBody.create(contentType, errorBytes), response.raw());
+            ((CallListener<T>) listener).deliver(call, copy);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deliverFailure(List<Listener<?>> listeners, Call<T> call, Throwable t) {
+        for (Listener<?> listener : listeners) {
+            ((CallListener<T>) listener).deliverFailure(call, t);
+        }
+    }
+
+    /**
+     * Adaptador de Callback de Retrofit a Listener
+     */
+    private static class CallListener<T> implements Listener<Response<T>> {
+        private final Callback<T> callback;
+
+        CallListener(Callback<T> callback) {
+            this.callback = callback;
+        }
+
+        void deliver(Call<T> call, Response<T> response) {
+            callback.onResponse(call, response);
+        }
+
+        void deliverFailure(Call<T> call, Throwable t) {
+            callback.onFailure(call, t);
+        }
+
+        @Override
+        public void onSuccess(Response<T> result) {
+            // Se entrega por deliver() con la llamada original
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            // Se entrega por deliverFailure() con la llamada original
+        }
+    }
+
+    // ==========================================
+    // MÉTRICAS
+    // ==========================================
+
+    public long getNetworkRequestCount() {
+        return networkRequests.get();
+    }
+
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.get();
+    }
+
+    /**
+     * Peticiones ahorradas por clave (copia ordenada)
+     */
+    public synchronized Map<String, Long> getCoalescedByKey() {
+        return new TreeMap<>(coalescedByKey);
+    }
+
+    public void logStats() {
+        long network = networkRequests.get();
+        long coalesced = coalescedRequests.get();
+        long total = network + coalesced;
+        Log.d(TAG, "Single-flight - peticiones: " + total +
+                ", a red: " + network +
+                ", compartidas: " + coalesced +
+                (total > 0 ? String.format(" (%.1f%% ahorrado)", coalesced * 100.0 / total) : ""));
+        for (Map.Entry<String, Long> entry : getCoalescedByKey().entrySet()) {
+            Log.d(TAG, "  " + entry.getKey() + ": " + entry.getValue() + " compartidas");
+        }
+    }
+}
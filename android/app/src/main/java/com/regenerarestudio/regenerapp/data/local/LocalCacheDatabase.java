@@ -0,0 +1,222 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Base de datos local (SQLite) para el modo offline-first
+ * Guarda la última copia conocida de cada recurso del API como JSON, indexada por clave
+ * (ej: "budget_items:project:5"). Todas las operaciones deben ejecutarse fuera del hilo principal.
+ *
+ * También guarda la cola de escrituras pendientes (outbox) que se envían al recuperar conexión.
+ */
+public class LocalCacheDatabase extends SQLiteOpenHelper implements OutboxStore, PayloadStore {
+
+    private static final String TAG = "LocalCacheDatabase";
+
+    private static final String DATABASE_NAME = "regenerapp_cache.db";
+    private static final int DATABASE_VERSION = 2;
+
+    // Tabla de recursos cacheados
+    private static final String TABLE_RESOURCES = "cached_resources";
+    private static final String COLUMN_KEY = "resource_key";
+    private static final String COLUMN_PAYLOAD = "payload";
+    private static final String COLUMN_UPDATED_AT = "updated_at";
+
+    // Cola de escrituras pendientes (en orden de llegada)
+    private static final String TABLE_OUTBOX = "outbox";
+    private static final String COLUMN_SEQUENCE = "sequence";
+    private static final String COLUMN_MUTATION_KEY = "mutation_key";
+
+    private static volatile LocalCacheDatabase instance;
+
+    /**
+     * Obtener instancia única (Singleton) ligada al contexto de aplicación
+     */
+    public static LocalCacheDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LocalCacheDatabase.class) {
+                if (instance == null) {
+                    instance = new LocalCacheDatabase(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private LocalCacheDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // WAL permite leer la caché mientras se escribe la copia de red
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_RESOURCES + " (" +
+                COLUMN_KEY + " TEXT PRIMARY KEY, " +
+                COLUMN_PAYLOAD + " TEXT NOT NULL, " +
+                COLUMN_UPDATED_AT + " INTEGER NOT NULL)");
+        createOutboxTable(db);
+        Log.d(TAG, "Base de datos local creada");
+    }
+
+    private void createOutboxTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_OUTBOX + " (" +
+                COLUMN_SEQUENCE + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COLUMN_MUTATION_KEY + " TEXT NOT NULL UNIQUE, " +
+                COLUMN_PAYLOAD + " TEXT NOT NULL, " +
+                COLUMN_UPDATED_AT + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // La caché se puede reconstruir desde el servidor: recrear sin migrar
+        // La cola de escrituras NO se borra: son cambios del usuario aún no enviados
+        Log.i(TAG, "Actualizando base de datos local " + oldVersion + " -> " + newVersion);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_RESOURCES);
+        onCreate(db);
+    }
+
+    // ==========================================
+    // RECURSOS CACHEADOS
+    // ==========================================
+
+    /**
+     * Leer el JSON guardado para una clave (null si no existe)
+     */
+    @Override
+    @WorkerThread
+    @Nullable
+    public String readPayload(String key) {
+        try (Cursor cursor = getReadableDatabase().query(
+                TABLE_RESOURCES,
+                new String[]{COLUMN_PAYLOAD},
+                COLUMN_KEY + " = ?",
+                new String[]{key},
+                null, null, null)) {
+            if (cursor.moveToFirst()) {
+                return cursor.getString(0);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error al leer caché para " + key, e);
+        }
+        return null;
+    }
+
+    /**
+     * Guardar (o reemplazar) el JSON de una clave
+     */
+    @Override
+    @WorkerThread
+    public void writePayload(String key, String payload) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_KEY, key);
+        values.put(COLUMN_PAYLOAD, payload);
+        values.put(COLUMN_UPDATED_AT, System.currentTimeMillis());
+
+        try {
+            getWritableDatabase().insertWithOnConflict(
+                    TABLE_RESOURCES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        } catch (Exception e) {
+            Log.e(TAG, "Error al guardar caché para " + key, e);
+        }
+    }
+
+    /**
+     * Eliminar una clave
+     */
+    @Override
+    @WorkerThread
+    public void deletePayload(String key) {
+        try {
+            getWritableDatabase().delete(TABLE_RESOURCES, COLUMN_KEY + " = ?", new String[]{key});
+        } catch (Exception e) {
+            Log.e(TAG, "Error al eliminar caché para " + key, e);
+        }
+    }
+
+    /**
+     * Eliminar todas las claves que empiezan con un prefijo (ej: al cambiar de servidor)
+     */
+    @WorkerThread
+    public void deleteByPrefix(String keyPrefix) {
+        try {
+            getWritableDatabase().delete(TABLE_RESOURCES, COLUMN_KEY + " LIKE ?",
+                    new String[]{keyPrefix + "%"});
+        } catch (Exception e) {
+            Log.e(TAG, "Error al limpiar caché con prefijo " + keyPrefix, e);
+        }
+    }
+
+    // ==========================================
+    // COLA DE ESCRITURAS (OUTBOX)
+    // ==========================================
+
+    /**
+     * Leer toda la cola en orden de llegada (clave -> JSON)
+     */
+    @Override
+    @WorkerThread
+    public Map<String, String> readOutbox() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (Cursor cursor = getReadableDatabase().query(
+                TABLE_OUTBOX,
+                new String[]{COLUMN_MUTATION_KEY, COLUMN_PAYLOAD},
+                null, null, null, null,
+                COLUMN_SEQUENCE + " ASC")) {
+            while (cursor.moveToNext()) {
+                entries.put(cursor.getString(0), cursor.getString(1));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error al leer la cola de escrituras", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Agregar una escritura al final de la cola, o actualizarla sin cambiar su posición
+     */
+    @Override
+    @WorkerThread
+    public void writeOutboxEntry(String mutationKey, String payload) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PAYLOAD, payload);
+        values.put(COLUMN_UPDATED_AT, System.currentTimeMillis());
+
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            int updated = db.update(TABLE_OUTBOX, values, COLUMN_MUTATION_KEY + " = ?",
+                    new String[]{mutationKey});
+            if (updated == 0) {
+                values.put(COLUMN_MUTATION_KEY, mutationKey);
+                db.insertOrThrow(TABLE_OUTBOX, null, values);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error al guardar escritura pendiente " + mutationKey, e);
+        }
+    }
+
+    /**
+     * Quitar una escritura de la cola (enviada o descartada)
+     */
+    @Override
+    @WorkerThread
+    public void deleteOutboxEntry(String mutationKey) {
+        try {
+            getWritableDatabase().delete(TABLE_OUTBOX, COLUMN_MUTATION_KEY + " = ?",
+                    new String[]{mutationKey});
+        } catch (Exception e) {
+            Log.e(TAG, "Error al eliminar escritura pendiente " + mutationKey, e);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.regenerarestudio.regenerapp.data.models.Material;
+import com.regenerarestudio.regenerapp.utils.SearchText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de búsqueda en memoria del catálogo de materiales (funciona sin conexión)
+ * Indexa nombre, código, marca y categoría, sin distinguir mayúsculas ni tildes:
+ * - Prefijo: términos únicos ordenados + búsqueda binaria ("cem" → "cemento")
+ * - Aproximada: trigramas de cada término para tolerar errores de tipeo ("cemneto" → "cemento")
+ * - Varias palabras: cada palabra de la consulta debe coincidir con algún término del material
+ *
+ * Inmutable: se construye una vez por versión del catálogo en segundo plano
+ * y luego se consulta desde cualquier hilo.
+ */
+public final class MaterialSearchIndex {
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    // Similitud mínima de trigramas (coeficiente de Dice) para aceptar un término aproximado
+    private static final float MIN_TRIGRAM_SIMILARITY = 0.4f;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    // Puntajes
+    private static final int SCORE_EXACT_TERM = 30;
+    private static final int SCORE_PREFIX_TERM = 20;
+    private static final int SCORE_FUZZY_TERM = 10;
+    private static final int SCORE_EXACT_CODE = 100;
+    private static final int SCORE_NAME_START = 15;
+
+    private final List<Material> materials;
+    private final String[] names;      // nombre normalizado por material
+    private final int[] nameRanks;     // material -> posición en orden alfabético (desempate)
+    private final int[] byNameRank;    // posición alfabética -> material
+    private final String[] codes;      // código normalizado y sin separadores
+    private final Long[] categoryIds;  // categoría de cada material (filtro)
+    private final String[] terms;      // términos únicos ordenados
+    private final int[][] termItems;   // término -> posiciones de materiales (ascendentes)
+    private final Map<String, int[]> trigramTerms; // trigrama -> términos que lo contienen
+
+    private MaterialSearchIndex(List<Material> materials, String[] names, int[] byNameRank, String[] codes,
+                                String[] terms, int[][] termItems, Map<String, int[]> trigramTerms) {
+        this.materials = materials;
+        this.names = names;
+        this.byNameRank = byNameRank;
+        this.nameRanks = new int[byNameRank.length];
+        for (int rank = 0; rank < byNameRank.length; rank++) {
+            nameRanks[byNameRank[rank]] = rank;
+        }
+        this.codes = codes;
+        this.categoryIds = new Long[materials.size()];
+        for (int i = 0; i < categoryIds.length; i++) {
+            categoryIds[i] = materials.get(i).getCategoryId();
+        }
+        this.terms = terms;
+        this.termItems = termItems;
+        this.trigramTerms = trigramTerms;
+    }
+
+    // ==========================================
+    // CONSTRUCCIÓN
+    // ==========================================
+
+    /**
+     * Construir el índice (costoso con catálogos grandes: siempre fuera del hilo principal)
+     */
+    @WorkerThread
+    @NonNull
+    public static MaterialSearchIndex build(@NonNull List<Material> catalog) {
+        List<Material> materials = Collections.unmodifiableList(new ArrayList<>(catalog));
+        int count = materials.size();
+        String[] names = new String[count];
+        String[] codes = new String[count];
+        Map<String, IntList> postings = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            Material material = materials.get(i);
+            names[i] = SearchText.normalize(material.getName());
+            codes[i] = SearchText.normalize(material.getCode()).replace(" ", "");
+
+            addTerms(postings, names[i], i);
+            addTerms(postings, SearchText.normalize(material.getCode()), i);
+            addTerms(postings, SearchText.normalize(material.getBrand()), i);
+            addTerms(postings, SearchText.normalize(material.getCategoryName()), i);
+            // Código completo sin separadores: "cem123" encuentra "CEM-123"
+            if (!codes[i].isEmpty()) {
+                postingsOf(postings, codes[i]).addUnique(i);
+            }
+        }
+
+        Integer[] sortedByName = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sortedByName[i] = i;
+        }
+        Arrays.sort(sortedByName, (a, b) -> names[a].compareTo(names[b]));
+        int[] byNameRank = new int[count];
+        for (int rank = 0; rank < count; rank++) {
+            byNameRank[rank] = sortedByName[rank];
+        }
+
+        String[] terms = postings.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+
+        int[][] termItems = new int[terms.length][];
+        Map<String, IntList> trigramPostings = new HashMap<>();
+        for (int t = 0; t < terms.length; t++) {
+            termItems[t] = postings.get(terms[t]).toArray();
+            if (terms[t].length() >= MIN_FUZZY_LENGTH) {
+                for (String gram : trigrams(terms[t])) {
+                    postingsOf(trigramPostings, gram).addUnique(t);
+                }
+            }
+        }
+
+        Map<String, int[]> trigramTerms = new HashMap<>(trigramPostings.size() * 2);
+        for (Map.Entry<String, IntList> entry : trigramPostings.entrySet()) {
+            trigramTerms.put(entry.getKey(), entry.getValue().toArray());
+        }
+
+        return new MaterialSearchIndex(materials, names, byNameRank, codes, terms, termItems, trigramTerms);
+    }
+
+    private static void addTerms(Map<String, IntList> postings, String normalized, int item) {
+        if (normalized.isEmpty()) {
+            return;
+        }
+        for (String term : normalized.split(" ")) {
+            if (!term.isEmpty()) {
+                postingsOf(postings, term).addUnique(item);
+            }
+        }
+    }
+
+    private static IntList postingsOf(Map<String, IntList> postings, String key) {
+        IntList list = postings.get(key);
+        if (list == null) {
+            list = new IntList();
+            postings.put(key, list);
+        }
+        return list;
+    }
+
+    // ==========================================
+    // CONSULTA
+    // ==========================================
+
+    /**
+     * Buscar materiales (mejores coincidencias primero; consulta vacía = lista vacía)
+     */
+    @NonNull
+    public List<Material> search(String query, int limit) {
+        return search(query, null, limit);
+    }
+
+    /**
+     * Buscar materiales dentro de una categoría (null = todas)
+     * Con consulta vacía y categoría elegida devuelve la categoría en orden alfabético.
+     */
+    @NonNull
+    public List<Material> search(String query, @Nullable Long categoryId, int limit) {
+        String normalized = SearchText.normalize(query);
+        if (materials.isEmpty() || (normalized.isEmpty() && categoryId == null)) {
+            return Collections.emptyList();
+        }
+        if (normalized.isEmpty()) {
+            return browseCategory(categoryId, limit);
+        }
+
+        String[] words = normalized.split(" ");
+        int count = materials.size();
+        int[] scores = new int[count];
+        int[] matchedWords = new int[count];
+        int[] wordScores = new int[count];
+        IntList touched = new IntList();
+
+        for (int w = 0; w < words.length; w++) {
+            matchWord(words[w], wordScores, touched);
+
+            // Solo siguen siendo candidatos los materiales que coincidieron con todas las palabras anteriores
+            for (int k = 0; k < touched.size; k++) {
+                int item = touched.values[k];
+                if (matchedWords[item] == w) {
+                    matchedWords[item]++;
+                    scores[item] += wordScores[item];
+                }
+                wordScores[item] = 0;
+            }
+            touched.size = 0;
+        }
+
+        // Candidatos finales + bonos por coincidencia de la consulta completa
+        // Clave ordenable sin boxing: puntaje descendente y luego nombre ascendente
+        String compactQuery = normalized.replace(" ", "");
+        long[] ranked = new long[count];
+        int hits = 0;
+        for (int item = 0; item < count; item++) {
+            if (matchedWords[item] != words.length
+                    || (categoryId != null && !categoryId.equals(categoryIds[item]))) {
+                continue;
+            }
+            int score = scores[item];
+            if (codes[item].equals(compactQuery)) {
+                score += SCORE_EXACT_CODE;
+            }
+            if (names[item].startsWith(normalized)) {
+                score += SCORE_NAME_START;
+            }
+            ranked[hits++] = ((long) (Integer.MAX_VALUE - score) << 32) | nameRanks[item];
+        }
+        Arrays.sort(ranked, 0, hits);
+
+        int size = Math.min(limit, hits);
+        List<Material> results = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            results.add(materials.get(byNameRank[(int) ranked[k]]));
+        }
+        return results;
+    }
+
+    private List<Material> browseCategory(Long categoryId, int limit) {
+        List<Material> results = new ArrayList<>();
+        for (int rank = 0; rank < byNameRank.length && results.size() < limit; rank++) {
+            int item = byNameRank[rank];
+            if (categoryId.equals(categoryIds[item])) {
+                results.add(materials.get(item));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Mejor puntaje de una palabra de la consulta para cada material (prefijo y, si hace falta, trigramas)
+     */
+    private void matchWord(String word, int[] wordScores, IntList touched) {
+        int first = lowerBound(word);
+        int prefixMatches = 0;
+        for (int t = first; t < terms.length && terms[t].startsWith(word); t++) {
+            int score = terms[t].length() == word.length() ? SCORE_EXACT_TERM : SCORE_PREFIX_TERM;
+            offer(termItems[t], score, wordScores, touched);
+            prefixMatches++;
+        }
+
+        if (word.length() < MIN_FUZZY_LENGTH || prefixMatches > 0) {
+            return;
+        }
+
+        // Sin coincidencias por prefijo: términos con trigramas suficientes en común
+        Set<String> grams = trigrams(word);
+        int[] shared = new int[terms.length];
+        IntList candidates = new IntList();
+        for (String gram : grams) {
+            int[] gramTerms = trigramTerms.get(gram);
+            if (gramTerms == null) {
+                continue;
+            }
+            for (int t : gramTerms) {
+                if (shared[t]++ == 0) {
+                    candidates.add(t);
+                }
+            }
+        }
+
+        for (int k = 0; k < candidates.size; k++) {
+            int t = candidates.values[k];
+            // Un término de longitud n tiene n trigramas (con relleno en los extremos)
+            float similarity = 2f * shared[t] / (grams.size() + terms[t].length());
+            if (similarity >= MIN_TRIGRAM_SIMILARITY) {
+                offer(termItems[t], Math.round(SCORE_FUZZY_TERM * similarity), wordScores, touched);
+            }
+        }
+    }
+
+    private static void offer(int[] items, int score, int[] wordScores, IntList touched) {
+        for (int item : items) {
+            if (wordScores[item] == 0) {
+                touched.add(item);
+            }
+            if (score > wordScores[item]) {
+                wordScores[item] = score;
+            }
+        }
+    }
+
+    /**
+     * Primer término >= prefix (búsqueda binaria sobre los términos ordenados)
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int size() {
+        return materials.size();
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    @NonNull
+    public List<Material> getMaterials() {
+        return materials;
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = " " + term + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Lista de enteros sin boxing (listas de posiciones del índice)
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Las posiciones se agregan en orden: basta comparar con la última
+        void addUnique(int value) {
+            if (size == 0 || values[size - 1] != value) {
+                add(value);
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import androidx.annotation.WorkerThread;
+
+import java.util.Map;
+
+/**
+ * Almacenamiento de la cola de escrituras pendientes (ver MutationOutbox)
+ * Lo implementa {@link LocalCacheDatabase}.
+ */
+public interface OutboxStore {
+
+    /**
+     * Leer toda la cola en orden de llegada (clave -> JSON)
+     */
+    @WorkerThread
+    Map<String, String> readOutbox();
+
+    /**
+     * Agregar una escritura al final de la cola, o actualizarla sin cambiar su posición
+     */
+    @WorkerThread
+    void writeOutboxEntry(String mutationKey, String payload);
+
+    /**
+     * Quitar una escritura de la cola (enviada o descartada)
+     */
+    @WorkerThread
+    void deleteOutboxEntry(String mutationKey);
+}
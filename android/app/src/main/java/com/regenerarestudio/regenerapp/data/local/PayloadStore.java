@@ -0,0 +1,30 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Almacenamiento de copias locales por clave (JSON) que usa la sincronización incremental
+ * Lo implementa {@link LocalCacheDatabase}.
+ */
+public interface PayloadStore {
+
+    /**
+     * Leer el JSON guardado para una clave (null si no existe)
+     */
+    @WorkerThread
+    @Nullable
+    String readPayload(String key);
+
+    /**
+     * Guardar (o reemplazar) el JSON de una clave
+     */
+    @WorkerThread
+    void writePayload(String key, String payload);
+
+    /**
+     * Eliminar una clave
+     */
+    @WorkerThread
+    void deletePayload(String key);
+}
@@ -0,0 +1,146 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.regenerarestudio.regenerapp.data.models.Project;
+import com.regenerarestudio.regenerapp.utils.SearchText;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Índice de búsqueda en memoria de la lista de proyectos
+ * Nombre, cliente y ubicación se normalizan una sola vez por carga (sin tildes ni mayúsculas);
+ * fase y tipo se guardan como bitsets, así un chip descarta proyectos sin mirar el texto.
+ *
+ * Inmutable: se construye en segundo plano por cada lista nueva y se consulta desde cualquier hilo.
+ */
+public final class ProjectSearchIndex {
+
+    // Cada cuántas filas se revisa si el filtrado fue cancelado
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final List<Project> projects;
+    private final String[] keys;                 // "nombre cliente ubicación" normalizado
+    private final Map<String, BitSet> byPhase;   // fase -> proyectos
+    private final Map<String, BitSet> byType;    // tipo -> proyectos
+
+    private ProjectSearchIndex(List<Project> projects, String[] keys,
+                               Map<String, BitSet> byPhase, Map<String, BitSet> byType) {
+        this.projects = projects;
+        this.keys = keys;
+        this.byPhase = byPhase;
+        this.byType = byType;
+    }
+
+    /**
+     * Construir el índice (una pasada de normalización por proyecto)
+     */
+    @WorkerThread
+    @NonNull
+    public static ProjectSearchIndex build(@NonNull List<Project> source) {
+        List<Project> projects = new ArrayList<>(source);
+        int size = projects.size();
+        String[] keys = new String[size];
+        Map<String, BitSet> byPhase = new HashMap<>();
+        Map<String, BitSet> byType = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Project project = projects.get(i);
+            keys[i] = SearchText.normalize(join(project.getName(), project.getClient(), project.getLocation()));
+            mark(byPhase, project.getCurrentPhase(), i, size);
+            mark(byType, project.getProjectType(), i, size);
+        }
+        return new ProjectSearchIndex(projects, keys, byPhase, byType);
+    }
+
+    /**
+     * Proyectos que contienen todas las palabras (ya normalizadas) y coinciden con fase y tipo
+     * Conserva el orden de la lista original. Devuelve null si {@code cancelled} se activa a mitad.
+     *
+     * @param phase fase exacta, o vacío/null para todas
+     * @param type  tipo exacto, o vacío/null para todos
+     */
+    @WorkerThread
+    @Nullable
+    public List<Project> filter(@NonNull String[] queryWords, @Nullable String type, @Nullable String phase,
+                                @NonNull BooleanSupplier cancelled) {
+        BitSet candidates = new BitSet(keys.length);
+        candidates.set(0, keys.length);
+        if (!restrict(candidates, byPhase, phase) || !restrict(candidates, byType, type)) {
+            return new ArrayList<>();
+        }
+
+        List<Project> result = new ArrayList<>();
+        int checked = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (++checked % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            if (containsAll(keys[i], queryWords)) {
+                result.add(projects.get(i));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return projects.size();
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    /**
+     * Intersecar con el bitset del valor pedido (false si ningún proyecto lo tiene)
+     */
+    private static boolean restrict(BitSet candidates, Map<String, BitSet> bitsets, String value) {
+        if (value == null || value.isEmpty()) {
+            return true;
+        }
+        BitSet matching = bitsets.get(value);
+        if (matching == null) {
+            return false;
+        }
+        candidates.and(matching);
+        return true;
+    }
+
+    private static boolean containsAll(String key, String[] words) {
+        for (String word : words) {
+            if (!key.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void mark(Map<String, BitSet> bitsets, String value, int position, int size) {
+        if (value == null) {
+            return;
+        }
+        BitSet bits = bitsets.get(value);
+        if (bits == null) {
+            bits = new BitSet(size);
+            bitsets.put(value, bits);
+        }
+        bits.set(position);
+    }
+
+    private static String join(String... parts) {
+        StringBuilder builder = new StringBuilder();
+        for (String part : parts) {
+            if (part != null) {
+                builder.append(part).append(' ');
+            }
+        }
+        return builder.toString();
+    }
+}
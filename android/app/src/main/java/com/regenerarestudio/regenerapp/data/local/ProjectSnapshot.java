@@ -0,0 +1,93 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.models.Project;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instantánea de la última lista de proyectos recibida del servidor
+ * Es un archivo JSON pequeño (no la base de datos) para poder leerlo en el onCreate de
+ * ProjectSelectionActivity y pintar la lista en el primer frame, sin esperar a abrir
+ * SQLite ni a la red. La escritura se hace en el hilo de disco y reemplaza el archivo
+ * de forma atómica (archivo temporal + rename).
+ */
+public final class ProjectSnapshot {
+
+    private static final String TAG = "ProjectSnapshot";
+
+    private static final String FILE_NAME = "project_snapshot.json";
+
+    private static final Type PROJECT_LIST_TYPE = new TypeToken<List<Project>>() {}.getType();
+
+    private ProjectSnapshot() {
+    }
+
+    /**
+     * Leer la instantánea (lectura corta y deliberada en el hilo principal)
+     *
+     * @return la lista guardada, o null si no hay o está dañada
+     */
+    @MainThread
+    @Nullable
+    public static List<Project> read(@NonNull Context context) {
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        if (!file.exists()) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            List<Project> projects = ApiClient.getGson().fromJson(reader, PROJECT_LIST_TYPE);
+            Log.d(TAG, "Instantánea leída: " + (projects != null ? projects.size() : 0) + " proyectos en " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+            return projects;
+        } catch (Exception e) {
+            Log.w(TAG, "Instantánea de proyectos inválida, se ignora", e);
+            return null;
+        }
+    }
+
+    /**
+     * Guardar la lista recibida del servidor para el próximo arranque
+     */
+    public static void writeAsync(@NonNull Context context, @NonNull List<Project> projects) {
+        Context appContext = context.getApplicationContext();
+        List<Project> copy = new ArrayList<>(projects);
+
+        AppExecutors.diskIO().execute(() -> {
+            File file = new File(appContext.getFilesDir(), FILE_NAME);
+            File temp = new File(appContext.getFilesDir(), FILE_NAME + ".tmp");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                ApiClient.getGson().toJson(copy, PROJECT_LIST_TYPE, writer);
+            } catch (Exception e) {
+                Log.e(TAG, "Error al guardar instantánea de proyectos", e);
+                temp.delete();
+                return;
+            }
+            if (!temp.renameTo(file)) {
+                Log.w(TAG, "No se pudo reemplazar la instantánea de proyectos");
+                temp.delete();
+            }
+        });
+    }
+}
@@ -0,0 +1,249 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.regenerarestudio.regenerapp.data.models.Supplier;
+import com.regenerarestudio.regenerapp.data.models.SupplierWithPrice;
+import com.regenerarestudio.regenerapp.data.responses.SupplierPriceMatrixResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Matriz local de precios vigentes (material × proveedor)
+ * Las filas se agrupan por material y, dentro de cada material, van ordenadas por precio final;
+ * cada columna es un arreglo primitivo. Así:
+ * - "Proveedores del material X por precio" es una búsqueda binaria + un rango contiguo
+ * - "Proveedor más barato del material X" es la primera fila de ese rango
+ *
+ * Inmutable: se construye una vez por descarga en segundo plano y se consulta desde cualquier hilo.
+ */
+public final class SupplierPriceMatrix {
+
+    // Materiales (ordenados) y dónde empiezan sus filas: material m ocupa [materialStart[m], materialStart[m + 1])
+    private final long[] materialIds;
+    private final int[] materialStart;
+
+    // Columnas por fila
+    private final int[] rowSupplier;     // posición en suppliers
+    private final double[] rowPrice;
+    private final double[] rowDiscount;
+    private final double[] rowFinalPrice;
+    private final String[] rowCurrency;
+    private final long[] rowUpdatedAt;   // epoch ms
+
+    // Proveedores (ordenados por id)
+    private final long[] supplierIds;
+    private final SupplierPriceMatrixResponse.SupplierInfo[] suppliers;
+    private final String[] supplierLocations;   // precalculados: se repiten en cada fila del proveedor
+    private final String[] supplierWhatsappUrls;
+
+    private SupplierPriceMatrix(long[] materialIds, int[] materialStart, int[] rowSupplier,
+                                double[] rowPrice, double[] rowDiscount, double[] rowFinalPrice,
+                                String[] rowCurrency, long[] rowUpdatedAt,
+                                long[] supplierIds, SupplierPriceMatrixResponse.SupplierInfo[] suppliers) {
+        this.materialIds = materialIds;
+        this.materialStart = materialStart;
+        this.rowSupplier = rowSupplier;
+        this.rowPrice = rowPrice;
+        this.rowDiscount = rowDiscount;
+        this.rowFinalPrice = rowFinalPrice;
+        this.rowCurrency = rowCurrency;
+        this.rowUpdatedAt = rowUpdatedAt;
+        this.supplierIds = supplierIds;
+        this.suppliers = suppliers;
+        this.supplierLocations = new String[suppliers.length];
+        this.supplierWhatsappUrls = new String[suppliers.length];
+        for (int i = 0; i < suppliers.length; i++) {
+            supplierLocations[i] = locationOf(suppliers[i]);
+            String whatsappUrl = Supplier.whatsappUrlForPhone(suppliers[i].getPhone());
+            supplierWhatsappUrls[i] = whatsappUrl != null ? whatsappUrl : "";
+        }
+    }
+
+    // ==========================================
+    // CONSTRUCCIÓN
+    // ==========================================
+
+    /**
+     * Construir la matriz desde la respuesta columnar (filas sin proveedor conocido se descartan)
+     */
+    @WorkerThread
+    @NonNull
+    public static SupplierPriceMatrix build(@NonNull SupplierPriceMatrixResponse response) {
+        // Proveedores ordenados por id para resolverlos con búsqueda binaria
+        List<SupplierPriceMatrixResponse.SupplierInfo> supplierList = new ArrayList<>(response.getSuppliers());
+        supplierList.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        SupplierPriceMatrixResponse.SupplierInfo[] suppliers =
+                supplierList.toArray(new SupplierPriceMatrixResponse.SupplierInfo[0]);
+        long[] supplierIds = new long[suppliers.length];
+        for (int i = 0; i < suppliers.length; i++) {
+            supplierIds[i] = suppliers[i].getId();
+        }
+
+        long[] materials = response.getMaterialIds();
+        long[] rowSuppliers = response.getSupplierIds();
+        double[] prices = response.getPrices();
+        double[] discounts = response.getDiscounts();
+        String[] currencies = response.getCurrencies();
+        long[] updated = response.getUpdatedAt();
+        int rows = Math.min(materials.length, Math.min(rowSuppliers.length, prices.length));
+
+        double[] finalPrices = new double[rows];
+        List<Integer> valid = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            if (Arrays.binarySearch(supplierIds, rowSuppliers[i]) < 0) {
+                continue;
+            }
+            double discount = i < discounts.length ? discounts[i] : 0;
+            finalPrices[i] = prices[i] * (1 - discount / 100);
+            valid.add(i);
+        }
+
+        // Material y luego precio final (el servidor ordena por precio de lista, no por precio con descuento)
+        valid.sort((a, b) -> {
+            int byMaterial = Long.compare(materials[a], materials[b]);
+            if (byMaterial != 0) return byMaterial;
+            int byPrice = Double.compare(finalPrices[a], finalPrices[b]);
+            return byPrice != 0 ? byPrice : Long.compare(rowSuppliers[a], rowSuppliers[b]);
+        });
+
+        int count = valid.size();
+        int[] rowSupplier = new int[count];
+        double[] rowPrice = new double[count];
+        double[] rowDiscount = new double[count];
+        double[] rowFinalPrice = new double[count];
+        String[] rowCurrency = new String[count];
+        long[] rowUpdatedAt = new long[count];
+
+        long[] materialIds = new long[count];
+        int[] materialStart = new int[count + 1];
+        int materialCount = 0;
+
+        for (int row = 0; row < count; row++) {
+            int source = valid.get(row);
+            rowSupplier[row] = Arrays.binarySearch(supplierIds, rowSuppliers[source]);
+            rowPrice[row] = prices[source];
+            rowDiscount[row] = source < discounts.length ? discounts[source] : 0;
+            rowFinalPrice[row] = finalPrices[source];
+            rowCurrency[row] = source < currencies.length ? currencies[source] : "USD";
+            rowUpdatedAt[row] = source < updated.length ? updated[source] : 0L;
+
+            if (materialCount == 0 || materialIds[materialCount - 1] != materials[source]) {
+                materialIds[materialCount] = materials[source];
+                materialStart[materialCount] = row;
+                materialCount++;
+            }
+        }
+        materialStart[materialCount] = count;
+
+        return new SupplierPriceMatrix(
+                Arrays.copyOf(materialIds, materialCount), Arrays.copyOf(materialStart, materialCount + 1),
+                rowSupplier, rowPrice, rowDiscount, rowFinalPrice, rowCurrency, rowUpdatedAt,
+                supplierIds, suppliers);
+    }
+
+    // ==========================================
+    // CONSULTAS
+    // ==========================================
+
+    /**
+     * ¿La matriz tiene precios para este material?
+     */
+    public boolean hasMaterial(long materialId) {
+        return Arrays.binarySearch(materialIds, materialId) >= 0;
+    }
+
+    /**
+     * Proveedores con precio vigente para el material, del más barato al más caro (precio final)
+     */
+    @NonNull
+    public List<SupplierWithPrice> suppliersFor(long materialId) {
+        int m = Arrays.binarySearch(materialIds, materialId);
+        if (m < 0) {
+            return Collections.emptyList();
+        }
+        int from = materialStart[m];
+        int to = materialStart[m + 1];
+        List<SupplierWithPrice> result = new ArrayList<>(to - from);
+        for (int row = from; row < to; row++) {
+            result.add(toSupplierWithPrice(row));
+        }
+        return result;
+    }
+
+    /**
+     * Proveedor más barato del material (precio final), o null si nadie lo vende
+     */
+    @Nullable
+    public SupplierWithPrice cheapestFor(long materialId) {
+        int m = Arrays.binarySearch(materialIds, materialId);
+        return m >= 0 ? toSupplierWithPrice(materialStart[m]) : null;
+    }
+
+    /**
+     * Precio final más bajo del material, o NaN si nadie lo vende (sin crear objetos)
+     */
+    public double cheapestPrice(long materialId) {
+        int m = Arrays.binarySearch(materialIds, materialId);
+        return m >= 0 ? rowFinalPrice[materialStart[m]] : Double.NaN;
+    }
+
+    /**
+     * Precio final más bajo de cada material (NaN donde no hay proveedor), para comparar presupuestos
+     */
+    @NonNull
+    public double[] cheapestPrices(@NonNull long[] materialIds) {
+        double[] result = new double[materialIds.length];
+        for (int i = 0; i < materialIds.length; i++) {
+            result[i] = cheapestPrice(materialIds[i]);
+        }
+        return result;
+    }
+
+    public int materialCount() {
+        return materialIds.length;
+    }
+
+    public int size() {
+        return rowFinalPrice.length;
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private SupplierWithPrice toSupplierWithPrice(int row) {
+        int s = rowSupplier[row];
+        SupplierPriceMatrixResponse.SupplierInfo info = suppliers[s];
+
+        SupplierWithPrice supplier = new SupplierWithPrice();
+        supplier.setSupplierId(info.getId());
+        supplier.setSupplierName(info.getName());
+        supplier.setCommercialName(info.getCommercialName());
+        supplier.setPrice(rowPrice[row]);
+        supplier.setDiscountPercentage(rowDiscount[row]);
+        supplier.setCurrency(rowCurrency[row]);
+        supplier.setPriceUpdatedAt(rowUpdatedAt[row]);
+        supplier.setDeliveryTime(info.getDeliveryTime());
+        supplier.setRating(info.getRating() != null ? info.getRating() : 0);
+        supplier.setPreferred(info.isPreferred());
+        supplier.setLocation(supplierLocations[s]);
+        supplier.setPhone(info.getPhone() != null ? info.getPhone() : "");
+        supplier.setWhatsappUrl(supplierWhatsappUrls[s]);
+        return supplier;
+    }
+
+    private static String locationOf(SupplierPriceMatrixResponse.SupplierInfo info) {
+        String city = info.getCity();
+        String zone = info.getZone();
+        if (city != null && !city.isEmpty() && zone != null && !zone.isEmpty()) {
+            return city + " - " + zone;
+        }
+        return city != null ? city : (zone != null ? zone : "");
+    }
+}
@@ -0,0 +1,190 @@
+package com.regenerarestudio.regenerapp.data.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Modelo de item del presupuesto inicial
+ * Corresponde a BudgetItemListSerializer del backend Django.
+ * Se decodifica en streaming con {@link Adapter} (sin reflexión ni Map intermedio).
+ */
+@JsonAdapter(BudgetItem.Adapter.class)
+public class BudgetItem {
+
+    private Long id;
+    private Long projectId;
+    private String description;
+    private String category;
+    private String categoryDisplay;
+    private String spaces;
+    private Double quantity;
+    private String unit;
+    private Double unitPrice;
+    private Double totalPrice;
+    private Long materialId;
+    private String supplierName;
+    private Long supplierId;
+    private String notes;
+    private String updatedAt;
+
+    // Constructor vacío
+    public BudgetItem() {}
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProjectId() { return projectId; }
+    public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getCategoryDisplay() { return categoryDisplay; }
+    public void setCategoryDisplay(String categoryDisplay) { this.categoryDisplay = categoryDisplay; }
+
+    public String getSpaces() { return spaces; }
+    public void setSpaces(String spaces) { this.spaces = spaces; }
+
+    public Double getQuantity() { return quantity != null ? quantity : 1.0; }
+    public void setQuantity(Double quantity) { this.quantity = quantity; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public Double getUnitPrice() { return unitPrice != null ? unitPrice : 0.0; }
+    public void setUnitPrice(Double unitPrice) { this.unitPrice = unitPrice; }
+
+    /**
+     * Total del backend o, si no viene, cantidad x precio unitario
+     */
+    public Double getTotalPrice() {
+        return totalPrice != null ? totalPrice : getQuantity() * getUnitPrice();
+    }
+    public void setTotalPrice(Double totalPrice) { this.totalPrice = totalPrice; }
+
+    public Long getMaterialId() { return materialId; }
+    public void setMaterialId(Long materialId) { this.materialId = materialId; }
+
+    public String getSupplierName() { return supplierName; }
+    public void setSupplierName(String supplierName) { this.supplierName = supplierName; }
+
+    public Long getSupplierId() { return supplierId; }
+    public void setSupplierId(Long supplierId) { this.supplierId = supplierId; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+
+    // ==========================================
+    // TYPE ADAPTER (STREAMING)
+    // ==========================================
+
+    /**
+     * Lee/escribe BudgetItem directamente del stream JSON con los nombres de campo del backend
+     * La escritura usa los mismos nombres para que la caché local sea compatible con el API.
+     */
+    public static class Adapter extends TypeAdapter<BudgetItem> {
+
+        @Override
+        public BudgetItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            BudgetItem item = new BudgetItem();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        item.id = JsonFields.nextLong(in);
+                        break;
+                    case "project":
+                        item.projectId = JsonFields.nextLong(in);
+                        break;
+                    case "description":
+                        item.description = JsonFields.nextString(in);
+                        break;
+                    case "category":
+                        item.category = JsonFields.nextString(in);
+                        break;
+                    case "category_display":
+                        item.categoryDisplay = JsonFields.nextString(in);
+                        break;
+                    case "spaces":
+                        item.spaces = JsonFields.nextString(in);
+                        break;
+                    case "quantity":
+                        item.quantity = JsonFields.nextDouble(in);
+                        break;
+                    case "unit":
+                        item.unit = JsonFields.nextString(in);
+                        break;
+                    case "unit_price":
+                        item.unitPrice = JsonFields.nextDouble(in);
+                        break;
+                    case "total_price":
+                        item.totalPrice = JsonFields.nextDouble(in);
+                        break;
+                    case "material":
+                        item.materialId = JsonFields.nextLong(in);
+                        break;
+                    case "supplier":
+                        item.supplierId = JsonFields.nextLong(in);
+                        break;
+                    case "supplier_name":
+                        item.supplierName = JsonFields.nextString(in);
+                        break;
+                    case "notes":
+                        item.notes = JsonFields.nextString(in);
+                        break;
+                    case "updated_at":
+                        item.updatedAt = JsonFields.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return item;
+        }
+
+        @Override
+        public void write(JsonWriter out, BudgetItem item) throws IOException {
+            if (item == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            JsonFields.writeNumber(out, "id", item.id);
+            JsonFields.writeNumber(out, "project", item.projectId);
+            out.name("description").value(item.description);
+            out.name("category").value(item.category);
+            out.name("category_display").value(item.categoryDisplay);
+            out.name("spaces").value(item.spaces);
+            JsonFields.writeNumber(out, "quantity", item.quantity);
+            out.name("unit").value(item.unit);
+            JsonFields.writeNumber(out, "unit_price", item.unitPrice);
+            JsonFields.writeNumber(out, "total_price", item.totalPrice);
+            JsonFields.writeNumber(out, "material", item.materialId);
+            JsonFields.writeNumber(out, "supplier", item.supplierId);
+            out.name("supplier_name").value(item.supplierName);
+            out.name("notes").value(item.notes);
+            out.name("updated_at").value(item.updatedAt);
+            out.endObject();
+        }
+    }
+}
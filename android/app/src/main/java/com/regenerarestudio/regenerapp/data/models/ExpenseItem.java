@@ -0,0 +1,307 @@
+package com.regenerarestudio.regenerapp.data.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Modelo de gasto real
+ * Corresponde a RealExpenseListSerializer del backend Django.
+ * Se decodifica en streaming con {@link Adapter} (sin reflexión ni Map intermedio).
+ */
+@JsonAdapter(ExpenseItem.Adapter.class)
+public class ExpenseItem {
+
+    private long id;
+    private Long projectId;
+    private String materialName;
+    private String materialCode;
+    private String category;
+    private String spaces;
+    private double quantity;
+    private String unit;
+    private double unitPrice;
+    private double discountPercentage;
+    private double discountAmount;   // descuento fijo (discount_amount), además del porcentual
+    private Double totalPrice;       // total_price del servidor (null en filas optimistas)
+    private Long supplierId;
+    private String supplierName;
+    private String invoiceNumber;
+    private Long budgetItemId;
+    private String notes;
+    private Date purchaseDate;
+    private String displayDate;
+    private String displayTime;
+    private String updatedAt;
+
+    // Constructor vacío
+    public ExpenseItem() {}
+
+    // Constructor completo (compatible con adapter)
+    public ExpenseItem(long id, String materialName, String materialCode, double quantity,
+                       String unit, double unitPrice, double discountPercentage,
+                       String supplierName, String invoiceNumber, Date purchaseDate,
+                       String displayDate, String displayTime) {
+        this.id = id;
+        this.materialName = materialName;
+        this.materialCode = materialCode;
+        this.quantity = quantity;
+        this.unit = unit;
+        this.unitPrice = unitPrice;
+        this.discountPercentage = discountPercentage;
+        this.supplierName = supplierName;
+        this.invoiceNumber = invoiceNumber;
+        this.purchaseDate = purchaseDate;
+        this.displayDate = displayDate;
+        this.displayTime = displayTime;
+    }
+
+    // Métodos calculados (requeridos por el adapter)
+    public double getSubtotal() {
+        return quantity * unitPrice;
+    }
+
+    /**
+     * Total del gasto: el total_price del servidor; si la fila aún no lo tiene (escritura optimista),
+     * la fórmula de RealExpense.save: subtotal - descuento porcentual - descuento fijo, mínimo 0
+     */
+    public double getTotalPrice() {
+        if (totalPrice != null) {
+            return totalPrice;
+        }
+        double subtotal = getSubtotal();
+        double total = subtotal - subtotal * (discountPercentage / 100) - discountAmount;
+        return Math.max(total, 0.0);
+    }
+
+    /**
+     * Descuento total aplicado (total_discount del servidor)
+     */
+    public double getTotalDiscount() {
+        return getSubtotal() - getTotalPrice();
+    }
+
+    // Getters y Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public Long getProjectId() { return projectId; }
+    public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+    public String getMaterialName() { return materialName; }
+    public void setMaterialName(String materialName) { this.materialName = materialName; }
+
+    public String getMaterialCode() { return materialCode; }
+    public void setMaterialCode(String materialCode) { this.materialCode = materialCode; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getSpaces() { return spaces; }
+    public void setSpaces(String spaces) { this.spaces = spaces; }
+
+    public double getQuantity() { return quantity; }
+    public void setQuantity(double quantity) { this.quantity = quantity; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public double getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+
+    public double getDiscountPercentage() { return discountPercentage; }
+    public void setDiscountPercentage(double discountPercentage) { this.discountPercentage = discountPercentage; }
+
+    public double getDiscountAmount() { return discountAmount; }
+    public void setDiscountAmount(double discountAmount) { this.discountAmount = discountAmount; }
+
+    public void setTotalPrice(Double totalPrice) { this.totalPrice = totalPrice; }
+
+    public Long getSupplierId() { return supplierId; }
+    public void setSupplierId(Long supplierId) { this.supplierId = supplierId; }
+
+    public String getSupplierName() { return supplierName; }
+    public void setSupplierName(String supplierName) { this.supplierName = supplierName; }
+
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
+
+    public Long getBudgetItemId() { return budgetItemId; }
+    public void setBudgetItemId(Long budgetItemId) { this.budgetItemId = budgetItemId; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public Date getPurchaseDate() { return purchaseDate; }
+
+    /**
+     * Asigna la fecha de compra y recalcula los textos de fecha/hora mostrados en la tabla
+     */
+    public void setPurchaseDate(Date purchaseDate) {
+        this.purchaseDate = purchaseDate;
+        if (purchaseDate != null) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(purchaseDate);
+            this.displayDate = JsonFields.twoDigits(calendar.get(Calendar.DAY_OF_MONTH)) + "/" +
+                    JsonFields.twoDigits(calendar.get(Calendar.MONTH) + 1);
+            this.displayTime = JsonFields.twoDigits(calendar.get(Calendar.HOUR_OF_DAY)) + ":" +
+                    JsonFields.twoDigits(calendar.get(Calendar.MINUTE));
+        }
+    }
+
+    public String getDisplayDate() { return displayDate; }
+    public void setDisplayDate(String displayDate) { this.displayDate = displayDate; }
+
+    public String getDisplayTime() { return displayTime; }
+    public void setDisplayTime(String displayTime) { this.displayTime = displayTime; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
+
+    @Override
+    public String toString() {
+        return "ExpenseItem{" +
+                "id=" + id +
+                ", materialName='" + materialName + '\'' +
+                ", quantity=" + quantity +
+                ", unitPrice=" + unitPrice +
+                ", discountPercentage=" + discountPercentage +
+                ", displayDate='" + displayDate + '\'' +
+                ", displayTime='" + displayTime + '\'' +
+                '}';
+    }
+
+    // ==========================================
+    // TYPE ADAPTER (STREAMING)
+    // ==========================================
+
+    /**
+     * Lee/escribe ExpenseItem directamente del stream JSON con los nombres de campo del backend
+     * La escritura usa los mismos nombres para que la caché local sea compatible con el API.
+     */
+    public static class Adapter extends TypeAdapter<ExpenseItem> {
+
+        @Override
+        public ExpenseItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            ExpenseItem item = new ExpenseItem();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        Long id = JsonFields.nextLong(in);
+                        item.id = id != null ? id : 0L;
+                        break;
+                    case "project":
+                        item.projectId = JsonFields.nextLong(in);
+                        break;
+                    case "description":
+                        item.materialName = JsonFields.nextString(in);
+                        break;
+                    case "material_code":
+                        item.materialCode = JsonFields.nextString(in);
+                        break;
+                    case "category":
+                        item.category = JsonFields.nextString(in);
+                        break;
+                    case "spaces":
+                        item.spaces = JsonFields.nextString(in);
+                        break;
+                    case "quantity":
+                        item.quantity = orZero(JsonFields.nextDouble(in));
+                        break;
+                    case "unit":
+                        item.unit = JsonFields.nextString(in);
+                        break;
+                    case "unit_price":
+                        item.unitPrice = orZero(JsonFields.nextDouble(in));
+                        break;
+                    case "discount_percentage":
+                        item.discountPercentage = orZero(JsonFields.nextDouble(in));
+                        break;
+                    case "discount_amount":
+                        item.discountAmount = orZero(JsonFields.nextDouble(in));
+                        break;
+                    case "total_price":
+                        item.totalPrice = JsonFields.nextDouble(in);
+                        break;
+                    case "supplier":
+                        item.supplierId = JsonFields.nextLong(in);
+                        break;
+                    case "supplier_name":
+                        item.supplierName = JsonFields.nextString(in);
+                        break;
+                    case "invoice_number":
+                        item.invoiceNumber = JsonFields.nextString(in);
+                        break;
+                    case "budget_item":
+                        item.budgetItemId = JsonFields.nextLong(in);
+                        break;
+                    case "notes":
+                        item.notes = JsonFields.nextString(in);
+                        break;
+                    case "purchase_date":
+                        item.setPurchaseDate(JsonFields.parseIsoDate(JsonFields.nextString(in)));
+                        break;
+                    case "updated_at":
+                        item.updatedAt = JsonFields.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            if (item.purchaseDate == null) {
+                item.displayDate = "Sin fecha";
+                item.displayTime = "--:--";
+            }
+            return item;
+        }
+
+        @Override
+        public void write(JsonWriter out, ExpenseItem item) throws IOException {
+            if (item == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("id").value(item.id);
+            JsonFields.writeNumber(out, "project", item.projectId);
+            out.name("description").value(item.materialName);
+            out.name("material_code").value(item.materialCode);
+            out.name("category").value(item.category);
+            out.name("spaces").value(item.spaces);
+            out.name("quantity").value(item.quantity);
+            out.name("unit").value(item.unit);
+            out.name("unit_price").value(item.unitPrice);
+            out.name("discount_percentage").value(item.discountPercentage);
+            out.name("discount_amount").value(item.discountAmount);
+            JsonFields.writeNumber(out, "total_price", item.totalPrice);
+            JsonFields.writeNumber(out, "supplier", item.supplierId);
+            out.name("supplier_name").value(item.supplierName);
+            out.name("invoice_number").value(item.invoiceNumber);
+            JsonFields.writeNumber(out, "budget_item", item.budgetItemId);
+            out.name("notes").value(item.notes);
+            out.name("purchase_date").value(JsonFields.formatIsoDate(item.purchaseDate));
+            out.name("updated_at").value(item.updatedAt);
+            out.endObject();
+        }
+
+        private static double orZero(Double value) {
+            return value != null ? value : 0.0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.regenerarestudio.regenerapp.data.models;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+/**
+ * Lectura/escritura tolerante de campos JSON para los TypeAdapters de los modelos
+ * Django REST serializa los DecimalField como string ("12.50"), por eso los números
+ * se aceptan tanto en formato numérico como de texto.
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(in.nextBoolean());
+        }
+        // STRING y NUMBER se leen como texto sin conversión intermedia
+        return in.nextString();
+    }
+
+    static Double nextDouble(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER) {
+            return in.nextDouble();
+        }
+        String value = nextString(in);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Long nextLong(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER) {
+            // nextLong falla con "5.0", nextDouble cubre ambos casos para IDs
+            return (long) in.nextDouble();
+        }
+        String value = nextString(in);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fecha "yyyy-MM-dd" de Django a Date (medianoche local) sin SimpleDateFormat
+     */
+    static Date parseIsoDate(String value) {
+        if (value == null || value.length() < 10) {
+            return null;
+        }
+        try {
+            int year = Integer.parseInt(value.substring(0, 4));
+            int month = Integer.parseInt(value.substring(5, 7));
+            int day = Integer.parseInt(value.substring(8, 10));
+            return new GregorianCalendar(year, month - 1, day).getTime();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static String formatIsoDate(Date date) {
+        if (date == null) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR) + "-" +
+                twoDigits(calendar.get(Calendar.MONTH) + 1) + "-" +
+                twoDigits(calendar.get(Calendar.DAY_OF_MONTH));
+    }
+
+    static String twoDigits(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    static void writeNumber(JsonWriter out, String name, Number value) throws IOException {
+        out.name(name);
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value);
+        }
+    }
+}
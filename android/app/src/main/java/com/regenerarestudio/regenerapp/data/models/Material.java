@@ -20,6 +20,16 @@ public class Material {
     @SerializedName("category")
     private MaterialCategory category;
 
+    // Categoría plana (listados y catálogo sin conexión no envían el objeto completo)
+    @SerializedName("category_id")
+    private Long categoryId;
+
+    @SerializedName("category_name")
+    private String categoryName;
+
+    @SerializedName("category_type")
+    private String categoryType;
+
     @SerializedName("unit")
     private String unit;
 
@@ -188,10 +198,27 @@ public class Material {
         return Math.ceil(baseQuantity * 100) / 100; // Redondear a 2 decimales hacia arriba
     }
 
+    public Long getCategoryId() {
+        if (category != null) {
+            return category.getId();
+        }
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        if (category != null) {
+            return category.getName();
+        }
+        return categoryName;
+    }
+
     public String getCategoryType() {
         if (category != null) {
             return category.getCategoryType();
         }
+        if (categoryType != null) {
+            return categoryType;
+        }
         return "unknown";
     }
 
@@ -2,6 +2,8 @@ package com.regenerarestudio.regenerapp.data.models;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.List;
+
 /**
  * Modelo de datos para Proveedor
  * Corresponde al modelo Supplier del backend Django
@@ -62,6 +64,16 @@ public class Supplier {
     @SerializedName("notes")
     private String notes;
 
+    // Campos del listado
+    @SerializedName("supplier_type_display")
+    private String supplierTypeDisplay;
+
+    @SerializedName("offers_delivery")
+    private Boolean offersDelivery;
+
+    @SerializedName("categories_list")
+    private List<String> categoriesList;
+
     // Constructor vacío para Gson
     public Supplier() {}
 
@@ -139,6 +151,15 @@ public class Supplier {
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
 
+    public String getSupplierTypeDisplay() { return supplierTypeDisplay; }
+    public void setSupplierTypeDisplay(String supplierTypeDisplay) { this.supplierTypeDisplay = supplierTypeDisplay; }
+
+    public Boolean getOffersDelivery() { return offersDelivery; }
+    public void setOffersDelivery(Boolean offersDelivery) { this.offersDelivery = offersDelivery; }
+
+    public List<String> getCategoriesList() { return categoriesList; }
+    public void setCategoriesList(List<String> categoriesList) { this.categoriesList = categoriesList; }
+
     // Métodos de utilidad
     public String getFormattedPhone() {
         if (phone != null && !phone.isEmpty()) {
@@ -156,6 +177,20 @@ public class Supplier {
         return null;
     }
 
+    /**
+     * Enlace de WhatsApp para un teléfono local (Ecuador: 09... → 5939...), o null sin número
+     */
+    public static String whatsappUrlForPhone(String phone) {
+        if (phone == null || phone.isEmpty()) {
+            return null;
+        }
+        String digits = phone.replaceAll("[^0-9]", "");
+        if (digits.startsWith("0")) {
+            digits = "593" + digits.substring(1);
+        }
+        return "https://wa.me/" + digits;
+    }
+
     public String getDisplayName() {
         return commercialName != null && !commercialName.isEmpty() ? commercialName : name;
     }
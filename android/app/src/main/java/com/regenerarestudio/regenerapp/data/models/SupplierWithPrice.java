@@ -18,6 +18,7 @@ public class SupplierWithPrice {
     private String location;
     private String phone;
     private String whatsappUrl;
+    private long priceUpdatedAt; // epoch ms (0 = desconocido)
 
     // Constructor vacío
     public SupplierWithPrice() {}
@@ -78,6 +79,9 @@ public class SupplierWithPrice {
     public String getWhatsappUrl() { return whatsappUrl; }
     public void setWhatsappUrl(String whatsappUrl) { this.whatsappUrl = whatsappUrl; }
 
+    public long getPriceUpdatedAt() { return priceUpdatedAt; }
+    public void setPriceUpdatedAt(long priceUpdatedAt) { this.priceUpdatedAt = priceUpdatedAt; }
+
     // Métodos utilitarios
     public String getDisplayName() {
         return commercialName != null && !commercialName.isEmpty() ? commercialName : supplierName;
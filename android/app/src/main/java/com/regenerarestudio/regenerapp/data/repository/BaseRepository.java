@@ -0,0 +1,458 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.api.RequestCoalescer;
+import com.regenerarestudio.regenerapp.data.local.LocalCacheDatabase;
+import com.regenerarestudio.regenerapp.data.responses.SyncDeltaResponse;
+import com.regenerarestudio.regenerapp.data.sync.DeltaSyncEngine;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Base de los repositorios offline-first (stale-while-revalidate)
+ * 1. Entrega inmediatamente la última copia guardada en disco
+ * 2. Revalida contra el servidor en paralelo
+ * 3. Entrega la copia fresca y la guarda en disco para el próximo arranque
+ *
+ * Las revalidaciones idénticas simultáneas (misma clave) comparten una sola petición
+ * de red a través de {@link RequestCoalescer}.
+ */
+public abstract class BaseRepository {
+
+    private static final String TAG = "BaseRepository";
+
+    // Listados paginados en curso, compartidos entre quienes piden la misma clave
+    private static final Map<String, PagedLoader<?>> sharedLoaders = new ConcurrentHashMap<>();
+    // Sincronizaciones incrementales en curso, compartidas igual
+    private static final Map<String, SyncFlight> sharedSyncs = new ConcurrentHashMap<>();
+
+    protected final LocalCacheDatabase cacheDatabase;
+    protected final DeltaSyncEngine syncEngine;
+
+    protected BaseRepository(Context context) {
+        this.cacheDatabase = LocalCacheDatabase.getInstance(context);
+        this.syncEngine = new DeltaSyncEngine(cacheDatabase, getGson());
+    }
+
+    protected Gson getGson() {
+        return ApiClient.getGson();
+    }
+
+    /**
+     * Cargar un recurso: caché local primero, luego red
+     *
+     * @param cacheKey  clave del recurso en la base de datos local
+     * @param cacheType tipo del dato guardado (para deserializar desde disco)
+     * @param call      llamada Retrofit que obtiene la copia fresca
+     * @param mapper    extrae el dato guardable desde el body de la respuesta
+     * @param callback  recibe los datos en el hilo principal
+     * @return la llamada encolada (para poder cancelarla)
+     */
+    protected <R, T> Call<R> loadWithCache(@NonNull String cacheKey,
+                                           @NonNull Type cacheType,
+                                           @NonNull Call<R> call,
+                                           @NonNull Function<R, T> mapper,
+                                           @NonNull RepositoryCallback<T> callback) {
+
+        AtomicBoolean freshDelivered = new AtomicBoolean(false);
+        AtomicBoolean cacheDelivered = new AtomicBoolean(false);
+
+        // PASO 1: Leer copia local en el hilo de disco
+        deliverCacheAsync(cacheKey, cacheType, freshDelivered, cacheDelivered, callback);
+
+        // PASO 2: Revalidar contra el servidor (compartido si ya hay una igual en curso)
+        return RequestCoalescer.getInstance().enqueue(cacheKey, call, new Callback<R>() {
+            @Override
+            public void onResponse(@NonNull Call<R> call, @NonNull Response<R> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    T fresh = mapper.apply(response.body());
+                    freshDelivered.set(true);
+                    callback.onData(fresh, false);
+
+                    // PASO 3: Guardar copia fresca para el próximo arranque
+                    writeCacheAsync(cacheKey, fresh);
+                } else {
+                    String error = "HTTP " + response.code();
+                    if (response.errorBody() != null) {
+                        try {
+                            error += " - " + response.errorBody().string();
+                        } catch (Exception e) {
+                            Log.e(TAG, "Error al leer error body de " + cacheKey, e);
+                        }
+                    }
+                    Log.e(TAG, "Error al revalidar " + cacheKey + ": " + error);
+                    String message = error;
+                    afterCacheRead(() -> callback.onError(message, cacheDelivered.get()));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<R> call, @NonNull Throwable t) {
+                Log.e(TAG, "Fallo de red al revalidar " + cacheKey + ": " + t.getMessage());
+                afterCacheRead(() -> callback.onError(t.getMessage(), cacheDelivered.get()));
+            }
+        });
+    }
+
+    /**
+     * Cargar un listado paginado completo: caché local primero, luego todas las páginas de red
+     * Las páginas 2..N se descargan en paralelo (ver {@link PagedLoader}) y la lista
+     * se entrega una sola vez completa, para que los totales nunca sean parciales.
+     * Si ya hay una descarga en curso para la misma clave, se comparte; se corta recién
+     * cuando todos los que la esperaban cancelaron su {@link SharedLoad}.
+     *
+     * @return la espera de quien llama (cancelarla no afecta a los demás)
+     */
+    protected <T> SharedLoad loadAllPagesWithCache(@NonNull String cacheKey,
+                                                   @NonNull Type cacheType,
+                                                   @NonNull PagedLoader.PageFetcher<T> fetcher,
+                                                   @NonNull RepositoryCallback<List<T>> callback) {
+
+        AtomicBoolean freshDelivered = new AtomicBoolean(false);
+        AtomicBoolean cacheDelivered = new AtomicBoolean(false);
+
+        deliverCacheAsync(cacheKey, cacheType, freshDelivered, cacheDelivered, callback);
+
+        RequestCoalescer coalescer = RequestCoalescer.getInstance();
+        String flightKey = "pages:" + cacheKey;
+
+        RequestCoalescer.Listener<List<T>> waiter = new RequestCoalescer.Listener<List<T>>() {
+            @Override
+            public void onSuccess(List<T> items) {
+                freshDelivered.set(true);
+                // Copia propia: cada pantalla puede ordenar/filtrar su lista sin afectar a las demás
+                callback.onData(new ArrayList<>(items), false);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                afterCacheRead(() -> callback.onError(error.getMessage(), cacheDelivered.get()));
+            }
+        };
+
+        PagedLoader<?> loader = coalescer.join(flightKey, waiter)
+                ? startPagedLoad(cacheKey, flightKey, fetcher)
+                : sharedLoaders.get(flightKey);
+
+        return new SharedLoad(flightKey, waiter, () -> {
+            // Nadie más espera: cortar la descarga si sigue siendo la vigente
+            if (loader != null && sharedLoaders.remove(flightKey, loader)) {
+                Log.d(TAG, "Listado de " + cacheKey + " cancelado");
+                loader.cancel();
+            }
+        });
+    }
+
+    /**
+     * Iniciar la descarga compartida de la clave (el resultado va a todos los que la esperan)
+     */
+    private <T> PagedLoader<T> startPagedLoad(String cacheKey, String flightKey, PagedLoader.PageFetcher<T> fetcher) {
+        RequestCoalescer coalescer = RequestCoalescer.getInstance();
+        PagedLoader<T> loader = new PagedLoader<>(fetcher);
+        sharedLoaders.put(flightKey, loader);
+        loader.loadAll(new PagedLoader.PageCallback<T>() {
+            @Override
+            public void onPages(List<T> items, boolean hasMore) {
+                sharedLoaders.remove(flightKey, loader);
+                Log.d(TAG, "Listado completo de " + cacheKey + ": " + items.size() + " items");
+                writeCacheAsync(cacheKey, items);
+                coalescer.complete(flightKey, items);
+            }
+
+            @Override
+            public void onError(String error) {
+                sharedLoaders.remove(flightKey, loader);
+                Log.e(TAG, "Error al revalidar " + cacheKey + ": " + error);
+                coalescer.fail(flightKey, new IOException(error));
+            }
+        });
+
+        return loader;
+    }
+
+    /**
+     * Cargar un listado con sincronización incremental: caché local primero y luego
+     * solo los cambios desde el último token (ver {@link DeltaSyncEngine}).
+     * Si el servidor no tiene el endpoint de sync (404), se descarga paginado como antes.
+     *
+     * @param ids      ID de cada fila para fusionar
+     * @param order    orden del listado del servidor (se reaplica tras fusionar)
+     * @param fallback descarga paginada completa para servidores sin sync
+     * @return la espera de quien llama (la sincronización se comparte entre quienes piden la clave)
+     */
+    protected <T> SharedLoad syncListWithCache(@NonNull String cacheKey,
+                                               @NonNull Type cacheType,
+                                               @NonNull DeltaSyncEngine.DeltaFetcher<T> fetcher,
+                                               @NonNull DeltaSyncEngine.IdExtractor<T> ids,
+                                               @Nullable Comparator<T> order,
+                                               @NonNull PagedLoader.PageFetcher<T> fallback,
+                                               @NonNull RepositoryCallback<List<T>> callback) {
+
+        AtomicBoolean freshDelivered = new AtomicBoolean(false);
+        AtomicBoolean cacheDelivered = new AtomicBoolean(false);
+
+        deliverCacheAsync(cacheKey, cacheType, freshDelivered, cacheDelivered, callback);
+
+        RequestCoalescer coalescer = RequestCoalescer.getInstance();
+        String flightKey = "sync:" + cacheKey;
+
+        RequestCoalescer.Listener<List<T>> waiter = new RequestCoalescer.Listener<List<T>>() {
+            @Override
+            public void onSuccess(List<T> items) {
+                freshDelivered.set(true);
+                callback.onData(new ArrayList<>(items), false);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                afterCacheRead(() -> callback.onError(error.getMessage(), cacheDelivered.get()));
+            }
+        };
+
+        SyncFlight flight;
+        if (coalescer.join(flightKey, waiter)) {
+            flight = new SyncFlight();
+            sharedSyncs.put(flightKey, flight);
+            AppExecutors.diskIO().execute(() ->
+                    requestDelta(flight, cacheKey, cacheType, syncEngine.readToken(cacheKey), fetcher, ids, order, fallback, true));
+        } else {
+            flight = sharedSyncs.get(flightKey);
+        }
+
+        return new SharedLoad(flightKey, waiter, () -> {
+            // Nadie más espera: cortar la sincronización si sigue siendo la vigente
+            if (flight != null && sharedSyncs.remove(flightKey, flight)) {
+                Log.d(TAG, "Sincronización de " + cacheKey + " cancelada");
+                flight.cancel();
+            }
+        });
+    }
+
+    private <T> void requestDelta(SyncFlight flight, String cacheKey, Type cacheType, @Nullable String token,
+                                  DeltaSyncEngine.DeltaFetcher<T> fetcher,
+                                  DeltaSyncEngine.IdExtractor<T> ids, @Nullable Comparator<T> order,
+                                  PagedLoader.PageFetcher<T> fallback, boolean canRetry) {
+
+        Call<SyncDeltaResponse<T>> request = fetcher.fetch(token);
+        if (!flight.track(request)) {
+            return;
+        }
+
+        request.enqueue(new Callback<SyncDeltaResponse<T>>() {
+            @Override
+            public void onResponse(@NonNull Call<SyncDeltaResponse<T>> call,
+                                   @NonNull Response<SyncDeltaResponse<T>> response) {
+                if (flight.isCancelled()) {
+                    return;
+                }
+                if (response.code() == 404) {
+                    Log.w(TAG, "Servidor sin sync para " + cacheKey + ", descarga paginada");
+                    loadAllPagesForSync(flight, cacheKey, fallback);
+                    return;
+                }
+                if (!response.isSuccessful() || response.body() == null) {
+                    Log.e(TAG, "Error al sincronizar " + cacheKey + ": HTTP " + response.code());
+                    failSync(flight, cacheKey, new IOException("HTTP " + response.code()));
+                    return;
+                }
+
+                SyncDeltaResponse<T> delta = response.body();
+                AppExecutors.diskIO().execute(() -> {
+                    try {
+                        List<T> merged = syncEngine.apply(cacheKey, cacheType, delta, ids, order);
+                        AppExecutors.mainThread().execute(() -> completeSync(flight, cacheKey, merged));
+                    } catch (DeltaSyncEngine.MissingBaseException e) {
+                        if (canRetry) {
+                            // La copia local desapareció: pedir la lista completa una vez
+                            requestDelta(flight, cacheKey, cacheType, null, fetcher, ids, order, fallback, false);
+                        } else {
+                            AppExecutors.mainThread().execute(() -> failSync(flight, cacheKey, e));
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<SyncDeltaResponse<T>> call, @NonNull Throwable t) {
+                if (flight.isCancelled()) {
+                    return;
+                }
+                Log.e(TAG, "Fallo de red al sincronizar " + cacheKey + ": " + t.getMessage());
+                failSync(flight, cacheKey, t);
+            }
+        });
+    }
+
+    /**
+     * Respaldo para servidores sin sync: todas las páginas, entregadas a quienes esperan el sync
+     */
+    private <T> void loadAllPagesForSync(SyncFlight flight, String cacheKey, PagedLoader.PageFetcher<T> fallback) {
+        PagedLoader<T> loader = new PagedLoader<>(fallback);
+        if (!flight.track(loader)) {
+            return;
+        }
+
+        loader.loadAll(new PagedLoader.PageCallback<T>() {
+            @Override
+            public void onPages(List<T> items, boolean hasMore) {
+                writeCacheAsync(cacheKey, items);
+                completeSync(flight, cacheKey, items);
+            }
+
+            @Override
+            public void onError(String error) {
+                failSync(flight, cacheKey, new IOException(error));
+            }
+        });
+    }
+
+    /**
+     * Entregar el listado sincronizado (hilo principal; nada si la sincronización fue cancelada)
+     */
+    private <T> void completeSync(SyncFlight flight, String cacheKey, List<T> items) {
+        String flightKey = "sync:" + cacheKey;
+        if (!flight.isCancelled() && sharedSyncs.remove(flightKey, flight)) {
+            RequestCoalescer.getInstance().complete(flightKey, items);
+        }
+    }
+
+    private void failSync(SyncFlight flight, String cacheKey, Throwable error) {
+        String flightKey = "sync:" + cacheKey;
+        if (!flight.isCancelled() && sharedSyncs.remove(flightKey, flight)) {
+            RequestCoalescer.getInstance().fail(flightKey, error);
+        }
+    }
+
+    /**
+     * Entregar la copia local (si existe) salvo que la red ya haya respondido
+     */
+    private <T> void deliverCacheAsync(String cacheKey, Type cacheType,
+                                       AtomicBoolean freshDelivered, AtomicBoolean cacheDelivered,
+                                       RepositoryCallback<T> callback) {
+        AppExecutors.diskIO().execute(() -> {
+            T cached = readCache(cacheKey, cacheType);
+            if (cached == null) {
+                return;
+            }
+
+            AppExecutors.mainThread().execute(() -> {
+                // Si la red ya respondió, la copia local está obsoleta
+                if (freshDelivered.get()) {
+                    return;
+                }
+                cacheDelivered.set(true);
+                Log.d(TAG, "Entregando copia local de " + cacheKey);
+                callback.onData(cached, true);
+            });
+        });
+    }
+
+    /**
+     * Ejecutar en el hilo principal después de la lectura de la copia local ya encolada
+     * El hilo de disco y el principal respetan el orden: si había copia, ya se entregó y el
+     * error se informa con hasCachedData = true (la pantalla no se muestra vacía por un fallo rápido).
+     */
+    private void afterCacheRead(Runnable onMain) {
+        AppExecutors.diskIO().execute(() -> AppExecutors.mainThread().execute(onMain));
+    }
+
+    /**
+     * Leer y deserializar la copia local de un recurso (null si no existe o está corrupta)
+     */
+    @WorkerThread
+    @Nullable
+    protected <T> T readCache(String cacheKey, Type cacheType) {
+        String payload = cacheDatabase.readPayload(cacheKey);
+        if (payload == null) {
+            return null;
+        }
+
+        try {
+            return getGson().fromJson(payload, cacheType);
+        } catch (Exception e) {
+            Log.w(TAG, "Copia local inválida para " + cacheKey + ", se ignora", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reemplazar una fila en la copia local de un listado con la respuesta de una escritura
+     * Así la próxima apertura no muestra la fila vieja mientras llega la sincronización delta.
+     * Si no hay copia local no se hace nada (la próxima carga descarga el listado).
+     *
+     * @param removedId ID que deja de existir (fila eliminada), o null
+     * @param row       fila canónica del servidor, o null si solo se elimina
+     */
+    protected <T> void patchCachedListAsync(@NonNull String cacheKey,
+                                            @NonNull Type listType,
+                                            @NonNull DeltaSyncEngine.IdExtractor<T> ids,
+                                            @Nullable Comparator<T> order,
+                                            @Nullable Long removedId,
+                                            @Nullable T row) {
+        AppExecutors.diskIO().execute(() -> {
+            List<T> cached = readCache(cacheKey, listType);
+            if (cached == null) {
+                return;
+            }
+
+            Long rowId = row != null ? ids.idOf(row) : null;
+            List<T> patched = new ArrayList<>(cached.size() + 1);
+            for (T item : cached) {
+                Long id = ids.idOf(item);
+                if (id != null && (id.equals(removedId) || id.equals(rowId))) {
+                    continue;
+                }
+                patched.add(item);
+            }
+            if (row != null) {
+                patched.add(row);
+                if (order != null) {
+                    patched.sort(order);
+                }
+            }
+
+            try {
+                cacheDatabase.writePayload(cacheKey, getGson().toJson(patched));
+            } catch (Exception e) {
+                Log.e(TAG, "Error al actualizar copia local de " + cacheKey, e);
+            }
+        });
+    }
+
+    /**
+     * Serializar y guardar un recurso en el hilo de disco
+     */
+    protected void writeCacheAsync(String cacheKey, Object data) {
+        if (data == null) {
+            return;
+        }
+        AppExecutors.diskIO().execute(() -> {
+            try {
+                cacheDatabase.writePayload(cacheKey, getGson().toJson(data));
+            } catch (Exception e) {
+                Log.e(TAG, "Error al serializar " + cacheKey, e);
+            }
+        });
+    }
+}
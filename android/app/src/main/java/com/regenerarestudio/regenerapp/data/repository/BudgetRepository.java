@@ -0,0 +1,96 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import android.content.Context;
+
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
+
+import java.lang.reflect.Type;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repositorio offline-first del presupuesto inicial y los gastos reales de un proyecto
+ * La primera carga descarga el listado completo; las siguientes solo piden los cambios
+ * desde el último token (sincronización delta) y los fusionan con la copia local.
+ */
+public class BudgetRepository extends BaseRepository {
+
+    private static final String KEY_BUDGET_ITEMS_PREFIX = "budget_items:project:";
+    private static final String KEY_EXPENSES_PREFIX = "real_expenses:project:";
+
+    private static final Type BUDGET_ITEMS_TYPE = new TypeToken<List<BudgetItem>>() {}.getType();
+    private static final Type EXPENSES_TYPE = new TypeToken<List<ExpenseItem>>() {}.getType();
+
+    // Mismo orden que los listados del servidor (Meta.ordering de cada modelo)
+    private static final Comparator<BudgetItem> BUDGET_ITEMS_ORDER = Comparator
+            .comparing(BudgetItem::getCategory, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(BudgetItem::getDescription, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private static final Comparator<ExpenseItem> EXPENSES_ORDER = Comparator
+            .comparing(ExpenseItem::getPurchaseDate, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+            .thenComparing(ExpenseItem::getCategory, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private static volatile BudgetRepository instance;
+
+    public static BudgetRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (BudgetRepository.class) {
+                if (instance == null) {
+                    instance = new BudgetRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private BudgetRepository(Context context) {
+        super(context);
+    }
+
+    /**
+     * Items del presupuesto inicial
+     * GET /api/budgets/budget-items/sync/?project={projectId}&since={token}
+     */
+    public SharedLoad loadBudgetItems(Long projectId, RepositoryCallback<List<BudgetItem>> callback) {
+        return syncListWithCache(KEY_BUDGET_ITEMS_PREFIX + projectId, BUDGET_ITEMS_TYPE,
+                since -> ApiClient.getApiService().syncInitialBudget(projectId, since),
+                BudgetItem::getId,
+                BUDGET_ITEMS_ORDER,
+                (page, pageSize) -> ApiClient.getApiService().getInitialBudget(projectId, page, pageSize),
+                callback);
+    }
+
+    /**
+     * Gastos reales
+     * GET /api/budgets/real-expenses/sync/?project={projectId}&since={token}
+     */
+    public SharedLoad loadExpenses(Long projectId, RepositoryCallback<List<ExpenseItem>> callback) {
+        return syncListWithCache(KEY_EXPENSES_PREFIX + projectId, EXPENSES_TYPE,
+                since -> ApiClient.getApiService().syncExpenses(projectId, since),
+                ExpenseItem::getId,
+                EXPENSES_ORDER,
+                (page, pageSize) -> ApiClient.getApiService().getExpenses(projectId, page, pageSize),
+                callback);
+    }
+
+    /**
+     * Guardar en la copia local la fila devuelta por una escritura del presupuesto inicial
+     * (row null + removedId = eliminación)
+     */
+    public void saveBudgetItemRow(Long projectId, Long removedId, BudgetItem row) {
+        patchCachedListAsync(KEY_BUDGET_ITEMS_PREFIX + projectId, BUDGET_ITEMS_TYPE,
+                BudgetItem::getId, BUDGET_ITEMS_ORDER, removedId, row);
+    }
+
+    /**
+     * Guardar en la copia local la fila devuelta por una escritura de gastos reales
+     */
+    public void saveExpenseRow(Long projectId, Long removedId, ExpenseItem row) {
+        patchCachedListAsync(KEY_EXPENSES_PREFIX + projectId, EXPENSES_TYPE,
+                ExpenseItem::getId, EXPENSES_ORDER, removedId, row);
+    }
+}
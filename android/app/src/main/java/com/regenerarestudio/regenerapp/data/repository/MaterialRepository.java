@@ -0,0 +1,139 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.local.MaterialSearchIndex;
+import com.regenerarestudio.regenerapp.data.models.Material;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+
+import java.lang.reflect.Type;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repositorio offline-first del catálogo de materiales
+ * El catálogo activo completo se guarda en disco y se sincroniza por delta; sobre cada versión
+ * se construye un {@link MaterialSearchIndex} en segundo plano para buscar sin red.
+ * El índice es compartido: cualquier pantalla que busque materiales usa el mismo.
+ */
+public class MaterialRepository extends BaseRepository {
+
+    private static final String TAG = "MaterialRepository";
+
+    private static final String KEY_CATALOG = "materials:catalog";
+    private static final String KEY_CATEGORIES = "materials:categories";
+
+    private static final Type CATALOG_TYPE = new TypeToken<List<Material>>() {}.getType();
+    private static final Type CATEGORIES_TYPE = new TypeToken<List<Material.MaterialCategory>>() {}.getType();
+
+    // Mismo orden que el catálogo del servidor
+    private static final Comparator<Material> CATALOG_ORDER = Comparator
+            .comparing(Material::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private static volatile MaterialRepository instance;
+
+    // Índice de la última versión del catálogo entregada (null hasta la primera)
+    private volatile MaterialSearchIndex searchIndex;
+
+    public static MaterialRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (MaterialRepository.class) {
+                if (instance == null) {
+                    instance = new MaterialRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private MaterialRepository(Context context) {
+        super(context);
+    }
+
+    /**
+     * Catálogo activo completo
+     * GET /api/materials/materials/catalog/?since={token}
+     */
+    public SharedLoad loadCatalog(RepositoryCallback<List<Material>> callback) {
+        return syncListWithCache(KEY_CATALOG, CATALOG_TYPE,
+                since -> ApiClient.getApiService().syncMaterialCatalog(since),
+                Material::getId,
+                CATALOG_ORDER,
+                (page, pageSize) -> ApiClient.getApiService()
+                        .getMaterials(null, null, null, null, page, pageSize),
+                callback);
+    }
+
+    /**
+     * Índice de búsqueda del catálogo: entrega el de la copia local y luego el de la copia fresca
+     * Si ya hay un índice en memoria, la copia local (igual o más vieja) no se vuelve a indexar.
+     */
+    public SharedLoad loadSearchIndex(RepositoryCallback<MaterialSearchIndex> callback) {
+        MaterialSearchIndex current = searchIndex;
+        if (current != null) {
+            callback.onData(current, true);
+        }
+
+        return loadCatalog(new RepositoryCallback<List<Material>>() {
+            @Override
+            public void onData(List<Material> catalog, boolean fromCache) {
+                if (fromCache && searchIndex != null) {
+                    return;
+                }
+                AppExecutors.background().execute(() -> {
+                    MaterialSearchIndex index = buildIndex(catalog, fromCache);
+                    if (index != null) {
+                        AppExecutors.mainThread().execute(() -> callback.onData(index, fromCache));
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                callback.onError(error, hasCachedData || searchIndex != null);
+            }
+        });
+    }
+
+    /**
+     * Índice ya construido (para búsquedas inmediatas), o null si aún no hay catálogo
+     */
+    @Nullable
+    public MaterialSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Categorías activas (pocas filas: listado paginado normal)
+     * GET /api/materials/categories/
+     */
+    public SharedLoad loadCategories(RepositoryCallback<List<Material.MaterialCategory>> callback) {
+        return loadAllPagesWithCache(KEY_CATEGORIES, CATEGORIES_TYPE,
+                (page, pageSize) -> ApiClient.getApiService().getMaterialCategories(null, page, pageSize),
+                callback);
+    }
+
+    /**
+     * Construir y publicar el índice (null si era la copia local y la fresca ya se indexó)
+     * Sincronizado: las construcciones de copia local y fresca no se pisan entre sí.
+     */
+    @Nullable
+    private synchronized MaterialSearchIndex buildIndex(List<Material> catalog, boolean fromCache) {
+        if (fromCache && searchIndex != null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        MaterialSearchIndex index = MaterialSearchIndex.build(catalog);
+        Log.d(TAG, "Índice de materiales: " + index.size() + " materiales, " + index.termCount()
+                + " términos en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        searchIndex = index;
+        return index;
+    }
+}
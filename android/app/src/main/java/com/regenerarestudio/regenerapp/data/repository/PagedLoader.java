@@ -0,0 +1,264 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.regenerarestudio.regenerapp.data.responses.PaginatedResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Fuente paginada genérica sobre PaginatedResponse (paginación por número de Django REST)
+ *
+ * Dos modos de uso:
+ * - {@link #loadAll}: descarga la página 1 y luego el resto en paralelo (máximo
+ *   MAX_PARALLEL_PAGES a la vez), entregando la lista completa en orden. Para totales.
+ * - {@link #loadNextPage}: carga incremental, una página por llamada (ej: al hacer scroll).
+ *
+ * Los callbacks de Retrofit llegan al hilo principal, por lo que el estado no necesita sincronización.
+ */
+public class PagedLoader<T> {
+
+    private static final String TAG = "PagedLoader";
+
+    // Páginas descargadas en paralelo como máximo al precargar todo
+    private static final int MAX_PARALLEL_PAGES = 4;
+
+    // Tamaño de página solicitado al backend (limitado por max_page_size en el servidor)
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Crea la llamada Retrofit para una página (empezando en 1)
+     */
+    public interface PageFetcher<T> {
+        Call<PaginatedResponse<T>> fetch(int page, int pageSize);
+    }
+
+    /**
+     * Resultado de la carga (hilo principal)
+     */
+    public interface PageCallback<T> {
+        void onPages(List<T> items, boolean hasMore);
+        void onError(String error);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final int pageSize;
+    private final List<Call<PaginatedResponse<T>>> inFlight = new ArrayList<>();
+
+    // Estado del modo incremental
+    private int nextPage = 1;
+    private boolean hasMore = true;
+    private boolean loadingPage = false;
+    private boolean cancelled = false;
+
+    public PagedLoader(@NonNull PageFetcher<T> fetcher) {
+        this(fetcher, DEFAULT_PAGE_SIZE);
+    }
+
+    public PagedLoader(@NonNull PageFetcher<T> fetcher, int pageSize) {
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+    }
+
+    // ==========================================
+    // MODO COMPLETO (PRECARGA PARALELA)
+    // ==========================================
+
+    /**
+     * Descargar todas las páginas y entregar la lista completa una sola vez
+     */
+    public void loadAll(@NonNull PageCallback<T> callback) {
+        enqueue(1, new PageResult<T>() {
+            @Override
+            public void onPage(PaginatedResponse<T> firstPage) {
+                List<T> firstResults = resultsOf(firstPage);
+                int total = firstPage.getCount() != null ? firstPage.getCount() : firstResults.size();
+
+                if (!firstPage.hasNext() || firstResults.isEmpty()) {
+                    callback.onPages(firstResults, false);
+                    return;
+                }
+
+                // El servidor puede limitar el tamaño: usar el tamaño real de la primera página
+                int effectivePageSize = firstResults.size();
+                int totalPages = (total + effectivePageSize - 1) / effectivePageSize;
+                Log.d(TAG, "Precargando " + totalPages + " páginas (" + total + " items)");
+
+                fetchRemaining(firstResults, totalPages, callback);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Descargar las páginas 2..totalPages con paralelismo acotado y unirlas en orden
+     */
+    private void fetchRemaining(List<T> firstResults, int totalPages, PageCallback<T> callback) {
+        List<List<T>> pages = new ArrayList<>(totalPages);
+        pages.add(firstResults);
+        for (int i = 1; i < totalPages; i++) {
+            pages.add(null);
+        }
+
+        int[] nextToRequest = {2};
+        int[] pending = {totalPages - 1};
+        boolean[] failed = {false};
+
+        Runnable[] requestNext = new Runnable[1];
+        requestNext[0] = () -> {
+            if (nextToRequest[0] > totalPages || failed[0] || cancelled) {
+                return;
+            }
+            int page = nextToRequest[0]++;
+            enqueue(page, new PageResult<T>() {
+                @Override
+                public void onPage(PaginatedResponse<T> response) {
+                    if (failed[0]) return;
+                    pages.set(page - 1, resultsOf(response));
+                    pending[0]--;
+
+                    if (pending[0] == 0) {
+                        List<T> all = new ArrayList<>();
+                        for (List<T> pageItems : pages) {
+                            all.addAll(pageItems);
+                        }
+                        callback.onPages(all, false);
+                    } else {
+                        requestNext[0].run();
+                    }
+                }
+
+                @Override
+                public void onFailure(String error) {
+                    if (failed[0]) return;
+                    failed[0] = true;
+                    stop();
+                    callback.onError("Página " + page + ": " + error);
+                }
+            });
+        };
+
+        for (int i = 0; i < MAX_PARALLEL_PAGES; i++) {
+            requestNext[0].run();
+        }
+    }
+
+    // ==========================================
+    // MODO INCREMENTAL
+    // ==========================================
+
+    /**
+     * Cargar la siguiente página (ignorado si ya hay una en curso o no quedan más)
+     * callback.onPages recibe solo los items de la página nueva.
+     */
+    public void loadNextPage(@NonNull PageCallback<T> callback) {
+        if (loadingPage || !hasMore || cancelled) {
+            return;
+        }
+        loadingPage = true;
+
+        int page = nextPage;
+        enqueue(page, new PageResult<T>() {
+            @Override
+            public void onPage(PaginatedResponse<T> response) {
+                loadingPage = false;
+                nextPage = page + 1;
+                hasMore = response.hasNext();
+                callback.onPages(resultsOf(response), hasMore);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                loadingPage = false;
+                callback.onError(error);
+            }
+        });
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public boolean isLoading() {
+        return loadingPage;
+    }
+
+    // ==========================================
+    // CONTROL
+    // ==========================================
+
+    /**
+     * Cancelar todas las páginas en curso (no se entregan más resultados)
+     * El callback de la carga no recibe nada.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        stop();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cortar las páginas en curso (cancelación o fallo de una página en la precarga)
+     */
+    private void stop() {
+        cancelled = true;
+        // Copia: una llamada cancelada puede avisar en el acto y quitarse de inFlight
+        List<Call<PaginatedResponse<T>>> pending = new ArrayList<>(inFlight);
+        inFlight.clear();
+        for (Call<PaginatedResponse<T>> call : pending) {
+            call.cancel();
+        }
+    }
+
+    private interface PageResult<T> {
+        void onPage(PaginatedResponse<T> response);
+        void onFailure(String error);
+    }
+
+    private void enqueue(int page, PageResult<T> result) {
+        Call<PaginatedResponse<T>> call = fetcher.fetch(page, pageSize);
+        inFlight.add(call);
+
+        call.enqueue(new Callback<PaginatedResponse<T>>() {
+            @Override
+            public void onResponse(@NonNull Call<PaginatedResponse<T>> call,
+                                   @NonNull Response<PaginatedResponse<T>> response) {
+                inFlight.remove(call);
+                if (cancelled) return;
+
+                if (response.isSuccessful() && response.body() != null) {
+                    result.onPage(response.body());
+                } else {
+                    result.onFailure("HTTP " + response.code());
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<PaginatedResponse<T>> call, @NonNull Throwable t) {
+                inFlight.remove(call);
+                if (cancelled || call.isCanceled()) return;
+                result.onFailure(t.getMessage());
+            }
+        });
+    }
+
+    private static <T> List<T> resultsOf(PaginatedResponse<T> response) {
+        return response.getResults() != null ? response.getResults() : new ArrayList<>();
+    }
+}
@@ -0,0 +1,100 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.api.RequestCoalescer;
+import com.regenerarestudio.regenerapp.data.models.Project;
+import com.regenerarestudio.regenerapp.data.responses.DashboardResponse;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Repositorio offline-first de proyectos y dashboard
+ */
+public class ProjectRepository extends BaseRepository {
+
+    private static final String TAG = "ProjectRepository";
+
+    private static final String KEY_PROJECTS = "projects:list";
+    private static final String KEY_DASHBOARD_PREFIX = "dashboard:project:";
+
+    private static final Type PROJECT_LIST_TYPE = new TypeToken<List<Project>>() {}.getType();
+
+    private static volatile ProjectRepository instance;
+
+    public static ProjectRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ProjectRepository.class) {
+                if (instance == null) {
+                    instance = new ProjectRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private ProjectRepository(Context context) {
+        super(context);
+    }
+
+    /**
+     * Lista completa de proyectos (todas las páginas)
+     * GET /api/projects/projects/
+     */
+    public SharedLoad loadProjects(RepositoryCallback<List<Project>> callback) {
+        return loadAllPagesWithCache(KEY_PROJECTS, PROJECT_LIST_TYPE,
+                (page, pageSize) -> ApiClient.getApiService()
+                        .getProjects(null, null, null, null, null, null, page, pageSize),
+                callback);
+    }
+
+    /**
+     * Dashboard de un proyecto
+     * GET /api/projects/projects/{id}/dashboard/
+     */
+    public Call<DashboardResponse> loadDashboard(Long projectId, RepositoryCallback<DashboardResponse> callback) {
+        Call<DashboardResponse> call = ApiClient.getApiService().getDashboardTyped(projectId);
+
+        return loadWithCache(KEY_DASHBOARD_PREFIX + projectId, DashboardResponse.class, call,
+                response -> response, callback);
+    }
+
+    /**
+     * Recalcular resumen financiero y recargar el dashboard en un solo viaje de red
+     * POST /api/projects/projects/{id}/refresh_dashboard/
+     * No entrega la copia local (el usuario ya la está viendo); guarda la copia fresca.
+     */
+    public Call<DashboardResponse> refreshDashboard(Long projectId, RepositoryCallback<DashboardResponse> callback) {
+        String cacheKey = KEY_DASHBOARD_PREFIX + projectId;
+        Call<DashboardResponse> call = ApiClient.getApiService().refreshDashboard(projectId);
+
+        return RequestCoalescer.getInstance().enqueue("refresh:" + cacheKey, call, new Callback<DashboardResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<DashboardResponse> call, @NonNull Response<DashboardResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    callback.onData(response.body(), false);
+                    writeCacheAsync(cacheKey, response.body());
+                } else {
+                    Log.w(TAG, "refresh_dashboard no disponible para " + projectId + ": HTTP " + response.code());
+                    callback.onError("HTTP " + response.code(), true);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<DashboardResponse> call, @NonNull Throwable t) {
+                Log.e(TAG, "Fallo de red en refresh_dashboard: " + t.getMessage());
+                callback.onError(t.getMessage(), true);
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+/**
+ * Callback de los repositorios offline-first
+ * onData se llama hasta dos veces: primero con la copia local (fromCache = true)
+ * y luego con la copia fresca del servidor (fromCache = false)
+ */
+public interface RepositoryCallback<T> {
+
+    /**
+     * Datos disponibles (siempre en el hilo principal)
+     */
+    void onData(T data, boolean fromCache);
+
+    /**
+     * Error de red o del servidor
+     * @param hasCachedData true si ya se entregó una copia local antes del error
+     */
+    void onError(String error, boolean hasCachedData);
+}
@@ -0,0 +1,53 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import androidx.annotation.NonNull;
+
+import com.regenerarestudio.regenerapp.data.api.RequestCoalescer;
+
+/**
+ * Espera de una pantalla sobre una carga compartida (listado paginado o sincronización incremental)
+ * Varias pantallas pueden esperar la misma descarga (misma clave); cada una recibe su propio
+ * SharedLoad. Cancelarlo solo quita a esa pantalla de la espera: la descarga sigue para las
+ * demás y se corta recién cuando ya no queda nadie esperándola.
+ *
+ * Lo registran los ViewModels con CallTracker.attach, igual que una llamada Retrofit.
+ */
+public final class SharedLoad {
+
+    private final String flightKey;
+    private final RequestCoalescer.Listener<?> waiter;
+    private final Runnable onAbandoned;
+
+    private boolean cancelled = false;
+
+    /**
+     * @param flightKey   clave de la carga en {@link RequestCoalescer}
+     * @param waiter      receptor de esta pantalla
+     * @param onAbandoned corta la red cuando se va el último receptor
+     */
+    SharedLoad(@NonNull String flightKey, @NonNull RequestCoalescer.Listener<?> waiter,
+               @NonNull Runnable onAbandoned) {
+        this.flightKey = flightKey;
+        this.waiter = waiter;
+        this.onAbandoned = onAbandoned;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Dejar de esperar la carga (esta pantalla no recibe nada más; las demás no se enteran)
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+        if (RequestCoalescer.getInstance().leave(flightKey, waiter)) {
+            onAbandoned.run();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.local.SupplierPriceMatrix;
+import com.regenerarestudio.regenerapp.data.models.Supplier;
+import com.regenerarestudio.regenerapp.data.responses.SupplierPriceMatrixResponse;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Repositorio offline-first del directorio de proveedores
+ * También mantiene la matriz de precios (material × proveedor) en memoria para
+ * elegir proveedor y comparar precios sin ir a la red.
+ */
+public class SupplierRepository extends BaseRepository {
+
+    private static final String TAG = "SupplierRepository";
+
+    private static final String KEY_SUPPLIERS = "suppliers:list";
+    private static final String KEY_PRICE_MATRIX = "suppliers:price_matrix";
+
+    private static final Type SUPPLIER_LIST_TYPE = new TypeToken<List<Supplier>>() {}.getType();
+
+    private static volatile SupplierRepository instance;
+
+    // Matriz de la última descarga entregada (null hasta la primera)
+    private volatile SupplierPriceMatrix priceMatrix;
+
+    public static SupplierRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SupplierRepository.class) {
+                if (instance == null) {
+                    instance = new SupplierRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private SupplierRepository(Context context) {
+        super(context);
+    }
+
+    /**
+     * Lista completa de proveedores activos (todas las páginas)
+     * GET /api/suppliers/suppliers/
+     */
+    public SharedLoad loadSuppliers(RepositoryCallback<List<Supplier>> callback) {
+        return loadAllPagesWithCache(KEY_SUPPLIERS, SUPPLIER_LIST_TYPE,
+                (page, pageSize) -> ApiClient.getApiService()
+                        .getSuppliers(null, null, null, null, true, page, pageSize),
+                callback);
+    }
+
+    /**
+     * Matriz de precios: entrega la de la copia local y luego la de la descarga fresca
+     * GET /api/suppliers/prices/matrix/ (sin cambios, el servidor responde 304)
+     */
+    public void loadPriceMatrix(RepositoryCallback<SupplierPriceMatrix> callback) {
+        SupplierPriceMatrix current = priceMatrix;
+        if (current != null) {
+            callback.onData(current, true);
+        }
+
+        loadWithCache(KEY_PRICE_MATRIX, SupplierPriceMatrixResponse.class,
+                ApiClient.getApiService().getSupplierPriceMatrix(),
+                response -> response,
+                new RepositoryCallback<SupplierPriceMatrixResponse>() {
+                    @Override
+                    public void onData(SupplierPriceMatrixResponse response, boolean fromCache) {
+                        if (fromCache && priceMatrix != null) {
+                            return;
+                        }
+                        AppExecutors.background().execute(() -> {
+                            SupplierPriceMatrix matrix = buildMatrix(response, fromCache);
+                            if (matrix != null) {
+                                AppExecutors.mainThread().execute(() -> callback.onData(matrix, fromCache));
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onError(String error, boolean hasCachedData) {
+                        callback.onError(error, hasCachedData || priceMatrix != null);
+                    }
+                });
+    }
+
+    /**
+     * Matriz ya construida (para consultas inmediatas), o null si aún no hay precios
+     */
+    @Nullable
+    public SupplierPriceMatrix getPriceMatrix() {
+        return priceMatrix;
+    }
+
+    /**
+     * Construir y publicar la matriz (null si era la copia local y la fresca ya se construyó)
+     */
+    @Nullable
+    private synchronized SupplierPriceMatrix buildMatrix(SupplierPriceMatrixResponse response, boolean fromCache) {
+        if (fromCache && priceMatrix != null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        SupplierPriceMatrix matrix = SupplierPriceMatrix.build(response);
+        Log.d(TAG, "Matriz de precios: " + matrix.size() + " precios de " + matrix.materialCount()
+                + " materiales en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        priceMatrix = matrix;
+        return matrix;
+    }
+}
@@ -0,0 +1,65 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import androidx.annotation.NonNull;
+
+import retrofit2.Call;
+
+/**
+ * Red de una sincronización incremental en curso (compartida por quienes piden la misma clave)
+ * En cada momento la red es la petición delta o, en servidores sin sync, la descarga paginada
+ * de respaldo. Solo se cancela cuando ya nadie la espera (ver {@link SharedLoad}).
+ */
+final class SyncFlight {
+
+    private Call<?> call;
+    private PagedLoader<?> loader;
+    private boolean cancelled = false;
+
+    /**
+     * Registrar la petición delta en curso (false si la sincronización ya fue cancelada)
+     */
+    synchronized boolean track(@NonNull Call<?> call) {
+        if (cancelled) {
+            return false;
+        }
+        this.call = call;
+        return true;
+    }
+
+    /**
+     * Registrar la descarga paginada de respaldo (false si la sincronización ya fue cancelada)
+     */
+    synchronized boolean track(@NonNull PagedLoader<?> loader) {
+        if (cancelled) {
+            return false;
+        }
+        this.loader = loader;
+        return true;
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cortar la red en curso (sin avisar: ya no queda nadie esperando)
+     */
+    void cancel() {
+        Call<?> pendingCall;
+        PagedLoader<?> pendingLoader;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            pendingCall = call;
+            pendingLoader = loader;
+        }
+        if (pendingCall != null) {
+            pendingCall.cancel();
+        }
+        if (pendingLoader != null) {
+            pendingLoader.cancel();
+        }
+    }
+}
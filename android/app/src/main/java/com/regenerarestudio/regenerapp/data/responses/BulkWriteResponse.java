@@ -0,0 +1,74 @@
+package com.regenerarestudio.regenerapp.data.responses;
+
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Respuesta de escritura en lote de Django (POST .../bulk/)
+ * Django devuelve: {"results": [{"op": "create", "key": "...", "id": 12, "status": 201, "item": {...}}, ...],
+ *                   "applied": 9, "failed": 1}
+ * Los resultados vienen en el mismo orden que las operaciones enviadas.
+ */
+public class BulkWriteResponse<T> {
+
+    @SerializedName("results")
+    private List<Result<T>> results;
+
+    @SerializedName("applied")
+    private int applied;
+
+    @SerializedName("failed")
+    private int failed;
+
+    // Constructor vacío
+    public BulkWriteResponse() {}
+
+    // Getters
+    public List<Result<T>> getResults() {
+        return results != null ? results : Collections.emptyList();
+    }
+
+    public int getApplied() { return applied; }
+    public int getFailed() { return failed; }
+
+    /**
+     * Resultado de una operación del lote
+     */
+    public static class Result<T> {
+
+        @SerializedName("op")
+        private String op;
+
+        @SerializedName("key")
+        private String key;
+
+        @SerializedName("id")
+        private Long id;
+
+        @SerializedName("status")
+        private int status;
+
+        @SerializedName("item")
+        private T item;
+
+        // Texto o errores de validación por campo
+        @SerializedName("error")
+        private JsonElement error;
+
+        public Result() {}
+
+        public String getOp() { return op; }
+        public String getKey() { return key; }
+        public Long getId() { return id; }
+        public int getStatus() { return status; }
+        public T getItem() { return item; }
+        public JsonElement getError() { return error; }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
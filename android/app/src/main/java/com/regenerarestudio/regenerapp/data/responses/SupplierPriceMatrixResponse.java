@@ -0,0 +1,94 @@
+package com.regenerarestudio.regenerapp.data.responses;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Respuesta de la matriz de precios de Django (formato columnar)
+ * Django devuelve: {"material": [..], "supplier": [..], "price": [..], "discount": [..],
+ * "currency": [..], "updated_at": [..], "suppliers": [{...}]}
+ * Las listas están alineadas por posición: la fila i es el precio de supplier[i] para material[i].
+ */
+public class SupplierPriceMatrixResponse {
+
+    @SerializedName("material")
+    private long[] materialIds;
+
+    @SerializedName("supplier")
+    private long[] supplierIds;
+
+    @SerializedName("price")
+    private double[] prices;
+
+    @SerializedName("discount")
+    private double[] discounts;
+
+    @SerializedName("currency")
+    private String[] currencies;
+
+    @SerializedName("updated_at")
+    private long[] updatedAt;
+
+    @SerializedName("suppliers")
+    private List<SupplierInfo> suppliers;
+
+    // Constructor vacío
+    public SupplierPriceMatrixResponse() {}
+
+    // Getters
+    public long[] getMaterialIds() { return materialIds != null ? materialIds : new long[0]; }
+    public long[] getSupplierIds() { return supplierIds != null ? supplierIds : new long[0]; }
+    public double[] getPrices() { return prices != null ? prices : new double[0]; }
+    public double[] getDiscounts() { return discounts != null ? discounts : new double[0]; }
+    public String[] getCurrencies() { return currencies != null ? currencies : new String[0]; }
+    public long[] getUpdatedAt() { return updatedAt != null ? updatedAt : new long[0]; }
+
+    public List<SupplierInfo> getSuppliers() {
+        return suppliers != null ? suppliers : Collections.emptyList();
+    }
+
+    /**
+     * Datos de un proveedor de la matriz (una vez por proveedor, no por fila)
+     */
+    public static class SupplierInfo {
+
+        @SerializedName("id")
+        private long id;
+
+        @SerializedName("name")
+        private String name;
+
+        @SerializedName("commercial_name")
+        private String commercialName;
+
+        @SerializedName("city")
+        private String city;
+
+        @SerializedName("zone")
+        private String zone;
+
+        @SerializedName("rating")
+        private Integer rating;
+
+        @SerializedName("delivery_time")
+        private String deliveryTime;
+
+        @SerializedName("is_preferred")
+        private boolean isPreferred;
+
+        @SerializedName("phone")
+        private String phone;
+
+        public long getId() { return id; }
+        public String getName() { return name; }
+        public String getCommercialName() { return commercialName; }
+        public String getCity() { return city; }
+        public String getZone() { return zone; }
+        public Integer getRating() { return rating; }
+        public String getDeliveryTime() { return deliveryTime; }
+        public boolean isPreferred() { return isPreferred; }
+        public String getPhone() { return phone; }
+    }
+}
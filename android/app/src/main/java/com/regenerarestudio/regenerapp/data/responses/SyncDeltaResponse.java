@@ -0,0 +1,41 @@
+package com.regenerarestudio.regenerapp.data.responses;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Respuesta de sincronización incremental (delta) de Django
+ * Django devuelve: {"token": "...", "full": false, "changed": [...], "deleted": [3, 8]}
+ * Con full = true, changed trae la lista completa y reemplaza la copia local.
+ */
+public class SyncDeltaResponse<T> {
+
+    @SerializedName("token")
+    private String token;
+
+    @SerializedName("full")
+    private boolean full;
+
+    @SerializedName("changed")
+    private List<T> changed;
+
+    @SerializedName("deleted")
+    private List<Long> deleted;
+
+    // Constructor vacío
+    public SyncDeltaResponse() {}
+
+    // Getters
+    public String getToken() { return token; }
+    public boolean isFull() { return full; }
+
+    public List<T> getChanged() {
+        return changed != null ? changed : Collections.emptyList();
+    }
+
+    public List<Long> getDeleted() {
+        return deleted != null ? deleted : Collections.emptyList();
+    }
+}
@@ -0,0 +1,169 @@
+package com.regenerarestudio.regenerapp.data.sync;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+import com.regenerarestudio.regenerapp.data.local.PayloadStore;
+import com.regenerarestudio.regenerapp.data.responses.SyncDeltaResponse;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+
+/**
+ * Motor de sincronización incremental (delta) de listados
+ * Guarda junto a cada copia local el token del servidor y, en la siguiente carga,
+ * solo pide las filas cambiadas y los IDs eliminados desde ese token.
+ * La fusión se hace por ID sobre la copia local y el resultado reemplaza a la caché.
+ *
+ * Todas las operaciones de disco deben ejecutarse fuera del hilo principal.
+ */
+public final class DeltaSyncEngine {
+
+    private static final String TAG = "DeltaSyncEngine";
+
+    // Los tokens se guardan en la misma tabla que la caché, con su propio prefijo
+    private static final String TOKEN_KEY_PREFIX = "sync_token:";
+
+    /**
+     * Petición delta al servidor (sinceToken null = lista completa)
+     */
+    public interface DeltaFetcher<T> {
+        Call<SyncDeltaResponse<T>> fetch(@Nullable String sinceToken);
+    }
+
+    /**
+     * Identificador de cada fila (para fusionar por ID)
+     */
+    public interface IdExtractor<T> {
+        Long idOf(T item);
+    }
+
+    /**
+     * La respuesta delta no se puede aplicar (falta la copia local base)
+     */
+    public static class MissingBaseException extends IllegalStateException {
+        MissingBaseException(String cacheKey) {
+            super("Sin copia local para aplicar delta de " + cacheKey);
+        }
+    }
+
+    private final PayloadStore cacheDatabase;
+    private final Gson gson;
+
+    public DeltaSyncEngine(@NonNull PayloadStore cacheDatabase, @NonNull Gson gson) {
+        this.cacheDatabase = cacheDatabase;
+        this.gson = gson;
+    }
+
+    /**
+     * Token de la última sincronización; null si no hay copia local (se pedirá la lista completa)
+     */
+    @WorkerThread
+    @Nullable
+    public String readToken(@NonNull String cacheKey) {
+        if (cacheDatabase.readPayload(cacheKey) == null) {
+            return null;
+        }
+        return cacheDatabase.readPayload(TOKEN_KEY_PREFIX + cacheKey);
+    }
+
+    /**
+     * Olvidar el token: la próxima sincronización descarga la lista completa
+     */
+    @WorkerThread
+    public void clearToken(@NonNull String cacheKey) {
+        cacheDatabase.deletePayload(TOKEN_KEY_PREFIX + cacheKey);
+    }
+
+    /**
+     * Aplicar la respuesta del servidor a la copia local y guardar lista y token
+     *
+     * @return la lista fusionada (misma forma que devolvería el listado completo)
+     * @throws MissingBaseException si es un delta parcial y no hay copia local
+     */
+    @WorkerThread
+    @NonNull
+    public <T> List<T> apply(@NonNull String cacheKey,
+                             @NonNull Type listType,
+                             @NonNull SyncDeltaResponse<T> delta,
+                             @NonNull IdExtractor<T> ids,
+                             @Nullable Comparator<T> order) {
+
+        List<T> local = null;
+        if (!delta.isFull()) {
+            local = readList(cacheKey, listType);
+            if (local == null) {
+                clearToken(cacheKey);
+                throw new MissingBaseException(cacheKey);
+            }
+        }
+
+        List<T> merged = merge(local, delta, ids, order);
+
+        cacheDatabase.writePayload(cacheKey, gson.toJson(merged));
+        if (delta.getToken() != null) {
+            cacheDatabase.writePayload(TOKEN_KEY_PREFIX + cacheKey, delta.getToken());
+        }
+
+        Log.d(TAG, cacheKey + (delta.isFull() ? " - lista completa: " : " - delta aplicado: ") +
+                delta.getChanged().size() + " cambiados, " + delta.getDeleted().size() +
+                " eliminados, " + merged.size() + " en total");
+        return merged;
+    }
+
+    /**
+     * Fusionar por ID: eliminados fuera, cambiados reemplazan o se agregan
+     */
+    @NonNull
+    static <T> List<T> merge(@Nullable List<T> local,
+                             @NonNull SyncDeltaResponse<T> delta,
+                             @NonNull IdExtractor<T> ids,
+                             @Nullable Comparator<T> order) {
+
+        Map<Long, T> byId = new LinkedHashMap<>();
+        if (!delta.isFull() && local != null) {
+            for (T item : local) {
+                byId.put(ids.idOf(item), item);
+            }
+        }
+
+        for (Long deletedId : delta.getDeleted()) {
+            byId.remove(deletedId);
+        }
+        for (T item : delta.getChanged()) {
+            byId.put(ids.idOf(item), item);
+        }
+
+        List<T> merged = new ArrayList<>(byId.values());
+        // Mismo orden que el listado del servidor
+        if (order != null && (delta.isFull() || !delta.getChanged().isEmpty())) {
+            merged.sort(order);
+        }
+        return merged;
+    }
+
+    @WorkerThread
+    @Nullable
+    private <T> List<T> readList(String cacheKey, Type listType) {
+        String payload = cacheDatabase.readPayload(cacheKey);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return gson.fromJson(payload, listType);
+        } catch (Exception e) {
+            Log.w(TAG, "Copia local inválida para " + cacheKey + ", se pedirá la lista completa", e);
+            return null;
+        }
+    }
+}
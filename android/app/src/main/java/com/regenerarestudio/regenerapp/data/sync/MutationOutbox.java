@@ -0,0 +1,950 @@
+package com.regenerarestudio.regenerapp.data.sync;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.api.ApiService;
+import com.regenerarestudio.regenerapp.data.local.LocalCacheDatabase;
+import com.regenerarestudio.regenerapp.data.local.OutboxStore;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
+import com.regenerarestudio.regenerapp.data.responses.BulkWriteResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Cola persistente de escrituras (outbox) para presupuesto inicial y gastos reales
+ *
+ * 1. La pantalla aplica el cambio localmente al instante y lo encola aquí (se guarda en disco)
+ * 2. La cola se envía en orden con Idempotency-Key; las escrituras seguidas del mismo tipo
+ *    (ej: importar un presupuesto) se agrupan en una sola petición POST .../bulk/
+ * 3. Sin señal se detiene y se reanuda sola al recuperar conexión (o al abrir la app)
+ * 4. Si el servidor rechaza un cambio (409, 400, 404...) se avisa como conflicto y se descarta
+ *
+ * Los items creados sin conexión usan IDs temporales negativos hasta que el servidor asigna el real.
+ */
+public final class MutationOutbox {
+
+    private static final String TAG = "MutationOutbox";
+
+    // Reintento tras errores del servidor (5xx): 5s, 10s, 20s... hasta 5 minutos
+    private static final long RETRY_BASE_DELAY_MS = 5_000;
+    private static final long RETRY_MAX_DELAY_MS = 5 * 60_000;
+
+    // Ventana para agrupar escrituras hechas seguidas en una sola petición en lote
+    private static final long BATCH_WINDOW_MS = 250;
+    private static final int BATCH_MAX_OPERATIONS = 100;
+
+    /**
+     * Resultado de las escrituras (siempre en el hilo principal)
+     */
+    public interface Listener {
+        /**
+         * El servidor aceptó la escritura
+         * @param serverRow item devuelto por el servidor (null en eliminaciones)
+         */
+        void onMutationApplied(@NonNull PendingMutation mutation, @Nullable Object serverRow);
+
+        /**
+         * El servidor rechazó la escritura; ya no está en la cola
+         */
+        void onMutationConflict(@NonNull PendingMutation mutation, int httpCode, @NonNull String message);
+    }
+
+    /**
+     * Convierte un item del listado en su ID (para aplicar la cola sobre listas)
+     */
+    public interface IdExtractor<T> {
+        Long idOf(T item);
+    }
+
+    /**
+     * Hilo principal: entregas a los listeners y esperas (ventana de lote, reintentos)
+     */
+    interface MainThread {
+        void post(@NonNull Runnable task);
+        void postDelayed(@NonNull Runnable task, long delayMs);
+    }
+
+    private enum SendResult { APPLIED, CONFLICT, RETRY_LATER, OFFLINE, UNSUPPORTED }
+
+    private static volatile MutationOutbox instance;
+
+    public static MutationOutbox getInstance(Context context) {
+        if (instance == null) {
+            synchronized (MutationOutbox.class) {
+                if (instance == null) {
+                    instance = new MutationOutbox(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final OutboxStore store;
+    private final Supplier<ApiService> api;
+    private final Gson gson;
+
+    // Un solo hilo: la cola se envía estrictamente en orden
+    private final Executor executor;
+    private final MainThread mainThread;
+
+    // Copia en memoria de la cola (protegida por this)
+    private final List<PendingMutation> queue = new ArrayList<>();
+    private final List<PendingMutation> inFlight = new ArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final MutableLiveData<Integer> pendingCountLiveData = new MutableLiveData<>(0);
+
+    // IDs temporales negativos, únicos entre reinicios
+    private final AtomicLong nextTemporaryId = new AtomicLong(-System.currentTimeMillis());
+
+    // Espera entre reintentos: solo se usan en el hilo de la cola
+    private int retryAttempt = 0;
+    private boolean retryScheduled = false;
+    private boolean drainScheduled = false;
+
+    // Se desactiva si el servidor no tiene el endpoint de lote (404/405/501) y se envía una a una;
+    // se vuelve a probar al recuperar conexión o al reiniciar la app
+    private volatile boolean bulkSupported = true;
+
+    // Escrituras que salen una a una después de un lote rechazado por otro motivo (protegido por this)
+    private int singleSendsPending = 0;
+
+    private MutationOutbox(Context context) {
+        this(LocalCacheDatabase.getInstance(context), ApiClient::getApiService, newOutboxExecutor(), mainLooper());
+        registerNetworkCallback(context);
+    }
+
+    @VisibleForTesting
+    MutationOutbox(@NonNull OutboxStore store, @NonNull Supplier<ApiService> api,
+                   @NonNull Executor executor, @NonNull MainThread mainThread) {
+        this.store = store;
+        this.api = api;
+        this.executor = executor;
+        this.mainThread = mainThread;
+        this.gson = ApiClient.getGson();
+
+        executor.execute(this::loadFromDisk);
+    }
+
+    private static Executor newOutboxExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "regenerapp-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static MainThread mainLooper() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return new MainThread() {
+            @Override
+            public void post(@NonNull Runnable task) {
+                handler.post(task);
+            }
+
+            @Override
+            public void postDelayed(@NonNull Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+        };
+    }
+
+    // ==========================================
+    // ENCOLAR
+    // ==========================================
+
+    /**
+     * ID temporal para un item creado localmente (negativo)
+     */
+    public long newTemporaryId() {
+        return nextTemporaryId.getAndDecrement();
+    }
+
+    /**
+     * Encolar una escritura (ya aplicada localmente) y empezar a enviarla
+     */
+    public void enqueue(@NonNull PendingMutation mutation) {
+        List<PendingMutation> removed = new ArrayList<>();
+        PendingMutation merged = null;
+
+        synchronized (this) {
+            // Si la creación ya se está enviando, la escritura se encola y se reasigna al ID real
+            PendingMutation pendingCreate = mutation.hasTemporaryTarget()
+                    ? findCreate(mutation.getTargetId()) : null;
+            if (pendingCreate != null && inFlight.contains(pendingCreate)) {
+                pendingCreate = null;
+            }
+
+            if (pendingCreate != null && mutation.isDelete()) {
+                // El item nunca llegó al servidor: basta con olvidar sus escrituras
+                Iterator<PendingMutation> iterator = queue.iterator();
+                while (iterator.hasNext()) {
+                    PendingMutation queued = iterator.next();
+                    if (mutation.getTargetId().equals(queued.getTargetId())) {
+                        iterator.remove();
+                        removed.add(queued);
+                    }
+                }
+            } else if (pendingCreate != null && mutation.isUpdate()) {
+                // Editar un item aún no creado: se envía directamente con los datos nuevos
+                pendingCreate.getPayload().putAll(mutation.getPayload());
+                merged = pendingCreate;
+            } else if (mutation.isUpdate() && (merged = findQueuedUpdate(mutation)) != null) {
+                // Otra edición del mismo item sin enviar: una sola escritura con la versión de la primera
+                merged.getPayload().putAll(mutation.getPayload());
+            } else {
+                queue.add(mutation);
+            }
+        }
+
+        Log.d(TAG, "Encolada: " + mutation + (merged != null ? " (fusionada con " + merged + ")" : "") +
+                (!removed.isEmpty() ? " (cancela " + removed.size() + " pendientes)" : ""));
+        publishPendingCount();
+
+        PendingMutation toPersist = merged;
+        boolean append = merged == null && removed.isEmpty();
+        executor.execute(() -> {
+            for (PendingMutation queued : removed) {
+                store.deleteOutboxEntry(queued.getKey());
+            }
+            if (toPersist != null) {
+                persist(toPersist);
+            } else if (append) {
+                persist(mutation);
+            }
+        });
+        scheduleDrain();
+    }
+
+    /**
+     * Reintentar el envío ahora (al refrescar la pantalla o recuperar conexión)
+     */
+    public void retryNow() {
+        executor.execute(this::drain);
+    }
+
+    // ==========================================
+    // CONSULTAS
+    // ==========================================
+
+    public LiveData<Integer> getPendingCount() {
+        return pendingCountLiveData;
+    }
+
+    public synchronized boolean hasPending(@Nullable Long projectId, @NonNull String resource) {
+        for (PendingMutation mutation : queue) {
+            if (matches(mutation, projectId, resource)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Aplicar las escrituras pendientes sobre una lista del servidor o de la caché,
+     * para que los cambios locales no desaparezcan al recargar
+     */
+    @NonNull
+    public <T> List<T> overlay(@NonNull List<T> items, @Nullable Long projectId, @NonNull String resource,
+                               @NonNull Class<T> type, @NonNull IdExtractor<T> ids) {
+        List<PendingMutation> pending = new ArrayList<>();
+        synchronized (this) {
+            for (PendingMutation mutation : queue) {
+                if (matches(mutation, projectId, resource)) {
+                    pending.add(mutation);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return items;
+        }
+
+        List<T> result = new ArrayList<>(items);
+        for (PendingMutation mutation : pending) {
+            int index = indexOf(result, ids, mutation.getTargetId());
+            if (mutation.isDelete()) {
+                if (index >= 0) result.remove(index);
+            } else {
+                T local = toLocalItem(mutation.getPayload(), mutation.getTargetId(), mutation.getBaseVersion(), type);
+                if (local == null) continue;
+                if (index >= 0) {
+                    result.set(index, local);
+                } else {
+                    result.add(local);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Aplicar sobre una fila devuelta por el servidor las escrituras que siguen pendientes
+     * para ese mismo item (ej: otra edición encolada después de la que acaba de aplicarse)
+     *
+     * @return la fila a mostrar, o null si hay una eliminación pendiente
+     */
+    @Nullable
+    public <T> T overlayRow(@NonNull T row, @NonNull String resource,
+                            @NonNull Class<T> type, @NonNull IdExtractor<T> ids) {
+        Long id = ids.idOf(row);
+        List<PendingMutation> pending = new ArrayList<>();
+        synchronized (this) {
+            for (PendingMutation mutation : queue) {
+                if (resource.equals(mutation.getResource()) && id != null && id.equals(mutation.getTargetId())) {
+                    pending.add(mutation);
+                }
+            }
+        }
+
+        T result = row;
+        for (PendingMutation mutation : pending) {
+            if (mutation.isDelete()) {
+                return null;
+            }
+            T local = toLocalItem(mutation.getPayload(), id, mutation.getBaseVersion(), type);
+            if (local != null) {
+                result = local;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Construir el item local a partir del cuerpo de la escritura (mismos nombres de campo que el API)
+     */
+    @Nullable
+    public <T> T toLocalItem(@NonNull Map<String, Object> payload, @Nullable Long id, @NonNull Class<T> type) {
+        return toLocalItem(payload, id, null, type);
+    }
+
+    /**
+     * Igual que {@link #toLocalItem(Map, Long, Class)}, conservando la versión del servidor (updated_at)
+     * sobre la que se hizo la edición: así la siguiente edición de la fila optimista sale con If-Match
+     */
+    @Nullable
+    public <T> T toLocalItem(@NonNull Map<String, Object> payload, @Nullable Long id,
+                             @Nullable String serverVersion, @NonNull Class<T> type) {
+        try {
+            JsonObject json = gson.toJsonTree(payload).getAsJsonObject();
+            if (id != null) {
+                json.addProperty("id", id);
+            }
+            if (serverVersion != null) {
+                json.addProperty("updated_at", serverVersion);
+            }
+            // Los formularios envían "discount"; la tabla de gastos lee "discount_percentage"
+            if (json.has("discount") && !json.has("discount_percentage")) {
+                json.add("discount_percentage", json.get("discount"));
+            }
+            return gson.fromJson(json, type);
+        } catch (Exception e) {
+            Log.w(TAG, "No se pudo construir el item local desde la escritura", e);
+            return null;
+        }
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // ==========================================
+    // ENVÍO
+    // ==========================================
+
+    /**
+     * Enviar la cola en orden hasta vaciarla o quedarse sin conexión
+     */
+    @WorkerThread
+    private void drain() {
+        while (true) {
+            List<PendingMutation> batch;
+            synchronized (this) {
+                if (queue.isEmpty()) {
+                    inFlight.clear();
+                    retryAttempt = 0;
+                    return;
+                }
+                batch = nextBatch();
+                inFlight.addAll(batch);
+            }
+
+            SendResult result = batch.size() > 1 ? sendBatch(batch) : sendOne(batch.get(0));
+            synchronized (this) {
+                inFlight.clear();
+            }
+
+            switch (result) {
+                case APPLIED:
+                    retryAttempt = 0;
+                    break;
+
+                case CONFLICT:
+                    break;
+
+                case UNSUPPORTED:
+                    // El mismo lote se vuelve a enviar una escritura a la vez
+                    break;
+
+                case RETRY_LATER:
+                    // Solo las que siguen en la cola (un lote puede haberse aplicado en parte)
+                    List<PendingMutation> waiting = new ArrayList<>();
+                    synchronized (this) {
+                        for (PendingMutation mutation : batch) {
+                            if (queue.contains(mutation)) {
+                                mutation.incrementAttempts();
+                                waiting.add(mutation);
+                            }
+                        }
+                    }
+                    for (PendingMutation mutation : waiting) {
+                        persist(mutation);
+                    }
+                    scheduleRetry();
+                    return;
+
+                case OFFLINE:
+                default:
+                    Log.d(TAG, "Sin conexión; escrituras esperando señal: " + pendingCount());
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Escrituras seguidas del mismo recurso desde el inicio de la cola (máximo BATCH_MAX_OPERATIONS)
+     * Se corta en la primera que apunta a un ID temporal: el servidor todavía no lo conoce.
+     */
+    private List<PendingMutation> nextBatch() {
+        List<PendingMutation> batch = new ArrayList<>();
+        PendingMutation first = queue.get(0);
+        batch.add(first);
+        if (singleSendsPending > 0) {
+            singleSendsPending--;
+            return batch;
+        }
+        if (!bulkSupported) {
+            return batch;
+        }
+
+        for (int i = 1; i < queue.size() && batch.size() < BATCH_MAX_OPERATIONS; i++) {
+            PendingMutation next = queue.get(i);
+            if (!first.getResource().equals(next.getResource()) || dependsOnTemporaryId(next)) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    @WorkerThread
+    private SendResult sendOne(PendingMutation mutation) {
+        Object[] serverRow = new Object[1];
+        String[] errorMessage = new String[1];
+        int[] httpCode = new int[1];
+        SendResult result = send(mutation, serverRow, httpCode, errorMessage);
+
+        if (result == SendResult.APPLIED) {
+            onApplied(mutation, serverRow[0]);
+        } else if (result == SendResult.CONFLICT) {
+            onConflict(mutation, httpCode[0], errorMessage[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Enviar el lote en una sola petición; cada escritura recibe su propio resultado
+     */
+    @WorkerThread
+    private SendResult sendBatch(List<PendingMutation> batch) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (PendingMutation mutation : batch) {
+            operations.add(toOperation(mutation));
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("operations", operations);
+
+        ApiService service = api.get();
+        Response<? extends BulkWriteResponse<?>> response;
+        try {
+            if (batch.get(0).isBudgetItem()) {
+                response = service.bulkBudgetItems(body).execute();
+            } else {
+                response = service.bulkExpenses(body).execute();
+            }
+        } catch (IOException e) {
+            return SendResult.OFFLINE;
+        }
+
+        int code = response.code();
+        if (code == 408 || code == 429 || code >= 500) {
+            Log.w(TAG, "Servidor no disponible (" + code + ") para lote de " + batch.size());
+            return SendResult.RETRY_LATER;
+        }
+        if (!response.isSuccessful() || response.body() == null) {
+            if (code == 404 || code == 405 || code == 501) {
+                Log.w(TAG, "Servidor sin endpoint de lote (HTTP " + code + "); se envía una escritura a la vez");
+                bulkSupported = false;
+            } else {
+                // Lote rechazado entero (ej: 400, 413): solo este lote sale una a una
+                Log.w(TAG, "Lote rechazado (HTTP " + code + "); sus " + batch.size() + " escrituras se envían una a una");
+                sendSingly(batch.size());
+            }
+            return SendResult.UNSUPPORTED;
+        }
+
+        Map<String, BulkWriteResponse.Result<?>> resultsByKey = new HashMap<>();
+        for (BulkWriteResponse.Result<?> result : response.body().getResults()) {
+            if (result.getKey() != null) {
+                resultsByKey.put(result.getKey(), result);
+            }
+        }
+
+        int applied = 0;
+        int matched = 0;
+        for (PendingMutation mutation : batch) {
+            BulkWriteResponse.Result<?> result = resultsByKey.get(mutation.getKey());
+            if (result == null) {
+                // Sin resultado: sigue en la cola (ver abajo)
+                continue;
+            }
+            matched++;
+
+            if (result.isSuccessful() || (mutation.isDelete() && result.getStatus() == 404)) {
+                Object row = result.getItem();
+                if (row != null && serverIdOf(row) == null && result.getId() != null) {
+                    assignId(row, result.getId());
+                }
+                onApplied(mutation, row);
+                applied++;
+            } else {
+                String error = result.getError() != null ? result.getError().toString() : "";
+                onConflict(mutation, result.getStatus(),
+                        "HTTP " + result.getStatus() + (error.isEmpty() ? "" : " - " + error));
+            }
+        }
+
+        Log.d(TAG, "Lote de " + batch.size() + " escrituras: " + applied + " aplicadas, " +
+                (matched - applied) + " rechazadas");
+        if (matched == 0) {
+            // Respuesta sin resultados reconocibles: este lote se reenvía una escritura a la vez
+            sendSingly(batch.size());
+            return SendResult.UNSUPPORTED;
+        }
+        if (matched < batch.size()) {
+            // Las que no tuvieron resultado se reenvían tras la espera normal, no en el acto
+            // (la clave evita duplicados si el servidor sí las aplicó)
+            Log.w(TAG, (batch.size() - matched) + " escrituras del lote sin resultado; se reintentan más tarde");
+            return SendResult.RETRY_LATER;
+        }
+        return applied > 0 ? SendResult.APPLIED : SendResult.CONFLICT;
+    }
+
+    private synchronized void sendSingly(int count) {
+        singleSendsPending = Math.max(singleSendsPending, count);
+    }
+
+    private static Map<String, Object> toOperation(PendingMutation mutation) {
+        Map<String, Object> operation = new HashMap<>();
+        operation.put("op", mutation.getOperation());
+        operation.put("key", mutation.getKey());
+        if (!mutation.isCreate()) {
+            operation.put("id", mutation.getTargetId());
+        }
+        if (mutation.getPayload() != null) {
+            operation.put("data", mutation.getPayload());
+        }
+        if (mutation.getBaseVersion() != null) {
+            operation.put("base_version", mutation.getBaseVersion());
+        }
+        return operation;
+    }
+
+    @WorkerThread
+    private SendResult send(PendingMutation mutation, Object[] serverRow, int[] httpCode, String[] errorMessage) {
+        Response<?> response;
+        try {
+            Call<?> call = buildCall(mutation);
+            response = call.execute();
+        } catch (IOException e) {
+            return SendResult.OFFLINE;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error al preparar " + mutation, e);
+            httpCode[0] = 0;
+            errorMessage[0] = e.getMessage() != null ? e.getMessage() : "Escritura inválida";
+            return SendResult.CONFLICT;
+        }
+
+        int code = response.code();
+        httpCode[0] = code;
+
+        if (response.isSuccessful() || (mutation.isDelete() && code == 404)) {
+            serverRow[0] = response.body();
+            return SendResult.APPLIED;
+        }
+
+        if (code == 408 || code == 429 || code >= 500) {
+            Log.w(TAG, "Servidor no disponible (" + code + ") para " + mutation);
+            return SendResult.RETRY_LATER;
+        }
+
+        String body = "";
+        try {
+            if (response.errorBody() != null) {
+                body = response.errorBody().string();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo leer el error de " + mutation, e);
+        }
+        errorMessage[0] = "HTTP " + code + (body.isEmpty() ? "" : " - " + body);
+        return SendResult.CONFLICT;
+    }
+
+    private Call<?> buildCall(PendingMutation mutation) {
+        ApiService api = this.api.get();
+        String key = mutation.getKey();
+
+        if (mutation.hasTemporaryTarget() && !mutation.isCreate()) {
+            throw new IllegalStateException("El item todavía no existe en el servidor");
+        }
+
+        if (mutation.isBudgetItem()) {
+            if (mutation.isCreate()) return api.addToBudget(mutation.getPayload(), key);
+            if (mutation.isUpdate()) return api.updateBudgetItem(mutation.getTargetId(), mutation.getPayload(), key, mutation.getBaseVersion());
+            return api.deleteBudgetItem(mutation.getTargetId(), key);
+        }
+
+        if (mutation.isCreate()) return api.addExpense(mutation.getPayload(), key);
+        if (mutation.isUpdate()) return api.updateExpense(mutation.getTargetId(), mutation.getPayload(), key, mutation.getBaseVersion());
+        return api.deleteExpense(mutation.getTargetId(), key);
+    }
+
+    @WorkerThread
+    private void onApplied(PendingMutation mutation, @Nullable Object serverRow) {
+        Long serverId = serverIdOf(serverRow);
+        if (serverId == null && !mutation.isCreate()) {
+            serverId = mutation.getTargetId();
+            assignId(serverRow, serverId);
+        }
+
+        List<PendingMutation> remapped = new ArrayList<>();
+        String serverVersion = serverVersionOf(serverRow);
+        synchronized (this) {
+            queue.remove(mutation);
+
+            // Las ediciones encoladas después de esta parten de la versión que acaba de escribir
+            if (serverId != null && serverVersion != null && !mutation.isDelete()) {
+                for (PendingMutation queued : queue) {
+                    if (queued.isUpdate() && mutation.getResource().equals(queued.getResource())
+                            && (serverId.equals(queued.getTargetId()) || mutation.getTargetId().equals(queued.getTargetId()))) {
+                        queued.setBaseVersion(serverVersion);
+                        remapped.add(queued);
+                    }
+                }
+            }
+
+            // Las escrituras que apuntaban al ID temporal pasan a usar el ID real
+            if (mutation.isCreate() && serverId != null) {
+                for (PendingMutation queued : queue) {
+                    if (mutation.getTargetId().equals(queued.getTargetId())) {
+                        queued.setTargetId(serverId);
+                        if (!remapped.contains(queued)) remapped.add(queued);
+                    }
+                    Object budgetItemRef = queued.getPayload() != null ? queued.getPayload().get("budget_item") : null;
+                    if (budgetItemRef instanceof Number
+                            && ((Number) budgetItemRef).longValue() == mutation.getTargetId()) {
+                        queued.getPayload().put("budget_item", serverId);
+                        if (!remapped.contains(queued)) remapped.add(queued);
+                    }
+                }
+            }
+        }
+
+        store.deleteOutboxEntry(mutation.getKey());
+        for (PendingMutation queued : remapped) {
+            persist(queued);
+        }
+
+        Log.d(TAG, "✅ Aplicada: " + mutation + (serverId != null ? " -> ID " + serverId : ""));
+        publishPendingCount();
+        mainThread.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onMutationApplied(mutation, serverRow);
+            }
+        });
+    }
+
+    @WorkerThread
+    private void onConflict(PendingMutation mutation, int httpCode, String message) {
+        List<PendingMutation> rejected = new ArrayList<>();
+        rejected.add(mutation);
+
+        synchronized (this) {
+            queue.remove(mutation);
+            // Si se rechazó una creación, sus ediciones/eliminaciones ya no tienen destino
+            if (mutation.isCreate()) {
+                Iterator<PendingMutation> iterator = queue.iterator();
+                while (iterator.hasNext()) {
+                    PendingMutation queued = iterator.next();
+                    if (mutation.getTargetId().equals(queued.getTargetId())) {
+                        iterator.remove();
+                        rejected.add(queued);
+                    }
+                }
+            }
+        }
+
+        for (PendingMutation dropped : rejected) {
+            store.deleteOutboxEntry(dropped.getKey());
+        }
+
+        Log.w(TAG, "❌ Conflicto en " + mutation + ": " + message);
+        publishPendingCount();
+        mainThread.post(() -> {
+            for (PendingMutation dropped : rejected) {
+                for (Listener listener : listeners) {
+                    listener.onMutationConflict(dropped, httpCode, message);
+                }
+            }
+        });
+    }
+
+    /**
+     * Enviar tras una ventana corta: las escrituras hechas seguidas salen juntas en un lote
+     */
+    private void scheduleDrain() {
+        synchronized (this) {
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        mainThread.postDelayed(() -> {
+            synchronized (MutationOutbox.this) {
+                drainScheduled = false;
+            }
+            retryNow();
+        }, BATCH_WINDOW_MS);
+    }
+
+    /**
+     * Reintentar tras la espera (hilo de la cola: el aviso del temporizador vuelve a ese hilo)
+     */
+    @WorkerThread
+    private void scheduleRetry() {
+        if (retryScheduled) {
+            return;
+        }
+        long delay = Math.min(RETRY_BASE_DELAY_MS << Math.min(retryAttempt, 6), RETRY_MAX_DELAY_MS);
+        retryAttempt++;
+        retryScheduled = true;
+        Log.d(TAG, "Reintento de la cola en " + delay + " ms");
+        mainThread.postDelayed(() -> executor.execute(() -> {
+            retryScheduled = false;
+            drain();
+        }), delay);
+    }
+
+    // ==========================================
+    // PERSISTENCIA
+    // ==========================================
+
+    @WorkerThread
+    private void loadFromDisk() {
+        List<PendingMutation> loaded = new ArrayList<>();
+        for (Map.Entry<String, String> entry : store.readOutbox().entrySet()) {
+            try {
+                PendingMutation mutation = gson.fromJson(entry.getValue(), PendingMutation.class);
+                normalizeNumbers(mutation.getPayload());
+                loaded.add(mutation);
+            } catch (Exception e) {
+                Log.e(TAG, "Escritura pendiente ilegible, se descarta: " + entry.getKey(), e);
+                store.deleteOutboxEntry(entry.getKey());
+            }
+        }
+
+        synchronized (this) {
+            // Las encoladas antes de terminar la carga van después de las guardadas
+            queue.addAll(0, loaded);
+        }
+
+        if (!loaded.isEmpty()) {
+            Log.d(TAG, loaded.size() + " escrituras pendientes recuperadas del disco");
+        }
+        publishPendingCount();
+        drain();
+    }
+
+    @WorkerThread
+    private void persist(PendingMutation mutation) {
+        String json;
+        synchronized (this) {
+            json = gson.toJson(mutation);
+        }
+        store.writeOutboxEntry(mutation.getKey(), json);
+    }
+
+    /**
+     * Gson lee los números de un Map como Double: los enteros vuelven a ser Long (IDs, FKs)
+     */
+    private static void normalizeNumbers(@Nullable Map<String, Object> payload) {
+        if (payload == null) return;
+        for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Double) {
+                double number = (Double) value;
+                if (number == Math.rint(number) && !Double.isInfinite(number)) {
+                    entry.setValue((long) number);
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // CONECTIVIDAD
+    // ==========================================
+
+    private void registerNetworkCallback(Context context) {
+        ConnectivityManager connectivityManager = context.getSystemService(ConnectivityManager.class);
+        if (connectivityManager == null) {
+            return;
+        }
+        try {
+            connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    Log.d(TAG, "Conexión disponible: reanudando la cola");
+                    // Otra red puede llegar a otro servidor (o uno actualizado): se vuelve a probar el lote
+                    bulkSupported = true;
+                    retryNow();
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.w(TAG, "No se pudo registrar el callback de red", e);
+        }
+    }
+
+    // ==========================================
+    // UTILIDADES
+    // ==========================================
+
+    /**
+     * Edición sin enviar del mismo item, si es la última escritura encolada para él
+     */
+    private PendingMutation findQueuedUpdate(PendingMutation mutation) {
+        for (int i = queue.size() - 1; i >= 0; i--) {
+            PendingMutation queued = queue.get(i);
+            if (!mutation.getResource().equals(queued.getResource())
+                    || !mutation.getTargetId().equals(queued.getTargetId())) {
+                continue;
+            }
+            return queued.isUpdate() && queued.getPayload() != null && !inFlight.contains(queued) ? queued : null;
+        }
+        return null;
+    }
+
+    private PendingMutation findCreate(Long temporaryId) {
+        for (PendingMutation queued : queue) {
+            if (queued.isCreate() && temporaryId.equals(queued.getTargetId())) {
+                return queued;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * true si la escritura usa un ID temporal (propio o en "budget_item")
+     */
+    private static boolean dependsOnTemporaryId(PendingMutation mutation) {
+        if (mutation.hasTemporaryTarget() && !mutation.isCreate()) {
+            return true;
+        }
+        Object budgetItemRef = mutation.getPayload() != null ? mutation.getPayload().get("budget_item") : null;
+        return budgetItemRef instanceof Number && ((Number) budgetItemRef).longValue() < 0;
+    }
+
+    private static boolean matches(PendingMutation mutation, @Nullable Long projectId, String resource) {
+        return resource.equals(mutation.getResource())
+                && (projectId == null || projectId.equals(mutation.getProjectId()));
+    }
+
+    private static <T> int indexOf(List<T> items, IdExtractor<T> ids, Long id) {
+        if (id == null) return -1;
+        for (int i = 0; i < items.size(); i++) {
+            if (id.equals(ids.idOf(items.get(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    private static Long serverIdOf(@Nullable Object row) {
+        if (row instanceof BudgetItem) {
+            return ((BudgetItem) row).getId();
+        }
+        if (row instanceof ExpenseItem) {
+            long id = ((ExpenseItem) row).getId();
+            return id != 0 ? id : null;
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String serverVersionOf(@Nullable Object row) {
+        if (row instanceof BudgetItem) {
+            return ((BudgetItem) row).getUpdatedAt();
+        }
+        if (row instanceof ExpenseItem) {
+            return ((ExpenseItem) row).getUpdatedAt();
+        }
+        return null;
+    }
+
+    private static void assignId(@Nullable Object row, Long id) {
+        if (row instanceof BudgetItem) {
+            ((BudgetItem) row).setId(id);
+        } else if (row instanceof ExpenseItem) {
+            ((ExpenseItem) row).setId(id);
+        }
+    }
+
+    private synchronized int pendingCount() {
+        return queue.size();
+    }
+
+    private void publishPendingCount() {
+        pendingCountLiveData.postValue(pendingCount());
+    }
+}
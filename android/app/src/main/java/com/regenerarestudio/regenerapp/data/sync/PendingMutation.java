@@ -0,0 +1,99 @@
+package com.regenerarestudio.regenerapp.data.sync;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escritura pendiente de enviar al servidor (se guarda en la cola offline como JSON)
+ * La clave se usa también como Idempotency-Key, así un reintento nunca duplica el item.
+ */
+public class PendingMutation {
+
+    // Recursos
+    public static final String RESOURCE_BUDGET_ITEM = "budget_item";
+    public static final String RESOURCE_EXPENSE = "real_expense";
+
+    // Operaciones
+    public static final String OP_CREATE = "create";
+    public static final String OP_UPDATE = "update";
+    public static final String OP_DELETE = "delete";
+
+    @SerializedName("key")
+    private String key;
+
+    @SerializedName("resource")
+    private String resource;
+
+    @SerializedName("operation")
+    private String operation;
+
+    @SerializedName("project_id")
+    private Long projectId;
+
+    // ID del item en el servidor, o ID temporal (negativo) si su creación sigue en la cola
+    @SerializedName("target_id")
+    private Long targetId;
+
+    @SerializedName("payload")
+    private Map<String, Object> payload;
+
+    // updated_at que tenía el item cuando el usuario lo editó (para detectar conflictos)
+    @SerializedName("base_version")
+    private String baseVersion;
+
+    @SerializedName("created_at")
+    private long createdAt;
+
+    @SerializedName("attempts")
+    private int attempts;
+
+    // Constructor vacío (Gson)
+    public PendingMutation() {}
+
+    public PendingMutation(String resource, String operation, Long projectId, Long targetId,
+                           Map<String, Object> payload, String baseVersion) {
+        this.key = UUID.randomUUID().toString();
+        this.resource = resource;
+        this.operation = operation;
+        this.projectId = projectId;
+        this.targetId = targetId;
+        this.payload = payload != null ? new HashMap<>(payload) : null;
+        this.baseVersion = baseVersion;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    // Getters
+    public String getKey() { return key; }
+    public String getResource() { return resource; }
+    public String getOperation() { return operation; }
+    public Long getProjectId() { return projectId; }
+    public Long getTargetId() { return targetId; }
+    public Map<String, Object> getPayload() { return payload; }
+    public String getBaseVersion() { return baseVersion; }
+    public long getCreatedAt() { return createdAt; }
+    public int getAttempts() { return attempts; }
+
+    void setTargetId(Long targetId) { this.targetId = targetId; }
+    void setBaseVersion(String baseVersion) { this.baseVersion = baseVersion; }
+    void incrementAttempts() { attempts++; }
+
+    // Métodos de utilidad
+    public boolean isCreate() { return OP_CREATE.equals(operation); }
+    public boolean isUpdate() { return OP_UPDATE.equals(operation); }
+    public boolean isDelete() { return OP_DELETE.equals(operation); }
+
+    public boolean isBudgetItem() { return RESOURCE_BUDGET_ITEM.equals(resource); }
+
+    /** true si apunta a un item que aún no existe en el servidor */
+    public boolean hasTemporaryTarget() {
+        return targetId != null && targetId < 0;
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + resource + " #" + targetId + " (" + key + ")";
+    }
+}
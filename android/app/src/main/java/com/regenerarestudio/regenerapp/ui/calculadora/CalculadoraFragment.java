@@ -2,6 +2,8 @@ package com.regenerarestudio.regenerapp.ui.calculadora;
 
 import android.app.AlertDialog;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -26,6 +28,8 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import com.regenerarestudio.regenerapp.MainActivity;
 import com.regenerarestudio.regenerapp.R;
+import com.regenerarestudio.regenerapp.calculation.CalculationEngine;
+import com.regenerarestudio.regenerapp.calculation.MultiRoomCalculation;
 import com.regenerarestudio.regenerapp.data.models.SupplierWithPrice;
 import com.regenerarestudio.regenerapp.databinding.FragmentCalculadoraBinding;
 import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
@@ -64,6 +68,21 @@ public class CalculadoraFragment extends Fragment {
     private Map<String, Object> formFields;
     private CalculationDetailsAdapter detailsAdapter;
     private CalculationResponse currentCalculation;
+    private MultiRoomCalculation currentMultiRoom;
+
+    // Recalcula la vista previa con cada cambio de campo (debounce en el ViewModel)
+    private final TextWatcher previewWatcher = new TextWatcher() {
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            schedulePreview();
+        }
+    };
 
     // Project info
     private long projectId;
@@ -253,12 +272,14 @@ public class CalculadoraFragment extends Fragment {
 
     private void createDynamicForm() {
         clearDynamicForm();
+        calculadoraViewModel.cancelPreview();
 
         if (selectedType.isEmpty()) return;
 
         // Mostrar formulario
         cardForm.setVisibility(View.VISIBLE);
         actionButtonsLayout.setVisibility(View.VISIBLE);
+        binding.btnMultiRoom.setVisibility(View.VISIBLE);
 
         // Actualizar título del formulario
         binding.tvFormTitle.setText("Calculadora de " + selectedType);
@@ -320,6 +341,8 @@ public class CalculadoraFragment extends Fragment {
             }
         });
 
+        dropdown.addTextChangedListener(previewWatcher);
+
         // Agregar al layout
         textInputLayout.addView(dropdown);
         formContainer.addView(textInputLayout);
@@ -361,6 +384,8 @@ public class CalculadoraFragment extends Fragment {
                 break;
         }
 
+        editText.addTextChangedListener(previewWatcher);
+
         // Agregar al layout
         textInputLayout.addView(editText);
         formContainer.addView(textInputLayout);
@@ -373,6 +398,7 @@ public class CalculadoraFragment extends Fragment {
         binding.btnCalculate.setOnClickListener(v -> performCalculation());
         binding.btnClear.setOnClickListener(v -> clearForm());
         binding.btnAddToBudget.setOnClickListener(v -> showAddToBudgetDialog());
+        binding.btnMultiRoom.setOnClickListener(v -> showMultiRoomDialog());
     }
 
     private void performCalculation() {
@@ -381,7 +407,22 @@ public class CalculadoraFragment extends Fragment {
             return;
         }
 
-        // Recopilar datos del formulario
+        // Realizar cálculo local y guardarlo en el servidor en segundo plano
+        calculadoraViewModel.performCalculation(selectedTypeCode, collectFormData(), projectId);
+    }
+
+    /**
+     * Vista previa sin pasar por "Calcular": no valida ni guarda nada en el servidor
+     */
+    private void schedulePreview() {
+        if (selectedTypeCode.isEmpty() || formFields.isEmpty()) return;
+        calculadoraViewModel.requestPreview(selectedTypeCode, collectFormData());
+    }
+
+    /**
+     * Recopilar datos del formulario convertidos según el tipo de cada campo
+     */
+    private Map<String, Object> collectFormData() {
         Map<String, Object> formData = new HashMap<>();
 
         for (Map.Entry<String, Object> entry : formFields.entrySet()) {
@@ -425,8 +466,7 @@ public class CalculadoraFragment extends Fragment {
             }
         }
 
-        // Realizar cálculo con el backend
-        calculadoraViewModel.performCalculation(selectedTypeCode, formData, projectId);
+        return formData;
     }
 
     private boolean validateForm() {
@@ -474,6 +514,7 @@ public class CalculadoraFragment extends Fragment {
 
     private void displayResult(CalculationResponse result) {
         currentCalculation = result;
+        currentMultiRoom = null;
 
         // Mostrar resultado principal
         binding.tvResultQuantity.setText(result.getFormattedQuantity());
@@ -498,6 +539,179 @@ public class CalculadoraFragment extends Fragment {
         populateDetailsWithTranslations(result);
     }
 
+    /**
+     * Mostrar resultado provisional mientras se escribe (sin botón de presupuesto hasta calcular)
+     */
+    private void displayPreview(CalculationResponse preview) {
+        if (preview == null) {
+            // Datos incompletos: ocultar la vista previa si no hay un resultado confirmado
+            if (currentCalculation == null && currentMultiRoom == null) {
+                cardResult.setVisibility(View.GONE);
+                cardDetails.setVisibility(View.GONE);
+                detailsAdapter.clearDetails();
+            }
+            return;
+        }
+
+        // El resultado confirmado anterior ya no corresponde al formulario
+        currentCalculation = null;
+        currentMultiRoom = null;
+
+        binding.tvResultQuantity.setText(preview.getFormattedQuantity());
+        binding.tvResultCost.setText("Vista previa · presiona Calcular");
+        binding.tvResultCost.setTextColor(getResources().getColor(R.color.gray_600, null));
+        binding.btnAddToBudget.setVisibility(View.GONE);
+
+        cardResult.setVisibility(View.VISIBLE);
+        cardDetails.setVisibility(View.VISIBLE);
+
+        populateDetailsWithTranslations(preview);
+    }
+
+    // ==========================================
+    // MODO MULTI-ESPACIO
+    // ==========================================
+
+    /**
+     * Pedir la lista de espacios ("Sala: 24.5" por línea) y calcular todos en una pasada.
+     * Los demás campos del formulario se comparten entre espacios.
+     */
+    private void showMultiRoomDialog() {
+        if (selectedTypeCode.isEmpty()) return;
+
+        String measureField = CalculationEngine.measureFieldFor(selectedTypeCode);
+        Map<String, FieldConfig> config = formConfigurations.get(selectedType);
+        String measureLabel = config != null && config.containsKey(measureField)
+                ? config.get(measureField).label : "Medida";
+
+        TextInputLayout inputLayout = new TextInputLayout(requireContext());
+        inputLayout.setHint("Un espacio por línea · " + measureLabel);
+        inputLayout.setBoxBackgroundMode(TextInputLayout.BOX_BACKGROUND_OUTLINE);
+        inputLayout.setPadding(dpToPx(24), dpToPx(8), dpToPx(24), 0);
+
+        TextInputEditText roomsInput = new TextInputEditText(requireContext());
+        roomsInput.setInputType(android.text.InputType.TYPE_CLASS_TEXT |
+                android.text.InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        roomsInput.setMinLines(4);
+        roomsInput.setGravity(android.view.Gravity.TOP);
+        roomsInput.setHint("Sala: 24.5\nCocina: 12\nDormitorio: 15.75");
+        inputLayout.addView(roomsInput);
+
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Calcular varios espacios")
+                .setMessage("Se usarán los demás datos del formulario para todos los espacios.")
+                .setView(inputLayout)
+                .setPositiveButton("Calcular", (dialog, which) -> {
+                    List<MultiRoomCalculation.Room> rooms = parseRooms(roomsInput.getText().toString());
+                    if (rooms == null) return;
+
+                    Map<String, Object> sharedData = collectFormData();
+                    sharedData.remove(measureField);
+                    calculadoraViewModel.performMultiRoomCalculation(selectedTypeCode, sharedData, rooms);
+                })
+                .setNegativeButton("Cancelar", (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
+    /**
+     * Convertir líneas "Espacio: medida" en espacios (null si alguna línea es inválida)
+     */
+    @Nullable
+    private List<MultiRoomCalculation.Room> parseRooms(String text) {
+        List<MultiRoomCalculation.Room> rooms = new ArrayList<>();
+        String[] lines = text.split("\n");
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) continue;
+
+            int separator = Math.max(line.lastIndexOf(':'), line.lastIndexOf(' '));
+            String space = separator > 0 ? line.substring(0, separator).trim() : "Espacio " + (rooms.size() + 1);
+            if (space.endsWith(":")) {
+                space = space.substring(0, space.length() - 1).trim();
+            }
+            String measureText = (separator >= 0 ? line.substring(separator + 1) : line).trim().replace(',', '.');
+
+            try {
+                rooms.add(new MultiRoomCalculation.Room(space, Double.parseDouble(measureText)));
+            } catch (NumberFormatException e) {
+                Toast.makeText(requireContext(), "Línea " + (i + 1) + " sin medida válida: " + line,
+                        Toast.LENGTH_LONG).show();
+                return null;
+            }
+        }
+
+        if (rooms.isEmpty()) {
+            Toast.makeText(requireContext(), "Ingresa al menos un espacio", Toast.LENGTH_SHORT).show();
+            return null;
+        }
+        return rooms;
+    }
+
+    private void displayMultiRoomResult(MultiRoomCalculation result) {
+        currentCalculation = null;
+        currentMultiRoom = result;
+
+        binding.tvResultQuantity.setText(result.getFormattedTotalQuantity());
+        binding.tvResultCost.setText(result.getRoomCount() + " espacios");
+        binding.tvResultCost.setTextColor(getResources().getColor(R.color.gray_600, null));
+
+        List<CalculationDetailsAdapter.DetailItem> details = new ArrayList<>();
+        for (int i = 0; i < result.getRoomCount(); i++) {
+            details.add(new CalculationDetailsAdapter.DetailItem("room_" + i,
+                    result.getRooms().get(i).getSpace(),
+                    result.getResults().get(i).getFormattedQuantity()));
+        }
+        detailsAdapter.updateDetails(details);
+
+        binding.btnAddToBudget.setText("Añadir " + result.getRoomCount() + " espacios al Presupuesto");
+        binding.btnAddToBudget.setIcon(getResources().getDrawable(R.drawable.ic_add_to_budget, null));
+        binding.btnAddToBudget.setEnabled(true);
+        binding.btnAddToBudget.setOnClickListener(v -> showMultiRoomBudgetDialog());
+        binding.btnAddToBudget.setVisibility(View.VISIBLE);
+
+        cardResult.setVisibility(View.VISIBLE);
+        cardDetails.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Confirmar precio unitario y guardar todos los espacios con una sola llamada
+     */
+    private void showMultiRoomBudgetDialog() {
+        if (currentMultiRoom == null) return;
+
+        TextInputLayout inputLayout = new TextInputLayout(requireContext());
+        inputLayout.setHint("Precio unitario por " + currentMultiRoom.getUnit());
+        inputLayout.setBoxBackgroundMode(TextInputLayout.BOX_BACKGROUND_OUTLINE);
+        inputLayout.setPadding(dpToPx(24), dpToPx(8), dpToPx(24), 0);
+
+        TextInputEditText priceInput = new TextInputEditText(requireContext());
+        priceInput.setInputType(android.text.InputType.TYPE_CLASS_NUMBER |
+                android.text.InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        inputLayout.addView(priceInput);
+
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Añadir al Presupuesto")
+                .setMessage("Se creará un item por espacio (" + currentMultiRoom.getRoomCount() +
+                        ") con un total de " + currentMultiRoom.getFormattedTotalQuantity() + ".")
+                .setView(inputLayout)
+                .setPositiveButton("Añadir", (dialog, which) -> {
+                    double unitPrice;
+                    try {
+                        unitPrice = Double.parseDouble(priceInput.getText().toString().trim().replace(',', '.'));
+                    } catch (NumberFormatException e) {
+                        unitPrice = 0;
+                    }
+                    if (unitPrice <= 0) {
+                        Toast.makeText(requireContext(), "Ingresa un precio unitario válido", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    calculadoraViewModel.saveMultiRoomCalculation(projectId, true, unitPrice, null);
+                })
+                .setNegativeButton("Cancelar", (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
     private void setupActionButton() {
         // Limpiar botones existentes
         binding.btnAddToBudget.setVisibility(View.GONE);
@@ -595,6 +809,13 @@ public class CalculadoraFragment extends Fragment {
 
         Log.d("CalculadoraFragment", "Material seleccionado: " + materialName + " (ID: " + materialId + ")");
 
+        // Con la matriz de precios local el diálogo se abre al instante, sin diálogo de carga
+        List<SupplierWithPrice> localProviders = calculadoraViewModel.getProvidersFromMatrix(materialId);
+        if (localProviders != null) {
+            showProvidersSelectionDialog(localProviders, materialId, materialName);
+            return;
+        }
+
         // Mostrar diálogo de carga
         MaterialAlertDialogBuilder loadingDialog = new MaterialAlertDialogBuilder(requireContext())
                 .setTitle("Cargando proveedores...")
@@ -878,6 +1099,16 @@ public class CalculadoraFragment extends Fragment {
             }
         });
 
+        // Observar resultado multi-espacio
+        calculadoraViewModel.getMultiRoomResult().observe(getViewLifecycleOwner(), result -> {
+            if (result != null) {
+                displayMultiRoomResult(result);
+            }
+        });
+
+        // Observar vista previa en vivo
+        calculadoraViewModel.getPreviewResult().observe(getViewLifecycleOwner(), this::displayPreview);
+
         // Observar errores
         calculadoraViewModel.getErrorMessage().observe(getViewLifecycleOwner(), error -> {
             if (error != null && !error.isEmpty()) {
@@ -938,8 +1169,10 @@ public class CalculadoraFragment extends Fragment {
         cardResult.setVisibility(View.GONE);
         cardDetails.setVisibility(View.GONE);
         actionButtonsLayout.setVisibility(View.GONE);
+        binding.btnMultiRoom.setVisibility(View.GONE);
         detailsAdapter.clearDetails();
         currentCalculation = null;
+        currentMultiRoom = null;
     }
 
     private int dpToPx(int dp) {
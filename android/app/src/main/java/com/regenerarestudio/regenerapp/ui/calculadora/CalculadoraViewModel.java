@@ -1,17 +1,30 @@
 package com.regenerarestudio.regenerapp.ui.calculadora;
 
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
+import com.regenerarestudio.regenerapp.calculation.CalculationEngine;
+import com.regenerarestudio.regenerapp.calculation.LivePreview;
+import com.regenerarestudio.regenerapp.calculation.MultiRoomCalculation;
 import com.regenerarestudio.regenerapp.data.api.ApiClient;
 import com.regenerarestudio.regenerapp.data.api.ApiService;
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
+import com.regenerarestudio.regenerapp.data.local.SupplierPriceMatrix;
 import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
 import com.regenerarestudio.regenerapp.data.models.Supplier;
 import com.regenerarestudio.regenerapp.data.models.SupplierWithPrice;
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
+import com.regenerarestudio.regenerapp.data.repository.SupplierRepository;
 import com.regenerarestudio.regenerapp.data.responses.PaginatedResponse;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,19 +40,77 @@ import retrofit2.Response;
 /**
  * ViewModel para calculadoras - Versión simplificada y funcional
  */
-public class CalculadoraViewModel extends ViewModel {
+public class CalculadoraViewModel extends AndroidViewModel {
+
+    private static final String TAG = "CalculadoraViewModel";
 
     private final ApiService apiService;
 
+    // Matriz de precios local (proveedores por material sin esperar a la red)
+    private final SupplierRepository supplierRepository;
+
+    // Lecturas en curso (elegir otro material reemplaza la carga de proveedores anterior)
+    private final CallTracker calls = new CallTracker(TAG);
+
     // LiveData para observar desde el Fragment
     private final MutableLiveData<CalculationResponse> calculationResult = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isAddedToBudget = new MutableLiveData<>();
 
-    public CalculadoraViewModel() {
+    // Estado del guardado asíncrono del último cálculo
+    private Call<Map<String, Object>> persistCall;
+    private CalculationResponse pendingCalculation;
+    private String pendingTypeCode;
+    private Map<String, Object> pendingParameters;
+    private long pendingProjectId;
+    private boolean persistFailed;
+    private Runnable pendingBudgetAction;
+
+    // Vista previa mientras se escribe (nunca se guarda en el servidor)
+    private final MutableLiveData<CalculationResponse> previewResult = new MutableLiveData<>();
+    private final Handler previewHandler = new Handler(Looper.getMainLooper());
+    private final LivePreview livePreview = new LivePreview(new LivePreview.Scheduler() {
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            previewHandler.postDelayed(task, delayMs);
+        }
+
+        @Override
+        public void removeCallbacks(Runnable task) {
+            previewHandler.removeCallbacks(task);
+        }
+    }, AppExecutors.background(), AppExecutors.mainThread(), previewResult::setValue);
+
+    // Modo multi-espacio
+    private final MutableLiveData<MultiRoomCalculation> multiRoomResult = new MutableLiveData<>();
+
+    public CalculadoraViewModel(@NonNull Application application) {
+        super(application);
         apiService = ApiClient.getRetrofitInstance().create(ApiService.class);
+        supplierRepository = SupplierRepository.getInstance(application);
         isLoading.setValue(false);
+
+        // Tener la matriz lista antes de que se abra el diálogo de proveedores
+        loadPriceMatrix();
+    }
+
+    /**
+     * Cargar la matriz de precios (copia local y luego la del servidor)
+     */
+    private void loadPriceMatrix() {
+        supplierRepository.loadPriceMatrix(calls.wrap("price_matrix", new RepositoryCallback<SupplierPriceMatrix>() {
+            @Override
+            public void onData(SupplierPriceMatrix matrix, boolean fromCache) {
+                Log.d(TAG, "Matriz de precios " + (fromCache ? "local" : "actualizada") + ": "
+                        + matrix.size() + " precios");
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                Log.w(TAG, "No se pudo actualizar la matriz de precios: " + error);
+            }
+        }));
     }
 
     // Getters para LiveData
@@ -59,33 +130,194 @@ public class CalculadoraViewModel extends ViewModel {
         return isAddedToBudget;
     }
 
+    public LiveData<CalculationResponse> getPreviewResult() {
+        return previewResult;
+    }
+
+    public LiveData<MultiRoomCalculation> getMultiRoomResult() {
+        return multiRoomResult;
+    }
+
     /**
      * Realizar cálculo según el tipo seleccionado
+     * El resultado se calcula en el dispositivo (CalculationEngine) y se publica de inmediato;
+     * el servidor solo guarda el cálculo en segundo plano y devuelve ID y sugerencias de materiales.
      */
     public void performCalculation(String calculationTypeCode, Map<String, Object> parameters, long projectId) {
+        CalculationResponse result;
+        try {
+            result = CalculationEngine.calculate(calculationTypeCode, parameters);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Parámetros inválidos para " + calculationTypeCode + ": " + e.getMessage());
+            errorMessage.setValue(e.getMessage());
+            return;
+        }
+
+        cancelPreview();
+        multiRoomResult.setValue(null);
+        Log.d(TAG, "Cálculo local " + calculationTypeCode + ": " + result.getFormattedQuantity());
+        calculationResult.setValue(result);
+
+        persistCalculation(calculationTypeCode, parameters, projectId, result);
+    }
+
+    // ==========================================
+    // VISTA PREVIA EN VIVO
+    // ==========================================
+
+    /**
+     * Recalcular la vista previa con debounce (ver {@link LivePreview}). Con parámetros
+     * incompletos se publica null (sin vista previa) en lugar de un error.
+     */
+    public void requestPreview(String calculationTypeCode, Map<String, Object> parameters) {
+        // El resultado confirmado deja de corresponder al formulario
+        if (calculationResult.getValue() != null) {
+            calculationResult.setValue(null);
+        }
+        if (multiRoomResult.getValue() != null) {
+            multiRoomResult.setValue(null);
+        }
+
+        livePreview.request(calculationTypeCode, parameters);
+    }
+
+    /**
+     * Descartar la vista previa pendiente y la publicada
+     */
+    public void cancelPreview() {
+        livePreview.cancel();
+        previewResult.setValue(null);
+    }
+
+    // ==========================================
+    // MODO MULTI-ESPACIO
+    // ==========================================
+
+    /**
+     * Calcular todos los espacios localmente en una pasada (sin llamadas al servidor)
+     */
+    public void performMultiRoomCalculation(String calculationTypeCode, Map<String, Object> sharedParameters,
+                                            List<MultiRoomCalculation.Room> rooms) {
+        MultiRoomCalculation result;
+        try {
+            result = CalculationEngine.calculateRooms(calculationTypeCode, sharedParameters, rooms);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Modo multi-espacio inválido: " + e.getMessage());
+            errorMessage.setValue(e.getMessage());
+            return;
+        }
+
+        cancelPreview();
+        calculationResult.setValue(null);
+        isAddedToBudget.setValue(false);
+        Log.d(TAG, "Multi-espacio " + calculationTypeCode + ": " + result.getRoomCount() +
+                " espacios, total " + result.getFormattedTotalQuantity());
+        multiRoomResult.setValue(result);
+    }
+
+    /**
+     * Guardar todos los espacios (y sus items de presupuesto) con una sola llamada
+     */
+    public void saveMultiRoomCalculation(long projectId, boolean addToBudget, Double unitPrice, Long supplierId) {
+        MultiRoomCalculation batch = multiRoomResult.getValue();
+        if (batch == null) {
+            errorMessage.setValue("No hay cálculo multi-espacio para guardar");
+            return;
+        }
+
         isLoading.setValue(true);
+        Map<String, Object> request = batch.toBatchRequest(projectId, addToBudget, unitPrice, supplierId,
+                "Agregado desde calculadora (multi-espacio)");
 
-        // Agregar project_id a los parámetros
-        parameters.put("project_id", projectId);
+        apiService.calculateBatch(request).enqueue(new Callback<Map<String, Object>>() {
+            @Override
+            public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+                isLoading.setValue(false);
 
-        Call<Map<String, Object>> call = getCalculationCall(calculationTypeCode, parameters);
+                if (response.isSuccessful()) {
+                    Log.d(TAG, "Lote guardado: " + batch.getRoomCount() + " espacios");
+                    if (addToBudget) {
+                        isAddedToBudget.setValue(true);
+                    }
+                } else {
+                    String error = "Error al guardar espacios: " + response.code();
+                    if (response.errorBody() != null) {
+                        try {
+                            error += " - " + response.errorBody().string();
+                        } catch (Exception e) {
+                            error += " - " + e.getMessage();
+                        }
+                    }
+                    errorMessage.setValue(error);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+                isLoading.setValue(false);
+                errorMessage.setValue("Error de conexión al guardar espacios: " + t.getMessage());
+            }
+        });
+    }
 
+    // ==========================================
+    // PERSISTENCIA ASÍNCRONA DEL CÁLCULO
+    // ==========================================
+
+    /**
+     * Guardar en el servidor un cálculo ya mostrado. Solo se actualizan ID y sugerencias del
+     * mismo objeto, para no perder el proveedor que el usuario haya elegido mientras tanto.
+     */
+    private void persistCalculation(String calculationTypeCode, Map<String, Object> parameters,
+                                    long projectId, CalculationResponse localResult) {
+        // Un cálculo nuevo reemplaza al anterior que aún no se guardó
+        if (persistCall != null) {
+            persistCall.cancel();
+        }
+        pendingBudgetAction = null;
+
+        Map<String, Object> payload = new HashMap<>(parameters);
+        payload.put("project_id", projectId);
+        // El formulario de empaste usa "number_of_coats"; el backend espera "number_of_layers"
+        if ("empaste".equalsIgnoreCase(calculationTypeCode) && !payload.containsKey("number_of_layers")
+                && payload.containsKey("number_of_coats")) {
+            payload.put("number_of_layers", payload.get("number_of_coats"));
+        }
+
+        Call<Map<String, Object>> call = getCalculationCall(calculationTypeCode, payload);
         if (call == null) {
-            errorMessage.setValue("Tipo de calculadora no soportado: " + calculationTypeCode);
-            isLoading.setValue(false);
+            Log.w(TAG, "Sin endpoint para guardar " + calculationTypeCode);
             return;
         }
 
+        pendingCalculation = localResult;
+        pendingTypeCode = calculationTypeCode;
+        pendingParameters = parameters;
+        pendingProjectId = projectId;
+        persistFailed = false;
+        persistCall = call;
+
         call.enqueue(new Callback<Map<String, Object>>() {
             @Override
             public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
-                isLoading.setValue(false);
+                if (call != persistCall) return; // Reemplazado por un cálculo más reciente
+                persistCall = null;
 
                 if (response.isSuccessful() && response.body() != null) {
-                    CalculationResponse result = parseResponse(response.body());
-                    calculationResult.setValue(result);
+                    CalculationResponse saved = parseResponse(response.body());
+                    localResult.setCalculationId(saved.getCalculationId());
+                    if (saved.getMaterialSuggestions() != null) {
+                        localResult.setMaterialSuggestions(saved.getMaterialSuggestions());
+                    }
+                    Log.d(TAG, "Cálculo guardado en servidor con ID: " + saved.getCalculationId());
+
+                    // Republicar para que el Fragment vea las sugerencias de materiales
+                    if (calculationResult.getValue() == localResult) {
+                        calculationResult.setValue(localResult);
+                    }
+                    runPendingBudgetAction();
                 } else {
-                    String error = "Error en el cálculo: " + response.code();
+                    String error = "Error al guardar el cálculo: " + response.code();
                     if (response.errorBody() != null) {
                         try {
                             error += " - " + response.errorBody().string();
@@ -93,18 +325,38 @@ public class CalculadoraViewModel extends ViewModel {
                             error += " - " + e.getMessage();
                         }
                     }
-                    errorMessage.setValue(error);
+                    onPersistFailed(error);
                 }
             }
 
             @Override
             public void onFailure(Call<Map<String, Object>> call, Throwable t) {
-                isLoading.setValue(false);
-                errorMessage.setValue("Error de conexión: " + t.getMessage());
+                if (call != persistCall || call.isCanceled()) return;
+                persistCall = null;
+                onPersistFailed("Error de conexión al guardar el cálculo: " + t.getMessage());
             }
         });
     }
 
+    private void onPersistFailed(String error) {
+        // El resultado local sigue siendo válido; solo se avisa si el usuario esperaba guardarlo
+        Log.w(TAG, error);
+        persistFailed = true;
+        if (pendingBudgetAction != null) {
+            pendingBudgetAction = null;
+            isLoading.setValue(false);
+            errorMessage.setValue(error);
+        }
+    }
+
+    private void runPendingBudgetAction() {
+        Runnable action = pendingBudgetAction;
+        pendingBudgetAction = null;
+        if (action != null) {
+            action.run();
+        }
+    }
+
     /**
      * Obtener la llamada API correcta según el tipo de calculadora
      */
@@ -262,6 +514,27 @@ public class CalculadoraViewModel extends ViewModel {
     public void addCalculationToBudget(int calculationId, Integer supplierId, Double unitPriceOverride, String spaces, String notes) {
         isLoading.setValue(true);
 
+        if (calculationId <= 0 && pendingCalculation != null) {
+            // El cálculo se mostró localmente y todavía no tiene ID del servidor
+            pendingBudgetAction = () -> sendCalculationToBudget(pendingCalculation.getCalculationId(),
+                    supplierId, unitPriceOverride, spaces, notes);
+
+            if (persistCall == null && persistFailed) {
+                Log.d(TAG, "Reintentando guardar el cálculo antes de agregarlo al presupuesto");
+                Runnable action = pendingBudgetAction;
+                persistCalculation(pendingTypeCode, pendingParameters, pendingProjectId, pendingCalculation);
+                pendingBudgetAction = action;
+            } else {
+                Log.d(TAG, "Esperando a que el servidor guarde el cálculo");
+            }
+            return;
+        }
+
+        sendCalculationToBudget(calculationId, supplierId, unitPriceOverride, spaces, notes);
+    }
+
+    private void sendCalculationToBudget(int calculationId, Integer supplierId, Double unitPriceOverride, String spaces, String notes) {
+
         Map<String, Object> parameters = new HashMap<>();
 
         if (supplierId != null) {
@@ -321,6 +594,9 @@ public class CalculadoraViewModel extends ViewModel {
      * Limpiar resultados
      */
     public void clearResults() {
+        pendingBudgetAction = null;
+        cancelPreview();
+        multiRoomResult.setValue(null);
         calculationResult.setValue(null);
         errorMessage.setValue(null);
         isAddedToBudget.setValue(false);
@@ -334,17 +610,38 @@ public class CalculadoraViewModel extends ViewModel {
         void onError(String error);
     }
 
+    /**
+     * Proveedores del material según la matriz local, del más barato al más caro
+     * @return null si la matriz aún no está o no tiene precios para el material (hay que ir a la red)
+     */
+    @Nullable
+    public List<SupplierWithPrice> getProvidersFromMatrix(Long materialId) {
+        SupplierPriceMatrix matrix = supplierRepository.getPriceMatrix();
+        if (materialId == null || matrix == null || !matrix.hasMaterial(materialId)) {
+            return null;
+        }
+        return matrix.suppliersFor(materialId);
+    }
+
     /**
      * Cargar proveedores que tienen precios para un material específico
+     * Responde desde la matriz local si la tiene; si no, consulta los precios del material.
      * @param materialId ID del material
      * @param callback Callback para el resultado
      */
     public void loadProvidersForMaterial(Long materialId, ProvidersCallback callback) {
         Log.d("CalculadoraViewModel", "=== CARGANDO PROVEEDORES PARA MATERIAL ID: " + materialId + " ===");
 
+        List<SupplierWithPrice> fromMatrix = getProvidersFromMatrix(materialId);
+        if (fromMatrix != null) {
+            Log.d("CalculadoraViewModel", "Proveedores desde la matriz local: " + fromMatrix.size());
+            callback.onProvidersLoaded(fromMatrix);
+            return;
+        }
+
         Call<PaginatedResponse<Map<String, Object>>> call = apiService.getSupplierPrices(null, materialId);
 
-        call.enqueue(new Callback<PaginatedResponse<Map<String, Object>>>() {
+        calls.enqueueShared("providers", "supplier_prices:material:" + materialId, call, new Callback<PaginatedResponse<Map<String, Object>>>() {
             @Override
             public void onResponse(Call<PaginatedResponse<Map<String, Object>>> call,
                                    Response<PaginatedResponse<Map<String, Object>>> response) {
@@ -397,7 +694,7 @@ public class CalculadoraViewModel extends ViewModel {
     public void loadProvidersByCategory(String categoryType, ProvidersCallback callback) {
         Call<PaginatedResponse<Supplier>> call = apiService.getSuppliersByCategory(categoryType);
 
-        call.enqueue(new Callback<PaginatedResponse<Supplier>>() {
+        calls.enqueue("providers", call, new Callback<PaginatedResponse<Supplier>>() {
             @Override
             public void onResponse(Call<PaginatedResponse<Supplier>> call,
                                    Response<PaginatedResponse<Supplier>> response) {
@@ -426,8 +723,6 @@ public class CalculadoraViewModel extends ViewModel {
 
         for (Map<String, Object> priceData : pricesData) {
             try {
-                Log.d("CalculadoraViewModel", "Parseando proveedor: " + priceData);
-
                 SupplierWithPrice supplier = new SupplierWithPrice();
 
                 // Información del proveedor (formato directo, no anidado)
@@ -485,7 +780,6 @@ public class CalculadoraViewModel extends ViewModel {
                 }
 
                 suppliers.add(supplier);
-                Log.d("CalculadoraViewModel", "Proveedor parseado: " + supplier.getSupplierName() + " - $" + supplier.getPrice());
 
             } catch (Exception e) {
                 Log.e("CalculadoraViewModel", "Error parsing supplier price data", e);
@@ -544,4 +838,11 @@ public class CalculadoraViewModel extends ViewModel {
         // Este método se podría extender para hacer una llamada al backend si es necesario
         return null; // Se calcula en el frontend cuando se selecciona el proveedor
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        livePreview.cancel();
+        calls.release();
+    }
+}
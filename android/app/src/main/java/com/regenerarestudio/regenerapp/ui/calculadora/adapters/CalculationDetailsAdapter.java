@@ -6,6 +6,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.regenerarestudio.regenerapp.R;
@@ -14,6 +15,7 @@ import com.regenerarestudio.regenerapp.utils.CalculationTranslations;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Adaptador para mostrar detalles específicos del cálculo
@@ -46,10 +48,37 @@ public class CalculationDetailsAdapter extends RecyclerView.Adapter<CalculationD
         return details.size();
     }
 
+    /**
+     * Actualizar detalles con DiffUtil: en la vista previa en vivo solo cambian los valores,
+     * así que se re-enlazan únicamente las filas afectadas
+     */
     public void updateDetails(List<DetailItem> newDetails) {
+        List<DetailItem> oldDetails = new ArrayList<>(this.details);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldDetails.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newDetails.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return Objects.equals(oldDetails.get(oldPosition).getLabel(), newDetails.get(newPosition).getLabel());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return Objects.equals(oldDetails.get(oldPosition).getValue(), newDetails.get(newPosition).getValue());
+            }
+        }, false);
+
         this.details.clear();
         this.details.addAll(newDetails);
-        notifyDataSetChanged();
+        diff.dispatchUpdatesTo(this);
     }
 
     public void clearDetails() {
@@ -5,6 +5,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
@@ -24,6 +25,18 @@ public class ConfiguracionFragment extends Fragment {
 
         final TextView textView = binding.textConfiguracion;
         configuracionViewModel.getText().observe(getViewLifecycleOwner(), textView::setText);
+
+        // Diagnóstico de red
+        configuracionViewModel.getNetworkSummary().observe(getViewLifecycleOwner(),
+                binding.tvNetworkSummary::setText);
+        configuracionViewModel.getExportMessage().observe(getViewLifecycleOwner(), message -> {
+            if (message != null) {
+                Toast.makeText(requireContext(), message, Toast.LENGTH_LONG).show();
+            }
+        });
+        binding.btnRefreshTelemetry.setOnClickListener(v -> configuracionViewModel.refreshNetworkSummary());
+        binding.btnExportTelemetry.setOnClickListener(v -> configuracionViewModel.exportTelemetry(requireContext()));
+        configuracionViewModel.refreshNetworkSummary();
         return root;
     }
 
@@ -1,13 +1,29 @@
 package com.regenerarestudio.regenerapp.ui.configuracion;
 
+import android.content.Context;
+import android.util.Log;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.regenerarestudio.regenerapp.data.api.NetworkTelemetry;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class ConfiguracionViewModel extends ViewModel {
 
+    private static final String TAG = "ConfiguracionViewModel";
+
     private final MutableLiveData<String> mText;
 
+    // Diagnóstico de red
+    private final MutableLiveData<String> networkSummary = new MutableLiveData<>();
+    private final MutableLiveData<String> exportMessage = new MutableLiveData<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
     public ConfiguracionViewModel() {
         mText = new MutableLiveData<>();
         mText.setValue("Configuración de la App\n\n⚙️ Ajustes Generales\n\n🎨 Apariencia\n• Tema claro/oscuro\n• Tamaño de fuente\n• Idioma de la interfaz\n\n🔢 Cálculos\n• Factores de desperdicio\n• Unidades de medida\n• Precisión de decimales\n\n💰 Precios y Moneda\n• Moneda predeterminada\n• Formato de precios\n• Actualización automática\n\n📱 Notificaciones\n• Recordatorios de proyecto\n• Alertas de presupuesto\n• Actualizaciones de precios\n\n🔒 Seguridad\n• Autenticación biométrica\n• Backup automático\n• Privacidad de datos\n\n📍 Ubicación\n• Región de proveedores\n• Costos de transporte\n• Zona horaria");
@@ -16,4 +32,41 @@ public class ConfiguracionViewModel extends ViewModel {
     public LiveData<String> getText() {
         return mText;
     }
+
+    public LiveData<String> getNetworkSummary() {
+        return networkSummary;
+    }
+
+    public LiveData<String> getExportMessage() {
+        return exportMessage;
+    }
+
+    /**
+     * Recalcular el resumen de telemetría (percentiles por endpoint)
+     */
+    public void refreshNetworkSummary() {
+        executor.execute(() -> networkSummary.postValue(NetworkTelemetry.getInstance().getSummaryText()));
+    }
+
+    /**
+     * Exportar las llamadas registradas a un CSV en el almacenamiento de la app
+     */
+    public void exportTelemetry(Context context) {
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                File file = NetworkTelemetry.getInstance().exportCsv(appContext);
+                exportMessage.postValue("Telemetría exportada: " + file.getAbsolutePath());
+            } catch (Exception e) {
+                Log.e(TAG, "Error al exportar telemetría", e);
+                exportMessage.postValue("Error al exportar: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        executor.shutdown();
+    }
 }
\ No newline at end of file
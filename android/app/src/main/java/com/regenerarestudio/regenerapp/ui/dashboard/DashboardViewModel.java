@@ -10,17 +10,15 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.regenerarestudio.regenerapp.data.api.ApiClient;
 import com.regenerarestudio.regenerapp.data.api.ApiService;
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
 import com.regenerarestudio.regenerapp.data.models.Project;
 import com.regenerarestudio.regenerapp.data.network.NetworkStateManager;
+import com.regenerarestudio.regenerapp.data.repository.ProjectRepository;
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
 import com.regenerarestudio.regenerapp.data.responses.DashboardResponse;
+import com.regenerarestudio.regenerapp.utils.FinancialLedger;
 import com.regenerarestudio.regenerapp.utils.FinancialSummaryHelper;
 
-import java.util.Map;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * ViewModel actualizado para Dashboard - INTEGRADO CON FinancialSummaryHelper
  * Maneja datos del proyecto seleccionado, resumen financiero y estadísticas
@@ -33,6 +31,9 @@ public class DashboardViewModel extends AndroidViewModel {
     // API Service
     private final ApiService apiService;
 
+    // Repositorio offline-first (caché local + red)
+    private final ProjectRepository projectRepository;
+
     // LiveData para datos del dashboard
     private final MutableLiveData<DashboardResponse> dashboardDataLiveData = new MutableLiveData<>();
     private final MutableLiveData<Project> projectDataLiveData = new MutableLiveData<>();
@@ -48,9 +49,16 @@ public class DashboardViewModel extends AndroidViewModel {
     // ID del proyecto actual
     private Long currentProjectId = null;
 
+    // Totales locales de Presupuestos (se muestran antes de que responda el servidor)
+    private final FinancialLedger ledger = FinancialLedger.getInstance();
+
+    // Peticiones en curso: carga y refresh comparten recurso (la más reciente gana)
+    private final CallTracker calls = new CallTracker(TAG);
+
     public DashboardViewModel(@NonNull Application application) {
         super(application);
         this.apiService = ApiClient.getApiService();
+        this.projectRepository = ProjectRepository.getInstance(application);
 
         // Inicializar valores por defecto
         isLoadingLiveData.setValue(false);
@@ -84,63 +92,54 @@ public class DashboardViewModel extends AndroidViewModel {
         isLoadingLiveData.setValue(true);
         errorLiveData.setValue(null);
 
-        // CORREGIDO: Crear la llamada correctamente usando apiService
-        Call<DashboardResponse> call = apiService.getDashboardTyped(projectId);
+        publishLocalSummary(projectId);
 
-        call.enqueue(new Callback<DashboardResponse>() {
+        // Offline-first: copia local inmediata + revalidación contra el servidor
+        calls.attach("dashboard", projectRepository.loadDashboard(projectId, calls.wrap("dashboard", new RepositoryCallback<DashboardResponse>() {
             @Override
-            public void onResponse(@NonNull Call<DashboardResponse> call, @NonNull Response<DashboardResponse> response) {
-                isLoadingLiveData.setValue(false);
-
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Datos del dashboard cargados exitosamente");
-
-                    DashboardResponse dashboardData = response.body();
-
-                    // Actualizar LiveData
-                    dashboardDataLiveData.setValue(dashboardData);
+            public void onData(DashboardResponse dashboardData, boolean fromCache) {
+                if (!projectId.equals(currentProjectId)) {
+                    Log.d(TAG, "Dashboard de proyecto anterior descartado: " + projectId);
+                    return;
+                }
 
-                    if (dashboardData.getProject() != null) {
-                        projectDataLiveData.setValue(dashboardData.getProject());
-                    }
+                if (!fromCache) {
+                    isLoadingLiveData.setValue(false);
+                }
 
-                    if (dashboardData.getFinancialSummary() != null) {
-                        financialSummaryLiveData.setValue(dashboardData.getFinancialSummary());
-                    }
+                Log.d(TAG, "Datos del dashboard cargados " + (fromCache ? "(caché)" : "(servidor)"));
 
-                    errorLiveData.setValue(null);
+                // Actualizar LiveData
+                dashboardDataLiveData.setValue(dashboardData);
 
-                } else {
-                    String errorMsg = "Error al cargar dashboard: " + response.code();
-                    Log.e(TAG, errorMsg);
+                if (dashboardData.getProject() != null) {
+                    projectDataLiveData.setValue(dashboardData.getProject());
+                }
 
-                    try {
-                        if (response.errorBody() != null) {
-                            errorMsg += " - " + response.errorBody().string();
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error al leer error body: " + e.getMessage());
-                    }
+                publishFinancialSummary(projectId, dashboardData.getFinancialSummary(), fromCache);
 
-                    errorLiveData.setValue(errorMsg);
-                }
+                errorLiveData.setValue(null);
             }
 
             @Override
-            public void onFailure(@NonNull Call<DashboardResponse> call, @NonNull Throwable t) {
+            public void onError(String error, boolean hasCachedData) {
                 isLoadingLiveData.setValue(false);
 
-                String errorMsg = "Error de conexión: " + t.getMessage();
-                Log.e(TAG, errorMsg, t);
+                String errorMsg = "Error al cargar dashboard: " + error;
+                Log.e(TAG, errorMsg);
 
-                errorLiveData.setValue(errorMsg);
+                // Con copia local visible, el error de red no reemplaza los datos
+                if (!hasCachedData) {
+                    errorLiveData.setValue(errorMsg);
+                }
             }
-        });
+        })));
     }
 
     /**
-     * Refrescar datos del dashboard (forzar recarga) - INTEGRADO CON FinancialSummaryHelper
-     * Ahora primero actualiza el resumen financiero y luego recarga los datos
+     * Refrescar datos del dashboard (forzar recarga)
+     * Un solo POST refresh_dashboard recalcula el resumen y devuelve el dashboard.
+     * Si el servidor no lo soporta, se usa el camino de respaldo (resumen + dashboard).
      */
     public void refreshDashboard() {
         if (currentProjectId == null) {
@@ -148,14 +147,47 @@ public class DashboardViewModel extends AndroidViewModel {
             return;
         }
 
-        Log.d(TAG, "🔄 Iniciando refresh del dashboard con actualización del resumen financiero...");
+        Log.d(TAG, "🔄 Iniciando refresh del dashboard (refresh_dashboard)...");
 
         // Mostrar indicador de carga
         isLoadingLiveData.setValue(true);
         errorLiveData.setValue(null);
 
-        // PASO 1: Actualizar resumen financiero usando el helper
-        FinancialSummaryHelper.refreshSelectedProjectSummary(apiService, new FinancialSummaryHelper.RefreshCallback() {
+        Long projectId = currentProjectId;
+        calls.attach("dashboard", projectRepository.refreshDashboard(projectId, calls.wrap("dashboard", new RepositoryCallback<DashboardResponse>() {
+            @Override
+            public void onData(DashboardResponse dashboardData, boolean fromCache) {
+                if (!projectId.equals(currentProjectId)) {
+                    Log.d(TAG, "Refresh de proyecto anterior descartado: " + projectId);
+                    return;
+                }
+
+                Log.d(TAG, "✅ Dashboard y resumen financiero actualizados en una llamada");
+                isLoadingLiveData.setValue(false);
+                dashboardDataLiveData.setValue(dashboardData);
+
+                if (dashboardData.getProject() != null) {
+                    projectDataLiveData.setValue(dashboardData.getProject());
+                }
+
+                publishFinancialSummary(projectId, dashboardData.getFinancialSummary(), false);
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                if (!projectId.equals(currentProjectId)) return;
+
+                Log.w(TAG, "refresh_dashboard falló (" + error + "), usando camino de respaldo");
+                refreshDashboardFallback();
+            }
+        })));
+    }
+
+    /**
+     * Respaldo: recalcular el resumen con un solo GET (?refresh=true) y luego recargar el dashboard
+     */
+    private void refreshDashboardFallback() {
+        FinancialSummaryHelper.refreshSelectedProjectSummaryInOneCall(apiService, new FinancialSummaryHelper.RefreshCallback() {
             @Override
             public void onSuccess() {
                 Log.d(TAG, "✅ Resumen financiero actualizado correctamente");
@@ -212,12 +244,43 @@ public class DashboardViewModel extends AndroidViewModel {
         }
     }
 
+    /**
+     * Mostrar el resumen calculado localmente si los totales del proyecto ya están cargados
+     */
+    private boolean publishLocalSummary(Long projectId) {
+        FinancialLedger.Snapshot totals = ledger.snapshot();
+        if (totals.isComplete() && projectId.equals(totals.getProjectId())) {
+            Log.d(TAG, "Resumen financiero local mostrado (libro de totales)");
+            financialSummaryLiveData.setValue(totals.toFinancialSummary());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Publicar el resumen financiero: la copia de caché no pisa los totales locales
+     * y el resumen del servidor se concilia contra ellos
+     */
+    private void publishFinancialSummary(Long projectId, DashboardResponse.FinancialSummary summary, boolean fromCache) {
+        if (fromCache && publishLocalSummary(projectId)) {
+            return;
+        }
+        if (summary == null) {
+            return;
+        }
+        if (!fromCache && !ledger.reconcile(projectId, summary)) {
+            Log.w(TAG, "El resumen del servidor difiere de los totales locales; se usa el del servidor");
+        }
+        financialSummaryLiveData.setValue(summary);
+    }
+
     /**
      * Limpiar datos del dashboard
      */
     public void clearDashboard() {
         Log.d(TAG, "Limpiando datos del dashboard");
 
+        calls.cancelAll();
         currentProjectId = null;
         dashboardDataLiveData.setValue(null);
         projectDataLiveData.setValue(null);
@@ -315,6 +378,7 @@ public class DashboardViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
+        calls.release();
         Log.d(TAG, "DashboardViewModel destruido");
     }
 }
\ No newline at end of file
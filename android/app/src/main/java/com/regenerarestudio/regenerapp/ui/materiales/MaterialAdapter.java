@@ -0,0 +1,95 @@
+package com.regenerarestudio.regenerapp.ui.materiales;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.regenerarestudio.regenerapp.R;
+import com.regenerarestudio.regenerapp.data.models.Material;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Adapter de resultados de búsqueda del catálogo de materiales
+ * Cada tecla produce una lista nueva: AsyncListDiffer la compara en segundo plano
+ * y solo se vuelven a vincular las filas que entran, salen o cambian.
+ */
+public class MaterialAdapter extends RecyclerView.Adapter<MaterialAdapter.MaterialViewHolder> {
+
+    private static final DiffUtil.ItemCallback<Material> DIFF_CALLBACK = new DiffUtil.ItemCallback<Material>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Material oldItem, @NonNull Material newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Material oldItem, @NonNull Material newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getCode(), newItem.getCode())
+                    && Objects.equals(oldItem.getBrand(), newItem.getBrand())
+                    && Objects.equals(oldItem.getCategoryName(), newItem.getCategoryName())
+                    && Objects.equals(oldItem.getUnit(), newItem.getUnit())
+                    && Objects.equals(oldItem.getReferencePrice(), newItem.getReferencePrice());
+        }
+    };
+
+    private final AsyncListDiffer<Material> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+
+    public void updateMaterials(List<Material> materials) {
+        differ.submitList(materials);
+    }
+
+    @NonNull
+    @Override
+    public MaterialViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_material, parent, false);
+        return new MaterialViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MaterialViewHolder holder, int position) {
+        holder.bind(differ.getCurrentList().get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    static class MaterialViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvName;
+        private final TextView tvPrice;
+        private final TextView tvCode;
+        private final TextView tvCategory;
+
+        MaterialViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.tv_material_name);
+            tvPrice = itemView.findViewById(R.id.tv_material_price);
+            tvCode = itemView.findViewById(R.id.tv_material_code);
+            tvCategory = itemView.findViewById(R.id.tv_material_category);
+        }
+
+        void bind(Material material) {
+            tvName.setText(material.getDisplayName());
+            tvPrice.setText(material.getFormattedPrice());
+            tvCode.setText(material.getCode());
+
+            String category = material.getCategoryName();
+            String unit = material.getUnit();
+            if (category != null && unit != null) {
+                tvCategory.setText(category + " • " + unit);
+            } else {
+                tvCategory.setText(category != null ? category : unit);
+            }
+        }
+    }
+}
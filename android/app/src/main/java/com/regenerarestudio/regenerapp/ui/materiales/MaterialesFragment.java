@@ -1,35 +1,144 @@
 package com.regenerarestudio.regenerapp.ui.materiales;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.TextView;
+
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import com.google.android.material.chip.Chip;
 import com.regenerarestudio.regenerapp.databinding.FragmentMaterialesBinding;
+import com.regenerarestudio.regenerapp.data.models.Material;
 
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fragment del catálogo de materiales con búsqueda local (funciona sin conexión)
+ */
 public class MaterialesFragment extends Fragment {
 
     private FragmentMaterialesBinding binding;
+    private MaterialesViewModel materialesViewModel;
+    private MaterialAdapter adapter;
 
     public View onCreateView(@NonNull LayoutInflater inflater,
                              ViewGroup container, Bundle savedInstanceState) {
-        MaterialesViewModel materialesViewModel =
-                new ViewModelProvider(this).get(MaterialesViewModel.class);
+        materialesViewModel = new ViewModelProvider(this).get(MaterialesViewModel.class);
 
         binding = FragmentMaterialesBinding.inflate(inflater, container, false);
         View root = binding.getRoot();
 
-        final TextView textView = binding.textMateriales;
-        materialesViewModel.getText().observe(getViewLifecycleOwner(), textView::setText);
+        setupRecyclerView();
+        setupSearch();
+        setupObservers();
+
         return root;
     }
 
+    private void setupRecyclerView() {
+        adapter = new MaterialAdapter();
+        binding.rvMaterials.setLayoutManager(new LinearLayoutManager(getContext()));
+        binding.rvMaterials.setAdapter(adapter);
+    }
+
+    private void setupSearch() {
+        binding.etSearchMaterials.setText(materialesViewModel.getCurrentQuery());
+        binding.etSearchMaterials.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // El índice es local: se busca en cada tecla, sin esperar ni ir a la red
+                materialesViewModel.setQuery(s.toString());
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        });
+
+        binding.chipGroupMaterialCategories.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (checkedIds.isEmpty()) {
+                return;
+            }
+            Chip chip = group.findViewById(checkedIds.get(0));
+            Object tag = chip != null ? chip.getTag() : null;
+            materialesViewModel.setCategory(tag instanceof Long ? (Long) tag : null);
+        });
+    }
+
+    private void setupObservers() {
+        materialesViewModel.getResults().observe(getViewLifecycleOwner(), results -> {
+            adapter.updateMaterials(results);
+            updateEmptyState(results);
+        });
+
+        materialesViewModel.getCategories().observe(getViewLifecycleOwner(), this::showCategories);
+
+        materialesViewModel.getCatalogSize().observe(getViewLifecycleOwner(), size -> updateCatalogStatus());
+        materialesViewModel.getIsOffline().observe(getViewLifecycleOwner(), offline -> updateCatalogStatus());
+
+        materialesViewModel.getIsLoading().observe(getViewLifecycleOwner(), loading ->
+                binding.progressMaterials.setVisibility(Boolean.TRUE.equals(loading) ? View.VISIBLE : View.GONE));
+    }
+
+    /**
+     * Chips de categoría: "Todas" (fija en el layout) + una por categoría del catálogo
+     */
+    private void showCategories(List<Material.MaterialCategory> categories) {
+        if (categories == null) {
+            return;
+        }
+
+        Long selected = materialesViewModel.getCurrentCategoryId();
+        binding.chipGroupMaterialCategories.removeViews(1, binding.chipGroupMaterialCategories.getChildCount() - 1);
+
+        for (Material.MaterialCategory category : categories) {
+            Chip chip = new Chip(requireContext());
+            chip.setText(category.getName());
+            chip.setTag(category.getId());
+            chip.setCheckable(true);
+            binding.chipGroupMaterialCategories.addView(chip);
+            if (category.getId() != null && category.getId().equals(selected)) {
+                chip.setChecked(true);
+            }
+        }
+    }
+
+    private void updateCatalogStatus() {
+        Integer size = materialesViewModel.getCatalogSize().getValue();
+        if (size == null) {
+            return;
+        }
+
+        String count = NumberFormat.getIntegerInstance(new Locale("es", "EC")).format(size);
+        boolean offline = Boolean.TRUE.equals(materialesViewModel.getIsOffline().getValue());
+        binding.tvCatalogStatus.setText(count + " materiales · "
+                + (offline ? "sin conexión (copia local)" : "disponible sin conexión"));
+    }
+
+    private void updateEmptyState(List<Material> results) {
+        boolean empty = results == null || results.isEmpty();
+        boolean searching = !materialesViewModel.getCurrentQuery().isEmpty()
+                || materialesViewModel.getCurrentCategoryId() != null;
+
+        binding.tvEmptyMaterials.setVisibility(empty ? View.VISIBLE : View.GONE);
+        binding.tvEmptyMaterials.setText(searching
+                ? "Sin resultados para la búsqueda"
+                : "Escribe para buscar en el catálogo");
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
     }
-}
\ No newline at end of file
+}
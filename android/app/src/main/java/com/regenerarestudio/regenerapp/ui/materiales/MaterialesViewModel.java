@@ -1,19 +1,195 @@
 package com.regenerarestudio.regenerapp.ui.materiales;
 
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
-public class MaterialesViewModel extends ViewModel {
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
+import com.regenerarestudio.regenerapp.data.local.MaterialSearchIndex;
+import com.regenerarestudio.regenerapp.data.models.Material;
+import com.regenerarestudio.regenerapp.data.repository.MaterialRepository;
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ViewModel del catálogo de materiales
+ * Las búsquedas se resuelven contra el índice local ({@link MaterialSearchIndex}), sin red:
+ * el catálogo se sincroniza en segundo plano y cada versión nueva vuelve a aplicar la búsqueda actual.
+ */
+public class MaterialesViewModel extends AndroidViewModel {
+
+    private static final String TAG = "MaterialesViewModel";
+
+    // Filas mostradas como máximo (la búsqueda ordena por relevancia)
+    private static final int MAX_RESULTS = 200;
+
+    private final MaterialRepository materialRepository;
+
+    // Peticiones en curso (se cancelan en onCleared)
+    private final CallTracker calls = new CallTracker(TAG);
+
+    // LiveData
+    private final MutableLiveData<List<Material>> resultsLiveData = new MutableLiveData<>();
+    private final MutableLiveData<List<Material.MaterialCategory>> categoriesLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Integer> catalogSizeLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> offlineLiveData = new MutableLiveData<>(false);
+    private final MutableLiveData<Boolean> loadingLiveData = new MutableLiveData<>(false);
+
+    // Búsqueda actual
+    private String currentQuery = "";
+    private Long currentCategoryId = null;
+
+    // Solo se publica el resultado de la búsqueda más reciente
+    private final AtomicLong searchGeneration = new AtomicLong();
+
+    public MaterialesViewModel(@NonNull Application application) {
+        super(application);
+        this.materialRepository = MaterialRepository.getInstance(application);
+
+        loadCatalog();
+        loadCategories();
+    }
+
+    // ==========================================
+    // GETTERS LIVEDATA
+    // ==========================================
+
+    public LiveData<List<Material>> getResults() {
+        return resultsLiveData;
+    }
+
+    public LiveData<List<Material.MaterialCategory>> getCategories() {
+        return categoriesLiveData;
+    }
+
+    public LiveData<Integer> getCatalogSize() {
+        return catalogSizeLiveData;
+    }
+
+    public LiveData<Boolean> getIsOffline() {
+        return offlineLiveData;
+    }
 
-    private final MutableLiveData<String> mText;
+    public LiveData<Boolean> getIsLoading() {
+        return loadingLiveData;
+    }
+
+    // ==========================================
+    // CATÁLOGO
+    // ==========================================
+
+    /**
+     * Sincronizar el catálogo e indexarlo (la copia local se indexa primero)
+     */
+    public void loadCatalog() {
+        loadingLiveData.setValue(materialRepository.getSearchIndex() == null);
+
+        calls.attach("catalog", materialRepository.loadSearchIndex(calls.wrap("catalog", new RepositoryCallback<MaterialSearchIndex>() {
+            @Override
+            public void onData(MaterialSearchIndex index, boolean fromCache) {
+                Log.d(TAG, "Catálogo " + (fromCache ? "local" : "sincronizado") + ": " + index.size() + " materiales");
+                loadingLiveData.setValue(false);
+                if (!fromCache) {
+                    offlineLiveData.setValue(false);
+                }
+                catalogSizeLiveData.setValue(index.size());
+                runSearch(index);
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                Log.w(TAG, "No se pudo sincronizar el catálogo: " + error);
+                loadingLiveData.setValue(false);
+                offlineLiveData.setValue(true);
+            }
+        })));
+    }
+
+    private void loadCategories() {
+        calls.attach("categories", materialRepository.loadCategories(calls.wrap("categories", new RepositoryCallback<List<Material.MaterialCategory>>() {
+            @Override
+            public void onData(List<Material.MaterialCategory> categories, boolean fromCache) {
+                categoriesLiveData.setValue(categories);
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                Log.w(TAG, "No se pudieron cargar las categorías: " + error);
+            }
+        })));
+    }
+
+    // ==========================================
+    // BÚSQUEDA
+    // ==========================================
+
+    /**
+     * Cambiar el texto buscado
+     */
+    public void setQuery(String query) {
+        String normalized = query != null ? query.trim() : "";
+        if (normalized.equals(currentQuery)) {
+            return;
+        }
+        currentQuery = normalized;
+        runSearch(materialRepository.getSearchIndex());
+    }
+
+    /**
+     * Filtrar por categoría (null = todas)
+     */
+    public void setCategory(@Nullable Long categoryId) {
+        currentCategoryId = categoryId;
+        runSearch(materialRepository.getSearchIndex());
+    }
+
+    /**
+     * Buscar en el índice fuera del hilo principal y publicar solo si sigue siendo la última búsqueda
+     */
+    private void runSearch(@Nullable MaterialSearchIndex index) {
+        if (index == null) {
+            return;
+        }
+
+        long generation = searchGeneration.incrementAndGet();
+        String query = currentQuery;
+        Long categoryId = currentCategoryId;
+
+        AppExecutors.background().execute(() -> {
+            long start = System.nanoTime();
+            List<Material> results = new ArrayList<>(index.search(query, categoryId, MAX_RESULTS));
+            long micros = (System.nanoTime() - start) / 1_000;
+
+            AppExecutors.mainThread().execute(() -> {
+                if (generation != searchGeneration.get()) {
+                    return;
+                }
+                Log.d(TAG, "Búsqueda '" + query + "': " + results.size() + " resultados en " + micros + " µs");
+                resultsLiveData.setValue(results);
+            });
+        });
+    }
+
+    public String getCurrentQuery() {
+        return currentQuery;
+    }
 
-    public MaterialesViewModel() {
-        mText = new MutableLiveData<>();
-        mText.setValue("Base de Datos de Materiales\n\n📦 Catálogo Completo\n\nCategorías disponibles:\n\n🏗️ Estructurales\n• Cemento, acero, madera\n• Bloques y ladrillos\n\n🎨 Acabados\n• Pinturas y revestimientos\n• Pisos y cerámicas\n\n💡 Iluminación\n• Luminarias arquitectónicas\n• Sistemas de control\n\n⚡ Instalaciones\n• Tuberías y cables\n• Accesorios eléctricos");
+    public Long getCurrentCategoryId() {
+        return currentCategoryId;
     }
 
-    public LiveData<String> getText() {
-        return mText;
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        calls.release();
     }
-}
\ No newline at end of file
+}
@@ -9,7 +9,10 @@ import android.widget.TextView;
 import android.widget.PopupMenu;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
 import com.regenerarestudio.regenerapp.utils.BudgetCategoryTranslations;
 
 import com.regenerarestudio.regenerapp.R;
@@ -18,15 +21,40 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Adapter para la tabla de Presupuesto Inicial
  * ACTUALIZADO: Incluye menú contextual y callbacks
+ * Las actualizaciones se comparan en segundo plano (AsyncListDiffer) con IDs estables del backend,
+ * así editar un item solo vuelve a vincular esa fila.
  */
 public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdapter.BudgetViewHolder> {
 
     private static final String TAG = "BudgetInitialAdapter";
-    private List<BudgetInitialTableFragment.BudgetItem> budgetItems;
+
+    /**
+     * Identidad por ID del backend, contenido por los campos que muestra la fila
+     */
+    private static final DiffUtil.ItemCallback<BudgetItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<BudgetItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull BudgetItem oldItem, @NonNull BudgetItem newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull BudgetItem oldItem, @NonNull BudgetItem newItem) {
+            return Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                    && Objects.equals(oldItem.getCategory(), newItem.getCategory())
+                    && Objects.equals(oldItem.getCategoryDisplay(), newItem.getCategoryDisplay())
+                    && Objects.equals(oldItem.getQuantity(), newItem.getQuantity())
+                    && Objects.equals(oldItem.getUnit(), newItem.getUnit())
+                    && Objects.equals(oldItem.getUnitPrice(), newItem.getUnitPrice())
+                    && Objects.equals(oldItem.getSupplierName(), newItem.getSupplierName());
+        }
+    };
+
+    private final AsyncListDiffer<BudgetItem> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private final NumberFormat currencyFormat;
 
     // Interfaces de callback
@@ -37,39 +65,41 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
      * Interface para clicks en items
      */
     public interface OnItemClickListener {
-        void onItemClick(BudgetInitialTableFragment.BudgetItem item, int position);
+        void onItemClick(BudgetItem item, int position);
     }
 
     /**
      * Interface para opciones del menú contextual
      */
     public interface OnItemMenuClickListener {
-        void onEditItem(BudgetInitialTableFragment.BudgetItem item, int position);
-        void onDeleteItem(BudgetInitialTableFragment.BudgetItem item, int position);
-        void onCopyItemToExpenses(BudgetInitialTableFragment.BudgetItem item, int position);
+        void onEditItem(BudgetItem item, int position);
+        void onDeleteItem(BudgetItem item, int position);
+        void onCopyItemToExpenses(BudgetItem item, int position);
     }
 
-    public BudgetInitialAdapter(List<BudgetInitialTableFragment.BudgetItem> budgetItems,
+    public BudgetInitialAdapter(List<BudgetItem> budgetItems,
                                 OnItemClickListener onItemClickListener,
                                 OnItemMenuClickListener onItemMenuClickListener) {
-        this.budgetItems = budgetItems != null ? budgetItems : new ArrayList<>();
         this.currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "EC"));
         this.onItemClickListener = onItemClickListener;
         this.onItemMenuClickListener = onItemMenuClickListener;
+        setHasStableIds(true);
+
+        if (budgetItems != null && !budgetItems.isEmpty()) {
+            differ.submitList(new ArrayList<>(budgetItems));
+        }
 
-        Log.d(TAG, "BudgetInitialAdapter creado con " + this.budgetItems.size() + " items");
+        Log.d(TAG, "BudgetInitialAdapter creado con " + (budgetItems != null ? budgetItems.size() : 0) + " items");
     }
 
     // Constructor de compatibilidad para código existente
-    public BudgetInitialAdapter(List<BudgetInitialTableFragment.BudgetItem> budgetItems) {
+    public BudgetInitialAdapter(List<BudgetItem> budgetItems) {
         this(budgetItems, null, null);
     }
 
     @NonNull
     @Override
     public BudgetViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        Log.d(TAG, "onCreateViewHolder: Creando ViewHolder");
-
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_budget_initial, parent, false);
 
@@ -78,35 +108,36 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
 
     @Override
     public void onBindViewHolder(@NonNull BudgetViewHolder holder, int position) {
-        if (budgetItems == null || position >= budgetItems.size()) {
-            Log.e(TAG, "onBindViewHolder: Posición inválida " + position + " / " +
-                    (budgetItems != null ? budgetItems.size() : "null"));
-            return;
-        }
-
-        BudgetInitialTableFragment.BudgetItem item = budgetItems.get(position);
-        holder.bind(item, position);
+        holder.bind(getItem(position), position);
     }
 
     @Override
     public int getItemCount() {
-        int count = budgetItems != null ? budgetItems.size() : 0;
-        Log.d(TAG, "getItemCount: " + count);
-        return count;
+        return differ.getCurrentList().size();
+    }
+
+    /**
+     * ID estable del backend (los items aún sin ID usan un valor negativo por posición)
+     */
+    @Override
+    public long getItemId(int position) {
+        Long id = getItem(position).getId();
+        return id != null ? id : -(position + 1L);
+    }
+
+    public BudgetItem getItem(int position) {
+        return differ.getCurrentList().get(position);
     }
 
     /**
      * Actualizar lista de items
+     * Se envía una copia: la lista del fragment se reutiliza y el differ necesita una instancia nueva
      */
-    public void updateItems(List<BudgetInitialTableFragment.BudgetItem> newItems) {
-        Log.d(TAG, "updateItems: Actualizando desde " +
-                (budgetItems != null ? budgetItems.size() : 0) +
+    public void updateItems(List<BudgetItem> newItems) {
+        Log.d(TAG, "updateItems: Actualizando desde " + getItemCount() +
                 " a " + (newItems != null ? newItems.size() : 0) + " items");
 
-        this.budgetItems = newItems != null ? newItems : new ArrayList<>();
-
-        notifyDataSetChanged();
-        Log.d(TAG, "updateItems: notifyDataSetChanged() llamado");
+        differ.submitList(newItems != null ? new ArrayList<>(newItems) : new ArrayList<>());
     }
 
     /**
@@ -126,8 +157,6 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
         public BudgetViewHolder(@NonNull View itemView) {
             super(itemView);
 
-            Log.d(TAG, "BudgetViewHolder: Inicializando ViewHolder");
-
             // Inicializar vistas
             tvDescription = itemView.findViewById(R.id.tv_material_name);
             tvCategory = itemView.findViewById(R.id.tv_material_category);
@@ -152,7 +181,7 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && onItemClickListener != null) {
-                    onItemClickListener.onItemClick(budgetItems.get(position), position);
+                    onItemClickListener.onItemClick(getItem(position), position);
                 }
             });
 
@@ -162,14 +191,12 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
             }
         }
 
-        public void bind(BudgetInitialTableFragment.BudgetItem item, int position) {
+        public void bind(BudgetItem item, int position) {
             if (item == null) {
                 Log.e(TAG, "bind: Item es null en posición " + position);
                 return;
             }
 
-            Log.d(TAG, "bind: Vinculando item en posición " + position + " - " + item.getDescription());
-
             // Establecer valores con verificaciones de null
             if (tvDescription != null) {
                 tvDescription.setText(item.getDescription() != null ? item.getDescription() : "Sin descripción");
@@ -188,7 +215,6 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
                 }
 
                 tvCategory.setText(categoryText);
-                Log.d(TAG, "Categoría mostrada: " + categoryText + " (original: " + item.getCategory() + ")");
             }
 
             if (tvQuantity != null) {
@@ -230,7 +256,7 @@ public class BudgetInitialAdapter extends RecyclerView.Adapter<BudgetInitialAdap
                 return;
             }
 
-            BudgetInitialTableFragment.BudgetItem item = budgetItems.get(position);
+            BudgetItem item = getItem(position);
 
             // Crear PopupMenu
             PopupMenu popupMenu = new PopupMenu(anchorView.getContext(), anchorView);
@@ -19,6 +19,7 @@ import com.regenerarestudio.regenerapp.databinding.FragmentTableBudgetInitialBin
 
 // IMPORTS CORREGIDOS Y AGREGADOS
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
 import com.regenerarestudio.regenerapp.data.models.BudgetItemCreateUpdateRequest;
 import com.regenerarestudio.regenerapp.MainActivity;
 import java.util.HashMap;
@@ -68,6 +69,7 @@ public class BudgetInitialTableFragment extends Fragment {
             initializeViews();
             setupRecyclerView();
             showEmptyState();
+            observeLedger();
 
             Log.d(TAG, "Inicialización completada exitosamente");
         } catch (Exception e) {
@@ -150,9 +152,8 @@ public class BudgetInitialTableFragment extends Fragment {
         recyclerView.setAdapter(adapter);
         Log.d(TAG, "setupRecyclerView: Adapter asignado al RecyclerView con callbacks");
 
-        // Configuraciones adicionales
+        // Configuraciones adicionales (animaciones por fila gracias al diff con IDs estables)
         recyclerView.setHasFixedSize(false);
-        recyclerView.setItemAnimator(null);
         recyclerView.setVisibility(View.VISIBLE);
 
         Log.d(TAG, "setupRecyclerView: Configuración completada exitosamente");
@@ -365,6 +366,20 @@ public class BudgetInitialTableFragment extends Fragment {
         return null;
     }
 
+    /**
+     * Los totales vienen del libro incremental del ViewModel (no se recorre la lista)
+     */
+    private void observeLedger() {
+        PresupuestosViewModel viewModel = getPresupuestosViewModel();
+        if (viewModel != null) {
+            viewModel.getLedger().observe(getViewLifecycleOwner(), totals -> {
+                if (totals != null) {
+                    updateTotalsInUI(totals.getBudgetItemCount(), totals.getBudgetTotal());
+                }
+            });
+        }
+    }
+
     // ==========================================
     // MÉTODOS DE ESTADO DE UI
     // ==========================================
@@ -407,9 +422,9 @@ public class BudgetInitialTableFragment extends Fragment {
 
     /**
      * MÉTODO PRINCIPAL - Actualizar datos del presupuesto desde el ViewModel
-     * VERSIÓN CORREGIDA - Sin threading innecesario
+     * Los items ya llegan tipados desde el API (BudgetItem.Adapter), sin conversión desde Map
      */
-    public void updateBudgetData(List<Map<String, Object>> budgetData) {
+    public void updateBudgetData(List<BudgetItem> budgetData) {
         if (budgetData == null) {
             Log.w(TAG, "updateBudgetData - Datos recibidos son null");
             showEmptyState();
@@ -421,33 +436,27 @@ public class BudgetInitialTableFragment extends Fragment {
         // Limpiar lista actual
         budgetItems.clear();
 
-        // Procesar datos del backend
-        double totalAmount = 0.0;
-        for (Map<String, Object> itemData : budgetData) {
-            try {
-                BudgetItem item = createBudgetItemFromMap(itemData);
-                budgetItems.add(item);
-                totalAmount += item.getTotalPrice();
-
-                Log.v(TAG, "Item creado: " + item.getDescription() + " - " +
-                        currencyFormat.format(item.getTotalPrice()));
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error procesando item del presupuesto: " + e.getMessage(), e);
+        // El listado del backend no incluye el proyecto: asignar el actual para edición/copia
+        long projectId = getCurrentProjectId();
+        for (BudgetItem item : budgetData) {
+            if (item == null) continue;
+            if (item.getProjectId() == null) {
+                item.setProjectId(projectId);
             }
+            budgetItems.add(item);
         }
 
-        Log.d(TAG, "Convertidos " + budgetItems.size() + " items exitosamente");
+        Log.d(TAG, "Cargados " + budgetItems.size() + " items");
 
         // CORRECCIÓN: Actualizar UI directamente (ya estamos en el hilo principal)
-        updateUI(totalAmount);
+        updateUI();
     }
 
     /**
      * Actualizar UI - VERSIÓN MEJORADA CON DEBUGGING
      */
-    private void updateUI(double totalAmount) {
-        Log.d(TAG, "updateUI: Iniciando actualización con monto: " + totalAmount);
+    private void updateUI() {
+        Log.d(TAG, "updateUI: Iniciando actualización con " + budgetItems.size() + " items");
 
         try {
             // Verificar que el fragment aún esté activo
@@ -456,21 +465,15 @@ public class BudgetInitialTableFragment extends Fragment {
                 return;
             }
 
-            // Notificar al adapter que los datos han cambiado
+            // El adapter calcula el diff en segundo plano y solo notifica las filas cambiadas
             if (adapter != null) {
                 Log.d(TAG, "updateUI: Actualizando adapter con " + budgetItems.size() + " items");
                 adapter.updateItems(budgetItems);
-
-                // Forzar refresh después de un breve delay
-                recyclerView.postDelayed(() -> {
-                    forceRecyclerViewRefresh();
-                }, 100);
             } else {
                 Log.e(TAG, "updateUI: Adapter es null, no se puede actualizar");
             }
 
-            // Actualizar totales
-            updateTotalsInUI(budgetItems.size(), totalAmount);
+            // Los totales se actualizan desde el libro (observeLedger)
 
             // Mostrar contenido
             showContent();
@@ -482,18 +485,6 @@ public class BudgetInitialTableFragment extends Fragment {
         }
     }
 
-    /**
-     * Forzar refresh del RecyclerView
-     */
-    private void forceRecyclerViewRefresh() {
-        if (recyclerView != null && adapter != null) {
-            Log.d(TAG, "forceRecyclerViewRefresh: Forzando refresh");
-            adapter.notifyDataSetChanged();
-            recyclerView.invalidate();
-            recyclerView.requestLayout();
-        }
-    }
-
     /**
      * Actualizar totales en la UI
      */
@@ -532,185 +523,6 @@ public class BudgetInitialTableFragment extends Fragment {
         }
     }
 
-    /**
-     * Crear BudgetItem desde Map del backend - VERSIÓN CORREGIDA
-     */
-    private BudgetItem createBudgetItemFromMap(Map<String, Object> itemData) {
-        BudgetItem item = new BudgetItem();
-
-        // ID
-        item.setId(parseLongFromObject(itemData.get("id")));
-
-        // PROJECT ID
-        item.setProjectId(getCurrentProjectId());
-
-        // Descripción
-        item.setDescription(parseStringFromObject(itemData.get("description")));
-
-        // Categoría
-        item.setCategory(parseStringFromObject(itemData.get("category")));
-        item.setCategoryDisplay(parseStringFromObject(itemData.get("category_display")));
-
-        // Espacios
-        item.setSpaces(parseStringFromObject(itemData.get("spaces")));
-
-        // Cantidad - usando método auxiliar
-        Double quantity = parseDoubleFromObject(itemData.get("quantity"));
-        item.setQuantity(quantity != null ? quantity : 1.0);
-
-        // Unidad
-        item.setUnit(parseStringFromObject(itemData.get("unit")));
-
-        // Precio unitario - usando método auxiliar
-        Double unitPrice = parseDoubleFromObject(itemData.get("unit_price"));
-        item.setUnitPrice(unitPrice != null ? unitPrice : 0.0);
-
-        // Precio total - usando método auxiliar
-        Double totalPrice = parseDoubleFromObject(itemData.get("total_price"));
-        if (totalPrice != null) {
-            item.setTotalPrice(totalPrice);
-        } else {
-            // Calcular si no viene del backend
-            item.setTotalPrice(item.getQuantity() * item.getUnitPrice());
-        }
-
-        // Proveedor
-        item.setSupplierName(parseStringFromObject(itemData.get("supplier_name")));
-        item.setSupplierId(parseLongFromObject(itemData.get("supplier")));
-
-        // Notas
-        item.setNotes(parseStringFromObject(itemData.get("notes")));
-
-        // Log para debug
-        Log.d(TAG, "Item creado: " + item.getDescription() +
-                " - Cantidad: " + item.getQuantity() +
-                " - Precio unitario: " + item.getUnitPrice() +
-                " - Total: " + item.getTotalPrice());
-
-        return item;
-    }
-
-    // ==========================================
-    // MÉTODOS DE CONVERSIÓN SEGUROS
-    // ==========================================
-
-    /**
-     * Convierte un objeto a Long de manera segura
-     * Maneja tanto Number como String
-     */
-    private Long parseLongFromObject(Object obj) {
-        if (obj == null) return null;
-
-        if (obj instanceof Number) {
-            return ((Number) obj).longValue();
-        }
-
-        if (obj instanceof String) {
-            try {
-                return Long.parseLong((String) obj);
-            } catch (NumberFormatException e) {
-                Log.w(TAG, "Error al convertir string a long: " + obj);
-                return null;
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Convierte un objeto a Double de manera segura
-     * Maneja tanto Number como String
-     */
-    private Double parseDoubleFromObject(Object obj) {
-        if (obj == null) return null;
-
-        if (obj instanceof Number) {
-            return ((Number) obj).doubleValue();
-        }
-
-        if (obj instanceof String) {
-            try {
-                return Double.parseDouble((String) obj);
-            } catch (NumberFormatException e) {
-                Log.w(TAG, "Error al convertir string a double: " + obj);
-                return null;
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Convierte un objeto a String de manera segura
-     */
-    private String parseStringFromObject(Object obj) {
-        if (obj == null) return null;
-        return obj.toString();
-    }
-
-    /**
-     * Clase modelo para items del presupuesto - VERSIÓN CORREGIDA CON PROJECT ID
-     */
-    public static class BudgetItem {
-        private Long id;
-        private Long projectId; // 🟢 AGREGADO
-        private String description;
-        private String category;
-        private String categoryDisplay;
-        private String spaces;
-        private Double quantity;
-        private String unit;
-        private Double unitPrice;
-        private Double totalPrice;
-        private String supplierName;
-        private Long supplierId;
-        private String notes;
-
-        // Constructor vacío
-        public BudgetItem() {}
-
-        // Getters y Setters
-        public Long getId() { return id; }
-        public void setId(Long id) { this.id = id; }
-
-        // 🟢 MÉTODOS AGREGADOS PARA PROJECT ID
-        public Long getProjectId() { return projectId; }
-        public void setProjectId(Long projectId) { this.projectId = projectId; }
-
-        public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
-
-        public String getCategory() { return category; }
-        public void setCategory(String category) { this.category = category; }
-
-        public String getCategoryDisplay() { return categoryDisplay; }
-        public void setCategoryDisplay(String categoryDisplay) { this.categoryDisplay = categoryDisplay; }
-
-        public String getSpaces() { return spaces; }
-        public void setSpaces(String spaces) { this.spaces = spaces; }
-
-        public Double getQuantity() { return quantity != null ? quantity : 1.0; }
-        public void setQuantity(Double quantity) { this.quantity = quantity; }
-
-        public String getUnit() { return unit; }
-        public void setUnit(String unit) { this.unit = unit; }
-
-        public Double getUnitPrice() { return unitPrice != null ? unitPrice : 0.0; }
-        public void setUnitPrice(Double unitPrice) { this.unitPrice = unitPrice; }
-
-        public Double getTotalPrice() { return totalPrice != null ? totalPrice : 0.0; }
-        public void setTotalPrice(Double totalPrice) { this.totalPrice = totalPrice; }
-
-        public String getSupplierName() { return supplierName; }
-        public void setSupplierName(String supplierName) { this.supplierName = supplierName; }
-
-        public Long getSupplierId() { return supplierId; }
-        public void setSupplierId(Long supplierId) { this.supplierId = supplierId; }
-
-        public String getNotes() { return notes; }
-        public void setNotes(String notes) { this.notes = notes; }
-    }
-
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -7,14 +7,19 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.regenerarestudio.regenerapp.R;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
 import com.regenerarestudio.regenerapp.utils.BudgetCategoryTranslations;
 
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Adapter para la tabla de Gastos Reales
@@ -22,26 +27,54 @@ import java.util.Locale;
  */
 public class ExpensesRealAdapter extends RecyclerView.Adapter<ExpensesRealAdapter.ExpenseViewHolder> {
 
-    private List<ExpensesRealTableFragment.ExpenseItem> expenseItems;
+    /**
+     * Identidad por ID del backend, contenido por los campos que muestra la fila
+     */
+    private static final DiffUtil.ItemCallback<ExpenseItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<ExpenseItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ExpenseItem oldItem, @NonNull ExpenseItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ExpenseItem oldItem, @NonNull ExpenseItem newItem) {
+            return Objects.equals(oldItem.getMaterialName(), newItem.getMaterialName())
+                    && Objects.equals(oldItem.getMaterialCode(), newItem.getMaterialCode())
+                    && oldItem.getQuantity() == newItem.getQuantity()
+                    && Objects.equals(oldItem.getUnit(), newItem.getUnit())
+                    && oldItem.getUnitPrice() == newItem.getUnitPrice()
+                    && oldItem.getDiscountPercentage() == newItem.getDiscountPercentage()
+                    && Objects.equals(oldItem.getSupplierName(), newItem.getSupplierName())
+                    && Objects.equals(oldItem.getInvoiceNumber(), newItem.getInvoiceNumber())
+                    && Objects.equals(oldItem.getDisplayDate(), newItem.getDisplayDate())
+                    && Objects.equals(oldItem.getDisplayTime(), newItem.getDisplayTime());
+        }
+    };
+
+    private final AsyncListDiffer<ExpenseItem> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnItemClickListener onItemClickListener;
     private OnItemMenuClickListener onItemMenuClickListener;
     private NumberFormat currencyFormat;
 
     public interface OnItemClickListener {
-        void onItemClick(ExpensesRealTableFragment.ExpenseItem item);
+        void onItemClick(ExpenseItem item);
     }
 
     public interface OnItemMenuClickListener {
-        void onItemMenuClick(ExpensesRealTableFragment.ExpenseItem item);
+        void onItemMenuClick(ExpenseItem item);
     }
 
-    public ExpensesRealAdapter(List<ExpensesRealTableFragment.ExpenseItem> expenseItems,
+    public ExpensesRealAdapter(List<ExpenseItem> expenseItems,
                                OnItemClickListener onItemClickListener,
                                OnItemMenuClickListener onItemMenuClickListener) {
-        this.expenseItems = expenseItems;
         this.onItemClickListener = onItemClickListener;
         this.onItemMenuClickListener = onItemMenuClickListener;
         this.currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "EC"));
+        setHasStableIds(true);
+
+        if (expenseItems != null && !expenseItems.isEmpty()) {
+            differ.submitList(new ArrayList<>(expenseItems));
+        }
     }
 
     @NonNull
@@ -54,18 +87,29 @@ public class ExpensesRealAdapter extends RecyclerView.Adapter<ExpensesRealAdapte
 
     @Override
     public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position) {
-        ExpensesRealTableFragment.ExpenseItem item = expenseItems.get(position);
-        holder.bind(item);
+        holder.bind(getItem(position));
     }
 
     @Override
     public int getItemCount() {
-        return expenseItems.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    public ExpenseItem getItem(int position) {
+        return differ.getCurrentList().get(position);
     }
 
-    public void updateItems(List<ExpensesRealTableFragment.ExpenseItem> newItems) {
-        this.expenseItems = newItems;
-        notifyDataSetChanged();
+    /**
+     * Actualizar lista de gastos (diff en segundo plano)
+     * Se envía una copia: la lista del fragment se reutiliza y el differ necesita una instancia nueva
+     */
+    public void updateItems(List<ExpenseItem> newItems) {
+        differ.submitList(newItems != null ? new ArrayList<>(newItems) : new ArrayList<>());
     }
 
     class ExpenseViewHolder extends RecyclerView.ViewHolder {
@@ -109,7 +153,7 @@ public class ExpensesRealAdapter extends RecyclerView.Adapter<ExpensesRealAdapte
                 if (onItemClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onItemClickListener.onItemClick(expenseItems.get(position));
+                        onItemClickListener.onItemClick(getItem(position));
                     }
                 }
             });
@@ -118,13 +162,13 @@ public class ExpensesRealAdapter extends RecyclerView.Adapter<ExpensesRealAdapte
                 if (onItemMenuClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onItemMenuClickListener.onItemMenuClick(expenseItems.get(position));
+                        onItemMenuClickListener.onItemMenuClick(getItem(position));
                     }
                 }
             });
         }
 
-        public void bind(ExpensesRealTableFragment.ExpenseItem item) {
+        public void bind(ExpenseItem item) {
             // ELIMINADO: Código de categoría porque tvCategoryExpense no está declarado
             // Si necesitas mostrar categorías en gastos reales, agrega tvCategoryExpense al ViewHolder
 
@@ -142,7 +186,7 @@ public class ExpensesRealAdapter extends RecyclerView.Adapter<ExpensesRealAdapte
 
             // Descuentos
             tvDiscountPercentage.setText(String.format("%.0f%%", item.getDiscountPercentage()));
-            tvDiscountAmount.setText(currencyFormat.format(item.getDiscountAmount()));
+            tvDiscountAmount.setText(currencyFormat.format(item.getTotalDiscount()));
 
             // Proveedor
             tvSupplierNameExpense.setText(getShortSupplierName(item.getSupplierName()));
@@ -179,7 +223,7 @@ public class ExpensesRealAdapter extends RecyclerView.Adapter<ExpensesRealAdapte
             return supplierName;
         }
 
-        private void configureComparisonIndicator(ExpensesRealTableFragment.ExpenseItem item) {
+        private void configureComparisonIndicator(ExpenseItem item) {
             // Simulación de comparación con presupuesto inicial
             // TODO: En el futuro, obtener precio presupuestado real desde API
             double budgetedPrice = item.getUnitPrice() * 1.15; // Simulación: 15% más caro presupuestado
@@ -19,15 +19,15 @@ import com.regenerarestudio.regenerapp.MainActivity;
 import com.regenerarestudio.regenerapp.R;
 import com.regenerarestudio.regenerapp.databinding.FragmentTableExpensesRealBinding;
 import com.regenerarestudio.regenerapp.data.models.BudgetItemCreateUpdateRequest;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
+import com.regenerarestudio.regenerapp.utils.FinancialLedger;
 
 import java.text.NumberFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Fragment para la tabla de Gastos Reales
@@ -42,8 +42,6 @@ public class ExpensesRealTableFragment extends Fragment {
     private List<ExpenseItem> expenseItems;
     private NumberFormat currencyFormat;
     private SimpleDateFormat backendDateFormatter;
-    private SimpleDateFormat displayDateFormatter;
-    private SimpleDateFormat displayTimeFormatter;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -60,14 +58,26 @@ public class ExpensesRealTableFragment extends Fragment {
         // Inicializar formatters
         currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "EC"));
         backendDateFormatter = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-        displayDateFormatter = new SimpleDateFormat("dd/MM", Locale.getDefault());
-        displayTimeFormatter = new SimpleDateFormat("HH:mm", Locale.getDefault());
 
         setupRecyclerView();
         setupSearchAndFilter();
 
         // Mostrar estado inicial (sin datos)
         showEmptyState();
+
+        observeLedger();
+    }
+
+    /**
+     * Los totales vienen del libro incremental del ViewModel (no se recorre la lista)
+     */
+    private void observeLedger() {
+        if (getParentFragment() instanceof PresupuestosFragment) {
+            PresupuestosViewModel viewModel = ((PresupuestosFragment) getParentFragment()).getPresupuestosViewModel();
+            if (viewModel != null) {
+                viewModel.getLedger().observe(getViewLifecycleOwner(), this::updateTotals);
+            }
+        }
     }
 
     private void setupRecyclerView() {
@@ -117,131 +127,51 @@ public class ExpensesRealTableFragment extends Fragment {
 
     /**
      * Método público llamado por PresupuestosFragment para actualizar datos
-     * Convierte datos del backend (Map) a objetos ExpenseItem locales
+     * Los gastos ya llegan tipados desde el API (ExpenseItem.Adapter), sin conversión desde Map
      */
-    public void updateExpensesData(List<Map<String, Object>> backendData) {
+    public void updateExpensesData(List<ExpenseItem> backendData) {
         Log.d(TAG, "updateExpensesData - Recibidos " +
                 (backendData != null ? backendData.size() : 0) + " gastos del backend");
 
         if (backendData == null || backendData.isEmpty()) {
             expenseItems.clear();
-            adapter.notifyDataSetChanged();
+            adapter.updateItems(expenseItems);
             showEmptyState();
             return;
         }
 
-        // Convertir datos del backend a objetos ExpenseItem locales
         expenseItems.clear();
-        for (Map<String, Object> expenseData : backendData) {
-            try {
-                ExpenseItem item = convertBackendDataToExpenseItem(expenseData);
-                if (item != null) {
-                    expenseItems.add(item);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error al convertir dato del backend: " + e.getMessage(), e);
+        for (ExpenseItem item : backendData) {
+            if (item != null) {
+                expenseItems.add(item);
             }
         }
 
-        // Actualizar adapter
-        adapter.notifyDataSetChanged();
-
-        // Actualizar totales en la UI
-        updateTotals();
+        // Actualizar adapter (diff en segundo plano, solo se vinculan las filas cambiadas)
+        // Los totales se actualizan desde el libro (observeLedger)
+        adapter.updateItems(expenseItems);
 
         Log.d(TAG, "updateExpensesData - Procesados " + expenseItems.size() + " gastos exitosamente");
     }
 
     /**
-     * Convertir datos del backend a ExpenseItem local
-     */
-    private ExpenseItem convertBackendDataToExpenseItem(Map<String, Object> data) {
-        ExpenseItem item = new ExpenseItem();
-
-        // Parsear ID
-        Object idObj = data.get("id");
-        if (idObj instanceof Number) {
-            item.setId(((Number) idObj).longValue());
-        }
-
-        // Parsear campos de texto
-        item.setMaterialName(parseStringFromObject(data.get("description")));
-        item.setMaterialCode(parseStringFromObject(data.get("material_code")));
-        item.setUnit(parseStringFromObject(data.get("unit")));
-        item.setSupplierName(parseStringFromObject(data.get("supplier_name")));
-        item.setInvoiceNumber(parseStringFromObject(data.get("invoice_number")));
-
-        // Parsear campos numéricos
-        item.setQuantity(parseDoubleFromObject(data.get("quantity"), 0.0));
-        item.setUnitPrice(parseDoubleFromObject(data.get("unit_price"), 0.0));
-        item.setDiscountPercentage(parseDoubleFromObject(data.get("discount_percentage"), 0.0));
-
-        // Parsear fecha de compra
-        String purchaseDateStr = parseStringFromObject(data.get("purchase_date"));
-        if (purchaseDateStr != null) {
-            try {
-                Date purchaseDate = backendDateFormatter.parse(purchaseDateStr);
-                item.setPurchaseDate(purchaseDate);
-                item.setDisplayDate(displayDateFormatter.format(purchaseDate));
-                item.setDisplayTime(displayTimeFormatter.format(purchaseDate));
-            } catch (ParseException e) {
-                Log.w(TAG, "Error al parsear fecha de compra: " + purchaseDateStr);
-                item.setDisplayDate("Fecha inválida");
-                item.setDisplayTime("--:--");
-            }
-        } else {
-            item.setDisplayDate("Sin fecha");
-            item.setDisplayTime("--:--");
-        }
-
-        return item;
-    }
-
-    private double parseDoubleFromObject(Object obj, double defaultValue) {
-        if (obj == null) return defaultValue;
-        if (obj instanceof Number) return ((Number) obj).doubleValue();
-        if (obj instanceof String) {
-            try {
-                return Double.parseDouble((String) obj);
-            } catch (NumberFormatException e) {
-                Log.w(TAG, "Error al convertir string a double: " + obj);
-                return defaultValue;
-            }
-        }
-        return defaultValue;
-    }
-
-    private String parseStringFromObject(Object obj) {
-        if (obj == null) return null;
-        return obj.toString();
-    }
-
-    /**
-     * Actualizar totales mostrados en la UI
+     * Actualizar totales mostrados en la UI desde el libro de totales
      * IDs VERIFICADOS según fragment_table_expenses_real.xml
      */
-    private void updateTotals() {
-        double subtotal = 0.0;
-        double totalDiscounts = 0.0;
-
-        for (ExpenseItem item : expenseItems) {
-            double itemSubtotal = item.getQuantity() * item.getUnitPrice();
-            double itemDiscount = itemSubtotal * (item.getDiscountPercentage() / 100);
-
-            subtotal += itemSubtotal;
-            totalDiscounts += itemDiscount;
+    private void updateTotals(FinancialLedger.Snapshot totals) {
+        if (binding == null || totals == null) {
+            return;
         }
 
-        double total = subtotal - totalDiscounts;
-
         // Actualizar UI - IDs VERIFICADOS en fragment_table_expenses_real.xml
-        binding.tvSubtotalExpenses.setText(currencyFormat.format(subtotal));
-        binding.tvTotalDiscounts.setText("-" + currencyFormat.format(totalDiscounts));
-        binding.tvTotalExpensesReal.setText(currencyFormat.format(total));
-        binding.tvTotalItemsExpenses.setText(expenseItems.size() + " compras");
+        binding.tvSubtotalExpenses.setText(currencyFormat.format(totals.getExpenseSubtotal()));
+        binding.tvTotalDiscounts.setText("-" + currencyFormat.format(totals.getExpenseDiscounts()));
+        binding.tvTotalExpensesReal.setText(currencyFormat.format(totals.getExpenseTotal()));
+        binding.tvTotalItemsExpenses.setText(totals.getExpenseCount() + " compras");
 
         Log.d(TAG, String.format("Totales actualizados - Items: %d, Subtotal: %.2f, Descuentos: %.2f, Total: %.2f",
-                expenseItems.size(), subtotal, totalDiscounts, total));
+                totals.getExpenseCount(), totals.getExpenseSubtotal(),
+                totals.getExpenseDiscounts(), totals.getExpenseTotal()));
     }
 
     /**
@@ -466,111 +396,4 @@ public class ExpensesRealTableFragment extends Fragment {
         binding = null;
         Log.d(TAG, "Vista destruida");
     }
-
-    // ==========================================
-    // CLASE MODELO LOCAL
-    // ==========================================
-
-    /**
-     * Clase modelo para items de gastos reales
-     * Representa datos locales convertidos desde el backend
-     */
-    public static class ExpenseItem {
-        private long id;
-        private String materialName;
-        private String materialCode;
-        private double quantity;
-        private String unit;
-        private double unitPrice;
-        private double discountPercentage;
-        private String supplierName;
-        private String invoiceNumber;
-        private Date purchaseDate;
-        private String displayDate;
-        private String displayTime;
-
-        // Constructor vacío
-        public ExpenseItem() {}
-
-        // Constructor completo (compatible con adapter)
-        public ExpenseItem(long id, String materialName, String materialCode, double quantity,
-                           String unit, double unitPrice, double discountPercentage,
-                           String supplierName, String invoiceNumber, Date purchaseDate,
-                           String displayDate, String displayTime) {
-            this.id = id;
-            this.materialName = materialName;
-            this.materialCode = materialCode;
-            this.quantity = quantity;
-            this.unit = unit;
-            this.unitPrice = unitPrice;
-            this.discountPercentage = discountPercentage;
-            this.supplierName = supplierName;
-            this.invoiceNumber = invoiceNumber;
-            this.purchaseDate = purchaseDate;
-            this.displayDate = displayDate;
-            this.displayTime = displayTime;
-        }
-
-        // Métodos calculados (requeridos por el adapter)
-        public double getTotalPrice() {
-            double subtotal = quantity * unitPrice;
-            double discount = subtotal * (discountPercentage / 100);
-            return subtotal - discount;
-        }
-
-        public double getDiscountAmount() {
-            double subtotal = quantity * unitPrice;
-            return subtotal * (discountPercentage / 100);
-        }
-
-        // Getters y Setters
-        public long getId() { return id; }
-        public void setId(long id) { this.id = id; }
-
-        public String getMaterialName() { return materialName; }
-        public void setMaterialName(String materialName) { this.materialName = materialName; }
-
-        public String getMaterialCode() { return materialCode; }
-        public void setMaterialCode(String materialCode) { this.materialCode = materialCode; }
-
-        public double getQuantity() { return quantity; }
-        public void setQuantity(double quantity) { this.quantity = quantity; }
-
-        public String getUnit() { return unit; }
-        public void setUnit(String unit) { this.unit = unit; }
-
-        public double getUnitPrice() { return unitPrice; }
-        public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
-
-        public double getDiscountPercentage() { return discountPercentage; }
-        public void setDiscountPercentage(double discountPercentage) { this.discountPercentage = discountPercentage; }
-
-        public String getSupplierName() { return supplierName; }
-        public void setSupplierName(String supplierName) { this.supplierName = supplierName; }
-
-        public String getInvoiceNumber() { return invoiceNumber; }
-        public void setInvoiceNumber(String invoiceNumber) { this.invoiceNumber = invoiceNumber; }
-
-        public Date getPurchaseDate() { return purchaseDate; }
-        public void setPurchaseDate(Date purchaseDate) { this.purchaseDate = purchaseDate; }
-
-        public String getDisplayDate() { return displayDate; }
-        public void setDisplayDate(String displayDate) { this.displayDate = displayDate; }
-
-        public String getDisplayTime() { return displayTime; }
-        public void setDisplayTime(String displayTime) { this.displayTime = displayTime; }
-
-        @Override
-        public String toString() {
-            return "ExpenseItem{" +
-                    "id=" + id +
-                    ", materialName='" + materialName + '\'' +
-                    ", quantity=" + quantity +
-                    ", unitPrice=" + unitPrice +
-                    ", discountPercentage=" + discountPercentage +
-                    ", displayDate='" + displayDate + '\'' +
-                    ", displayTime='" + displayTime + '\'' +
-                    '}';
-        }
-    }
-}
\ No newline at end of file
+}
@@ -30,7 +30,9 @@ import android.widget.Button;
 import android.widget.LinearLayout;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.datepicker.MaterialDatePicker;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
 import com.regenerarestudio.regenerapp.data.models.BudgetItemCreateUpdateRequest;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
 import com.regenerarestudio.regenerapp.data.models.Supplier;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -64,8 +66,8 @@ public class PresupuestosFragment extends Fragment {
     private ExpensesRealTableFragment expensesRealFragment;
 
     // CACHE para datos cuando los fragments no están listos (NUEVA SOLUCIÓN)
-    private List<Map<String, Object>> cachedBudgetData;
-    private List<Map<String, Object>> cachedExpensesData;
+    private List<BudgetItem> cachedBudgetData;
+    private List<ExpenseItem> cachedExpensesData;
 
     // Formatters
     private final NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("es", "EC"));
@@ -265,10 +267,6 @@ public class PresupuestosFragment extends Fragment {
             Log.d(TAG, "Observer: Gastos reales recibidos - Items: " +
                     (expenses != null ? expenses.size() : 0));
 
-            if (expenses != null && !expenses.isEmpty()) {
-                Log.d(TAG, "Observer: Primer gasto real = " + expenses.get(0).toString());
-            }
-
             // Guardar en caché
             cachedExpensesData = expenses;
 
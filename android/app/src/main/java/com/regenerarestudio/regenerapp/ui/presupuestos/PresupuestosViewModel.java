@@ -10,8 +10,16 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.regenerarestudio.regenerapp.data.api.ApiClient;
 import com.regenerarestudio.regenerapp.data.api.ApiService;
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
 import com.regenerarestudio.regenerapp.data.models.Supplier;
+import com.regenerarestudio.regenerapp.data.repository.BudgetRepository;
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
 import com.regenerarestudio.regenerapp.data.responses.PaginatedResponse;
+import com.regenerarestudio.regenerapp.data.sync.MutationOutbox;
+import com.regenerarestudio.regenerapp.data.sync.PendingMutation;
+import com.regenerarestudio.regenerapp.utils.FinancialLedger;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,11 +40,23 @@ public class PresupuestosViewModel extends AndroidViewModel {
     // API Service
     private final ApiService apiService;
 
+    // Repositorio offline-first (caché local + red)
+    private final BudgetRepository budgetRepository;
+
+    // Totales incrementales compartidos con el Dashboard
+    private final FinancialLedger ledger = FinancialLedger.getInstance();
+
+    // Cola offline de escrituras (cambios optimistas)
+    private final MutationOutbox outbox;
+
+    // Peticiones en curso (se cancelan al cambiar de proyecto o cerrar la pantalla)
+    private final CallTracker calls = new CallTracker(TAG);
+
     // LiveData para presupuesto inicial
-    private final MutableLiveData<List<Map<String, Object>>> budgetInitialLiveData = new MutableLiveData<>();
+    private final MutableLiveData<List<BudgetItem>> budgetInitialLiveData = new MutableLiveData<>();
 
     // LiveData para gastos reales
-    private final MutableLiveData<List<Map<String, Object>>> expensesRealLiveData = new MutableLiveData<>();
+    private final MutableLiveData<List<ExpenseItem>> expensesRealLiveData = new MutableLiveData<>();
 
     // Estados de carga (REMOVIDO: isLoadingSummaryLiveData)
     private final MutableLiveData<Boolean> isLoadingBudgetLiveData = new MutableLiveData<>();
@@ -53,6 +73,9 @@ public class PresupuestosViewModel extends AndroidViewModel {
 
         // Inicializar API service
         this.apiService = ApiClient.getApiService();
+        this.budgetRepository = BudgetRepository.getInstance(application);
+        this.outbox = MutationOutbox.getInstance(application);
+        outbox.addListener(outboxListener);
 
         // Inicializar estados
         isLoadingBudgetLiveData.setValue(false);
@@ -66,11 +89,11 @@ public class PresupuestosViewModel extends AndroidViewModel {
     // GETTERS PARA LIVEDATA (REMOVIDO: getFinancialSummary, getIsLoadingSummary)
     // ==========================================
 
-    public LiveData<List<Map<String, Object>>> getBudgetInitial() {
+    public LiveData<List<BudgetItem>> getBudgetInitial() {
         return budgetInitialLiveData;
     }
 
-    public LiveData<List<Map<String, Object>>> getExpensesReal() {
+    public LiveData<List<ExpenseItem>> getExpensesReal() {
         return expensesRealLiveData;
     }
 
@@ -86,6 +109,13 @@ public class PresupuestosViewModel extends AndroidViewModel {
         return errorLiveData;
     }
 
+    /**
+     * Totales de ambas tablas (subtotal, descuentos, por categoría) sin recorrer las listas
+     */
+    public LiveData<FinancialLedger.Snapshot> getLedger() {
+        return ledger.getSnapshot();
+    }
+
     // ==========================================
     // MÉTODOS PRINCIPALES (SIMPLIFICADOS)
     // ==========================================
@@ -100,7 +130,13 @@ public class PresupuestosViewModel extends AndroidViewModel {
             return;
         }
 
+        // Las respuestas del proyecto anterior ya no interesan
+        if (currentProjectId != null && !currentProjectId.equals(projectId)) {
+            calls.cancelAll();
+        }
+
         currentProjectId = projectId;
+        ledger.bindProject(projectId);
 
         Log.d(TAG, "loadAllBudgetData - INICIANDO carga completa para proyecto: " + projectId);
 
@@ -115,7 +151,8 @@ public class PresupuestosViewModel extends AndroidViewModel {
     }
 
     /**
-     * Cargar presupuesto inicial del proyecto
+     * Cargar presupuesto inicial del proyecto (offline-first)
+     * Muestra primero la copia local y luego la del servidor
      * URL: /api/budgets/budget-items/?project={projectId}
      */
     public void loadBudgetInitial(Long projectId) {
@@ -129,44 +166,45 @@ public class PresupuestosViewModel extends AndroidViewModel {
         isLoadingBudgetLiveData.setValue(true);
         errorLiveData.setValue(null);
 
-        Call<PaginatedResponse<Map<String, Object>>> call = apiService.getInitialBudget(projectId);
-
-        call.enqueue(new Callback<PaginatedResponse<Map<String, Object>>>() {
+        calls.attach("budget_items", budgetRepository.loadBudgetItems(projectId, calls.wrap("budget_items", new RepositoryCallback<List<BudgetItem>>() {
             @Override
-            public void onResponse(@NonNull Call<PaginatedResponse<Map<String, Object>>> call,
-                                   @NonNull Response<PaginatedResponse<Map<String, Object>>> response) {
-                isLoadingBudgetLiveData.setValue(false);
-
-                if (response.isSuccessful() && response.body() != null) {
-                    PaginatedResponse<Map<String, Object>> paginatedResponse = response.body();
-                    List<Map<String, Object>> budgetItems = paginatedResponse.getResults();
+            public void onData(List<BudgetItem> budgetItems, boolean fromCache) {
+                if (currentProjectId != null && !projectId.equals(currentProjectId)) {
+                    Log.d(TAG, "Presupuesto de proyecto anterior descartado: " + projectId);
+                    return;
+                }
 
-                    if (budgetItems != null) {
-                        Log.d(TAG, "Presupuesto inicial cargado exitosamente. Items: " + budgetItems.size());
-                        budgetInitialLiveData.setValue(budgetItems);
-                    } else {
-                        Log.w(TAG, "Lista de presupuesto inicial es null");
-                        budgetInitialLiveData.setValue(new ArrayList<>());
-                    }
-                } else {
-                    String error = "Error al cargar presupuesto inicial: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
+                // La copia local no termina la carga: seguimos esperando al servidor
+                if (!fromCache) {
+                    isLoadingBudgetLiveData.setValue(false);
                 }
+
+                Log.d(TAG, "Presupuesto inicial " + (fromCache ? "(caché)" : "(servidor)") +
+                        ". Items: " + budgetItems.size());
+                // Los cambios aún en la cola se mantienen sobre la copia recibida
+                budgetItems = outbox.overlay(budgetItems, projectId,
+                        PendingMutation.RESOURCE_BUDGET_ITEM, BudgetItem.class, BudgetItem::getId);
+                ledger.replaceBudgetItems(projectId, budgetItems);
+                budgetInitialLiveData.setValue(budgetItems);
             }
 
             @Override
-            public void onFailure(@NonNull Call<PaginatedResponse<Map<String, Object>>> call, @NonNull Throwable t) {
+            public void onError(String error, boolean hasCachedData) {
                 isLoadingBudgetLiveData.setValue(false);
-                String error = "Error de conexión al cargar presupuesto inicial: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
+
+                String message = "Error al cargar presupuesto inicial: " + error;
+                Log.e(TAG, message);
+
+                // Con copia local visible, el error de red no bloquea la pantalla
+                if (!hasCachedData) {
+                    errorLiveData.setValue(message);
+                }
             }
-        });
+        })));
     }
 
     /**
-     * Cargar gastos reales del proyecto - CORREGIDO
+     * Cargar gastos reales del proyecto (offline-first)
      * URL: /api/budgets/real-expenses/?project={projectId}
      */
     public void loadExpensesReal(Long projectId) {
@@ -177,333 +215,333 @@ public class PresupuestosViewModel extends AndroidViewModel {
         }
 
         Log.d(TAG, "loadExpensesReal - INICIANDO carga para proyecto: " + projectId);
-        Log.d(TAG, "loadExpensesReal - URL que se llamará: budgets/real-expenses/?project=" + projectId);
 
         isLoadingExpensesLiveData.setValue(true);
         errorLiveData.setValue(null);
 
-        Call<PaginatedResponse<Map<String, Object>>> call = apiService.getExpenses(projectId);
-
-        // LOG ADICIONAL: Verificar la URL real que se va a llamar
-        Log.d(TAG, "loadExpensesReal - Request URL: " + call.request().url().toString());
-
-        call.enqueue(new Callback<PaginatedResponse<Map<String, Object>>>() {
+        calls.attach("expenses", budgetRepository.loadExpenses(projectId, calls.wrap("expenses", new RepositoryCallback<List<ExpenseItem>>() {
             @Override
-            public void onResponse(@NonNull Call<PaginatedResponse<Map<String, Object>>> call,
-                                   @NonNull Response<PaginatedResponse<Map<String, Object>>> response) {
-                isLoadingExpensesLiveData.setValue(false);
-
-                Log.d(TAG, "loadExpensesReal - Respuesta HTTP código: " + response.code());
-                Log.d(TAG, "loadExpensesReal - Respuesta exitosa: " + response.isSuccessful());
-                Log.d(TAG, "loadExpensesReal - Body es null: " + (response.body() == null));
-
-                if (response.isSuccessful() && response.body() != null) {
-                    PaginatedResponse<Map<String, Object>> paginatedResponse = response.body();
-                    List<Map<String, Object>> expenses = paginatedResponse.getResults();
-
-                    Log.d(TAG, "loadExpensesReal - Paginación: count=" + paginatedResponse.getCount() +
-                            ", next=" + paginatedResponse.getNext() +
-                            ", previous=" + paginatedResponse.getPrevious());
-
-                    if (expenses != null) {
-                        Log.d(TAG, "loadExpensesReal - ✅ Gastos cargados exitosamente. Items: " + expenses.size());
-
-                        // LOG ADICIONAL: Mostrar contenido del primer gasto si existe
-                        if (!expenses.isEmpty()) {
-                            Log.d(TAG, "loadExpensesReal - Primer gasto: " + expenses.get(0).toString());
-                        }
+            public void onData(List<ExpenseItem> expenses, boolean fromCache) {
+                if (currentProjectId != null && !projectId.equals(currentProjectId)) {
+                    Log.d(TAG, "loadExpensesReal - Gastos de proyecto anterior descartados: " + projectId);
+                    return;
+                }
 
-                        expensesRealLiveData.setValue(expenses);
-                        Log.d(TAG, "loadExpensesReal - Datos asignados a LiveData");
-                    } else {
-                        Log.w(TAG, "loadExpensesReal - Lista de gastos reales es null");
-                        expensesRealLiveData.setValue(new ArrayList<>());
-                    }
-                } else {
-                    String error = "Error al cargar gastos reales: " + response.code();
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            Log.e(TAG, "loadExpensesReal - Error body: " + errorBody);
-                            error += " - " + errorBody;
-                        } catch (Exception e) {
-                            Log.e(TAG, "loadExpensesReal - Error al leer error body", e);
-                        }
-                    }
-                    Log.e(TAG, "loadExpensesReal - " + error);
-                    errorLiveData.setValue(error);
+                if (!fromCache) {
+                    isLoadingExpensesLiveData.setValue(false);
                 }
+
+                Log.d(TAG, "loadExpensesReal - Gastos " + (fromCache ? "(caché)" : "(servidor)") +
+                        ". Items: " + expenses.size());
+                expenses = outbox.overlay(expenses, projectId,
+                        PendingMutation.RESOURCE_EXPENSE, ExpenseItem.class, ExpenseItem::getId);
+                ledger.replaceExpenses(projectId, expenses);
+                expensesRealLiveData.setValue(expenses);
             }
 
             @Override
-            public void onFailure(@NonNull Call<PaginatedResponse<Map<String, Object>>> call, @NonNull Throwable t) {
+            public void onError(String error, boolean hasCachedData) {
                 isLoadingExpensesLiveData.setValue(false);
-                String error = "Error de conexión al cargar gastos reales: " + t.getMessage();
-                Log.e(TAG, "loadExpensesReal - FAILURE: " + error, t);
-                Log.e(TAG, "loadExpensesReal - Request URL que falló: " + call.request().url().toString());
-                errorLiveData.setValue(error);
+
+                String message = "Error al cargar gastos reales: " + error;
+                Log.e(TAG, "loadExpensesReal - " + message);
+
+                if (!hasCachedData) {
+                    errorLiveData.setValue(message);
+                }
             }
-        });
+        })));
     }
 
     // ==========================================
-    // MÉTODOS CRUD (SIN REFRESH DE RESUMEN FINANCIERO) - CORREGIDOS
+    // MÉTODOS CRUD (OPTIMISTAS + COLA OFFLINE)
     // ==========================================
 
     /**
-     * Agregar item al presupuesto inicial - SIN REFRESH AUTOMÁTICO DE RESUMEN - CORREGIDO
+     * Agregar item al presupuesto inicial
+     * El item aparece al instante (ID temporal) y se envía por la cola offline
      * POST /api/budgets/budget-items/
      */
     public void addItemToBudget(Map<String, Object> budgetItem) {
-        Log.d(TAG, "Agregando item al presupuesto");
-
-        isLoadingBudgetLiveData.setValue(true);
+        Log.d(TAG, "Agregando item al presupuesto (optimista)");
         errorLiveData.setValue(null);
 
-        Call<Map<String, Object>> call = apiService.addToBudget(budgetItem);
-
-        call.enqueue(new Callback<Map<String, Object>>() {
-            @Override
-            public void onResponse(@NonNull Call<Map<String, Object>> call,
-                                   @NonNull Response<Map<String, Object>> response) {
-                isLoadingBudgetLiveData.setValue(false);
-
-                if (response.isSuccessful()) {
-                    Log.d(TAG, "✅ Item agregado al presupuesto exitosamente");
-
-                    // Recargar presupuesto inicial
-                    if (currentProjectId != null) {
-                        loadBudgetInitial(currentProjectId);
-                    }
-                } else {
-                    String error = "Error al agregar item al presupuesto: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
-                }
+        long temporaryId = outbox.newTemporaryId();
+        BudgetItem local = outbox.toLocalItem(budgetItem, temporaryId, BudgetItem.class);
+        if (local != null) {
+            if (local.getProjectId() == null) {
+                local.setProjectId(currentProjectId);
             }
+            replaceBudgetItemLocally(temporaryId, local);
+        }
 
-            @Override
-            public void onFailure(@NonNull Call<Map<String, Object>> call, @NonNull Throwable t) {
-                isLoadingBudgetLiveData.setValue(false);
-                String error = "Error de conexión al agregar item: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
-            }
-        });
+        outbox.enqueue(new PendingMutation(PendingMutation.RESOURCE_BUDGET_ITEM, PendingMutation.OP_CREATE,
+                projectIdOf(budgetItem), temporaryId, budgetItem, null));
     }
 
     /**
-     * Actualizar item del presupuesto inicial - SIN REFRESH AUTOMÁTICO DE RESUMEN
+     * Actualizar item del presupuesto inicial (optimista)
      * PUT /api/budgets/budget-items/{id}/
      */
     public void updateBudgetItem(Long budgetItemId, Map<String, Object> budgetItem) {
-        Log.d(TAG, "Actualizando item del presupuesto ID: " + budgetItemId);
-
-        isLoadingBudgetLiveData.setValue(true);
+        Log.d(TAG, "Actualizando item del presupuesto ID: " + budgetItemId + " (optimista)");
         errorLiveData.setValue(null);
 
-        Call<Map<String, Object>> call = apiService.updateBudgetItem(budgetItemId, budgetItem);
-
-        call.enqueue(new Callback<Map<String, Object>>() {
-            @Override
-            public void onResponse(@NonNull Call<Map<String, Object>> call,
-                                   @NonNull Response<Map<String, Object>> response) {
-                isLoadingBudgetLiveData.setValue(false);
-
-                if (response.isSuccessful()) {
-                    Log.d(TAG, "✅ Item del presupuesto actualizado exitosamente");
+        BudgetItem current = findById(budgetInitialLiveData.getValue(), BudgetItem::getId, budgetItemId);
+        String baseVersion = current != null ? current.getUpdatedAt() : null;
 
-                    // Recargar presupuesto inicial
-                    if (currentProjectId != null) {
-                        loadBudgetInitial(currentProjectId);
-                    }
-                } else {
-                    String error = "Error al actualizar item del presupuesto: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
-                }
+        // La fila optimista conserva la versión del servidor para la próxima edición
+        BudgetItem local = outbox.toLocalItem(budgetItem, budgetItemId, baseVersion, BudgetItem.class);
+        if (local != null) {
+            if (local.getProjectId() == null) {
+                local.setProjectId(currentProjectId);
             }
+            replaceBudgetItemLocally(budgetItemId, local);
+        }
 
-            @Override
-            public void onFailure(@NonNull Call<Map<String, Object>> call, @NonNull Throwable t) {
-                isLoadingBudgetLiveData.setValue(false);
-                String error = "Error de conexión al actualizar item: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
-            }
-        });
+        outbox.enqueue(new PendingMutation(PendingMutation.RESOURCE_BUDGET_ITEM, PendingMutation.OP_UPDATE,
+                projectIdOf(budgetItem), budgetItemId, budgetItem, baseVersion));
     }
 
     /**
-     * Eliminar item del presupuesto inicial - SIN REFRESH AUTOMÁTICO DE RESUMEN
+     * Eliminar item del presupuesto inicial (optimista)
      * DELETE /api/budgets/budget-items/{id}/
      */
     public void deleteBudgetItem(Long budgetItemId) {
-        Log.d(TAG, "Eliminando item del presupuesto ID: " + budgetItemId);
-
-        isLoadingBudgetLiveData.setValue(true);
+        Log.d(TAG, "Eliminando item del presupuesto ID: " + budgetItemId + " (optimista)");
         errorLiveData.setValue(null);
 
-        Call<Void> call = apiService.deleteBudgetItem(budgetItemId);
-
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
-                isLoadingBudgetLiveData.setValue(false);
-
-                if (response.isSuccessful()) {
-                    Log.d(TAG, "✅ Item del presupuesto eliminado exitosamente");
-
-                    // Recargar presupuesto inicial
-                    if (currentProjectId != null) {
-                        loadBudgetInitial(currentProjectId);
-                    }
-                } else {
-                    String error = "Error al eliminar item del presupuesto: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<Void> call, @NonNull Throwable t) {
-                isLoadingBudgetLiveData.setValue(false);
-                String error = "Error de conexión al eliminar item: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
-            }
-        });
+        replaceBudgetItemLocally(budgetItemId, null);
+        outbox.enqueue(new PendingMutation(PendingMutation.RESOURCE_BUDGET_ITEM, PendingMutation.OP_DELETE,
+                currentProjectId, budgetItemId, null, null));
     }
 
     /**
-     * Agregar gasto real - SIN REFRESH AUTOMÁTICO DE RESUMEN - CORREGIDO
+     * Agregar gasto real (optimista, funciona sin señal)
      * POST /api/budgets/real-expenses/
      */
     public void addExpenseReal(Map<String, Object> expense) {
-        Log.d(TAG, "Agregando gasto real");
+        Log.d(TAG, "Agregando gasto real (optimista)");
+        errorLiveData.setValue(null);
 
-        isLoadingExpensesLiveData.setValue(true);
+        long temporaryId = outbox.newTemporaryId();
+        ExpenseItem local = outbox.toLocalItem(expense, temporaryId, ExpenseItem.class);
+        if (local != null) {
+            replaceExpenseLocally(temporaryId, local);
+        }
+
+        outbox.enqueue(new PendingMutation(PendingMutation.RESOURCE_EXPENSE, PendingMutation.OP_CREATE,
+                projectIdOf(expense), temporaryId, expense, null));
+    }
+
+    /**
+     * Actualizar gasto real (optimista)
+     * PUT /api/budgets/real-expenses/{id}/
+     */
+    public void updateExpenseReal(Long expenseId, Map<String, Object> expense) {
+        Log.d(TAG, "Actualizando gasto real ID: " + expenseId + " (optimista)");
         errorLiveData.setValue(null);
 
-        Call<Map<String, Object>> call = apiService.addExpense(expense);
+        ExpenseItem current = findById(expensesRealLiveData.getValue(), ExpenseItem::getId, expenseId);
+        String baseVersion = current != null ? current.getUpdatedAt() : null;
 
-        call.enqueue(new Callback<Map<String, Object>>() {
-            @Override
-            public void onResponse(@NonNull Call<Map<String, Object>> call,
-                                   @NonNull Response<Map<String, Object>> response) {
-                isLoadingExpensesLiveData.setValue(false);
+        ExpenseItem local = outbox.toLocalItem(expense, expenseId, baseVersion, ExpenseItem.class);
+        if (local != null) {
+            replaceExpenseLocally(expenseId, local);
+        }
 
-                if (response.isSuccessful()) {
-                    Log.d(TAG, "✅ Gasto agregado exitosamente");
+        outbox.enqueue(new PendingMutation(PendingMutation.RESOURCE_EXPENSE, PendingMutation.OP_UPDATE,
+                projectIdOf(expense), expenseId, expense, baseVersion));
+    }
 
-                    // Recargar gastos reales
-                    if (currentProjectId != null) {
-                        loadExpensesReal(currentProjectId);
-                    }
-                } else {
-                    String error = "Error al agregar gasto: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
-                }
-            }
+    /**
+     * Eliminar gasto real (optimista)
+     * DELETE /api/budgets/real-expenses/{id}/
+     */
+    public void deleteExpenseReal(Long expenseId) {
+        Log.d(TAG, "Eliminando gasto real ID: " + expenseId + " (optimista)");
+        errorLiveData.setValue(null);
 
-            @Override
-            public void onFailure(@NonNull Call<Map<String, Object>> call, @NonNull Throwable t) {
-                isLoadingExpensesLiveData.setValue(false);
-                String error = "Error de conexión al agregar gasto: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
-            }
-        });
+        replaceExpenseLocally(expenseId, null);
+        outbox.enqueue(new PendingMutation(PendingMutation.RESOURCE_EXPENSE, PendingMutation.OP_DELETE,
+                currentProjectId, expenseId, null, null));
     }
 
     /**
-     * Actualizar gasto real - SIN REFRESH AUTOMÁTICO DE RESUMEN - CORREGIDO
-     * PUT /api/budgets/real-expenses/{id}/
+     * Escrituras pendientes de enviar (sin señal o en curso)
      */
-    public void updateExpenseReal(Long expenseId, Map<String, Object> expense) {
-        Log.d(TAG, "Actualizando gasto real ID: " + expenseId);
+    public LiveData<Integer> getPendingWrites() {
+        return outbox.getPendingCount();
+    }
 
-        isLoadingExpensesLiveData.setValue(true);
-        errorLiveData.setValue(null);
+    // ==========================================
+    // APLICACIÓN LOCAL Y RESULTADOS DE LA COLA
+    // ==========================================
 
-        Call<Map<String, Object>> call = apiService.updateExpense(expenseId, expense);
+    /**
+     * Reemplazar (o agregar) un item en la tabla y en los totales; item null = eliminar
+     */
+    private void replaceBudgetItemLocally(Long itemId, BudgetItem item) {
+        budgetInitialLiveData.setValue(replaceById(budgetInitialLiveData.getValue(), BudgetItem::getId, itemId, item));
+        ledger.removeBudgetItem(itemId);
+        if (item != null) {
+            ledger.putBudgetItem(item);
+        }
+    }
 
-        call.enqueue(new Callback<Map<String, Object>>() {
-            @Override
-            public void onResponse(@NonNull Call<Map<String, Object>> call,
-                                   @NonNull Response<Map<String, Object>> response) {
-                isLoadingExpensesLiveData.setValue(false);
+    private void replaceExpenseLocally(Long expenseId, ExpenseItem expense) {
+        expensesRealLiveData.setValue(replaceById(expensesRealLiveData.getValue(), ExpenseItem::getId, expenseId, expense));
+        ledger.removeExpense(expenseId);
+        if (expense != null) {
+            ledger.putExpense(expense);
+        }
+    }
 
-                if (response.isSuccessful()) {
-                    Log.d(TAG, "✅ Gasto actualizado exitosamente");
+    private final MutationOutbox.Listener outboxListener = new MutationOutbox.Listener() {
+        @Override
+        public void onMutationApplied(@NonNull PendingMutation mutation, Object serverRow) {
+            Long projectId = mutation.getProjectId();
 
-                    // Recargar gastos reales
-                    if (currentProjectId != null) {
-                        loadExpensesReal(currentProjectId);
-                    }
+            // La respuesta trae la fila canónica: se reemplaza solo esa fila (sin recargar el listado)
+            if (serverRow instanceof BudgetItem) {
+                BudgetItem row = (BudgetItem) serverRow;
+                if (row.getProjectId() == null) {
+                    row.setProjectId(projectId);
+                }
+                budgetRepository.saveBudgetItemRow(projectId, null, row);
+                if (isCurrentProject(projectId)) {
+                    spliceBudgetItem(mutation.getTargetId(), row.getId(),
+                            outbox.overlayRow(row, PendingMutation.RESOURCE_BUDGET_ITEM, BudgetItem.class, BudgetItem::getId));
+                }
+            } else if (serverRow instanceof ExpenseItem) {
+                ExpenseItem row = (ExpenseItem) serverRow;
+                if (row.getProjectId() == null) {
+                    row.setProjectId(projectId);
+                }
+                budgetRepository.saveExpenseRow(projectId, null, row);
+                if (isCurrentProject(projectId)) {
+                    spliceExpense(mutation.getTargetId(), row.getId(),
+                            outbox.overlayRow(row, PendingMutation.RESOURCE_EXPENSE, ExpenseItem.class, ExpenseItem::getId));
+                }
+            } else if (mutation.isDelete()) {
+                // La fila ya se quitó de la pantalla al encolar; solo falta la copia local
+                if (mutation.isBudgetItem()) {
+                    budgetRepository.saveBudgetItemRow(projectId, mutation.getTargetId(), null);
                 } else {
-                    String error = "Error al actualizar gasto real: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
+                    budgetRepository.saveExpenseRow(projectId, mutation.getTargetId(), null);
                 }
             }
+        }
 
-            @Override
-            public void onFailure(@NonNull Call<Map<String, Object>> call, @NonNull Throwable t) {
-                isLoadingExpensesLiveData.setValue(false);
-                String error = "Error de conexión al actualizar gasto: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
+        @Override
+        public void onMutationConflict(@NonNull PendingMutation mutation, int httpCode, @NonNull String message) {
+            String what = mutation.isBudgetItem() ? "item del presupuesto" : "gasto";
+            String error = "No se pudo guardar el " + what + " (" + describe(mutation, httpCode) + "): " + message;
+            Log.e(TAG, error);
+            errorLiveData.setValue(error);
+
+            // Recargar para deshacer el cambio local rechazado
+            if (currentProjectId != null && currentProjectId.equals(mutation.getProjectId())) {
+                if (mutation.isBudgetItem()) {
+                    loadBudgetInitial(currentProjectId);
+                } else {
+                    loadExpensesReal(currentProjectId);
+                }
             }
-        });
+        }
+    };
+
+    private boolean isCurrentProject(Long projectId) {
+        return currentProjectId != null && currentProjectId.equals(projectId);
     }
 
     /**
-     * Eliminar gasto real - SIN REFRESH AUTOMÁTICO DE RESUMEN - CORREGIDO
-     * DELETE /api/budgets/real-expenses/{id}/
+     * Poner la fila del servidor en el lugar de la fila local (misma posición)
+     *
+     * @param localId  ID con el que se muestra la fila (temporal si era una creación)
+     * @param serverId ID real de la fila
+     * @param row      fila a mostrar (null si tiene una eliminación pendiente)
      */
-    public void deleteExpenseReal(Long expenseId) {
-        Log.d(TAG, "Eliminando gasto real ID: " + expenseId);
+    private void spliceBudgetItem(Long localId, Long serverId, BudgetItem row) {
+        List<BudgetItem> items = budgetInitialLiveData.getValue();
+        if (serverId != null && !serverId.equals(localId)) {
+            // Una recarga pudo haber traído ya la fila con su ID real
+            items = replaceById(items, BudgetItem::getId, serverId, null);
+            ledger.removeBudgetItem(serverId);
+        }
+        budgetInitialLiveData.setValue(replaceById(items, BudgetItem::getId, localId, row));
+        ledger.removeBudgetItem(localId);
+        if (row != null) {
+            ledger.putBudgetItem(row);
+        }
+    }
 
-        isLoadingExpensesLiveData.setValue(true);
-        errorLiveData.setValue(null);
+    private void spliceExpense(Long localId, Long serverId, ExpenseItem row) {
+        List<ExpenseItem> items = expensesRealLiveData.getValue();
+        if (serverId != null && !serverId.equals(localId)) {
+            items = replaceById(items, ExpenseItem::getId, serverId, null);
+            ledger.removeExpense(serverId);
+        }
+        expensesRealLiveData.setValue(replaceById(items, ExpenseItem::getId, localId, row));
+        ledger.removeExpense(localId);
+        if (row != null) {
+            ledger.putExpense(row);
+        }
+    }
 
-        Call<Void> call = apiService.deleteExpense(expenseId);
+    private static String describe(PendingMutation mutation, int httpCode) {
+        if (httpCode == 409) return "otro usuario lo modificó";
+        if (httpCode == 404) return "ya no existe";
+        if (httpCode == 400) return "datos rechazados";
+        return mutation.getOperation() + (httpCode > 0 ? " HTTP " + httpCode : "");
+    }
 
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
-                isLoadingExpensesLiveData.setValue(false);
+    private Long projectIdOf(Map<String, Object> payload) {
+        Object project = payload != null ? payload.get("project") : null;
+        if (project instanceof Number) {
+            return ((Number) project).longValue();
+        }
+        return currentProjectId;
+    }
 
-                if (response.isSuccessful()) {
-                    Log.d(TAG, "✅ Gasto eliminado exitosamente");
+    private static <T> T findById(List<T> items, MutationOutbox.IdExtractor<T> ids, Long id) {
+        if (items == null || id == null) return null;
+        for (T item : items) {
+            if (id.equals(ids.idOf(item))) {
+                return item;
+            }
+        }
+        return null;
+    }
 
-                    // Recargar gastos reales
-                    if (currentProjectId != null) {
-                        loadExpensesReal(currentProjectId);
-                    }
+    /**
+     * Copia de la lista con el item reemplazado, agregado o eliminado (item null)
+     */
+    private static <T> List<T> replaceById(List<T> items, MutationOutbox.IdExtractor<T> ids, Long id, T item) {
+        List<T> result = items != null ? new ArrayList<>(items) : new ArrayList<>();
+        for (int i = 0; i < result.size(); i++) {
+            if (id != null && id.equals(ids.idOf(result.get(i)))) {
+                if (item != null) {
+                    result.set(i, item);
                 } else {
-                    String error = "Error al eliminar gasto real: " + response.code();
-                    Log.e(TAG, error);
-                    errorLiveData.setValue(error);
+                    result.remove(i);
                 }
+                return result;
             }
-
-            @Override
-            public void onFailure(@NonNull Call<Void> call, @NonNull Throwable t) {
-                isLoadingExpensesLiveData.setValue(false);
-                String error = "Error de conexión al eliminar gasto: " + t.getMessage();
-                Log.e(TAG, error, t);
-                errorLiveData.setValue(error);
-            }
-        });
+        }
+        if (item != null) {
+            result.add(item);
+        }
+        return result;
     }
 
     /**
      * Refrescar todos los datos - SIMPLIFICADO
      */
     public void refreshAllData() {
+        // Aprovechar el refresco para reenviar escrituras pendientes
+        outbox.retryNow();
+
         if (currentProjectId != null) {
             Log.d(TAG, "Refrescando todos los datos para proyecto: " + currentProjectId);
             loadAllBudgetData(currentProjectId);
@@ -518,6 +556,7 @@ public class PresupuestosViewModel extends AndroidViewModel {
     public void clearData() {
         Log.d(TAG, "Limpiando datos de presupuestos");
 
+        calls.cancelAll();
         budgetInitialLiveData.setValue(null);
         expensesRealLiveData.setValue(null);
         errorLiveData.setValue(null);
@@ -555,10 +594,13 @@ public class PresupuestosViewModel extends AndroidViewModel {
                 null,    // supplier_type
                 null,    // city
                 null,    // is_preferred
-                true     // is_active (solo proveedores activos)
+                true,    // is_active (solo proveedores activos)
+                null,    // page
+                null     // page_size
         );
 
-        call.enqueue(new Callback<PaginatedResponse<Supplier>>() {
+        // Varias pantallas piden la misma lista al mismo tiempo: una sola llamada compartida
+        calls.enqueueShared("suppliers", "suppliers:active", call, new Callback<PaginatedResponse<Supplier>>() {
             @Override
             public void onResponse(@NonNull Call<PaginatedResponse<Supplier>> call,
                                    @NonNull Response<PaginatedResponse<Supplier>> response) {
@@ -596,7 +638,7 @@ public class PresupuestosViewModel extends AndroidViewModel {
 
         Call<Supplier> call = apiService.getSupplier(supplierId);
 
-        call.enqueue(new Callback<Supplier>() {
+        calls.enqueueShared("supplier", "suppliers:" + supplierId, call, new Callback<Supplier>() {
             @Override
             public void onResponse(@NonNull Call<Supplier> call, @NonNull Response<Supplier> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -617,4 +659,11 @@ public class PresupuestosViewModel extends AndroidViewModel {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        outbox.removeListener(outboxListener);
+        calls.release();
+    }
+}
@@ -1,18 +1,240 @@
 package com.regenerarestudio.regenerapp.ui.proveedores;
 
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
-public class ProveedoresViewModel extends ViewModel {
-    private final MutableLiveData<String> mText;
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
+import com.regenerarestudio.regenerapp.data.models.Supplier;
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
+import com.regenerarestudio.regenerapp.data.repository.SupplierRepository;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+import com.regenerarestudio.regenerapp.utils.SearchText;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ViewModel del directorio de Proveedores
+ * La lista se carga una vez (copia local primero) y se convierte en filas con claves precalculadas;
+ * búsqueda, chips y orden se aplican en segundo plano sobre esa copia, sin volver a la red.
+ */
+public class ProveedoresViewModel extends AndroidViewModel {
+
+    private static final String TAG = "ProveedoresViewModel";
+
+    // Criterios de orden (mismo orden que el diálogo de la pantalla)
+    public static final int SORT_RATING = 0;
+    public static final int SORT_CITY = 1;
+    public static final int SORT_NAME = 2;
+    public static final int SORT_PREFERRED = 3;
+    public static final int SORT_DELIVERY = 4;
+
+    // Espera tras la última tecla antes de filtrar
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
+    private static final Comparator<SupplierListItem> BY_NAME =
+            Comparator.comparing(SupplierListItem::getNameKey);
+
+    private final SupplierRepository supplierRepository;
+
+    // Peticiones en curso (se cancelan en onCleared)
+    private final CallTracker calls = new CallTracker(TAG);
+
+    // LiveData
+    private final MutableLiveData<List<SupplierListItem>> suppliersLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> loadingLiveData = new MutableLiveData<>(false);
+    private final MutableLiveData<String> errorLiveData = new MutableLiveData<>();
+
+    // Filas completas (sin filtrar); se reemplaza entera al llegar una lista nueva
+    private volatile List<SupplierListItem> allItems;
+
+    // Filtros actuales
+    private String currentQuery = "";
+    private String currentCategory = SupplierListItem.CATEGORY_ALL;
+    private int currentSort = SORT_RATING;
+
+    // Búsqueda con debounce; solo se publica el resultado del filtrado más reciente
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledFilter = this::applyFilters;
+    private final AtomicLong filterGeneration = new AtomicLong();
+
+    public ProveedoresViewModel(@NonNull Application application) {
+        super(application);
+        this.supplierRepository = SupplierRepository.getInstance(application);
+
+        loadSuppliers();
+    }
+
+    // ==========================================
+    // GETTERS LIVEDATA
+    // ==========================================
+
+    public LiveData<List<SupplierListItem>> getSuppliers() {
+        return suppliersLiveData;
+    }
+
+    public LiveData<Boolean> getIsLoading() {
+        return loadingLiveData;
+    }
+
+    public LiveData<String> getError() {
+        return errorLiveData;
+    }
+
+    // ==========================================
+    // CARGA
+    // ==========================================
+
+    /**
+     * Cargar el directorio (copia local y luego la del servidor)
+     */
+    public void loadSuppliers() {
+        loadingLiveData.setValue(allItems == null);
+
+        calls.attach("suppliers", supplierRepository.loadSuppliers(calls.wrap("suppliers", new RepositoryCallback<List<Supplier>>() {
+            @Override
+            public void onData(List<Supplier> suppliers, boolean fromCache) {
+                Log.d(TAG, "Proveedores " + (fromCache ? "en caché" : "del servidor") + ": " + suppliers.size());
+                if (!fromCache) {
+                    loadingLiveData.setValue(false);
+                }
+                setSuppliers(suppliers);
+            }
+
+            @Override
+            public void onError(String error, boolean hasCachedData) {
+                Log.e(TAG, "Error cargando proveedores: " + error);
+                loadingLiveData.setValue(false);
+                if (!hasCachedData) {
+                    errorLiveData.setValue(error);
+                }
+            }
+        })));
+    }
+
+    /**
+     * Convertir la lista en filas fuera del hilo principal y volver a filtrar
+     */
+    private void setSuppliers(List<Supplier> suppliers) {
+        List<Supplier> snapshot = new ArrayList<>(suppliers);
+        AppExecutors.background().execute(() -> {
+            List<SupplierListItem> items = new ArrayList<>(snapshot.size());
+            for (Supplier supplier : snapshot) {
+                items.add(SupplierListItem.from(supplier));
+            }
+            AppExecutors.mainThread().execute(() -> {
+                allItems = Collections.unmodifiableList(items);
+                applyFilters();
+            });
+        });
+    }
+
+    // ==========================================
+    // FILTROS Y ORDEN
+    // ==========================================
+
+    /**
+     * Cambiar el texto buscado (se filtra tras una breve pausa al escribir)
+     */
+    public void setQuery(String query) {
+        String normalized = SearchText.normalize(query);
+        if (normalized.equals(currentQuery)) {
+            return;
+        }
+        currentQuery = normalized;
+        searchHandler.removeCallbacks(scheduledFilter);
+        searchHandler.postDelayed(scheduledFilter, SEARCH_DEBOUNCE_MS);
+    }
+
+    public void setCategory(@NonNull String category) {
+        if (category.equals(currentCategory)) {
+            return;
+        }
+        currentCategory = category;
+        applyFilters();
+    }
+
+    public void setSort(int sort) {
+        if (sort == currentSort) {
+            return;
+        }
+        currentSort = sort;
+        applyFilters();
+    }
+
+    /**
+     * Filtrar y ordenar en segundo plano; un resultado superado por otro filtrado se descarta
+     */
+    private void applyFilters() {
+        searchHandler.removeCallbacks(scheduledFilter);
+
+        List<SupplierListItem> items = allItems;
+        if (items == null) {
+            return;
+        }
+
+        long generation = filterGeneration.incrementAndGet();
+        String[] words = SearchText.words(currentQuery);
+        String category = currentCategory;
+        Comparator<SupplierListItem> order = comparatorFor(currentSort);
+
+        AppExecutors.background().execute(() -> {
+            List<SupplierListItem> filtered = new ArrayList<>();
+            for (SupplierListItem item : items) {
+                if (item.matches(words, category)) {
+                    filtered.add(item);
+                }
+            }
+            filtered.sort(order);
+
+            AppExecutors.mainThread().execute(() -> {
+                if (generation == filterGeneration.get()) {
+                    suppliersLiveData.setValue(filtered);
+                }
+            });
+        });
+    }
+
+    private static Comparator<SupplierListItem> comparatorFor(int sort) {
+        switch (sort) {
+            case SORT_CITY:
+                return Comparator.comparing(SupplierListItem::getCityKey).thenComparing(BY_NAME);
+            case SORT_NAME:
+                return BY_NAME;
+            case SORT_PREFERRED:
+                return Comparator.comparing(SupplierListItem::isPreferred).reversed()
+                        .thenComparing(Comparator.comparingInt(SupplierListItem::getRating).reversed())
+                        .thenComparing(BY_NAME);
+            case SORT_DELIVERY:
+                return Comparator.comparing(SupplierListItem::getDeliveryTime).thenComparing(BY_NAME);
+            case SORT_RATING:
+            default:
+                return Comparator.comparingInt(SupplierListItem::getRating).reversed().thenComparing(BY_NAME);
+        }
+    }
+
+    public String getCurrentCategory() {
+        return currentCategory;
+    }
 
-    public ProveedoresViewModel() {
-        mText = new MutableLiveData<>();
-        mText.setValue("Gestión de proveedores locales con ratings y contacto");
+    public int getCurrentSort() {
+        return currentSort;
     }
 
-    public LiveData<String> getText() {
-        return mText;
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        searchHandler.removeCallbacksAndMessages(null);
+        calls.release();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,187 @@
+package com.regenerarestudio.regenerapp.ui.proveedores;
+
+import androidx.annotation.NonNull;
+
+import com.regenerarestudio.regenerapp.data.models.Supplier;
+import com.regenerarestudio.regenerapp.utils.SearchText;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Fila de la lista de Proveedores
+ * Se arma una vez por proveedor al llegar la lista (fuera del hilo principal), con las claves
+ * de búsqueda y orden ya normalizadas: filtrar en cada tecla solo compara cadenas.
+ */
+public class SupplierListItem {
+
+    // Filtros de la pantalla (chips)
+    public static final String CATEGORY_ALL = "todos";
+    public static final String CATEGORY_CONSTRUCTION = "construccion";
+    public static final String CATEGORY_LIGHTING = "iluminacion";
+    public static final String CATEGORY_ELECTRICAL = "electrico";
+    public static final String CATEGORY_FINISHES = "acabados";
+    public static final String CATEGORY_OTHERS = "otros";
+
+    private static final String NO_DATA = "—";
+
+    private final long id;
+    private final String name;
+    private final String category;
+    private final String specialties;
+    private final String location;
+    private final int rating;
+    private final String deliveryTime;
+    private final String paymentTerms;
+    private final Boolean offersDelivery;
+    private final boolean preferred;
+    private final String phoneNumber;
+    private final String whatsappUrl;
+
+    // Claves precalculadas
+    private final String searchKey;    // nombre, especialidades y ubicación normalizados
+    private final String categoryKeys; // " construccion acabados " (para contains)
+    private final String nameKey;
+    private final String cityKey;
+
+    private SupplierListItem(Supplier supplier) {
+        this.id = supplier.getId() != null ? supplier.getId() : 0L;
+        this.name = supplier.getDisplayName() != null ? supplier.getDisplayName() : "";
+        this.category = categoryOf(supplier.getSupplierType());
+        this.specialties = specialtiesOf(supplier);
+        this.location = locationOf(supplier);
+        this.rating = supplier.getRating() != null ? supplier.getRating() : 0;
+        this.deliveryTime = orNoData(supplier.getDeliveryTime());
+        this.paymentTerms = orNoData(supplier.getPaymentTerms());
+        this.offersDelivery = supplier.getOffersDelivery();
+        this.preferred = Boolean.TRUE.equals(supplier.getIsPreferred());
+        this.phoneNumber = supplier.getFormattedPhone();
+        this.whatsappUrl = whatsappUrlOf(supplier);
+
+        String legalName = supplier.getName() != null ? supplier.getName() : "";
+        this.searchKey = SearchText.normalize(name + " " + legalName + " " + specialties + " " + location);
+        this.categoryKeys = categoryKeysOf(supplier.getSupplierType(), SearchText.normalize(specialties));
+        this.nameKey = SearchText.normalize(name);
+        this.cityKey = SearchText.normalize(supplier.getCity());
+    }
+
+    @NonNull
+    public static SupplierListItem from(@NonNull Supplier supplier) {
+        return new SupplierListItem(supplier);
+    }
+
+    /**
+     * ¿Coincide con todas las palabras buscadas (ya normalizadas) y con el chip elegido?
+     */
+    public boolean matches(@NonNull String[] queryWords, @NonNull String categoryFilter) {
+        if (!CATEGORY_ALL.equals(categoryFilter) && !categoryKeys.contains(" " + categoryFilter + " ")) {
+            return false;
+        }
+        for (String word : queryWords) {
+            if (!searchKey.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==========================================
+    // MAPEO DESDE EL MODELO DEL BACKEND
+    // ==========================================
+
+    private static String categoryOf(String supplierType) {
+        if (supplierType == null) {
+            return CATEGORY_OTHERS;
+        }
+        switch (supplierType) {
+            case "materials": return CATEGORY_CONSTRUCTION;
+            case "lighting": return CATEGORY_LIGHTING;
+            case "electrical": return CATEGORY_ELECTRICAL;
+            default: return CATEGORY_OTHERS;
+        }
+    }
+
+    /**
+     * Chips a los que pertenece: su tipo, todos si es mixto, y acabados si maneja esa categoría
+     */
+    private static String categoryKeysOf(String supplierType, String normalizedSpecialties) {
+        StringBuilder keys = new StringBuilder(" ");
+        if ("mixed".equals(supplierType)) {
+            keys.append(CATEGORY_CONSTRUCTION).append(' ')
+                    .append(CATEGORY_LIGHTING).append(' ')
+                    .append(CATEGORY_ELECTRICAL).append(' ');
+        } else {
+            keys.append(categoryOf(supplierType)).append(' ');
+        }
+        if (normalizedSpecialties.contains("acabado")) {
+            keys.append(CATEGORY_FINISHES).append(' ');
+        }
+        return keys.toString();
+    }
+
+    private static String specialtiesOf(Supplier supplier) {
+        List<String> categories = supplier.getCategoriesList();
+        if (categories != null && !categories.isEmpty()) {
+            return String.join(" • ", categories);
+        }
+        return supplier.getSupplierTypeDisplay() != null ? supplier.getSupplierTypeDisplay() : "";
+    }
+
+    private static String locationOf(Supplier supplier) {
+        String city = supplier.getCity();
+        String zone = supplier.getZone();
+        if (city != null && !city.isEmpty() && zone != null && !zone.isEmpty()) {
+            return city + " - " + zone;
+        }
+        if (city != null && !city.isEmpty()) {
+            return city;
+        }
+        return zone != null ? zone : "";
+    }
+
+    /**
+     * WhatsApp del proveedor; si el listado no lo trae, el teléfono en formato internacional (Ecuador)
+     */
+    private static String whatsappUrlOf(Supplier supplier) {
+        String url = supplier.getWhatsappUrl();
+        return url != null ? url : Supplier.whatsappUrlForPhone(supplier.getPhone());
+    }
+
+    private static String orNoData(String value) {
+        return value != null && !value.isEmpty() ? value : NO_DATA;
+    }
+
+    // ==========================================
+    // GETTERS
+    // ==========================================
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public String getCategory() { return category; }
+    public String getSpecialties() { return specialties; }
+    public String getLocation() { return location; }
+    public int getRating() { return rating; }
+    public String getDeliveryTime() { return deliveryTime; }
+    public String getPaymentTerms() { return paymentTerms; }
+    public Boolean getOffersDelivery() { return offersDelivery; }
+    public boolean isPreferred() { return preferred; }
+    public String getPhoneNumber() { return phoneNumber; }
+    public String getWhatsappUrl() { return whatsappUrl; }
+    public String getNameKey() { return nameKey; }
+    public String getCityKey() { return cityKey; }
+
+    /**
+     * Mismo contenido visible (para el diff del adapter)
+     */
+    public boolean sameContentAs(@NonNull SupplierListItem other) {
+        return rating == other.rating
+                && preferred == other.preferred
+                && name.equals(other.name)
+                && category.equals(other.category)
+                && specialties.equals(other.specialties)
+                && location.equals(other.location)
+                && deliveryTime.equals(other.deliveryTime)
+                && paymentTerms.equals(other.paymentTerms)
+                && Objects.equals(offersDelivery, other.offersDelivery);
+    }
+}
@@ -7,6 +7,8 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
@@ -17,37 +19,49 @@ import java.util.List;
 /**
  * Adapter para la lista de Proveedores
  * Path: android/app/src/main/java/com/regenerarestudio/regenerapp/ui/proveedores/SuppliersAdapter.java
+ * Cada filtro produce una lista nueva: AsyncListDiffer la compara en segundo plano
+ * y solo se vuelven a vincular las filas que cambian.
  */
 public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.SupplierViewHolder> {
 
-    private List<ProveedoresFragment.Supplier> suppliers;
+    private static final DiffUtil.ItemCallback<SupplierListItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<SupplierListItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SupplierListItem oldItem, @NonNull SupplierListItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SupplierListItem oldItem, @NonNull SupplierListItem newItem) {
+            return oldItem.sameContentAs(newItem);
+        }
+    };
+
+    private final AsyncListDiffer<SupplierListItem> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnSupplierClickListener onSupplierClickListener;
     private OnCallClickListener onCallClickListener;
     private OnWhatsAppClickListener onWhatsAppClickListener;
     private OnViewCatalogClickListener onViewCatalogClickListener;
 
     public interface OnSupplierClickListener {
-        void onSupplierClick(ProveedoresFragment.Supplier supplier);
+        void onSupplierClick(SupplierListItem supplier);
     }
 
     public interface OnCallClickListener {
-        void onCallClick(ProveedoresFragment.Supplier supplier);
+        void onCallClick(SupplierListItem supplier);
     }
 
     public interface OnWhatsAppClickListener {
-        void onWhatsAppClick(ProveedoresFragment.Supplier supplier);
+        void onWhatsAppClick(SupplierListItem supplier);
     }
 
     public interface OnViewCatalogClickListener {
-        void onViewCatalogClick(ProveedoresFragment.Supplier supplier);
+        void onViewCatalogClick(SupplierListItem supplier);
     }
 
-    public SuppliersAdapter(List<ProveedoresFragment.Supplier> suppliers,
-                            OnSupplierClickListener onSupplierClickListener,
+    public SuppliersAdapter(OnSupplierClickListener onSupplierClickListener,
                             OnCallClickListener onCallClickListener,
                             OnWhatsAppClickListener onWhatsAppClickListener,
                             OnViewCatalogClickListener onViewCatalogClickListener) {
-        this.suppliers = suppliers;
         this.onSupplierClickListener = onSupplierClickListener;
         this.onCallClickListener = onCallClickListener;
         this.onWhatsAppClickListener = onWhatsAppClickListener;
@@ -64,18 +78,21 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
 
     @Override
     public void onBindViewHolder(@NonNull SupplierViewHolder holder, int position) {
-        ProveedoresFragment.Supplier supplier = suppliers.get(position);
+        SupplierListItem supplier = differ.getCurrentList().get(position);
         holder.bind(supplier);
     }
 
     @Override
     public int getItemCount() {
-        return suppliers.size();
+        return differ.getCurrentList().size();
     }
 
-    public void updateSuppliers(List<ProveedoresFragment.Supplier> newSuppliers) {
-        this.suppliers = newSuppliers;
-        notifyDataSetChanged();
+    public void updateSuppliers(List<SupplierListItem> newSuppliers) {
+        differ.submitList(newSuppliers);
+    }
+
+    private SupplierListItem getItem(int position) {
+        return differ.getCurrentList().get(position);
     }
 
     class SupplierViewHolder extends RecyclerView.ViewHolder {
@@ -85,10 +102,10 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
         private TextView tvSpecialties;
         private TextView tvLocation;
         private TextView tvRating;
-        private TextView tvReviewsCount;
+        private TextView tvRatingScale;
         private TextView tvDeliveryTime;
-        private TextView tvDiscountAverage;
-        private TextView tvWarranty;
+        private TextView tvPaymentTerms;
+        private TextView tvOffersDelivery;
         private MaterialButton btnCallSupplier;
         private MaterialButton btnWhatsappSupplier;
         private MaterialButton btnViewCatalog;
@@ -102,10 +119,10 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
             tvSpecialties = itemView.findViewById(R.id.tv_specialties);
             tvLocation = itemView.findViewById(R.id.tv_location);
             tvRating = itemView.findViewById(R.id.tv_rating);
-            tvReviewsCount = itemView.findViewById(R.id.tv_reviews_count);
+            tvRatingScale = itemView.findViewById(R.id.tv_rating_scale);
             tvDeliveryTime = itemView.findViewById(R.id.tv_delivery_time);
-            tvDiscountAverage = itemView.findViewById(R.id.tv_discount_average);
-            tvWarranty = itemView.findViewById(R.id.tv_warranty);
+            tvPaymentTerms = itemView.findViewById(R.id.tv_payment_terms);
+            tvOffersDelivery = itemView.findViewById(R.id.tv_offers_delivery);
             btnCallSupplier = itemView.findViewById(R.id.btn_call_supplier);
             btnWhatsappSupplier = itemView.findViewById(R.id.btn_whatsapp_supplier);
             btnViewCatalog = itemView.findViewById(R.id.btn_view_catalog);
@@ -115,7 +132,7 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
                 if (onSupplierClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onSupplierClickListener.onSupplierClick(suppliers.get(position));
+                        onSupplierClickListener.onSupplierClick(getItem(position));
                     }
                 }
             });
@@ -124,7 +141,7 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
                 if (onCallClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onCallClickListener.onCallClick(suppliers.get(position));
+                        onCallClickListener.onCallClick(getItem(position));
                     }
                 }
             });
@@ -133,7 +150,7 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
                 if (onWhatsAppClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onWhatsAppClickListener.onWhatsAppClick(suppliers.get(position));
+                        onWhatsAppClickListener.onWhatsAppClick(getItem(position));
                     }
                 }
             });
@@ -142,36 +159,41 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
                 if (onViewCatalogClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onViewCatalogClickListener.onViewCatalogClick(suppliers.get(position));
+                        onViewCatalogClickListener.onViewCatalogClick(getItem(position));
                     }
                 }
             });
         }
 
-        public void bind(ProveedoresFragment.Supplier supplier) {
+        public void bind(SupplierListItem supplier) {
             // Información básica
             tvSupplierName.setText(supplier.getName());
             tvSpecialties.setText(supplier.getSpecialties());
             tvLocation.setText(supplier.getLocation());
 
-            // Rating y reseñas
+            // Rating (escala 1-5 del backend)
             tvRating.setText(String.valueOf(supplier.getRating()));
-            tvReviewsCount.setText(supplier.getReviewsCount() + " reseñas");
+            tvRatingScale.setText("de 5");
 
             // Información comercial
             tvDeliveryTime.setText(supplier.getDeliveryTime());
-            tvDiscountAverage.setText(supplier.getDiscountRange());
-            tvWarranty.setText(supplier.getWarranty());
+            tvPaymentTerms.setText(supplier.getPaymentTerms());
+            Boolean offersDelivery = supplier.getOffersDelivery();
+            tvOffersDelivery.setText(offersDelivery == null ? "—" : (offersDelivery ? "Sí" : "No"));
 
-            // Estado online/offline
-            configureOnlineStatus(supplier.isOnline());
+            // Proveedor preferido
+            configurePreferredStatus(supplier.isPreferred());
 
             // Logo según categoría
             configureSupplierLogo(supplier.getCategory());
+
+            // Sin número no hay llamada ni WhatsApp
+            btnCallSupplier.setEnabled(supplier.getPhoneNumber() != null);
+            btnWhatsappSupplier.setEnabled(supplier.getWhatsappUrl() != null);
         }
 
-        private void configureOnlineStatus(boolean isOnline) {
-            if (isOnline) {
+        private void configurePreferredStatus(boolean isPreferred) {
+            if (isPreferred) {
                 indicatorStatus.setBackgroundTintList(
                         itemView.getContext().getColorStateList(R.color.success)
                 );
@@ -186,20 +208,20 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
             int iconRes;
             int backgroundColorRes;
 
-            switch (category.toLowerCase()) {
-                case "construccion":
+            switch (category) {
+                case SupplierListItem.CATEGORY_CONSTRUCTION:
                     iconRes = R.drawable.ic_build_24;
                     backgroundColorRes = R.color.status_design;
                     break;
-                case "iluminacion":
+                case SupplierListItem.CATEGORY_LIGHTING:
                     iconRes = R.drawable.ic_lightbulb_24;
                     backgroundColorRes = R.color.warning;
                     break;
-                case "electrico":
+                case SupplierListItem.CATEGORY_ELECTRICAL:
                     iconRes = R.drawable.ic_electrical_services_24;
                     backgroundColorRes = R.color.success;
                     break;
-                case "acabados":
+                case SupplierListItem.CATEGORY_FINISHES:
                     iconRes = R.drawable.ic_palette_24;
                     backgroundColorRes = R.color.status_installation;
                     break;
@@ -215,4 +237,4 @@ public class SuppliersAdapter extends RecyclerView.Adapter<SuppliersAdapter.Supp
             );
         }
     }
-}
\ No newline at end of file
+}
@@ -6,21 +6,49 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.chip.Chip;
 import com.regenerarestudio.regenerapp.R;
 import com.regenerarestudio.regenerapp.data.models.Project;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter para la lista de Proyectos en la pantalla de selección
  * Path: android/app/src/main/java/com/regenerarestudio/regenerapp/ui/proyectos/ProjectAdapter.java
+ * Las listas nuevas se comparan en segundo plano (AsyncListDiffer): al llegar la respuesta
+ * de red sobre la instantánea local solo se vuelven a vincular las filas que cambiaron.
  */
 public class ProjectAdapter extends RecyclerView.Adapter<ProjectAdapter.ProjectViewHolder> {
 
-    private List<Project> projects;
+    /**
+     * Identidad por ID del backend, contenido por los campos que muestra la fila
+     */
+    private static final DiffUtil.ItemCallback<Project> DIFF_CALLBACK = new DiffUtil.ItemCallback<Project>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Project oldItem, @NonNull Project newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Project oldItem, @NonNull Project newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getClient(), newItem.getClient())
+                    && Objects.equals(oldItem.getLocation(), newItem.getLocation())
+                    && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                    && Objects.equals(oldItem.getStartDate(), newItem.getStartDate())
+                    && Objects.equals(oldItem.getEndDate(), newItem.getEndDate())
+                    && Objects.equals(oldItem.getCurrentPhase(), newItem.getCurrentPhase());
+        }
+    };
+
+    private final AsyncListDiffer<Project> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnProjectClickListener onProjectClickListener;
 
     public interface OnProjectClickListener {
@@ -28,8 +56,11 @@ public class ProjectAdapter extends RecyclerView.Adapter<ProjectAdapter.ProjectV
     }
 
     public ProjectAdapter(List<Project> projects, OnProjectClickListener onProjectClickListener) {
-        this.projects = projects;
         this.onProjectClickListener = onProjectClickListener;
+        // Una lista vacía no se envía: así la primera lista real se aplica sin esperar al diff
+        if (projects != null && !projects.isEmpty()) {
+            differ.submitList(new ArrayList<>(projects));
+        }
     }
 
     @NonNull
@@ -42,18 +73,25 @@ public class ProjectAdapter extends RecyclerView.Adapter<ProjectAdapter.ProjectV
 
     @Override
     public void onBindViewHolder(@NonNull ProjectViewHolder holder, int position) {
-        Project project = projects.get(position);
+        Project project = differ.getCurrentList().get(position);
         holder.bind(project);
     }
 
     @Override
     public int getItemCount() {
-        return projects.size();
+        return differ.getCurrentList().size();
     }
 
     public void updateProjects(List<Project> newProjects) {
-        this.projects = newProjects;
-        notifyDataSetChanged();
+        updateProjects(newProjects, null);
+    }
+
+    /**
+     * Actualizar la lista; onCommitted corre cuando los cambios ya están aplicados al adapter
+     * (si la lista estaba vacía se aplica de inmediato, sin esperar al diff)
+     */
+    public void updateProjects(List<Project> newProjects, @Nullable Runnable onCommitted) {
+        differ.submitList(newProjects != null ? new ArrayList<>(newProjects) : null, onCommitted);
     }
 
     class ProjectViewHolder extends RecyclerView.ViewHolder {
@@ -81,7 +119,7 @@ public class ProjectAdapter extends RecyclerView.Adapter<ProjectAdapter.ProjectV
                 if (onProjectClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onProjectClickListener.onProjectClick(projects.get(position));
+                        onProjectClickListener.onProjectClick(differ.getCurrentList().get(position));
                     }
                 }
             });
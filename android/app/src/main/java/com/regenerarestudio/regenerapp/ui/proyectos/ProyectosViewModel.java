@@ -3,6 +3,7 @@ package com.regenerarestudio.regenerapp.ui.proyectos;
 import android.app.Application;
 import android.util.Log;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
@@ -10,13 +11,20 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.regenerarestudio.regenerapp.data.api.ApiClient;
 import com.regenerarestudio.regenerapp.data.api.ApiService;
+import com.regenerarestudio.regenerapp.data.api.CallTracker;
+import com.regenerarestudio.regenerapp.data.local.ProjectSearchIndex;
+import com.regenerarestudio.regenerapp.data.local.ProjectSnapshot;
 import com.regenerarestudio.regenerapp.data.models.Project;
 import com.regenerarestudio.regenerapp.data.network.NetworkStateManager;
-import com.regenerarestudio.regenerapp.data.responses.PaginatedResponse;
+import com.regenerarestudio.regenerapp.data.repository.ProjectRepository;
+import com.regenerarestudio.regenerapp.data.repository.RepositoryCallback;
 import com.regenerarestudio.regenerapp.data.responses.ProjectSelectionResponse;
+import com.regenerarestudio.regenerapp.utils.AppExecutors;
+import com.regenerarestudio.regenerapp.utils.SearchText;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -33,6 +41,12 @@ public class ProyectosViewModel extends AndroidViewModel {
     // API Service
     private final ApiService apiService;
 
+    // Repositorio offline-first (caché local + red)
+    private final ProjectRepository projectRepository;
+
+    // Peticiones en curso (una selección nueva reemplaza a la anterior)
+    private final CallTracker calls = new CallTracker(TAG);
+
     // LiveData para proyectos
     private final MutableLiveData<List<Project>> projectsLiveData = new MutableLiveData<>();
     private final MutableLiveData<Project> selectedProjectLiveData = new MutableLiveData<>();
@@ -44,14 +58,25 @@ public class ProyectosViewModel extends AndroidViewModel {
     private List<Project> allProjects = new ArrayList<>();
     private List<Project> filteredProjects = new ArrayList<>();
 
-    // Filtros actuales
+    // Índice de búsqueda de allProjects (null mientras se construye en segundo plano)
+    private ProjectSearchIndex searchIndex;
+    private final AtomicLong indexGeneration = new AtomicLong();
+
+    // Solo se publica el filtrado más reciente; los anteriores se cancelan a mitad
+    private final AtomicLong filterGeneration = new AtomicLong();
+
+    // Filtros actuales (búsqueda ya normalizada)
     private String currentSearchFilter = "";
     private String currentTypeFilter = "";
     private String currentPhaseFilter = "";
 
+    // Último proyecto usado (se muestra primero en la lista)
+    private Long lastSelectedProjectId = null;
+
     public ProyectosViewModel(@NonNull Application application) {
         super(application);
         this.apiService = ApiClient.getApiService();
+        this.projectRepository = ProjectRepository.getInstance(application);
 
         // Configurar URL del servidor según el entorno
         configureServerUrl();
@@ -103,52 +128,77 @@ public class ProyectosViewModel extends AndroidViewModel {
     }
 
     /**
-     * Cargar proyectos desde el backend
+     * Mostrar la última lista recibida del servidor (instantánea local) antes de la red
+     * Se llama en el onCreate de ProjectSelectionActivity para pintar el primer frame con datos;
+     * la respuesta de red se aplica después como diff sobre esta lista.
+     *
+     * @return true si hay una lista para mostrar
      */
-    public void loadProjects() {
-        // Verificar conectividad
-        if (!NetworkStateManager.checkConnectivityAndNotify(getApplication(), networkState)) {
-            Log.w(TAG, "Sin conexión a internet, usando datos locales si existen");
-            // Usar datos locales si existen o datos de fallback
-            if (allProjects.isEmpty()) {
-                loadFallbackData();
-            }
-            return;
+    @MainThread
+    public boolean restoreSnapshot(long lastSelectedId) {
+        if (lastSelectedId > 0) {
+            lastSelectedProjectId = lastSelectedId;
         }
 
-        networkState.setLoading("Cargando proyectos...");
+        // ViewModel conservado (rotación): ya tiene datos
+        if (!allProjects.isEmpty()) {
+            applyCurrentFilters();
+            return true;
+        }
 
-        Call<PaginatedResponse<Project>> call = apiService.getProjects(null, null, null, null, null, null);
+        List<Project> snapshot = ProjectSnapshot.read(getApplication());
+        if (snapshot == null || snapshot.isEmpty()) {
+            return false;
+        }
+
+        setAllProjects(snapshot);
+        return true;
+    }
+
+    /**
+     * Cargar proyectos (offline-first)
+     * Muestra la última lista guardada en disco y la reemplaza cuando responde el backend
+     */
+    public void loadProjects() {
+        // Sin conexión: la copia local (si existe) llega igual desde el repositorio
+        boolean hasNetwork = NetworkStateManager.checkConnectivityAndNotify(getApplication(), networkState);
+        if (hasNetwork) {
+            networkState.setLoading("Cargando proyectos...");
+        } else {
+            Log.w(TAG, "Sin conexión a internet, usando datos locales si existen");
+        }
 
-        call.enqueue(new Callback<PaginatedResponse<Project>>() {
+        calls.attach("projects", projectRepository.loadProjects(calls.wrap("projects", new RepositoryCallback<List<Project>>() {
             @Override
-            public void onResponse(@NonNull Call<PaginatedResponse<Project>> call, @NonNull Response<PaginatedResponse<Project>> response) {
-                NetworkStateManager.NetworkState state = NetworkStateManager.processResponse(response);
+            public void onData(List<Project> projects, boolean fromCache) {
+                setAllProjects(projects);
 
-                if (state.isSuccess() && response.body() != null) {
-                    PaginatedResponse<Project> paginatedResponse = response.body();
-                    allProjects = paginatedResponse.getResults();
-                    applyCurrentFilters();
-                    networkState.setSuccess("Proyectos cargados correctamente (" + paginatedResponse.getCount() + " total)");
-                    Log.d(TAG, "Proyectos cargados: " + allProjects.size() + "/" + paginatedResponse.getCount());
+                if (fromCache) {
+                    Log.d(TAG, "Proyectos cargados desde caché: " + projects.size());
                 } else {
-                    networkState.setError("Error al cargar proyectos: " + state.getMessage());
-                    Log.e(TAG, "Error en respuesta: " + state.getMessage());
-                    // Usar datos de fallback en caso de error
-                    loadFallbackData();
+                    networkState.setSuccess("Proyectos cargados correctamente (" + projects.size() + " total)");
+                    Log.d(TAG, "Proyectos cargados desde servidor: " + projects.size());
+                    // Instantánea para pintar el próximo arranque sin esperar
+                    ProjectSnapshot.writeAsync(getApplication(), projects);
                 }
             }
 
             @Override
-            public void onFailure(@NonNull Call<PaginatedResponse<Project>> call, @NonNull Throwable t) {
-                NetworkStateManager.NetworkState state = NetworkStateManager.processError(t);
-                networkState.setError(state.getMessage());
-                Log.e(TAG, "Error de red al cargar proyectos", t);
-
-                // Usar datos de fallback en caso de fallo de red
-                loadFallbackData();
+            public void onError(String error, boolean hasCachedData) {
+                Log.e(TAG, "Error al cargar proyectos: " + error);
+
+                if (hasCachedData || !allProjects.isEmpty()) {
+                    // Caché o instantánea ya en pantalla: no reemplazar por datos de ejemplo
+                    networkState.setSuccess("Usando datos locales");
+                } else if (hasNetwork) {
+                    networkState.setError("Error al cargar proyectos: " + error);
+                    // Sin caché ni red: usar datos de fallback
+                    loadFallbackData();
+                } else {
+                    loadFallbackData();
+                }
             }
-        });
+        })));
     }
 
     /**
@@ -157,8 +207,7 @@ public class ProyectosViewModel extends AndroidViewModel {
     private void loadFallbackData() {
         Log.i(TAG, "Cargando datos de fallback");
         List<Project> fallbackProjects = createFallbackProjects();
-        allProjects = fallbackProjects;
-        applyCurrentFilters();
+        setAllProjects(fallbackProjects);
         networkState.setSuccess("Usando datos locales");
     }
 
@@ -217,7 +266,7 @@ public class ProyectosViewModel extends AndroidViewModel {
 
         Call<ProjectSelectionResponse> call = apiService.selectProject(project.getId());
 
-        call.enqueue(new Callback<ProjectSelectionResponse>() {
+        calls.enqueue("select_project", call, new Callback<ProjectSelectionResponse>() {
             @Override
             public void onResponse(@NonNull Call<ProjectSelectionResponse> call,
                                    @NonNull Response<ProjectSelectionResponse> response) {
@@ -263,6 +312,7 @@ public class ProyectosViewModel extends AndroidViewModel {
 
         // Seleccionar el proyecto clickeado
         selectedProject.setSelected(true);
+        lastSelectedProjectId = selectedProject.getId();
 
         // Actualizar LiveData
         selectedProjectLiveData.setValue(selectedProject);
@@ -271,42 +321,137 @@ public class ProyectosViewModel extends AndroidViewModel {
         Log.d(TAG, "Proyecto seleccionado localmente: " + selectedProject.getName());
     }
 
+    // ==========================================
+    // FILTROS
+    // ==========================================
+
     /**
      * Aplicar filtros de búsqueda
      */
     public void applyFilters(String search, String type, String phase) {
-        currentSearchFilter = search != null ? search.toLowerCase() : "";
+        currentSearchFilter = SearchText.normalize(search);
         currentTypeFilter = type != null ? type : "";
         currentPhaseFilter = phase != null ? phase : "";
 
         applyCurrentFilters();
     }
 
+    /**
+     * Cambiar solo el texto buscado (conserva fase y tipo)
+     */
+    public void setSearchQuery(String search) {
+        String normalized = SearchText.normalize(search);
+        if (normalized.equals(currentSearchFilter)) {
+            return;
+        }
+        currentSearchFilter = normalized;
+        applyCurrentFilters();
+    }
+
+    /**
+     * Cambiar solo la fase (vacío = todas; conserva la búsqueda)
+     */
+    public void setPhaseFilter(String phase) {
+        currentPhaseFilter = phase != null ? phase : "";
+        applyCurrentFilters();
+    }
+
+    /**
+     * Reemplazar la lista completa e indexarla en segundo plano
+     * Sin filtros activos se publica de inmediato; con filtros, al terminar el índice.
+     */
+    @MainThread
+    private void setAllProjects(List<Project> projects) {
+        allProjects = projects;
+        searchIndex = null;
+
+        long build = indexGeneration.incrementAndGet();
+        AppExecutors.background().execute(() -> {
+            long start = System.nanoTime();
+            ProjectSearchIndex index = ProjectSearchIndex.build(projects);
+            long micros = (System.nanoTime() - start) / 1_000;
+
+            AppExecutors.mainThread().execute(() -> {
+                if (build != indexGeneration.get()) {
+                    return;
+                }
+                Log.d(TAG, "Índice de proyectos: " + index.size() + " proyectos en " + micros + " µs");
+                searchIndex = index;
+                if (hasActiveFilters()) {
+                    applyCurrentFilters();
+                }
+            });
+        });
+
+        applyCurrentFilters();
+    }
+
+    private boolean hasActiveFilters() {
+        return !currentSearchFilter.isEmpty() || !currentTypeFilter.isEmpty() || !currentPhaseFilter.isEmpty();
+    }
+
     /**
      * Aplicar filtros actuales a la lista
+     * Sin filtros es solo una copia (hilo principal, para el primer frame); con filtros se resuelve
+     * contra el índice en segundo plano y cada cambio cancela el filtrado anterior.
      */
+    @MainThread
     private void applyCurrentFilters() {
-        filteredProjects.clear();
+        long generation = filterGeneration.incrementAndGet();
+        Long pinnedId = lastSelectedProjectId;
 
-        for (Project project : allProjects) {
-            boolean matchesSearch = currentSearchFilter.isEmpty() ||
-                    project.getName().toLowerCase().contains(currentSearchFilter) ||
-                    project.getClient().toLowerCase().contains(currentSearchFilter) ||
-                    project.getLocation().toLowerCase().contains(currentSearchFilter);
+        if (!hasActiveFilters()) {
+            List<Project> all = new ArrayList<>(allProjects);
+            pinLastSelected(all, pinnedId);
+            publishFiltered(all);
+            return;
+        }
 
-            boolean matchesType = currentTypeFilter.isEmpty() ||
-                    currentTypeFilter.equals(project.getProjectType());
+        ProjectSearchIndex index = searchIndex;
+        if (index == null) {
+            // Se vuelve a aplicar cuando el índice esté listo
+            return;
+        }
 
-            boolean matchesPhase = currentPhaseFilter.isEmpty() ||
-                    currentPhaseFilter.equals(project.getCurrentPhase());
+        String[] words = SearchText.words(currentSearchFilter);
+        String type = currentTypeFilter;
+        String phase = currentPhaseFilter;
 
-            if (matchesSearch && matchesType && matchesPhase) {
-                filteredProjects.add(project);
+        AppExecutors.background().execute(() -> {
+            List<Project> result = index.filter(words, type, phase,
+                    () -> generation != filterGeneration.get());
+            if (result == null) {
+                return;
             }
+            pinLastSelected(result, pinnedId);
+
+            AppExecutors.mainThread().execute(() -> {
+                if (generation == filterGeneration.get()) {
+                    publishFiltered(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * El último proyecto usado va primero
+     */
+    private static void pinLastSelected(List<Project> projects, Long pinnedId) {
+        if (pinnedId == null) {
+            return;
         }
+        for (int i = 1; i < projects.size(); i++) {
+            if (pinnedId.equals(projects.get(i).getId())) {
+                projects.add(0, projects.remove(i));
+                break;
+            }
+        }
+    }
 
-        projectsLiveData.setValue(new ArrayList<>(filteredProjects));
-        Log.d(TAG, "Filtros aplicados. Proyectos mostrados: " + filteredProjects.size() + "/" + allProjects.size());
+    private void publishFiltered(List<Project> projects) {
+        filteredProjects = projects;
+        projectsLiveData.setValue(new ArrayList<>(projects));
+        Log.d(TAG, "Filtros aplicados. Proyectos mostrados: " + projects.size() + "/" + allProjects.size());
     }
 
     /**
@@ -352,4 +497,13 @@ public class ProyectosViewModel extends AndroidViewModel {
     public int getFilteredProjectsCount() {
         return filteredProjects.size();
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // Descartar índices y filtrados en curso
+        indexGeneration.incrementAndGet();
+        filterGeneration.incrementAndGet();
+        calls.release();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.regenerarestudio.regenerapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ejecutores compartidos de la app
+ * - diskIO: lecturas/escrituras a la base de datos local (un solo hilo, orden garantizado)
+ * - background: trabajo de CPU fuera del hilo principal (filtros, diffs, cálculos)
+ * - mainThread: entregar resultados a LiveData/UI
+ */
+public final class AppExecutors {
+
+    private static final ExecutorService DISK_IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "regenerapp-disk-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService BACKGROUND = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() - 1),
+            runnable -> {
+                Thread thread = new Thread(runnable, "regenerapp-background");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final Executor MAIN_THREAD = new MainThreadExecutor();
+
+    private AppExecutors() {}
+
+    public static ExecutorService diskIO() {
+        return DISK_IO;
+    }
+
+    public static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+
+    /**
+     * Executor que publica en el Looper principal
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                command.run();
+            } else {
+                mainHandler.post(command);
+            }
+        }
+    }
+}
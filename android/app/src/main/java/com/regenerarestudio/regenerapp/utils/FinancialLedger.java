@@ -0,0 +1,432 @@
+package com.regenerarestudio.regenerapp.utils;
+
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
+import com.regenerarestudio.regenerapp.data.responses.DashboardResponse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Libro de totales del proyecto actual (presupuesto inicial y gastos reales)
+ * Mantiene subtotales, descuentos y totales por categoría de forma incremental:
+ * agregar, editar o eliminar un item cuesta O(1), sin recorrer las tablas.
+ *
+ * Los importes se guardan en centavos (long) para que sumar y restar no acumule error.
+ * Las categorías siguen al servidor (update_summary): construction, lighting y el resto en others.
+ * Compartido entre Presupuestos y Dashboard (Singleton).
+ */
+public final class FinancialLedger {
+
+    private static final String TAG = "FinancialLedger";
+
+    public static final String CATEGORY_CONSTRUCTION = "construction";
+    public static final String CATEGORY_LIGHTING = "lighting";
+    public static final String CATEGORY_OTHERS = "others";
+
+    private static final String[] CATEGORIES = {
+            CATEGORY_CONSTRUCTION, CATEGORY_LIGHTING, CATEGORY_OTHERS
+    };
+
+    // Diferencia tolerada al conciliar con el servidor (1 centavo por redondeo)
+    private static final long RECONCILE_TOLERANCE_CENTS = 1;
+
+    private static final FinancialLedger INSTANCE = new FinancialLedger();
+
+    /**
+     * Aporte de un item a los totales (centavos)
+     */
+    private static final class Entry {
+        final String category;
+        final long subtotal;
+        final long discount;
+
+        Entry(String category, long subtotal, long discount) {
+            this.category = category;
+            this.subtotal = subtotal;
+            this.discount = discount;
+        }
+
+        long total() {
+            return subtotal - discount;
+        }
+    }
+
+    // Proyecto al que pertenecen los totales
+    private Long projectId;
+    private boolean budgetLoaded;
+    private boolean expensesLoaded;
+
+    // Aportes por ID de item
+    private final Map<Long, Entry> budgetEntries = new HashMap<>();
+    private final Map<Long, Entry> expenseEntries = new HashMap<>();
+
+    // Totales acumulados
+    private long budgetTotal;
+    private long expenseSubtotal;
+    private long expenseDiscounts;
+    private final Map<String, Long> budgetByCategory = new HashMap<>();
+    private final Map<String, Long> spentByCategory = new HashMap<>();
+
+    // Última conciliación con el resumen del servidor
+    private Long reconciledDriftCents;
+
+    private final MutableLiveData<Snapshot> snapshotLiveData = new MutableLiveData<>();
+
+    public static FinancialLedger getInstance() {
+        return INSTANCE;
+    }
+
+    private FinancialLedger() {
+        clearTotals();
+    }
+
+    // ==========================================
+    // PROYECTO
+    // ==========================================
+
+    /**
+     * Asociar el libro a un proyecto; si es otro proyecto se vacían los totales
+     */
+    public synchronized void bindProject(@NonNull Long projectId) {
+        if (projectId.equals(this.projectId)) {
+            return;
+        }
+        Log.d(TAG, "Libro de totales para proyecto: " + projectId);
+        this.projectId = projectId;
+        budgetEntries.clear();
+        expenseEntries.clear();
+        budgetLoaded = false;
+        expensesLoaded = false;
+        clearTotals();
+        publish();
+    }
+
+    public synchronized void clear() {
+        projectId = null;
+        budgetEntries.clear();
+        expenseEntries.clear();
+        budgetLoaded = false;
+        expensesLoaded = false;
+        clearTotals();
+        publish();
+    }
+
+    private void clearTotals() {
+        budgetTotal = 0;
+        expenseSubtotal = 0;
+        expenseDiscounts = 0;
+        reconciledDriftCents = null;
+        for (String category : CATEGORIES) {
+            budgetByCategory.put(category, 0L);
+            spentByCategory.put(category, 0L);
+        }
+    }
+
+    // ==========================================
+    // PRESUPUESTO INICIAL
+    // ==========================================
+
+    /**
+     * Reemplazar todos los items del presupuesto (carga de la tabla)
+     */
+    public synchronized void replaceBudgetItems(@NonNull Long projectId, @Nullable List<BudgetItem> items) {
+        bindProject(projectId);
+        for (Entry entry : budgetEntries.values()) {
+            subtractBudget(entry);
+        }
+        budgetEntries.clear();
+
+        if (items != null) {
+            for (BudgetItem item : items) {
+                putBudgetEntry(item);
+            }
+        }
+        budgetLoaded = true;
+        reconciledDriftCents = null;
+        publish();
+    }
+
+    /**
+     * Agregar o reemplazar un item del presupuesto - O(1)
+     */
+    public synchronized void putBudgetItem(@NonNull BudgetItem item) {
+        putBudgetEntry(item);
+        reconciledDriftCents = null;
+        publish();
+    }
+
+    /**
+     * Quitar un item del presupuesto - O(1)
+     */
+    public synchronized void removeBudgetItem(@Nullable Long itemId) {
+        Entry previous = itemId != null ? budgetEntries.remove(itemId) : null;
+        if (previous != null) {
+            subtractBudget(previous);
+            reconciledDriftCents = null;
+            publish();
+        }
+    }
+
+    private void putBudgetEntry(BudgetItem item) {
+        if (item.getId() == null) {
+            Log.w(TAG, "Item de presupuesto sin ID, no se incluye en los totales");
+            return;
+        }
+        Entry entry = new Entry(normalizeCategory(item.getCategory()), toCents(item.getTotalPrice()), 0);
+        Entry previous = budgetEntries.put(item.getId(), entry);
+        if (previous != null) {
+            subtractBudget(previous);
+        }
+        budgetTotal += entry.total();
+        addTo(budgetByCategory, entry.category, entry.total());
+    }
+
+    private void subtractBudget(Entry entry) {
+        budgetTotal -= entry.total();
+        addTo(budgetByCategory, entry.category, -entry.total());
+    }
+
+    // ==========================================
+    // GASTOS REALES
+    // ==========================================
+
+    /**
+     * Reemplazar todos los gastos (carga de la tabla)
+     */
+    public synchronized void replaceExpenses(@NonNull Long projectId, @Nullable List<ExpenseItem> expenses) {
+        bindProject(projectId);
+        for (Entry entry : expenseEntries.values()) {
+            subtractExpense(entry);
+        }
+        expenseEntries.clear();
+
+        if (expenses != null) {
+            for (ExpenseItem expense : expenses) {
+                putExpenseEntry(expense);
+            }
+        }
+        expensesLoaded = true;
+        reconciledDriftCents = null;
+        publish();
+    }
+
+    /**
+     * Agregar o reemplazar un gasto - O(1)
+     */
+    public synchronized void putExpense(@NonNull ExpenseItem expense) {
+        putExpenseEntry(expense);
+        reconciledDriftCents = null;
+        publish();
+    }
+
+    /**
+     * Quitar un gasto - O(1)
+     */
+    public synchronized void removeExpense(@Nullable Long expenseId) {
+        Entry previous = expenseId != null ? expenseEntries.remove(expenseId) : null;
+        if (previous != null) {
+            subtractExpense(previous);
+            reconciledDriftCents = null;
+            publish();
+        }
+    }
+
+    private void putExpenseEntry(ExpenseItem expense) {
+        // El total es el total_price del servidor (o la fórmula de RealExpense.save en filas optimistas);
+        // el descuento es lo que falta para llegar al subtotal, así incluye el tope en 0
+        long subtotal = toCents(expense.getSubtotal());
+        long discount = subtotal - toCents(expense.getTotalPrice());
+        Entry entry = new Entry(normalizeCategory(expense.getCategory()), subtotal, discount);
+
+        Entry previous = expenseEntries.put(expense.getId(), entry);
+        if (previous != null) {
+            subtractExpense(previous);
+        }
+        expenseSubtotal += entry.subtotal;
+        expenseDiscounts += entry.discount;
+        addTo(spentByCategory, entry.category, entry.total());
+    }
+
+    private void subtractExpense(Entry entry) {
+        expenseSubtotal -= entry.subtotal;
+        expenseDiscounts -= entry.discount;
+        addTo(spentByCategory, entry.category, -entry.total());
+    }
+
+    // ==========================================
+    // CONCILIACIÓN CON EL SERVIDOR
+    // ==========================================
+
+    /**
+     * Comparar los totales locales con el resumen del servidor
+     * @return true si coinciden (o si aún no hay datos locales con qué comparar)
+     */
+    public synchronized boolean reconcile(@NonNull Long projectId, @Nullable DashboardResponse.FinancialSummary serverSummary) {
+        if (serverSummary == null || !projectId.equals(this.projectId) || !budgetLoaded || !expensesLoaded) {
+            return true;
+        }
+
+        long budgetDrift = toCents(serverSummary.getTotalBudget()) - budgetTotal;
+        long expenseDrift = toCents(serverSummary.getTotalExpenses()) - (expenseSubtotal - expenseDiscounts);
+        long drift = Math.abs(budgetDrift) + Math.abs(expenseDrift);
+        reconciledDriftCents = drift;
+        publish();
+
+        if (drift > RECONCILE_TOLERANCE_CENTS) {
+            Log.w(TAG, "Totales locales difieren del servidor - presupuesto: " + budgetDrift / 100.0 +
+                    ", gastos: " + expenseDrift / 100.0);
+            return false;
+        }
+        Log.d(TAG, "Totales locales conciliados con el servidor");
+        return true;
+    }
+
+    // ==========================================
+    // LECTURA
+    // ==========================================
+
+    public LiveData<Snapshot> getSnapshot() {
+        return snapshotLiveData;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    @Nullable
+    public synchronized Long getProjectId() {
+        return projectId;
+    }
+
+    /**
+     * Publicar los totales actuales (LiveData desde cualquier hilo)
+     */
+    private void publish() {
+        Snapshot snapshot = new Snapshot(this);
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            snapshotLiveData.setValue(snapshot);
+        } else {
+            snapshotLiveData.postValue(snapshot);
+        }
+    }
+
+    /**
+     * Totales inmutables en un momento dado
+     */
+    public static final class Snapshot {
+        private final Long projectId;
+        private final boolean complete;
+        private final int budgetItemCount;
+        private final int expenseCount;
+        private final long budgetTotal;
+        private final long expenseSubtotal;
+        private final long expenseDiscounts;
+        private final Map<String, Long> budgetByCategory;
+        private final Map<String, Long> spentByCategory;
+        private final Long driftCents;
+
+        private Snapshot(FinancialLedger ledger) {
+            this.projectId = ledger.projectId;
+            this.complete = ledger.budgetLoaded && ledger.expensesLoaded;
+            this.budgetItemCount = ledger.budgetEntries.size();
+            this.expenseCount = ledger.expenseEntries.size();
+            this.budgetTotal = ledger.budgetTotal;
+            this.expenseSubtotal = ledger.expenseSubtotal;
+            this.expenseDiscounts = ledger.expenseDiscounts;
+            this.budgetByCategory = new HashMap<>(ledger.budgetByCategory);
+            this.spentByCategory = new HashMap<>(ledger.spentByCategory);
+            this.driftCents = ledger.reconciledDriftCents;
+        }
+
+        @Nullable
+        public Long getProjectId() { return projectId; }
+
+        /** true cuando ya se cargaron presupuesto y gastos del proyecto */
+        public boolean isComplete() { return complete; }
+
+        public int getBudgetItemCount() { return budgetItemCount; }
+        public int getExpenseCount() { return expenseCount; }
+
+        public double getBudgetTotal() { return budgetTotal / 100.0; }
+        public double getExpenseSubtotal() { return expenseSubtotal / 100.0; }
+        public double getExpenseDiscounts() { return expenseDiscounts / 100.0; }
+        public double getExpenseTotal() { return (expenseSubtotal - expenseDiscounts) / 100.0; }
+        public double getBalance() { return (budgetTotal - expenseSubtotal + expenseDiscounts) / 100.0; }
+
+        public double getBudgetForCategory(String category) {
+            Long cents = budgetByCategory.get(normalizeCategory(category));
+            return cents != null ? cents / 100.0 : 0.0;
+        }
+
+        public double getSpentForCategory(String category) {
+            Long cents = spentByCategory.get(normalizeCategory(category));
+            return cents != null ? cents / 100.0 : 0.0;
+        }
+
+        /** true si la última conciliación con el servidor coincidió */
+        public boolean isReconciled() {
+            return driftCents != null && driftCents <= RECONCILE_TOLERANCE_CENTS;
+        }
+
+        /**
+         * Equivalente local de DashboardResponse.FinancialSummary (mismas fórmulas que update_summary)
+         */
+        public DashboardResponse.FinancialSummary toFinancialSummary() {
+            double budget = getBudgetTotal();
+            double expenses = getExpenseTotal();
+            double balance = getBalance();
+
+            DashboardResponse.FinancialSummary summary = new DashboardResponse.FinancialSummary();
+            summary.setTotalBudget(budget);
+            summary.setTotalExpenses(expenses);
+            summary.setBalance(balance);
+            summary.setBudgetUtilizationPercentage(budget > 0 ? (expenses / budget) * 100 : 0.0);
+            summary.setIsOverBudget(balance < 0);
+            summary.setRemainingBudget(Math.max(balance, 0.0));
+
+            DashboardResponse.BudgetByCategory byCategory = new DashboardResponse.BudgetByCategory();
+            byCategory.setConstruction(categoryBudget(CATEGORY_CONSTRUCTION));
+            byCategory.setLighting(categoryBudget(CATEGORY_LIGHTING));
+            byCategory.setOthers(categoryBudget(CATEGORY_OTHERS));
+            summary.setBudgetByCategory(byCategory);
+            return summary;
+        }
+
+        private DashboardResponse.CategoryBudget categoryBudget(String category) {
+            DashboardResponse.CategoryBudget categoryBudget = new DashboardResponse.CategoryBudget();
+            categoryBudget.setBudgeted(getBudgetForCategory(category));
+            categoryBudget.setSpent(getSpentForCategory(category));
+            return categoryBudget;
+        }
+    }
+
+    // ==========================================
+    // UTILIDADES
+    // ==========================================
+
+    private static String normalizeCategory(String category) {
+        if (CATEGORY_CONSTRUCTION.equals(category) || CATEGORY_LIGHTING.equals(category)) {
+            return category;
+        }
+        return CATEGORY_OTHERS;
+    }
+
+    private static void addTo(Map<String, Long> totals, String category, long cents) {
+        Long current = totals.get(category);
+        totals.put(category, (current != null ? current : 0L) + cents);
+    }
+
+    private static long toCents(Double amount) {
+        return amount != null ? Math.round(amount * 100.0) : 0L;
+    }
+}
@@ -17,6 +17,9 @@ import retrofit2.Response;
  * Combina las dos APIs necesarias:
  * 1. GET /api/budgets/financial-summary/for_selected_project/ (obtener ID)
  * 2. POST /api/budgets/financial-summary/{id}/refresh/ (refrescar)
+ *
+ * El dashboard usa POST /api/projects/projects/{id}/refresh_dashboard/ (una sola llamada);
+ * {@link #refreshSelectedProjectSummaryInOneCall} queda como respaldo si ese endpoint falla.
  */
 public class FinancialSummaryHelper {
 
@@ -78,6 +81,35 @@ public class FinancialSummaryHelper {
         });
     }
 
+    /**
+     * Refrescar el resumen del proyecto seleccionado con un solo GET (?refresh=true),
+     * sin pedir primero el ID. Un viaje de red en lugar de dos.
+     */
+    public static void refreshSelectedProjectSummaryInOneCall(ApiService apiService, RefreshCallback callback) {
+        Log.d(TAG, "Refrescando resumen financiero en una llamada (?refresh=true)");
+
+        apiService.getFinancialSummaryForSelectedProject(true).enqueue(new Callback<Map<String, Object>>() {
+            @Override
+            public void onResponse(@NonNull Call<Map<String, Object>> call, @NonNull Response<Map<String, Object>> response) {
+                if (response.isSuccessful()) {
+                    Log.d(TAG, "✅ Resumen financiero actualizado exitosamente");
+                    if (callback != null) callback.onSuccess();
+                } else {
+                    String error = "Error al refrescar resumen: " + response.code();
+                    Log.e(TAG, error);
+                    if (callback != null) callback.onError(error);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<Map<String, Object>> call, @NonNull Throwable t) {
+                String error = "Error de conexión al refrescar: " + t.getMessage();
+                Log.e(TAG, error, t);
+                if (callback != null) callback.onError(error);
+            }
+        });
+    }
+
     /**
      * Refrescar resumen financiero por ID específico
      */
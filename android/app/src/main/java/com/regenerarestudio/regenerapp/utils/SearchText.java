@@ -0,0 +1,41 @@
+package com.regenerarestudio.regenerapp.utils;
+
+import androidx.annotation.NonNull;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para búsquedas locales
+ * Minúsculas, sin tildes y con separadores reducidos a un espacio, para comparar
+ * lo que escribe el usuario con claves precalculadas sin repetir el trabajo en cada tecla.
+ */
+public final class SearchText {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private SearchText() {}
+
+    /**
+     * "Cemento Holcím-50kg" → "cemento holcim 50kg" (null o vacío → "")
+     */
+    @NonNull
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(plain).replaceAll(" ").trim();
+    }
+
+    /**
+     * Palabras de una consulta ya normalizada (consulta vacía → sin palabras)
+     */
+    @NonNull
+    public static String[] words(@NonNull String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+}
@@ -0,0 +1,324 @@
+package com.regenerarestudio.regenerapp.calculation;
+
+import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Valores de referencia del motor local contra backend/apps/calculations/views.py
+ * Cada valor esperado se obtuvo ejecutando las mismas fórmulas en Python (Decimal o float según la vista),
+ * así que la comparación es exacta (delta 0).
+ */
+public class CalculationEngineTest {
+
+    // ==========================================
+    // PINTURA (Decimal, 28 dígitos, HALF_EVEN)
+    // ==========================================
+
+    @Test
+    public void paint_matchesServer() {
+        CalculationResponse result = CalculationEngine.calculate("paint",
+                params("area_to_paint", 25.5, "number_of_coats", 2, "coverage_per_liter", 10.0, "paint_type", "Látex"));
+
+        assertEquals("paint", result.getCalculationType());
+        assertEquals("litros", result.getUnit());
+        assertEquals(5.355, result.getCalculatedQuantity(), 0);
+        assertEquals(51.0, (double) result.getDetailedResults().get("total_area"), 0);
+        assertEquals(5.1, (double) result.getDetailedResults().get("base_liters_needed"), 0);
+        assertEquals(0.05, (double) result.getDetailedResults().get("waste_factor_applied"), 0);
+        assertEquals(1.4147952443857332, (double) result.getDetailedResults().get("gallons_equivalent"), 0);
+        assertEquals(2, result.getSpecificDetails().get("number_of_coats"));
+        assertNull(result.getEstimatedCost());
+    }
+
+    @Test
+    public void paint_roundsLikePythonDecimal() {
+        // 10 / 3 = 3.333…3 (28 dígitos); × 1.05 redondea HALF_EVEN a 3.5 exacto, en double sería 3.5000000000000004
+        CalculationResponse result = CalculationEngine.calculate("paint",
+                params("area_to_paint", 10, "number_of_coats", 1, "coverage_per_liter", 3, "paint_type", "Látex"));
+
+        assertEquals(3.5, result.getCalculatedQuantity(), 0);
+        assertEquals(3.3333333333333335, (double) result.getDetailedResults().get("base_liters_needed"), 0);
+        assertEquals(0.9247027741083224, (double) result.getDetailedResults().get("gallons_equivalent"), 0);
+    }
+
+    @Test
+    public void paint_threeCoats() {
+        CalculationResponse result = CalculationEngine.calculate("paint",
+                params("area_to_paint", 33.33, "number_of_coats", 3, "coverage_per_liter", 7.0, "paint_type", "Esmalte"));
+
+        assertEquals(14.9985, result.getCalculatedQuantity(), 0);
+        assertEquals(99.99, (double) result.getDetailedResults().get("total_area"), 0);
+        assertEquals(14.284285714285714, (double) result.getDetailedResults().get("base_liters_needed"), 0);
+        assertEquals(3.9626155878467637, (double) result.getDetailedResults().get("gallons_equivalent"), 0);
+    }
+
+    // ==========================================
+    // GYPSUM (float)
+    // ==========================================
+
+    @Test
+    public void gypsum_matchesServer() {
+        CalculationResponse result = CalculationEngine.calculate("gypsum",
+                params("area_to_cover", 30.0, "thickness", 12.7, "gypsum_type", "Estándar"));
+
+        assertEquals("planchas", result.getUnit());
+        assertEquals(12, result.getCalculatedQuantity(), 0);
+        assertEquals(2.9768, (double) result.getDetailedResults().get("sheet_area"), 0);
+        assertEquals(10.077936038699274, (double) result.getDetailedResults().get("sheets_base"), 0);
+        assertEquals(25.954451150103324, (double) result.getDetailedResults().get("linear_meters_profile"), 0);
+    }
+
+    @Test
+    public void gypsum_exactMultipleIsNotRoundedUp() {
+        // 446.52 / 2.9768 × 1.1 = 165.0 exacto en float: ceil no agrega una plancha
+        CalculationResponse result = CalculationEngine.calculate("gypsum",
+                params("area_to_cover", 446.52, "thickness", 12.7, "gypsum_type", "Estándar"));
+
+        assertEquals(165, result.getCalculatedQuantity(), 0);
+        assertEquals(150.0, (double) result.getDetailedResults().get("sheets_base"), 0);
+        assertEquals(265.5220397046806, (double) result.getDetailedResults().get("linear_meters_profile"), 0);
+    }
+
+    // ==========================================
+    // EMPASTE (float)
+    // ==========================================
+
+    @Test
+    public void empaste_matchesServer() {
+        CalculationResponse result = CalculationEngine.calculate("empaste",
+                params("area_to_cover", 47.62, "number_of_layers", 1, "empaste_type", "Interior"));
+
+        // 25.0005 kg: apenas pasa un saco
+        assertEquals("sacos", result.getUnit());
+        assertEquals(2, result.getCalculatedQuantity(), 0);
+        assertEquals(23.81, (double) result.getDetailedResults().get("total_kg_needed"), 0);
+        assertEquals(25.0005, (double) result.getDetailedResults().get("total_kg_with_waste"), 0);
+    }
+
+    @Test
+    public void empaste_exactMultipleIsNotRoundedUp() {
+        CalculationResponse result = CalculationEngine.calculate("empaste",
+                params("area_to_cover", 500.0, "number_of_layers", 2, "empaste_type", "Interior"));
+
+        assertEquals(21, result.getCalculatedQuantity(), 0);
+        assertEquals(525.0, (double) result.getDetailedResults().get("total_kg_with_waste"), 0);
+    }
+
+    @Test
+    public void empaste_acceptsCoatsAlias() {
+        // El formulario envía number_of_coats; el backend lee number_of_layers
+        CalculationResponse fromCoats = CalculationEngine.calculate("empaste",
+                params("area_to_cover", 100.0, "number_of_coats", 2, "empaste_type", "Interior"));
+        CalculationResponse fromLayers = CalculationEngine.calculate("empaste",
+                params("area_to_cover", 100.0, "number_of_layers", 2, "empaste_type", "Interior"));
+
+        assertEquals(5, fromCoats.getCalculatedQuantity(), 0);
+        assertEquals(105.0, (double) fromCoats.getDetailedResults().get("total_kg_with_waste"), 0);
+        assertEquals(fromLayers.getDetailedResults(), fromCoats.getDetailedResults());
+        assertEquals(2, fromCoats.getSpecificDetails().get("number_of_layers"));
+    }
+
+    @Test
+    public void empaste_layersWinOverCoats() {
+        CalculationResponse result = CalculationEngine.calculate("empaste",
+                params("area_to_cover", 100.0, "number_of_coats", 3, "number_of_layers", 2, "empaste_type", "Interior"));
+
+        assertEquals(2, result.getSpecificDetails().get("number_of_layers"));
+    }
+
+    // ==========================================
+    // CINTAS LED (float)
+    // ==========================================
+
+    @Test
+    public void ledStrip_exactMultiplesAreNotRoundedUp() {
+        // 10 m / 5 m = 2 rollos; 48 W / (60 W × 0.8) = 1 driver
+        CalculationResponse result = CalculationEngine.calculate("led_strip",
+                params("total_length", 10.0, "power_per_meter", 4.8, "meters_per_roll", 5.0,
+                        "voltage", "12V", "strip_type", "SMD 2835"));
+
+        assertEquals("metros", result.getUnit());
+        assertEquals(10.0, result.getCalculatedQuantity(), 0);
+        assertEquals(48.0, (double) result.getDetailedResults().get("total_power"), 0);
+        assertEquals(2, result.getDetailedResults().get("rolls_needed"));
+        assertEquals(1, result.getDetailedResults().get("drivers_basic"));
+        assertEquals(1, result.getDetailedResults().get("drivers_with_safety"));
+    }
+
+    @Test
+    public void ledStrip_safetyFactorAddsDriver() {
+        CalculationResponse result = CalculationEngine.calculate("led_strip",
+                params("total_length", 7.5, "power_per_meter", 14.4, "meters_per_roll", 5.0,
+                        "voltage", "24V", "strip_type", "COB"));
+
+        assertEquals(108.0, (double) result.getDetailedResults().get("total_power"), 0);
+        assertEquals(2, result.getDetailedResults().get("rolls_needed"));
+        assertEquals(2, result.getDetailedResults().get("drivers_basic"));
+        assertEquals(3, result.getDetailedResults().get("drivers_with_safety"));
+    }
+
+    @Test
+    public void ledStrip_defaultsToFiveMeterRolls() {
+        CalculationResponse result = CalculationEngine.calculate("led_strip",
+                params("total_length", 10.0, "power_per_meter", 6.0, "voltage", "12V", "strip_type", "SMD 5050"));
+
+        assertEquals(5.0, (double) result.getSpecificDetails().get("meters_per_roll"), 0);
+        assertEquals(2, result.getDetailedResults().get("rolls_needed"));
+        assertEquals(2, result.getDetailedResults().get("drivers_with_safety"));
+    }
+
+    // ==========================================
+    // CABLES (float)
+    // ==========================================
+
+    @Test
+    public void cable_matchesServerFloatArithmetic() {
+        // 100 × 1.1 = 110.00000000000001 en float: el servidor pide 2 rollos de 110 m y el motor también
+        CalculationResponse result = CalculationEngine.calculate("cable",
+                params("total_length", 100.0, "meters_per_roll", 110.0,
+                        "wire_gauge", "12 AWG", "cable_type", "THHN", "installation_type", "Empotrado"));
+
+        assertEquals(110.00000000000001, result.getCalculatedQuantity(), 0);
+        assertEquals(2, result.getDetailedResults().get("rolls_needed"));
+        assertEquals(220.0, (double) result.getDetailedResults().get("total_meters_purchased"), 0);
+    }
+
+    @Test
+    public void cable_defaultsToHundredMeterRolls() {
+        CalculationResponse result = CalculationEngine.calculate("cable",
+                params("total_length", 250.0,
+                        "wire_gauge", "14 AWG", "cable_type", "THHN", "installation_type", "Visto"));
+
+        assertEquals(275.0, result.getCalculatedQuantity(), 0);
+        assertEquals(3, result.getDetailedResults().get("rolls_needed"));
+        assertEquals(300.0, (double) result.getDetailedResults().get("total_meters_purchased"), 0);
+    }
+
+    // ==========================================
+    // PERFILES (Decimal)
+    // ==========================================
+
+    @Test
+    public void profiles_exactMultipleUsesDecimal() {
+        // Decimal: 20 × 1.10 = 22.00 → 11 barras; en double sería 22.000000000000004 → 12
+        CalculationResponse result = CalculationEngine.calculate("profiles",
+                params("total_length", 20, "profile_type", "Superficial", "profile_size", "17mm",
+                        "finish_type", "Anodizado"));
+
+        assertEquals(22.0, result.getCalculatedQuantity(), 0);
+        assertEquals(11, result.getDetailedResults().get("profiles_needed"));
+        assertEquals(6, result.getDetailedResults().get("accessories_count"));
+    }
+
+    @Test
+    public void profiles_completeAccessories() {
+        CalculationResponse result = CalculationEngine.calculate("profiles",
+                params("total_length", 12.5, "profile_type", "Empotrado", "profile_size", "17mm",
+                        "finish_type", "Negro", "accessories_needed", "Completos"));
+
+        assertEquals(13.75, result.getCalculatedQuantity(), 0);
+        assertEquals(7, result.getDetailedResults().get("profiles_needed"));
+        assertEquals(7, result.getDetailedResults().get("accessories_count"));
+    }
+
+    @Test
+    public void profiles_basicAccessoriesByDefault() {
+        CalculationResponse result = CalculationEngine.calculate("profiles",
+                params("total_length", 3.64, "profile_type", "Superficial", "profile_size", "17mm",
+                        "finish_type", "Anodizado"));
+
+        assertEquals(4.004, result.getCalculatedQuantity(), 0);
+        assertEquals(3, result.getDetailedResults().get("profiles_needed"));
+        assertEquals(2, result.getDetailedResults().get("accessories_count"));
+    }
+
+    // ==========================================
+    // VALIDACIÓN (DecimalField de DRF)
+    // ==========================================
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooManyDecimals() {
+        CalculationEngine.calculate("paint",
+                params("area_to_paint", "12.345", "number_of_coats", 1, "coverage_per_liter", 10, "paint_type", "Látex"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValueBelowMinimum() {
+        CalculationEngine.calculate("gypsum",
+                params("area_to_cover", 20.0, "thickness", 0.5, "gypsum_type", "Estándar"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOptionalValueBelowMinimum() {
+        CalculationEngine.calculate("cable",
+                params("total_length", 20.0, "meters_per_roll", 0.5,
+                        "wire_gauge", "12 AWG", "cable_type", "THHN", "installation_type", "Visto"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCoatsOutOfRange() {
+        CalculationEngine.calculate("paint",
+                params("area_to_paint", 12.0, "number_of_coats", 11, "coverage_per_liter", 10, "paint_type", "Látex"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingText() {
+        CalculationEngine.calculate("gypsum", params("area_to_cover", 20.0, "thickness", 12.7, "gypsum_type", " "));
+    }
+
+    @Test
+    public void acceptsMinimumValues() {
+        CalculationResponse result = CalculationEngine.calculate("led_strip",
+                params("total_length", 0.01, "power_per_meter", 0.1, "meters_per_roll", 0.1,
+                        "voltage", "12V", "strip_type", "SMD 2835"));
+
+        assertEquals(1, result.getDetailedResults().get("rolls_needed"));
+    }
+
+    @Test
+    public void unknownTypeIsRejected() {
+        assertFalse(CalculationEngine.supports("ceramic"));
+        try {
+            CalculationEngine.calculate("ceramic", new HashMap<>());
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("ceramic"));
+        }
+    }
+
+    // ==========================================
+    // MULTI-ESPACIO
+    // ==========================================
+
+    @Test
+    public void rooms_reportInvalidSpace() {
+        Map<String, Object> shared = params("number_of_coats", 2, "coverage_per_liter", 10.0, "paint_type", "Látex");
+        try {
+            CalculationEngine.calculateRooms("paint", shared, Arrays.asList(
+                    new MultiRoomCalculation.Room("Sala", 25.5),
+                    new MultiRoomCalculation.Room("Baño", 0.001)));
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().startsWith("Baño: "));
+        }
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private static Map<String, Object> params(Object... keyValues) {
+        Map<String, Object> parameters = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            parameters.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return parameters;
+    }
+}
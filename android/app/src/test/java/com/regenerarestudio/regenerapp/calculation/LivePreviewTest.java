@@ -0,0 +1,207 @@
+package com.regenerarestudio.regenerapp.calculation;
+
+import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Vista previa en vivo: debounce, descarte de resultados viejos y entradas incompletas
+ * El hilo principal y los ejecutores son colas manuales: cada paso se ejecuta a mano.
+ */
+public class LivePreviewTest {
+
+    private final FakeScheduler mainThread = new FakeScheduler();
+    private final QueueExecutor background = new QueueExecutor();
+    private final QueueExecutor deliver = new QueueExecutor();
+    private final List<CalculationResponse> published = new ArrayList<>();
+
+    private final LivePreview preview = new LivePreview(mainThread, background, deliver, published::add);
+
+    // ==========================================
+    // DEBOUNCE
+    // ==========================================
+
+    @Test
+    public void request_waitsForDebounceBeforeCalculating() {
+        preview.request("paint", paint(25.5));
+
+        assertEquals(1, mainThread.pending.size());
+        assertEquals(Long.valueOf(LivePreview.DEBOUNCE_MS), mainThread.pending.values().iterator().next());
+        assertEquals(0, background.size());
+
+        runAll();
+
+        assertEquals(1, published.size());
+        assertEquals(5.355, published.get(0).getCalculatedQuantity(), 0);
+    }
+
+    @Test
+    public void request_newKeystrokeReplacesPendingPreview() {
+        preview.request("paint", paint(2));
+        preview.request("paint", paint(25.5));
+
+        assertEquals(1, mainThread.pending.size());
+        runAll();
+
+        assertEquals(1, published.size());
+        assertEquals(5.355, published.get(0).getCalculatedQuantity(), 0);
+    }
+
+    @Test
+    public void request_copiesParametersWhenCalled() {
+        Map<String, Object> form = paint(25.5);
+        preview.request("paint", form);
+        form.put("area_to_paint", 1000.0);
+
+        runAll();
+
+        assertEquals(5.355, published.get(0).getCalculatedQuantity(), 0);
+    }
+
+    // ==========================================
+    // RESULTADOS VIEJOS
+    // ==========================================
+
+    @Test
+    public void request_calculationStartedBeforeNewKeystrokeIsSkipped() {
+        preview.request("paint", paint(2));
+        mainThread.runPending();
+        preview.request("paint", paint(25.5));
+
+        // El cálculo viejo ya estaba en el ejecutor: no calcula ni entrega
+        background.runNext();
+        assertEquals(0, deliver.size());
+
+        runAll();
+        assertEquals(1, published.size());
+        assertEquals(5.355, published.get(0).getCalculatedQuantity(), 0);
+    }
+
+    @Test
+    public void request_resultArrivingAfterNewKeystrokeIsDropped() {
+        preview.request("paint", paint(2));
+        mainThread.runPending();
+        background.runNext();
+        preview.request("paint", paint(25.5));
+
+        deliver.runNext();
+        assertTrue(published.isEmpty());
+
+        runAll();
+        assertEquals(1, published.size());
+        assertEquals(5.355, published.get(0).getCalculatedQuantity(), 0);
+    }
+
+    @Test
+    public void cancel_dropsPendingAndRunningPreviews() {
+        preview.request("paint", paint(2));
+        mainThread.runPending();
+        background.runNext();
+        preview.request("paint", paint(25.5));
+        preview.cancel();
+
+        assertTrue(mainThread.pending.isEmpty());
+        runAll();
+        assertTrue(published.isEmpty());
+    }
+
+    // ==========================================
+    // ENTRADAS INCOMPLETAS
+    // ==========================================
+
+    @Test
+    public void request_incompleteInputPublishesNoPreview() {
+        Map<String, Object> form = paint(25.5);
+        form.remove("number_of_coats");
+        preview.request("paint", form);
+
+        runAll();
+
+        assertEquals(1, published.size());
+        assertNull(published.get(0));
+    }
+
+    @Test
+    public void request_unknownTypePublishesNoPreview() {
+        preview.request("ceramic", new HashMap<>());
+
+        runAll();
+
+        assertEquals(1, published.size());
+        assertNull(published.get(0));
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private void runAll() {
+        mainThread.runPending();
+        while (background.size() > 0 || deliver.size() > 0) {
+            background.runNext();
+            deliver.runNext();
+        }
+    }
+
+    private static Map<String, Object> paint(double area) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("area_to_paint", area);
+        parameters.put("number_of_coats", 2);
+        parameters.put("coverage_per_liter", 10.0);
+        parameters.put("paint_type", "Látex");
+        return parameters;
+    }
+
+    static class FakeScheduler implements LivePreview.Scheduler {
+        final Map<Runnable, Long> pending = new LinkedHashMap<>();
+
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            pending.put(task, delayMs);
+        }
+
+        @Override
+        public void removeCallbacks(Runnable task) {
+            pending.remove(task);
+        }
+
+        void runPending() {
+            List<Runnable> tasks = new ArrayList<>(pending.keySet());
+            pending.clear();
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+
+    static class QueueExecutor implements Executor {
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        int size() {
+            return queue.size();
+        }
+
+        void runNext() {
+            Runnable next = queue.poll();
+            if (next != null) {
+                next.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.regenerarestudio.regenerapp.calculation;
+
+import com.regenerarestudio.regenerapp.data.models.CalculationResponse;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Modo multi-espacio: un cálculo por espacio con los parámetros comunes y el cuerpo del lote
+ * Cada espacio debe dar lo mismo que la calculadora individual con su medida.
+ */
+public class MultiRoomCalculationTest {
+
+    private static final List<MultiRoomCalculation.Room> ROOMS = Arrays.asList(
+            new MultiRoomCalculation.Room("Sala", 25.5),
+            new MultiRoomCalculation.Room("Dormitorio", 12.0),
+            new MultiRoomCalculation.Room("Baño", 4.25));
+
+    // ==========================================
+    // CÁLCULO POR ESPACIO
+    // ==========================================
+
+    @Test
+    public void rooms_eachRoomMatchesSingleCalculator() {
+        MultiRoomCalculation batch = CalculationEngine.calculateRooms("paint", sharedPaint(), ROOMS);
+
+        assertEquals(3, batch.getRoomCount());
+        double total = 0;
+        for (int i = 0; i < ROOMS.size(); i++) {
+            Map<String, Object> single = sharedPaint();
+            single.put("area_to_paint", ROOMS.get(i).getMeasure());
+            double expected = CalculationEngine.calculate("paint", single).getCalculatedQuantity();
+
+            assertEquals(expected, batch.getResults().get(i).getCalculatedQuantity(), 0);
+            total += expected;
+        }
+        assertEquals(5.355, batch.getResults().get(0).getCalculatedQuantity(), 0);
+        assertEquals(total, batch.getTotalQuantity(), 0);
+        assertEquals("litros", batch.getUnit());
+    }
+
+    @Test
+    public void rooms_measureGoesToTheCalculatorField() {
+        assertEquals("area_to_paint", CalculationEngine.measureFieldFor("paint"));
+        assertEquals("area_to_cover", CalculationEngine.measureFieldFor("GYPSUM"));
+        assertEquals("area_to_cover", CalculationEngine.measureFieldFor("empaste"));
+        assertEquals("total_length", CalculationEngine.measureFieldFor("led_strip"));
+        assertEquals("total_length", CalculationEngine.measureFieldFor("cable"));
+        assertEquals("total_length", CalculationEngine.measureFieldFor("profiles"));
+        assertNull(CalculationEngine.measureFieldFor("ceramic"));
+        assertNull(CalculationEngine.measureFieldFor(null));
+    }
+
+    @Test
+    public void rooms_sharedParametersAreNotModified() {
+        Map<String, Object> shared = sharedPaint();
+
+        MultiRoomCalculation batch = CalculationEngine.calculateRooms("PAINT", shared, ROOMS);
+
+        assertFalse(shared.containsKey("area_to_paint"));
+        assertEquals("paint", batch.getCalculationType());
+    }
+
+    @Test
+    public void rooms_rejectUnsupportedTypeAndEmptyList() {
+        try {
+            CalculationEngine.calculateRooms("ceramic", sharedPaint(), ROOMS);
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("ceramic"));
+        }
+        try {
+            CalculationEngine.calculateRooms("paint", sharedPaint(), Collections.emptyList());
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // esperado
+        }
+    }
+
+    // ==========================================
+    // CUERPO DEL LOTE
+    // ==========================================
+
+    @Test
+    public void batchRequest_oneItemPerRoomWithItsInput() {
+        MultiRoomCalculation batch = CalculationEngine.calculateRooms("paint", sharedPaint(), ROOMS);
+
+        Map<String, Object> request = batch.toBatchRequest(5L, true, 12.3456, 9L, "Primer piso");
+
+        assertEquals(5L, request.get("project_id"));
+        assertEquals("paint", request.get("calculation_type"));
+        assertEquals(true, request.get("add_to_budget"));
+        assertEquals(12.35, (double) request.get("unit_price"), 0);
+        assertEquals(9L, request.get("supplier_id"));
+        assertEquals("Primer piso", request.get("notes"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> items = (List<Map<String, Object>>) request.get("items");
+        assertEquals(3, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> item = items.get(i);
+            CalculationResponse result = batch.getResults().get(i);
+            assertEquals(ROOMS.get(i).getSpace(), item.get("space"));
+            assertEquals(result.getCalculatedQuantity(), (double) item.get("calculated_quantity"), 0);
+            assertEquals("litros", item.get("unit"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> input = (Map<String, Object>) item.get("input_data");
+            assertEquals(ROOMS.get(i).getMeasure(), (double) input.get("area_to_paint"), 0);
+            assertEquals(2, input.get("number_of_coats"));
+        }
+    }
+
+    @Test
+    public void batchRequest_omitsEmptyOptionalFields() {
+        MultiRoomCalculation batch = CalculationEngine.calculateRooms("paint", sharedPaint(), ROOMS);
+
+        Map<String, Object> request = batch.toBatchRequest(5L, false, null, null, "  ");
+
+        assertEquals(false, request.get("add_to_budget"));
+        assertFalse(request.containsKey("unit_price"));
+        assertFalse(request.containsKey("supplier_id"));
+        assertFalse(request.containsKey("notes"));
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private static Map<String, Object> sharedPaint() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("number_of_coats", 2);
+        parameters.put("coverage_per_liter", 10.0);
+        parameters.put("paint_type", "Látex");
+        return parameters;
+    }
+}
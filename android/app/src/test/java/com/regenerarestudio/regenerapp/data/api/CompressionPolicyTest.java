@@ -0,0 +1,284 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.GzipSource;
+import retrofit2.Invocation;
+
+import static org.junit.Assert.*;
+
+/**
+ * Gzip de peticiones: umbral de MIN_REQUEST_GZIP_BYTES, cuerpos ya codificados,
+ * respaldo sin comprimir ante un 415, métricas de tamaño de las respuestas y
+ * nombres de endpoint
+ * El "servidor" es un interceptor que guarda lo recibido y responde el código preparado.
+ */
+public class CompressionPolicyTest {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    // Códigos preparados y peticiones recibidas (con el cuerpo tal como viajó)
+    private final Deque<Integer> replies = new ArrayDeque<>();
+    private final List<Request> received = new ArrayList<>();
+    private final List<byte[]> receivedBodies = new ArrayList<>();
+
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new CompressionPolicy.GzipRequestInterceptor())
+            .addInterceptor(chain -> {
+                Request request = chain.request();
+                received.add(request);
+                Buffer body = new Buffer();
+                if (request.body() != null) {
+                    request.body().writeTo(body);
+                }
+                receivedBodies.add(body.readByteArray());
+                Integer code = replies.poll();
+                return new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(code != null ? code : 200)
+                        .message("HTTP " + code)
+                        .body(ResponseBody.create("{}", JSON))
+                        .build();
+            })
+            .build();
+
+    @Before
+    public void setUp() {
+        CompressionPolicy.reset();
+    }
+
+    @After
+    public void tearDown() {
+        CompressionPolicy.reset();
+    }
+
+    private static byte[] payload(long size) {
+        byte[] bytes = new byte[(int) size];
+        Arrays.fill(bytes, (byte) 'a');
+        return bytes;
+    }
+
+    private Response post(byte[] body, String contentEncoding) throws IOException {
+        Request.Builder request = new Request.Builder()
+                .url("http://localhost/api/budgets/budget-items/bulk/")
+                .post(RequestBody.create(body, JSON));
+        if (contentEncoding != null) {
+            request.header("Content-Encoding", contentEncoding);
+        }
+        Response response = client.newCall(request.build()).execute();
+        response.close();
+        return response;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        Buffer source = new Buffer().write(compressed);
+        Buffer result = new Buffer();
+        try (GzipSource gzip = new GzipSource(source)) {
+            while (gzip.read(result, 8192) != -1) {
+                // leer hasta el final
+            }
+        }
+        return result.readByteArray();
+    }
+
+    // ==========================================
+    // UMBRAL
+    // ==========================================
+
+    @Test
+    public void bodyBelowThreshold_isSentAsIs() throws IOException {
+        byte[] body = payload(CompressionPolicy.MIN_REQUEST_GZIP_BYTES - 1);
+
+        post(body, null);
+
+        assertNull(received.get(0).header("Content-Encoding"));
+        assertArrayEquals(body, receivedBodies.get(0));
+    }
+
+    @Test
+    public void bodyAtThreshold_isGzipped() throws IOException {
+        byte[] body = payload(CompressionPolicy.MIN_REQUEST_GZIP_BYTES);
+
+        post(body, null);
+
+        assertEquals("gzip", received.get(0).header("Content-Encoding"));
+        assertTrue(receivedBodies.get(0).length < body.length);
+        assertArrayEquals(body, gunzip(receivedBodies.get(0)));
+        assertEquals(JSON, received.get(0).body().contentType());
+    }
+
+    @Test
+    public void requestWithoutBody_isSentAsIs() throws IOException {
+        client.newCall(new Request.Builder().url("http://localhost/api/projects/projects/").build())
+                .execute().close();
+
+        assertEquals(1, received.size());
+        assertNull(received.get(0).header("Content-Encoding"));
+    }
+
+    @Test
+    public void bodyAlreadyEncoded_isNotTouched() throws IOException {
+        byte[] body = payload(CompressionPolicy.MIN_REQUEST_GZIP_BYTES * 4);
+
+        post(body, "br");
+
+        assertEquals("br", received.get(0).header("Content-Encoding"));
+        assertArrayEquals(body, receivedBodies.get(0));
+    }
+
+    // ==========================================
+    // RESPALDO ANTE 415
+    // ==========================================
+
+    @Test
+    public void unsupportedMediaType_resendsUncompressedAndStopsGzipping() throws IOException {
+        byte[] body = payload(CompressionPolicy.MIN_REQUEST_GZIP_BYTES * 2);
+        replies.add(415);
+        replies.add(201);
+
+        Response first = post(body, null);
+
+        assertEquals(201, first.code());
+        assertEquals(2, received.size());
+        assertEquals("gzip", received.get(0).header("Content-Encoding"));
+        assertNull(received.get(1).header("Content-Encoding"));
+        assertArrayEquals(body, receivedBodies.get(1));
+
+        // Las siguientes peticiones grandes ya no se comprimen (una sola llamada al servidor)
+        post(body, null);
+
+        assertEquals(3, received.size());
+        assertNull(received.get(2).header("Content-Encoding"));
+        assertArrayEquals(body, receivedBodies.get(2));
+    }
+
+    @Test
+    public void otherErrors_doNotDisableGzip() throws IOException {
+        byte[] body = payload(CompressionPolicy.MIN_REQUEST_GZIP_BYTES * 2);
+        replies.add(400);
+
+        Response response = post(body, null);
+        post(body, null);
+
+        assertEquals(400, response.code());
+        assertEquals(2, received.size());
+        assertEquals("gzip", received.get(1).header("Content-Encoding"));
+    }
+
+    // ==========================================
+    // MÉTRICAS DE RESPUESTA
+    // ==========================================
+
+    private void receive(String endpoint, byte[] body, String contentEncoding, String uncompressedLength)
+            throws IOException {
+        OkHttpClient statsClient = new OkHttpClient.Builder()
+                .addInterceptor(new CompressionPolicy.ResponseStatsInterceptor())
+                .addInterceptor(chain -> {
+                    Response.Builder response = new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(body, JSON));
+                    if (contentEncoding != null) {
+                        response.header("Content-Encoding", contentEncoding);
+                    }
+                    if (uncompressedLength != null) {
+                        response.header(CompressionPolicy.HEADER_UNCOMPRESSED_LENGTH, uncompressedLength);
+                    }
+                    return response.build();
+                })
+                .build();
+        statsClient.newCall(new Request.Builder()
+                .url("http://localhost/api/projects/projects/")
+                .tag(String.class, endpoint)
+                .build()).execute().close();
+    }
+
+    @Test
+    public void gzipResponse_recordsWireAndUncompressedBytes() throws IOException {
+        receive("getProjects", payload(300), "gzip", "4096");
+        receive("getProjects", payload(200), "gzip", "2048");
+
+        CompressionPolicy.EndpointStats stats = CompressionPolicy.statsOf("getProjects");
+        assertEquals(2, stats.responses.get());
+        assertEquals(500, stats.responseWireBytes.get());
+        assertEquals(6144, stats.responseOriginalBytes.get());
+    }
+
+    @Test
+    public void plainResponse_countsWireBytesAsOriginal() throws IOException {
+        receive("getProjects", payload(300), null, "4096");
+
+        CompressionPolicy.EndpointStats stats = CompressionPolicy.statsOf("getProjects");
+        assertEquals(300, stats.responseWireBytes.get());
+        assertEquals(300, stats.responseOriginalBytes.get());
+    }
+
+    @Test
+    public void gzipResponseWithoutValidLength_fallsBackToWireBytes() throws IOException {
+        receive("getProjects", payload(300), "gzip", null);
+        receive("getProjects", payload(100), "gzip", "no-es-un-numero");
+
+        CompressionPolicy.EndpointStats stats = CompressionPolicy.statsOf("getProjects");
+        assertEquals(2, stats.responses.get());
+        assertEquals(400, stats.responseOriginalBytes.get());
+    }
+
+    @Test
+    public void gzippedRequest_recordsRequestBytes() throws IOException {
+        byte[] body = payload(CompressionPolicy.MIN_REQUEST_GZIP_BYTES * 2);
+
+        post(body, null);
+
+        CompressionPolicy.EndpointStats stats = CompressionPolicy.statsOf("POST /api/budgets/budget-items/bulk/");
+        assertEquals(1, stats.requests.get());
+        assertEquals(body.length, stats.requestOriginalBytes.get());
+        assertEquals(receivedBodies.get(0).length, stats.requestWireBytes.get());
+        assertEquals(0, stats.responses.get());
+    }
+
+    // ==========================================
+    // NOMBRE DEL ENDPOINT
+    // ==========================================
+
+    interface Api {
+        void bulkBudgetItems();
+    }
+
+    @Test
+    public void endpointOf_prefersTagThenApiMethodThenPath() throws NoSuchMethodException {
+        Request.Builder base = new Request.Builder().url("http://localhost/api/budgets/budget-items/bulk/")
+                .post(RequestBody.create(new byte[0], JSON));
+
+        Request tagged = base.build().newBuilder()
+                .tag(String.class, NetworkTelemetry.PREWARM_ENDPOINT)
+                .tag(Invocation.class, Invocation.of(Api.class.getMethod("bulkBudgetItems"), new ArrayList<>()))
+                .build();
+        Request invoked = base.build().newBuilder()
+                .tag(Invocation.class, Invocation.of(Api.class.getMethod("bulkBudgetItems"), new ArrayList<>()))
+                .build();
+
+        assertEquals("prewarm", CompressionPolicy.endpointOf(tagged));
+        assertEquals("bulkBudgetItems", CompressionPolicy.endpointOf(invoked));
+        assertEquals("POST /api/budgets/budget-items/bulk/", CompressionPolicy.endpointOf(base.build()));
+    }
+}
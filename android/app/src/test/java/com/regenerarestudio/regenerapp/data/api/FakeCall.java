@@ -0,0 +1,163 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Llamada Retrofit controlada por la prueba (sin red ni hilos)
+ * Con enqueue, la prueba decide cuándo responde con {@link #succeed}, {@link #respond} o {@link #failWith}.
+ * Con execute, devuelve lo preparado con {@link #returning} o {@link #throwing}.
+ * Como OkHttp, cancel() entrega onFailure con una IOException y isCanceled() = true.
+ */
+public class FakeCall<T> implements Call<T> {
+
+    private final String path;
+    private final List<FakeCall<T>> clones = new ArrayList<>();
+
+    private Callback<T> callback;
+    private Response<T> executeResponse;
+    private IOException executeError;
+    private boolean executed = false;
+    private boolean canceled = false;
+    private boolean finished = false;
+
+    public FakeCall(@NonNull String path) {
+        this.path = path;
+    }
+
+    // ==========================================
+    // CONTROL DESDE LA PRUEBA
+    // ==========================================
+
+    /**
+     * Respuesta de execute() (llamadas síncronas)
+     */
+    public FakeCall<T> returning(@NonNull Response<T> response) {
+        this.executeResponse = response;
+        return this;
+    }
+
+    /**
+     * Fallo de red de execute() (llamadas síncronas)
+     */
+    public FakeCall<T> throwing(@NonNull IOException error) {
+        this.executeError = error;
+        return this;
+    }
+
+    public void succeed(T body) {
+        respond(Response.success(body));
+    }
+
+    public void respond(@NonNull Response<T> response) {
+        if (finish()) {
+            callback.onResponse(this, response);
+        }
+    }
+
+    public void failWith(@NonNull Throwable error) {
+        if (finish()) {
+            callback.onFailure(this, error);
+        }
+    }
+
+    public boolean isEnqueued() {
+        return callback != null && !finished;
+    }
+
+    /**
+     * Copias creadas con clone() (relanzamientos), en orden
+     */
+    public List<FakeCall<T>> getClones() {
+        return clones;
+    }
+
+    private boolean finish() {
+        if (callback == null) {
+            throw new IllegalStateException("La llamada " + path + " no fue encolada");
+        }
+        if (finished) {
+            return false;
+        }
+        finished = true;
+        return true;
+    }
+
+    // ==========================================
+    // CALL
+    // ==========================================
+
+    @Override
+    public Response<T> execute() throws IOException {
+        if (executed) {
+            throw new IllegalStateException("Ya ejecutada: " + path);
+        }
+        executed = true;
+        if (executeError != null) {
+            throw executeError;
+        }
+        if (executeResponse == null) {
+            throw new IllegalStateException("Sin respuesta preparada para " + path);
+        }
+        return executeResponse;
+    }
+
+    @Override
+    public void enqueue(@NonNull Callback<T> callback) {
+        if (executed) {
+            throw new IllegalStateException("Ya encolada: " + path);
+        }
+        executed = true;
+        this.callback = callback;
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return executed;
+    }
+
+    @Override
+    public void cancel() {
+        if (canceled) {
+            return;
+        }
+        canceled = true;
+        if (callback != null) {
+            failWith(new IOException("Canceled"));
+        }
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    @NonNull
+    @Override
+    public FakeCall<T> clone() {
+        FakeCall<T> copy = new FakeCall<>(path);
+        clones.add(copy);
+        return copy;
+    }
+
+    @NonNull
+    @Override
+    public Request request() {
+        return new Request.Builder().url("http://localhost/" + path).build();
+    }
+
+    @NonNull
+    @Override
+    public Timeout timeout() {
+        return Timeout.NONE;
+    }
+}
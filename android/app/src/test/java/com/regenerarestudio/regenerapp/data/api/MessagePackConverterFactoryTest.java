@@ -0,0 +1,197 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.SerializedName;
+
+import org.junit.Test;
+import org.msgpack.core.MessageBufferPacker;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Headers;
+
+import static org.junit.Assert.*;
+
+/**
+ * MessagePack: decodificación con los mismos TypeAdapters que el JSON, respaldo a Gson,
+ * cabecera Accept solo en endpoints @MessagePack y errores pasados a JSON
+ * El "servidor" es un interceptor que responde lo preparado por la prueba (sin red).
+ */
+public class MessagePackConverterFactoryTest {
+
+    private static final MediaType MSGPACK = MediaType.get("application/msgpack");
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final Gson gson = ApiClient.getGson();
+
+    // Respuestas preparadas (código, tipo, cuerpo) y peticiones recibidas
+    private final Deque<Object[]> replies = new ArrayDeque<>();
+    private final List<Request> received = new ArrayList<>();
+
+    private final Api api = new Retrofit.Builder()
+            .baseUrl("http://localhost/api/")
+            .client(new OkHttpClient.Builder()
+                    .addInterceptor(new MessagePackConverterFactory.AcceptInterceptor())
+                    .addInterceptor(chain -> {
+                        received.add(chain.request());
+                        Object[] reply = replies.poll();
+                        return new okhttp3.Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code((int) reply[0])
+                                .message("HTTP " + reply[0])
+                                .body(ResponseBody.create((byte[]) reply[2], (MediaType) reply[1]))
+                                .build();
+                    })
+                    .build())
+            .addConverterFactory(MessagePackConverterFactory.create(gson))
+            .addConverterFactory(GsonConverterFactory.create(gson))
+            .build()
+            .create(Api.class);
+
+    interface Api {
+        @MessagePack
+        @GET("rows/")
+        Call<List<Row>> rows();
+
+        @GET("rows/")
+        Call<List<Row>> rowsWithoutAnnotation();
+
+        @MessagePack
+        @Headers("Accept: application/json")
+        @GET("rows/")
+        Call<List<Row>> rowsAskingForJson();
+    }
+
+    static class Row {
+        @SerializedName("id") Long id;
+        @SerializedName("description") String description;
+        @SerializedName("total_price") String totalPrice;
+        @SerializedName("quantity") double quantity;
+        @SerializedName("active") boolean active;
+        @SerializedName("tags") List<String> tags;
+        @SerializedName("notes") String notes;
+    }
+
+    // Mismo contenido en los dos formatos (el renderer de Django emite Decimal como texto)
+    private static final String ROWS_JSON = "[{\"id\":5,\"description\":\"Cemento\",\"total_price\":\"12.50\","
+            + "\"quantity\":2.5,\"active\":true,\"tags\":[\"obra\",\"gris\"],\"notes\":null}]";
+
+    private static byte[] rowsMsgpack() throws IOException {
+        MessageBufferPacker packer = org.msgpack.core.MessagePack.newDefaultBufferPacker();
+        packer.packArrayHeader(1);
+        packer.packMapHeader(7);
+        packer.packString("id").packInt(5);
+        packer.packString("description").packString("Cemento");
+        packer.packString("total_price").packString("12.50");
+        packer.packString("quantity").packDouble(2.5);
+        packer.packString("active").packBoolean(true);
+        packer.packString("tags").packArrayHeader(2).packString("obra").packString("gris");
+        packer.packString("notes").packNil();
+        packer.close();
+        return packer.toByteArray();
+    }
+
+    // ==========================================
+    // DECODIFICACIÓN
+    // ==========================================
+
+    @Test
+    public void msgpackResponse_decodesLikeTheJsonBody() throws IOException {
+        replies.add(new Object[]{200, MSGPACK, rowsMsgpack()});
+
+        Response<List<Row>> response = api.rows().execute();
+
+        assertTrue(response.isSuccessful());
+        Row row = response.body().get(0);
+        assertEquals(Long.valueOf(5), row.id);
+        assertEquals("Cemento", row.description);
+        assertEquals("12.50", row.totalPrice);
+        assertEquals(2.5, row.quantity, 0);
+        assertTrue(row.active);
+        assertEquals(Arrays.asList("obra", "gris"), row.tags);
+        assertNull(row.notes);
+
+        // Mismo árbol que el JSON equivalente
+        assertEquals(gson.toJson(gson.fromJson(ROWS_JSON, Row[].class)), gson.toJson(response.body().toArray()));
+    }
+
+    @Test
+    public void jsonResponse_fallsBackToGson() throws IOException {
+        // Servidor sin MessagePack: responde JSON aunque se pida msgpack
+        replies.add(new Object[]{200, JSON, ROWS_JSON.getBytes("UTF-8")});
+
+        Response<List<Row>> response = api.rows().execute();
+
+        assertEquals("Cemento", response.body().get(0).description);
+        assertEquals("12.50", response.body().get(0).totalPrice);
+    }
+
+    @Test
+    public void readValue_bigIntegersAndBinary() throws IOException {
+        MessageBufferPacker packer = org.msgpack.core.MessagePack.newDefaultBufferPacker();
+        packer.packArrayHeader(3);
+        packer.packBigInteger(new BigInteger("18446744073709551615"));
+        packer.packBinaryHeader(3).writePayload(new byte[]{1, 2, 3});
+        packer.packFloat(1.5f);
+        packer.close();
+
+        JsonElement tree = MessagePackConverterFactory.readValue(
+                org.msgpack.core.MessagePack.newDefaultUnpacker(packer.toByteArray()));
+
+        assertEquals(new BigInteger("18446744073709551615"), tree.getAsJsonArray().get(0).getAsBigInteger());
+        assertEquals("AQID", tree.getAsJsonArray().get(1).getAsString());
+        assertEquals(1.5, tree.getAsJsonArray().get(2).getAsDouble(), 0);
+    }
+
+    // ==========================================
+    // NEGOCIACIÓN (ACCEPT)
+    // ==========================================
+
+    @Test
+    public void accept_onlyOnAnnotatedEndpoints() throws IOException {
+        replies.add(new Object[]{200, JSON, ROWS_JSON.getBytes("UTF-8")});
+        replies.add(new Object[]{200, JSON, ROWS_JSON.getBytes("UTF-8")});
+        replies.add(new Object[]{200, JSON, ROWS_JSON.getBytes("UTF-8")});
+
+        api.rows().execute();
+        api.rowsWithoutAnnotation().execute();
+        api.rowsAskingForJson().execute();
+
+        assertEquals(MessagePackConverterFactory.ACCEPT_HEADER, received.get(0).header("Accept"));
+        assertNull(received.get(1).header("Accept"));
+        // Una cabecera Accept explícita del endpoint se respeta
+        assertEquals("application/json", received.get(2).header("Accept"));
+    }
+
+    @Test
+    public void errorBody_inMsgpackIsTurnedIntoJson() throws IOException {
+        MessageBufferPacker packer = org.msgpack.core.MessagePack.newDefaultBufferPacker();
+        packer.packMapHeader(1).packString("error").packString("El item fue modificado");
+        packer.close();
+        replies.add(new Object[]{409, MSGPACK, packer.toByteArray()});
+
+        Response<List<Row>> response = api.rows().execute();
+
+        assertEquals(409, response.code());
+        assertEquals("json", response.errorBody().contentType().subtype());
+        assertEquals("{\"error\":\"El item fue modificado\"}", response.errorBody().string());
+    }
+}
@@ -0,0 +1,354 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Telemetría de red: lo que el listener de cada llamada deja en el buffer (código, bytes,
+ * reintentos, conexión reutilizada, errores), el buffer circular, los resúmenes por endpoint
+ * y la traza de arranque (precalentamiento + primer byte de getProjects)
+ * Los eventos de OkHttp se disparan a mano sobre llamadas sin ejecutar (sin red).
+ */
+public class NetworkTelemetryTest {
+
+    private final NetworkTelemetry telemetry = new NetworkTelemetry();
+    private final OkHttpClient client = new OkHttpClient();
+
+    private Call newCall(String endpoint) {
+        return client.newCall(new Request.Builder()
+                .url("http://localhost/api/projects/projects/")
+                .tag(String.class, endpoint)
+                .build());
+    }
+
+    private static Response response(Call call, int code) {
+        return new Response.Builder()
+                .request(call.request())
+                .protocol(Protocol.HTTP_2)
+                .code(code)
+                .message("HTTP " + code)
+                .build();
+    }
+
+    /**
+     * Secuencia de una llamada sobre una conexión ya abierta: cabeceras, respuesta y cuerpo
+     */
+    private void completeCall(String endpoint, int code, long responseBytes) {
+        Call call = newCall(endpoint);
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.requestHeadersStart(call);
+        listener.responseHeadersStart(call);
+        listener.responseHeadersEnd(call, response(call, code));
+        listener.responseBodyEnd(call, responseBytes);
+        listener.callEnd(call);
+    }
+
+    private NetworkTelemetry.CallRecord onlyRecord() {
+        List<NetworkTelemetry.CallRecord> records = telemetry.getRecords();
+        assertEquals(1, records.size());
+        return records.get(0);
+    }
+
+    // ==========================================
+    // REGISTRO POR LLAMADA
+    // ==========================================
+
+    @Test
+    public void completedCall_recordsStatusBytesAndTimings() {
+        Call call = newCall("getProjects");
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.requestHeadersStart(call);
+        listener.requestBodyEnd(call, 120);
+        listener.responseHeadersStart(call);
+        listener.responseHeadersEnd(call, response(call, 200));
+        listener.responseBodyEnd(call, 2048);
+        listener.callEnd(call);
+
+        NetworkTelemetry.CallRecord record = onlyRecord();
+        assertEquals("getProjects", record.endpoint);
+        assertEquals("GET", record.method);
+        assertEquals(200, record.status);
+        assertTrue(record.isSuccessful());
+        assertNull(record.error);
+        assertEquals(120, record.requestBytes);
+        assertEquals(2048, record.responseBytes);
+        assertEquals(0, record.retries);
+        assertTrue(record.ttfbMs >= 0);
+        assertTrue(record.downloadMs >= 0);
+        assertTrue(record.totalMs >= 0);
+        assertEquals("h2", record.protocol);
+    }
+
+    @Test
+    public void callWithoutConnectEvents_isMarkedAsReused() {
+        completeCall("getProjects", 200, 10);
+
+        NetworkTelemetry.CallRecord record = onlyRecord();
+        assertTrue(record.connectionReused);
+        assertEquals(-1, record.dnsMs);
+        assertEquals(-1, record.connectMs);
+    }
+
+    @Test
+    public void newConnection_recordsDnsConnectAndProtocol() throws Exception {
+        Call call = newCall("getProjects");
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 443);
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.dnsStart(call, "localhost");
+        listener.dnsEnd(call, "localhost", Collections.singletonList(address.getAddress()));
+        listener.connectStart(call, address, Proxy.NO_PROXY);
+        listener.connectEnd(call, address, Proxy.NO_PROXY, Protocol.HTTP_1_1);
+        listener.requestHeadersStart(call);
+        listener.responseHeadersStart(call);
+        listener.responseHeadersEnd(call, response(call, 200));
+        listener.callEnd(call);
+
+        NetworkTelemetry.CallRecord record = onlyRecord();
+        assertFalse(record.connectionReused);
+        assertTrue(record.dnsMs >= 0);
+        assertTrue(record.connectMs >= 0);
+        // El protocolo negociado en la conexión manda sobre el de la respuesta
+        assertEquals("http/1.1", record.protocol);
+    }
+
+    @Test
+    public void repeatedRequestHeaders_countAsRetries() {
+        Call call = newCall("getProjects");
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.requestHeadersStart(call);
+        listener.requestHeadersStart(call);
+        listener.requestHeadersStart(call);
+        listener.responseHeadersStart(call);
+        listener.responseHeadersEnd(call, response(call, 200));
+        listener.callEnd(call);
+
+        assertEquals(2, onlyRecord().retries);
+    }
+
+    @Test
+    public void errorStatus_isRecordedAsFailure() {
+        completeCall("getProjects", 500, 10);
+
+        NetworkTelemetry.CallRecord record = onlyRecord();
+        assertEquals(500, record.status);
+        assertFalse(record.isSuccessful());
+    }
+
+    @Test
+    public void failedCall_recordsErrorTypeOnce() {
+        Call call = newCall("getProjects");
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.requestHeadersStart(call);
+        listener.callFailed(call, new SocketTimeoutException("timeout"));
+        listener.callEnd(call);
+
+        NetworkTelemetry.CallRecord record = onlyRecord();
+        assertEquals(0, record.status);
+        assertEquals("SocketTimeoutException", record.error);
+        assertEquals(-1, record.ttfbMs);
+        assertEquals(-1, record.responseBytes);
+    }
+
+    @Test
+    public void cancelledCall_recordsCancellation() {
+        Call call = newCall("getProjects");
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        call.cancel();
+        listener.callFailed(call, new IOException("Canceled"));
+
+        assertEquals("cancelada", onlyRecord().error);
+    }
+
+    @Test
+    public void cacheHit_recordsCacheProtocol() {
+        Call call = newCall("getCategories");
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.cacheHit(call, response(call, 200));
+        listener.callEnd(call);
+
+        NetworkTelemetry.CallRecord record = onlyRecord();
+        assertEquals(200, record.status);
+        assertEquals("cache", record.protocol);
+    }
+
+    // ==========================================
+    // BUFFER CIRCULAR
+    // ==========================================
+
+    @Test
+    public void buffer_keepsOnlyTheLatestCalls() {
+        for (int i = 0; i < NetworkTelemetry.BUFFER_CAPACITY + 3; i++) {
+            completeCall("call" + i, 200, i);
+        }
+
+        List<NetworkTelemetry.CallRecord> records = telemetry.getRecords();
+        assertEquals(NetworkTelemetry.BUFFER_CAPACITY, records.size());
+        assertEquals(NetworkTelemetry.BUFFER_CAPACITY + 3, telemetry.getTotalRecorded());
+        assertEquals("call3", records.get(0).endpoint);
+        assertEquals("call" + (NetworkTelemetry.BUFFER_CAPACITY + 2),
+                records.get(records.size() - 1).endpoint);
+    }
+
+    @Test
+    public void clear_emptiesTheBuffer() {
+        completeCall("getProjects", 200, 10);
+
+        telemetry.clear();
+
+        assertTrue(telemetry.getRecords().isEmpty());
+        assertEquals("Sin llamadas registradas", telemetry.getSummaryText());
+    }
+
+    // ==========================================
+    // TRAZA DE ARRANQUE
+    // ==========================================
+
+    /**
+     * Precalentamiento: abre la conexión (DNS + conexión) y recibe el 204 de api/ping/
+     */
+    private void prewarm() throws Exception {
+        Call call = newCall(NetworkTelemetry.PREWARM_ENDPOINT);
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 443);
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.dnsStart(call, "localhost");
+        listener.dnsEnd(call, "localhost", Collections.singletonList(address.getAddress()));
+        listener.connectStart(call, address, Proxy.NO_PROXY);
+        listener.connectEnd(call, address, Proxy.NO_PROXY, Protocol.HTTP_2);
+        listener.requestHeadersStart(call);
+        listener.responseHeadersStart(call);
+        listener.responseHeadersEnd(call, response(call, 204));
+        listener.callEnd(call);
+    }
+
+    @Test
+    public void withoutMarkStartup_nothingIsTraced() {
+        completeCall("getProjects", 200, 10);
+
+        assertNull(telemetry.getStartupRecord());
+        assertEquals(-1, telemetry.getStartupFirstByteMs());
+    }
+
+    @Test
+    public void firstProjectsLoad_afterPrewarm_isTracedOnReusedConnection() throws Exception {
+        telemetry.markStartup();
+
+        prewarm();
+        assertNull(telemetry.getStartupRecord());
+
+        completeCall("getProjects", 200, 2048);
+
+        NetworkTelemetry.CallRecord startup = telemetry.getStartupRecord();
+        assertNotNull(startup);
+        assertEquals("getProjects", startup.endpoint);
+        assertTrue(startup.connectionReused);
+        assertFalse(telemetry.getRecords().get(0).connectionReused);
+        assertTrue(telemetry.getStartupFirstByteMs() >= 0);
+    }
+
+    @Test
+    public void otherEndpoints_doNotEndTheTrace() {
+        telemetry.markStartup();
+
+        completeCall("getBudgetItems", 200, 10);
+
+        assertNull(telemetry.getStartupRecord());
+    }
+
+    @Test
+    public void failedProjectsLoad_waitsForTheNextFirstByte() {
+        telemetry.markStartup();
+        Call call = newCall("getProjects");
+        EventListener listener = telemetry.eventListenerFactory().create(call);
+        listener.callStart(call);
+        listener.callFailed(call, new SocketTimeoutException("timeout"));
+
+        assertNull(telemetry.getStartupRecord());
+
+        completeCall("getProjects", 200, 10);
+
+        assertSame(telemetry.getRecords().get(1), telemetry.getStartupRecord());
+    }
+
+    @Test
+    public void onlyTheFirstProjectsLoadIsTraced() {
+        telemetry.markStartup();
+
+        completeCall("getProjects", 200, 10);
+        completeCall("getProjects", 200, 10);
+
+        assertSame(telemetry.getRecords().get(0), telemetry.getStartupRecord());
+    }
+
+    @Test
+    public void markStartup_keepsTheFirstMark() throws InterruptedException {
+        telemetry.markStartup();
+        Thread.sleep(20);
+        // Recrear la actividad (rotación) no reinicia la medición
+        telemetry.markStartup();
+
+        completeCall("getProjects", 200, 10);
+
+        assertTrue(telemetry.getStartupFirstByteMs() >= 20);
+    }
+
+    // ==========================================
+    // RESÚMENES
+    // ==========================================
+
+    @Test
+    public void summaries_groupByEndpointAndSortByCalls() {
+        completeCall("getBudgetItems", 200, 100);
+        completeCall("getProjects", 200, 100);
+        completeCall("getProjects", 500, 300);
+        completeCall("getProjects", 200, 200);
+
+        List<NetworkTelemetry.EndpointSummary> summaries = telemetry.getSummaries();
+
+        assertEquals(2, summaries.size());
+        NetworkTelemetry.EndpointSummary projects = summaries.get(0);
+        assertEquals("getProjects", projects.endpoint);
+        assertEquals(3, projects.calls);
+        assertEquals(1, projects.failures);
+        assertEquals(200, projects.avgResponseBytes);
+        assertTrue(projects.p50Ms >= 0);
+        assertTrue(projects.p50TtfbMs >= 0);
+        assertEquals("getBudgetItems", summaries.get(1).endpoint);
+        assertEquals(1, summaries.get(1).calls);
+    }
+
+    @Test
+    public void percentile_usesNearestRank() {
+        List<Long> sorted = Arrays.asList(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L);
+
+        assertEquals(50, NetworkTelemetry.percentile(sorted, 50));
+        assertEquals(90, NetworkTelemetry.percentile(sorted, 90));
+        assertEquals(100, NetworkTelemetry.percentile(sorted, 99));
+        assertEquals(7, NetworkTelemetry.percentile(Collections.singletonList(7L), 50));
+        assertEquals(-1, NetworkTelemetry.percentile(Collections.emptyList(), 50));
+    }
+}
@@ -0,0 +1,332 @@
+package com.regenerarestudio.regenerapp.data.api;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Single-flight: una llamada de red por clave, reparto del resultado, errores y cancelación
+ */
+public class RequestCoalescerTest {
+
+    // El coalescer es un singleton: cada prueba usa claves propias
+    private static final AtomicInteger KEYS = new AtomicInteger();
+
+    private final RequestCoalescer coalescer = RequestCoalescer.getInstance();
+
+    // ==========================================
+    // JOIN / COMPLETE / FAIL
+    // ==========================================
+
+    @Test
+    public void join_firstCallerLeadsTheRest() {
+        String key = newKey();
+        RecordingListener<String> first = new RecordingListener<>();
+        RecordingListener<String> second = new RecordingListener<>();
+
+        assertTrue(coalescer.join(key, first));
+        assertFalse(coalescer.join(key, second));
+        assertTrue(coalescer.isInFlight(key));
+
+        coalescer.complete(key, "listo");
+
+        assertEquals(Arrays.asList("listo"), first.results);
+        assertEquals(Arrays.asList("listo"), second.results);
+        assertFalse(coalescer.isInFlight(key));
+        // La siguiente petición vuelve a la red
+        assertTrue(coalescer.join(key, new RecordingListener<String>()));
+        coalescer.drain(key);
+    }
+
+    @Test
+    public void fail_reachesEveryListener() {
+        String key = newKey();
+        RecordingListener<String> first = new RecordingListener<>();
+        RecordingListener<String> second = new RecordingListener<>();
+        coalescer.join(key, first);
+        coalescer.join(key, second);
+
+        IOException error = new IOException("sin red");
+        coalescer.fail(key, error);
+
+        assertEquals(Arrays.<Throwable>asList(error), first.errors);
+        assertEquals(Arrays.<Throwable>asList(error), second.errors);
+        assertTrue(first.results.isEmpty());
+    }
+
+    @Test
+    public void drain_returnsListenersInJoinOrder() {
+        String key = newKey();
+        RecordingListener<String> first = new RecordingListener<>();
+        RecordingListener<String> second = new RecordingListener<>();
+        coalescer.join(key, first);
+        coalescer.join(key, second);
+
+        List<RequestCoalescer.Listener<?>> drained = coalescer.drain(key);
+
+        assertEquals(2, drained.size());
+        assertSame(first, drained.get(0));
+        assertSame(second, drained.get(1));
+        assertTrue(coalescer.drain(key).isEmpty());
+        // complete sin receptores no hace nada
+        coalescer.complete(key, "tarde");
+        assertTrue(first.results.isEmpty());
+    }
+
+    @Test
+    public void leave_othersStillReceiveTheResult() {
+        String key = newKey();
+        RecordingListener<String> first = new RecordingListener<>();
+        RecordingListener<String> second = new RecordingListener<>();
+        coalescer.join(key, first);
+        coalescer.join(key, second);
+
+        // Quedan receptores: quien inició la petición no debe cancelarla
+        assertFalse(coalescer.leave(key, first));
+        assertTrue(coalescer.isInFlight(key));
+
+        coalescer.complete(key, "listo");
+
+        assertTrue(first.results.isEmpty());
+        assertEquals(Arrays.asList("listo"), second.results);
+    }
+
+    @Test
+    public void leave_lastListenerEndsTheRequest() {
+        String key = newKey();
+        RecordingListener<String> first = new RecordingListener<>();
+        RecordingListener<String> second = new RecordingListener<>();
+        coalescer.join(key, first);
+        coalescer.join(key, second);
+
+        assertFalse(coalescer.leave(key, second));
+        assertTrue(coalescer.leave(key, first));
+        assertFalse(coalescer.isInFlight(key));
+
+        // Salir otra vez, o de una clave ya terminada, no hace nada
+        assertFalse(coalescer.leave(key, first));
+        coalescer.fail(key, new IOException("tarde"));
+        assertTrue(first.errors.isEmpty());
+        assertTrue(second.errors.isEmpty());
+    }
+
+    @Test
+    public void metrics_countSharedRequestsByKey() {
+        String key = newKey();
+        long network = coalescer.getNetworkRequestCount();
+        long coalesced = coalescer.getCoalescedRequestCount();
+
+        coalescer.join(key, new RecordingListener<String>());
+        coalescer.join(key, new RecordingListener<String>());
+        coalescer.join(key, new RecordingListener<String>());
+        coalescer.drain(key);
+
+        assertEquals(network + 1, coalescer.getNetworkRequestCount());
+        assertEquals(coalesced + 2, coalescer.getCoalescedRequestCount());
+        Map<String, Long> byKey = coalescer.getCoalescedByKey();
+        assertEquals(Long.valueOf(2), byKey.get(key));
+    }
+
+    // ==========================================
+    // LLAMADAS RETROFIT
+    // ==========================================
+
+    @Test
+    public void enqueue_sharesOneNetworkCall() {
+        String key = newKey();
+        FakeCall<String> leader = new FakeCall<>("a");
+        FakeCall<String> follower = new FakeCall<>("a");
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        assertSame(leader, coalescer.enqueue(key, leader, first));
+        coalescer.enqueue(key, follower, second);
+
+        assertTrue(leader.isEnqueued());
+        assertFalse(follower.isExecuted());
+
+        leader.succeed("cuerpo");
+
+        assertEquals(Arrays.asList("cuerpo"), first.bodies);
+        assertEquals(Arrays.asList("cuerpo"), second.bodies);
+        // Ambos reciben la llamada que fue a la red
+        assertSame(leader, first.calls.get(0));
+        assertSame(leader, second.calls.get(0));
+        assertFalse(coalescer.isInFlight(key));
+    }
+
+    @Test
+    public void enqueue_errorBodyCopiedForEachCallback() {
+        String key = newKey();
+        FakeCall<String> leader = new FakeCall<>("b");
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        coalescer.enqueue(key, leader, first);
+        coalescer.enqueue(key, new FakeCall<String>("b"), second);
+
+        leader.respond(Response.<String>error(404,
+                ResponseBody.create(MediaType.parse("application/json"), "{\"detail\": \"No encontrado\"}")));
+
+        // El errorBody solo se puede leer una vez: cada callback tiene su copia
+        assertEquals(Arrays.asList("404 {\"detail\": \"No encontrado\"}"), first.errorBodies);
+        assertEquals(Arrays.asList("404 {\"detail\": \"No encontrado\"}"), second.errorBodies);
+        assertTrue(first.bodies.isEmpty());
+    }
+
+    @Test
+    public void enqueue_networkFailureReachesEveryCallback() {
+        String key = newKey();
+        FakeCall<String> leader = new FakeCall<>("c");
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        coalescer.enqueue(key, leader, first);
+        coalescer.enqueue(key, new FakeCall<String>("c"), second);
+
+        leader.failWith(new IOException("timeout"));
+
+        assertEquals(Arrays.asList("timeout"), first.failures);
+        assertEquals(Arrays.asList("timeout"), second.failures);
+        assertTrue(leader.getClones().isEmpty());
+    }
+
+    // ==========================================
+    // CANCELACIÓN
+    // ==========================================
+
+    @Test
+    public void leaderCancel_relaunchesForTheOthers() {
+        String key = newKey();
+        FakeCall<String> leader = new FakeCall<>("d");
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        RecordingCallback third = new RecordingCallback();
+        coalescer.enqueue(key, leader, first);
+        coalescer.enqueue(key, new FakeCall<String>("d"), second);
+        coalescer.enqueue(key, new FakeCall<String>("d"), third);
+
+        leader.cancel();
+
+        // Solo quien canceló pierde la respuesta
+        assertEquals(Arrays.asList("Canceled"), first.failures);
+        assertTrue(second.failures.isEmpty());
+        assertTrue(coalescer.isInFlight(key));
+        assertEquals(1, leader.getClones().size());
+
+        FakeCall<String> relaunched = leader.getClones().get(0);
+        assertTrue(relaunched.isEnqueued());
+        relaunched.succeed("otra vez");
+
+        assertEquals(Arrays.asList("otra vez"), second.bodies);
+        assertEquals(Arrays.asList("otra vez"), third.bodies);
+        assertTrue(first.bodies.isEmpty());
+        assertFalse(coalescer.isInFlight(key));
+    }
+
+    @Test
+    public void leaderCancel_withoutOthersDoesNotRelaunch() {
+        String key = newKey();
+        FakeCall<String> leader = new FakeCall<>("e");
+        RecordingCallback only = new RecordingCallback();
+        coalescer.enqueue(key, leader, only);
+
+        leader.cancel();
+
+        assertEquals(Arrays.asList("Canceled"), only.failures);
+        assertTrue(leader.getClones().isEmpty());
+        assertFalse(coalescer.isInFlight(key));
+    }
+
+    @Test
+    public void leaderCancel_othersJoinRequestStartedMeanwhile() {
+        String key = newKey();
+        FakeCall<String> leader = new FakeCall<>("f");
+        FakeCall<String> retry = new FakeCall<>("f");
+        RecordingCallback retried = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        // Quien cancela vuelve a pedir el recurso desde su propio onFailure
+        coalescer.enqueue(key, leader, new RecordingCallback() {
+            @Override
+            public void onFailure(@NonNull Call<String> call, @NonNull Throwable t) {
+                coalescer.enqueue(key, retry, retried);
+            }
+        });
+        coalescer.enqueue(key, new FakeCall<String>("f"), second);
+
+        leader.cancel();
+
+        // Ya hay otra petición en curso: no se relanza, los que esperaban se unen a ella
+        assertTrue(leader.getClones().isEmpty());
+        assertTrue(retry.isEnqueued());
+        retry.succeed("reintento");
+
+        assertEquals(Arrays.asList("reintento"), retried.bodies);
+        assertEquals(Arrays.asList("reintento"), second.bodies);
+        assertFalse(coalescer.isInFlight(key));
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private static String newKey() {
+        return "test:" + KEYS.incrementAndGet();
+    }
+
+    private static class RecordingListener<T> implements RequestCoalescer.Listener<T> {
+        final List<T> results = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+
+        @Override
+        public void onSuccess(T result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            errors.add(error);
+        }
+    }
+
+    private static class RecordingCallback implements Callback<String> {
+        final List<Call<String>> calls = new ArrayList<>();
+        final List<String> bodies = new ArrayList<>();
+        final List<String> errorBodies = new ArrayList<>();
+        final List<String> failures = new ArrayList<>();
+
+        @Override
+        public void onResponse(@NonNull Call<String> call, @NonNull Response<String> response) {
+            calls.add(call);
+            if (response.isSuccessful()) {
+                bodies.add(response.body());
+                return;
+            }
+            try {
+                errorBodies.add(response.code() + " " + response.errorBody().string());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public void onFailure(@NonNull Call<String> call, @NonNull Throwable t) {
+            calls.add(call);
+            failures.add(t.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import com.google.gson.Gson;
+import com.regenerarestudio.regenerapp.data.models.Material;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Búsqueda sin conexión del catálogo: prefijos, trigramas, varias palabras y orden de resultados
+ */
+public class MaterialSearchIndexTest {
+
+    private static final long CONSTRUCTION = 1L;
+    private static final long PAINT = 2L;
+
+    private final Gson gson = new Gson();
+    private MaterialSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = MaterialSearchIndex.build(Arrays.asList(
+                material(1, "Cemento Holcim Gris", "CEM-123", "Holcim", CONSTRUCTION, "Construcción"),
+                material(2, "Cemento Blanco", "CEM-200", "Holcim", CONSTRUCTION, "Construcción"),
+                material(3, "Cerámica Graiman 60x60", "CER-060", "Graiman", CONSTRUCTION, "Construcción"),
+                material(4, "Pintura Látex Interior", "PIN-001", "Pintuco", PAINT, "Acabados"),
+                material(5, "Pinturas Esmalte", "PIN-002", "Cóndor", PAINT, "Acabados"),
+                material(6, "Arena Fina", "ARE-001", null, CONSTRUCTION, "Construcción")));
+    }
+
+    // ==========================================
+    // PREFIJO Y TÉRMINOS
+    // ==========================================
+
+    @Test
+    public void prefix_matchesStartOfAnyTerm() {
+        assertEquals(Arrays.asList(2L, 1L), ids(index.search("cem", 10)));
+        assertEquals(Arrays.asList(2L, 1L), ids(index.search("holc", 10)));
+    }
+
+    @Test
+    public void accentsAndCaseAreIgnored() {
+        assertEquals(Arrays.asList(3L), ids(index.search("CERAMICA", 10)));
+        assertEquals(Arrays.asList(4L), ids(index.search("latex", 10)));
+        assertEquals(Arrays.asList(5L), ids(index.search("condor", 10)));
+    }
+
+    @Test
+    public void code_matchesWithOrWithoutSeparators() {
+        assertEquals(1L, (long) index.search("cem123", 10).get(0).getId());
+        assertEquals(1L, (long) index.search("CEM-123", 10).get(0).getId());
+    }
+
+    @Test
+    public void allWordsMustMatch() {
+        assertEquals(Arrays.asList(2L), ids(index.search("cemento blanco", 10)));
+        assertEquals(Arrays.asList(1L), ids(index.search("gris cem", 10)));
+        assertTrue(index.search("cemento esmalte", 10).isEmpty());
+    }
+
+    // ==========================================
+    // TRIGRAMAS (ERRORES DE TIPEO)
+    // ==========================================
+
+    @Test
+    public void fuzzy_toleratesTypos() {
+        assertEquals(Arrays.asList(2L, 1L), ids(index.search("cemneto", 10)));
+        assertEquals(Arrays.asList(6L), ids(index.search("arenna", 10)));
+    }
+
+    @Test
+    public void fuzzy_onlyWhenNoPrefixMatch() {
+        // "pintura" coincide por prefijo: no se agregan términos parecidos por trigramas
+        assertEquals(Arrays.asList(4L, 5L), ids(index.search("pintura", 10)));
+    }
+
+    @Test
+    public void fuzzy_rejectsUnrelatedWords() {
+        assertTrue(index.search("xyz", 10).isEmpty());
+        assertTrue(index.search("ladrillo", 10).isEmpty());
+    }
+
+    // ==========================================
+    // ORDEN
+    // ==========================================
+
+    @Test
+    public void ranking_exactTermBeforePrefix() {
+        // "pintura" es término exacto del 4 y solo prefijo de "pinturas" (5)
+        List<Material> results = index.search("pintura", 10);
+        assertEquals(4L, (long) results.get(0).getId());
+    }
+
+    @Test
+    public void code_splitAndCompactQueries() {
+        // "cem 200": el 2 por código exacto; el 1 no tiene "200" y queda fuera
+        assertEquals(Arrays.asList(2L), ids(index.search("cem 200", 10)));
+        assertEquals(Arrays.asList(3L), ids(index.search("cer060", 10)));
+    }
+
+    @Test
+    public void ranking_tiesByName() {
+        // Mismo puntaje: orden alfabético del nombre normalizado
+        assertEquals(Arrays.asList(2L, 1L), ids(index.search("holcim", 10)));
+    }
+
+    @Test
+    public void limitIsApplied() {
+        assertEquals(1, index.search("cemento", 1).size());
+    }
+
+    // ==========================================
+    // CATEGORÍAS Y CONSULTA VACÍA
+    // ==========================================
+
+    @Test
+    public void categoryFilter() {
+        assertEquals(Arrays.asList(4L, 5L), ids(index.search("pin", PAINT, 10)));
+        assertTrue(index.search("cemento", PAINT, 10).isEmpty());
+    }
+
+    @Test
+    public void emptyQuery_browsesCategoryAlphabetically() {
+        assertEquals(Arrays.asList(6L, 2L, 1L, 3L), ids(index.search("", CONSTRUCTION, 10)));
+        assertEquals(Arrays.asList(6L, 2L), ids(index.search(" ", CONSTRUCTION, 2)));
+    }
+
+    @Test
+    public void emptyQueryWithoutCategory_isEmpty() {
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search(null, 10).isEmpty());
+    }
+
+    @Test
+    public void emptyCatalog() {
+        MaterialSearchIndex empty = MaterialSearchIndex.build(new ArrayList<>());
+        assertEquals(0, empty.size());
+        assertTrue(empty.search("cemento", 10).isEmpty());
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private Material material(long id, String name, String code, String brand, long categoryId, String categoryName) {
+        String json = "{\"id\": " + id + ", \"name\": \"" + name + "\", \"code\": \"" + code + "\", "
+                + (brand != null ? "\"brand\": \"" + brand + "\", " : "")
+                + "\"category_id\": " + categoryId + ", \"category_name\": \"" + categoryName + "\"}";
+        return gson.fromJson(json, Material.class);
+    }
+
+    private static List<Long> ids(List<Material> materials) {
+        List<Long> ids = new ArrayList<>();
+        for (Material material : materials) {
+            ids.add(material.getId());
+        }
+        return ids;
+    }
+}
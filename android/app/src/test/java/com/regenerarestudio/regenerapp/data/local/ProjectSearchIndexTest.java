@@ -0,0 +1,147 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import com.regenerarestudio.regenerapp.data.models.Project;
+import com.regenerarestudio.regenerapp.utils.SearchText;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Filtrado de proyectos: texto normalizado + bitsets de fase y tipo
+ */
+public class ProjectSearchIndexTest {
+
+    private static final String[] NO_WORDS = new String[0];
+
+    private ProjectSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = ProjectSearchIndex.build(Arrays.asList(
+                project(1, "Casa Andrade", "María Andrade", "Cumbayá", "residential", "design"),
+                project(2, "Oficinas Norte", "Grupo Norte", "Quito", "commercial", "construction"),
+                project(3, "Local Centro", "Andrés López", "Quito", "commercial", "design"),
+                project(4, "Departamento Sur", null, "Guayaquil", "residential", "completed"),
+                project(5, "Sin fase", "Cliente", "Quito", null, null)));
+    }
+
+    // ==========================================
+    // TEXTO
+    // ==========================================
+
+    @Test
+    public void emptyQuery_keepsOriginalOrder() {
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), ids(filter("", null, null)));
+    }
+
+    @Test
+    public void text_matchesNameClientAndLocationWithoutAccents() {
+        assertEquals(Arrays.asList(1L), ids(filter("CUMBAYA", null, null)));
+        assertEquals(Arrays.asList(1L, 3L), ids(filter("andr", null, null)));
+        assertEquals(Arrays.asList(4L), ids(filter("guayaquil", null, null)));
+    }
+
+    @Test
+    public void text_requiresEveryWord() {
+        assertEquals(Arrays.asList(3L), ids(filter("quito lopez", null, null)));
+        assertTrue(filter("quito guayaquil", null, null).isEmpty());
+    }
+
+    // ==========================================
+    // BITSETS DE FASE Y TIPO
+    // ==========================================
+
+    @Test
+    public void phaseBitset() {
+        assertEquals(Arrays.asList(1L, 3L), ids(filter("", null, "design")));
+        assertEquals(Arrays.asList(4L), ids(filter("", null, "completed")));
+    }
+
+    @Test
+    public void typeBitset() {
+        assertEquals(Arrays.asList(2L, 3L), ids(filter("", "commercial", null)));
+        assertEquals(Arrays.asList(1L, 4L), ids(filter("", "residential", "")));
+    }
+
+    @Test
+    public void phaseAndTypeIntersect() {
+        assertEquals(Arrays.asList(3L), ids(filter("", "commercial", "design")));
+        assertTrue(filter("", "residential", "construction").isEmpty());
+    }
+
+    @Test
+    public void bitsetsAndTextCombine() {
+        assertEquals(Arrays.asList(2L), ids(filter("quito", "commercial", "construction")));
+        assertTrue(filter("andrade", "commercial", null).isEmpty());
+    }
+
+    @Test
+    public void unknownPhaseOrType_isEmpty() {
+        assertTrue(filter("", null, "planning").isEmpty());
+        assertTrue(filter("", "industrial", null).isEmpty());
+    }
+
+    // ==========================================
+    // CANCELACIÓN
+    // ==========================================
+
+    @Test
+    public void cancelledMidScan_returnsNull() {
+        List<Project> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(project(i, "Proyecto " + i, "Cliente", "Quito", "residential", "design"));
+        }
+        ProjectSearchIndex large = ProjectSearchIndex.build(many);
+
+        AtomicInteger checks = new AtomicInteger();
+        assertNull(large.filter(NO_WORDS, null, null, () -> checks.incrementAndGet() > 1));
+        assertTrue(checks.get() >= 2);
+
+        assertEquals(1000, large.filter(NO_WORDS, null, null, () -> false).size());
+    }
+
+    @Test
+    public void buildCopiesSourceList() {
+        List<Project> source = new ArrayList<>(Arrays.asList(project(1, "Uno", null, null, null, null)));
+        ProjectSearchIndex copy = ProjectSearchIndex.build(source);
+        source.clear();
+
+        assertEquals(1, copy.size());
+        assertEquals(1, copy.filter(NO_WORDS, null, null, () -> false).size());
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private List<Project> filter(String query, String type, String phase) {
+        return index.filter(SearchText.words(SearchText.normalize(query)), type, phase, () -> false);
+    }
+
+    private static Project project(long id, String name, String client, String location,
+                                   String type, String phase) {
+        Project project = new Project();
+        project.setId(id);
+        project.setName(name);
+        project.setClient(client);
+        project.setLocation(location);
+        project.setProjectType(type);
+        project.setCurrentPhase(phase);
+        return project;
+    }
+
+    private static List<Long> ids(List<Project> projects) {
+        List<Long> ids = new ArrayList<>();
+        for (Project project : projects) {
+            ids.add(project.getId());
+        }
+        return ids;
+    }
+}
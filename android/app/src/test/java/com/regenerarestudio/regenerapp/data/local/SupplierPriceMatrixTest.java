@@ -0,0 +1,162 @@
+package com.regenerarestudio.regenerapp.data.local;
+
+import com.google.gson.Gson;
+import com.regenerarestudio.regenerapp.data.models.SupplierWithPrice;
+import com.regenerarestudio.regenerapp.data.responses.SupplierPriceMatrixResponse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Matriz de precios: orden por precio final (con descuento), agrupación por material y consultas
+ */
+public class SupplierPriceMatrixTest {
+
+    private static final double DELTA = 0.0001;
+
+    private static final String SUPPLIERS = "\"suppliers\": ["
+            + "{\"id\": 3, \"name\": \"Ferretería Centro\", \"city\": \"Quito\", \"zone\": \"Centro\", \"rating\": 4},"
+            + "{\"id\": 1, \"name\": \"Distribuidora Norte\", \"commercial_name\": \"DiNorte\", \"city\": \"Quito\","
+            + " \"zone\": \"Norte\", \"is_preferred\": true, \"phone\": \"099 123 4567\"},"
+            + "{\"id\": 2, \"name\": \"Materiales Sur\", \"zone\": \"Sur\", \"delivery_time\": \"48h\"}]";
+
+    private final Gson gson = new Gson();
+
+    // ==========================================
+    // ORDEN POR PRECIO FINAL
+    // ==========================================
+
+    @Test
+    public void suppliersOrderedByDiscountedPrice() {
+        // El servidor ordena por precio de lista (90, 100, 110); con descuento el de 110 queda en 88
+        SupplierPriceMatrix matrix = build("\"material\": [10, 10, 10], \"supplier\": [3, 1, 2],"
+                + " \"price\": [90, 100, 110], \"discount\": [0, 0, 20]");
+
+        List<SupplierWithPrice> suppliers = matrix.suppliersFor(10);
+        assertEquals(Arrays.asList(2L, 3L, 1L), supplierIds(suppliers));
+        assertEquals(88.0, suppliers.get(0).getFinalPrice(), DELTA);
+        assertEquals(110.0, suppliers.get(0).getPrice(), DELTA);
+        assertEquals(20.0, suppliers.get(0).getDiscountPercentage(), DELTA);
+
+        assertEquals(2L, matrix.cheapestFor(10).getSupplierId());
+        assertEquals(88.0, matrix.cheapestPrice(10), DELTA);
+    }
+
+    @Test
+    public void equalFinalPrice_tiesBySupplierId() {
+        // 100 con 10% = 90 (proveedor 3) y 90 sin descuento (proveedor 1)
+        SupplierPriceMatrix matrix = build("\"material\": [7, 7], \"supplier\": [3, 1],"
+                + " \"price\": [100, 90], \"discount\": [10, 0]");
+
+        assertEquals(Arrays.asList(1L, 3L), supplierIds(matrix.suppliersFor(7)));
+    }
+
+    @Test
+    public void rowsGroupedByMaterial() {
+        SupplierPriceMatrix matrix = build("\"material\": [20, 10, 20, 10], \"supplier\": [1, 2, 2, 1],"
+                + " \"price\": [5, 8, 4, 9], \"discount\": [0, 0, 0, 0]");
+
+        assertEquals(2, matrix.materialCount());
+        assertEquals(4, matrix.size());
+        assertEquals(Arrays.asList(2L, 1L), supplierIds(matrix.suppliersFor(10)));
+        assertEquals(Arrays.asList(2L, 1L), supplierIds(matrix.suppliersFor(20)));
+    }
+
+    // ==========================================
+    // FILAS INCOMPLETAS
+    // ==========================================
+
+    @Test
+    public void rowsWithUnknownSupplierAreDropped() {
+        SupplierPriceMatrix matrix = build("\"material\": [10, 10, 11], \"supplier\": [99, 1, 99],"
+                + " \"price\": [1, 50, 2], \"discount\": [0, 0, 0]");
+
+        assertEquals(1, matrix.size());
+        assertEquals(Arrays.asList(1L), supplierIds(matrix.suppliersFor(10)));
+        assertFalse(matrix.hasMaterial(11));
+    }
+
+    @Test
+    public void missingColumnsUseDefaults() {
+        SupplierPriceMatrix matrix = build("\"material\": [10, 10], \"supplier\": [1, 2], \"price\": [30, 20]");
+
+        List<SupplierWithPrice> suppliers = matrix.suppliersFor(10);
+        assertEquals(Arrays.asList(2L, 1L), supplierIds(suppliers));
+        assertEquals(0.0, suppliers.get(0).getDiscountPercentage(), DELTA);
+        assertEquals("USD", suppliers.get(0).getCurrency());
+        assertEquals(0L, suppliers.get(0).getPriceUpdatedAt());
+    }
+
+    // ==========================================
+    // CONSULTAS
+    // ==========================================
+
+    @Test
+    public void unknownMaterial() {
+        SupplierPriceMatrix matrix = build("\"material\": [10], \"supplier\": [1], \"price\": [5]");
+
+        assertFalse(matrix.hasMaterial(99));
+        assertTrue(matrix.suppliersFor(99).isEmpty());
+        assertNull(matrix.cheapestFor(99));
+        assertTrue(Double.isNaN(matrix.cheapestPrice(99)));
+    }
+
+    @Test
+    public void cheapestPricesAlignedWithInput() {
+        SupplierPriceMatrix matrix = build("\"material\": [10, 10, 20], \"supplier\": [1, 2, 3],"
+                + " \"price\": [50, 40, 7], \"discount\": [50, 0, 0]");
+
+        double[] prices = matrix.cheapestPrices(new long[]{20, 99, 10});
+        assertEquals(7.0, prices[0], DELTA);
+        assertTrue(Double.isNaN(prices[1]));
+        assertEquals(25.0, prices[2], DELTA);
+    }
+
+    @Test
+    public void supplierDataCopiedIntoRows() {
+        SupplierPriceMatrix matrix = build("\"material\": [10, 10, 10], \"supplier\": [1, 2, 3],"
+                + " \"price\": [10, 20, 30], \"currency\": [\"USD\", \"USD\", \"EUR\"],"
+                + " \"updated_at\": [1700000000000, 0, 5]");
+
+        List<SupplierWithPrice> suppliers = matrix.suppliersFor(10);
+        SupplierWithPrice first = suppliers.get(0);
+        assertEquals("Distribuidora Norte", first.getSupplierName());
+        assertEquals("DiNorte", first.getCommercialName());
+        assertEquals("Quito - Norte", first.getLocation());
+        assertEquals("https://wa.me/593991234567", first.getWhatsappUrl());
+        assertTrue(first.isPreferred());
+        assertEquals(1700000000000L, first.getPriceUpdatedAt());
+
+        SupplierWithPrice second = suppliers.get(1);
+        assertEquals("Sur", second.getLocation());
+        assertEquals("", second.getWhatsappUrl());
+        assertEquals("", second.getPhone());
+        assertEquals("48h", second.getDeliveryTime());
+
+        assertEquals("EUR", suppliers.get(2).getCurrency());
+        assertEquals(4.0, suppliers.get(2).getRating(), DELTA);
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private SupplierPriceMatrix build(String columns) {
+        SupplierPriceMatrixResponse response =
+                gson.fromJson("{" + columns + ", " + SUPPLIERS + "}", SupplierPriceMatrixResponse.class);
+        return SupplierPriceMatrix.build(response);
+    }
+
+    private static List<Long> supplierIds(List<SupplierWithPrice> suppliers) {
+        List<Long> ids = new ArrayList<>();
+        for (SupplierWithPrice supplier : suppliers) {
+            ids.add(supplier.getSupplierId());
+        }
+        return ids;
+    }
+}
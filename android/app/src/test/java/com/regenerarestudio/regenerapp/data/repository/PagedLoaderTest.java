@@ -0,0 +1,370 @@
+package com.regenerarestudio.regenerapp.data.repository;
+
+import com.regenerarestudio.regenerapp.data.api.FakeCall;
+import com.regenerarestudio.regenerapp.data.api.RequestCoalescer;
+import com.regenerarestudio.regenerapp.data.responses.PaginatedResponse;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Descarga paginada: precarga paralela acotada, orden de las páginas, errores y cancelación
+ * (incluida la de una pantalla que comparte la descarga con otras, ver {@link SharedLoad})
+ */
+public class PagedLoaderTest {
+
+    // El coalescer es un singleton: cada prueba usa claves propias
+    private static final AtomicInteger KEYS = new AtomicInteger();
+
+    // Llamadas pedidas por el cargador, en orden (página = índice + 1 solo en el modo incremental)
+    private final List<FakeCall<PaginatedResponse<Integer>>> calls = new ArrayList<>();
+    private final List<Integer> requestedPages = new ArrayList<>();
+    private final List<Integer> requestedSizes = new ArrayList<>();
+    private final Recorder recorder = new Recorder();
+
+    private final PagedLoader<Integer> loader = new PagedLoader<>((page, pageSize) -> {
+        requestedPages.add(page);
+        requestedSizes.add(pageSize);
+        FakeCall<PaginatedResponse<Integer>> call = new FakeCall<>("items/?page=" + page);
+        calls.add(call);
+        return call;
+    }, 10);
+
+    // ==========================================
+    // MODO COMPLETO
+    // ==========================================
+
+    @Test
+    public void loadAll_singlePage() {
+        loader.loadAll(recorder);
+        callFor(1).succeed(page(3, false, 1, 2, 3));
+
+        assertEquals(Arrays.asList(1), requestedPages);
+        assertEquals(Arrays.asList(10), requestedSizes);
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3)), recorder.deliveries);
+        assertFalse(recorder.lastHasMore);
+    }
+
+    @Test
+    public void loadAll_joinsPagesInOrderWhateverArrivesFirst() {
+        loader.loadAll(recorder);
+        callFor(1).succeed(page(25, true, range(1, 10)));
+
+        // 25 items de a 10: páginas 2 y 3 en paralelo
+        assertEquals(Arrays.asList(1, 2, 3), requestedPages);
+        callFor(3).succeed(page(25, false, range(21, 5)));
+        assertTrue(recorder.deliveries.isEmpty());
+        callFor(2).succeed(page(25, true, range(11, 10)));
+
+        assertEquals(1, recorder.deliveries.size());
+        assertEquals(range(1, 25), recorder.deliveries.get(0));
+        assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    public void loadAll_boundsParallelPages() {
+        loader.loadAll(recorder);
+        callFor(1).succeed(page(100, true, range(1, 10)));
+
+        // 10 páginas: como máximo 4 en curso a la vez
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), requestedPages);
+        callFor(2).succeed(page(100, true, range(11, 10)));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), requestedPages);
+
+        for (int p = 3; p <= 10; p++) {
+            callFor(p).succeed(page(100, p < 10, range((p - 1) * 10 + 1, 10)));
+        }
+        assertEquals(10, requestedPages.size());
+        assertEquals(range(1, 100), recorder.deliveries.get(0));
+    }
+
+    @Test
+    public void loadAll_usesServerPageSize() {
+        loader.loadAll(recorder);
+        // Se pidieron 10 pero el servidor limita a 4: 9 items = 3 páginas
+        callFor(1).succeed(page(9, true, 1, 2, 3, 4));
+
+        assertEquals(Arrays.asList(1, 2, 3), requestedPages);
+        callFor(2).succeed(page(9, true, 5, 6, 7, 8));
+        callFor(3).succeed(page(9, false, 9));
+        assertEquals(range(1, 9), recorder.deliveries.get(0));
+    }
+
+    @Test
+    public void loadAll_firstPageError() {
+        loader.loadAll(recorder);
+        callFor(1).respond(Response.error(503, ResponseBody.create(null, "")));
+
+        assertEquals(Arrays.asList("HTTP 503"), recorder.errors);
+        assertTrue(recorder.deliveries.isEmpty());
+    }
+
+    @Test
+    public void loadAll_pageErrorCancelsTheRestAndReportsOnce() {
+        loader.loadAll(recorder);
+        callFor(1).succeed(page(50, true, range(1, 10)));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), requestedPages);
+
+        callFor(3).respond(Response.error(500, ResponseBody.create(null, "")));
+
+        assertEquals(Arrays.asList("Página 3: HTTP 500"), recorder.errors);
+        assertTrue(callFor(2).isCanceled());
+        assertTrue(callFor(4).isCanceled());
+        assertTrue(callFor(5).isCanceled());
+        // No se piden más páginas ni se entrega una lista parcial
+        assertEquals(5, requestedPages.size());
+        assertTrue(recorder.deliveries.isEmpty());
+        assertTrue(loader.isCancelled());
+    }
+
+    // ==========================================
+    // CANCELACIÓN
+    // ==========================================
+
+    @Test
+    public void cancel_stopsInFlightPagesWithoutCallback() {
+        loader.loadAll(recorder);
+        callFor(1).succeed(page(30, true, range(1, 10)));
+        loader.cancel();
+        loader.cancel();
+
+        assertTrue(callFor(2).isCanceled());
+        assertTrue(callFor(3).isCanceled());
+        assertTrue(recorder.deliveries.isEmpty());
+        assertTrue(recorder.errors.isEmpty());
+        assertTrue(loader.isCancelled());
+    }
+
+    @Test
+    public void pageFailure_reportsOnceWithPageNumber() {
+        loader.loadAll(recorder);
+        callFor(1).succeed(page(30, true, range(1, 10)));
+        callFor(2).failWith(new IOException("timeout"));
+
+        assertEquals(Arrays.asList("Página 2: timeout"), recorder.errors);
+        assertTrue(callFor(3).isCanceled());
+    }
+
+    // ==========================================
+    // DESCARGA COMPARTIDA
+    // ==========================================
+
+    @Test
+    public void sharedLoad_cancelOnlyDropsThatCaller() {
+        String key = newKey();
+        int[] abandoned = {0};
+        DataRecorder first = new DataRecorder();
+        DataRecorder second = new DataRecorder();
+        SharedLoad firstLoad = joinShared(key, first, abandoned);
+        SharedLoad secondLoad = joinShared(key, second, abandoned);
+
+        // Una pantalla se va (onCleared): la otra sigue esperando la misma descarga
+        firstLoad.cancel();
+        assertTrue(firstLoad.isCancelled());
+        assertFalse(secondLoad.isCancelled());
+        assertEquals(0, abandoned[0]);
+        assertFalse(loader.isCancelled());
+        assertFalse(callFor(1).isCanceled());
+
+        callFor(1).succeed(page(3, false, 1, 2, 3));
+
+        assertTrue(first.data.isEmpty());
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3)), second.data);
+        assertTrue(second.errors.isEmpty());
+    }
+
+    @Test
+    public void sharedLoad_lastCallerCancelsTheNetwork() {
+        String key = newKey();
+        int[] abandoned = {0};
+        DataRecorder first = new DataRecorder();
+        DataRecorder second = new DataRecorder();
+        SharedLoad firstLoad = joinShared(key, first, abandoned);
+        SharedLoad secondLoad = joinShared(key, second, abandoned);
+
+        secondLoad.cancel();
+        firstLoad.cancel();
+        firstLoad.cancel();
+
+        assertEquals(1, abandoned[0]);
+        assertTrue(callFor(1).isCanceled());
+        assertFalse(RequestCoalescer.getInstance().isInFlight(key));
+        assertTrue(first.data.isEmpty() && first.errors.isEmpty());
+        assertTrue(second.data.isEmpty() && second.errors.isEmpty());
+    }
+
+    @Test
+    public void sharedLoad_cancelAfterDeliveryDoesNothing() {
+        String key = newKey();
+        int[] abandoned = {0};
+        DataRecorder only = new DataRecorder();
+        SharedLoad load = joinShared(key, only, abandoned);
+        callFor(1).succeed(page(1, false, 7));
+
+        load.cancel();
+
+        assertEquals(Arrays.asList(Arrays.asList(7)), only.data);
+        assertEquals(0, abandoned[0]);
+    }
+
+    // ==========================================
+    // MODO INCREMENTAL
+    // ==========================================
+
+    @Test
+    public void loadNextPage_onePageAtATime() {
+        loader.loadNextPage(recorder);
+        loader.loadNextPage(recorder);   // ignorada: ya hay una en curso
+        assertEquals(Arrays.asList(1), requestedPages);
+        assertTrue(loader.isLoading());
+
+        callFor(1).succeed(page(15, true, range(1, 10)));
+        assertTrue(loader.hasMore());
+        assertFalse(loader.isLoading());
+
+        loader.loadNextPage(recorder);
+        callFor(2).succeed(page(15, false, range(11, 5)));
+
+        assertEquals(Arrays.asList(range(1, 10), range(11, 5)), recorder.deliveries);
+        assertFalse(loader.hasMore());
+
+        loader.loadNextPage(recorder);   // no quedan páginas
+        assertEquals(2, requestedPages.size());
+    }
+
+    @Test
+    public void loadNextPage_retriesSamePageAfterError() {
+        loader.loadNextPage(recorder);
+        calls.get(0).failWith(new IOException("sin red"));
+        assertEquals(Arrays.asList("sin red"), recorder.errors);
+
+        loader.loadNextPage(recorder);
+        assertEquals(Arrays.asList(1, 1), requestedPages);
+    }
+
+    @Test
+    public void loadNextPage_ignoredAfterCancel() {
+        loader.cancel();
+        loader.loadNextPage(recorder);
+        assertTrue(requestedPages.isEmpty());
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private static String newKey() {
+        return "pages:test:" + KEYS.incrementAndGet();
+    }
+
+    /**
+     * Unirse a la descarga compartida de la clave como lo hace BaseRepository.loadAllPagesWithCache:
+     * el primero inicia el cargador; el último en cancelar lo corta
+     */
+    private SharedLoad joinShared(String key, DataRecorder callback, int[] abandoned) {
+        RequestCoalescer coalescer = RequestCoalescer.getInstance();
+        RequestCoalescer.Listener<List<Integer>> waiter = new RequestCoalescer.Listener<List<Integer>>() {
+            @Override
+            public void onSuccess(List<Integer> items) {
+                callback.onData(new ArrayList<>(items), false);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                callback.onError(error.getMessage(), false);
+            }
+        };
+
+        if (coalescer.join(key, waiter)) {
+            loader.loadAll(new PagedLoader.PageCallback<Integer>() {
+                @Override
+                public void onPages(List<Integer> items, boolean hasMore) {
+                    coalescer.complete(key, items);
+                }
+
+                @Override
+                public void onError(String error) {
+                    coalescer.fail(key, new IOException(error));
+                }
+            });
+        }
+        return new SharedLoad(key, waiter, () -> {
+            abandoned[0]++;
+            loader.cancel();
+        });
+    }
+
+    /**
+     * Última llamada pedida para la página (los reintentos piden la misma página otra vez)
+     */
+    private FakeCall<PaginatedResponse<Integer>> callFor(int page) {
+        for (int i = requestedPages.size() - 1; i >= 0; i--) {
+            if (requestedPages.get(i) == page) {
+                return calls.get(i);
+            }
+        }
+        throw new AssertionError("Página " + page + " no pedida: " + requestedPages);
+    }
+
+    private static PaginatedResponse<Integer> page(int count, boolean hasNext, Integer... items) {
+        return page(count, hasNext, Arrays.asList(items));
+    }
+
+    private static PaginatedResponse<Integer> page(int count, boolean hasNext, List<Integer> items) {
+        PaginatedResponse<Integer> response = new PaginatedResponse<>();
+        response.setCount(count);
+        response.setNext(hasNext ? "next" : null);
+        response.setResults(new ArrayList<>(items));
+        return response;
+    }
+
+    private static List<Integer> range(int first, int count) {
+        List<Integer> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(first + i);
+        }
+        return items;
+    }
+
+    private static class Recorder implements PagedLoader.PageCallback<Integer> {
+        final List<List<Integer>> deliveries = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        boolean lastHasMore;
+
+        @Override
+        public void onPages(List<Integer> items, boolean hasMore) {
+            deliveries.add(items);
+            lastHasMore = hasMore;
+        }
+
+        @Override
+        public void onError(String error) {
+            errors.add(error);
+        }
+    }
+
+    private static class DataRecorder implements RepositoryCallback<List<Integer>> {
+        final List<List<Integer>> data = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void onData(List<Integer> items, boolean fromCache) {
+            data.add(items);
+        }
+
+        @Override
+        public void onError(String error, boolean hasCachedData) {
+            errors.add(error);
+        }
+    }
+}
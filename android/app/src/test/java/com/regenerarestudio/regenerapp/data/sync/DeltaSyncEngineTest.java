@@ -0,0 +1,197 @@
+package com.regenerarestudio.regenerapp.data.sync;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.local.PayloadStore;
+import com.regenerarestudio.regenerapp.data.responses.SyncDeltaResponse;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sincronización incremental: fusión por ID, orden del servidor y delta sin copia local
+ * La copia local es un mapa en memoria en lugar de SQLite.
+ */
+public class DeltaSyncEngineTest {
+
+    private static final String KEY = "budget_items:project:5";
+    private static final Type ROW_LIST = new TypeToken<List<Row>>() {}.getType();
+    private static final Comparator<Row> BY_NAME = Comparator.comparing(row -> row.name);
+
+    private final Gson gson = new Gson();
+    private final MemoryStore store = new MemoryStore();
+    private final DeltaSyncEngine engine = new DeltaSyncEngine(store, gson);
+
+    // ==========================================
+    // FUSIÓN POR ID
+    // ==========================================
+
+    @Test
+    public void merge_changedReplaceAndDeletedRemoveById() {
+        List<Row> local = rows(row(1, "Cemento"), row(2, "Arena"), row(3, "Grava"));
+
+        List<Row> merged = DeltaSyncEngine.merge(local,
+                delta(false, "t2", rows(row(2, "Arena fina"), row(4, "Cal")), 3L),
+                row -> row.id, null);
+
+        assertEquals(Arrays.asList("1:Cemento", "2:Arena fina", "4:Cal"), describe(merged));
+    }
+
+    @Test
+    public void merge_fullResponseReplacesLocalCopy() {
+        List<Row> local = rows(row(1, "Cemento"), row(2, "Arena"));
+
+        List<Row> merged = DeltaSyncEngine.merge(local,
+                delta(true, "t2", rows(row(7, "Yeso"))), row -> row.id, null);
+
+        assertEquals(Arrays.asList("7:Yeso"), describe(merged));
+    }
+
+    @Test
+    public void merge_changesAreResortedWithComparator() {
+        List<Row> local = rows(row(1, "Arena"), row(2, "Cemento"));
+
+        List<Row> merged = DeltaSyncEngine.merge(local,
+                delta(false, "t2", rows(row(3, "Bloque"), row(1, "Yeso"))), row -> row.id, BY_NAME);
+
+        assertEquals(Arrays.asList("3:Bloque", "2:Cemento", "1:Yeso"), describe(merged));
+    }
+
+    @Test
+    public void merge_onlyDeletionsKeepLocalOrder() {
+        // La copia local ya viene en el orden del servidor: quitar filas no lo cambia
+        List<Row> local = rows(row(2, "Cemento"), row(1, "Arena"), row(3, "Grava"));
+
+        List<Row> merged = DeltaSyncEngine.merge(local,
+                delta(false, "t2", rows(), 1L), row -> row.id, BY_NAME);
+
+        assertEquals(Arrays.asList("2:Cemento", "3:Grava"), describe(merged));
+    }
+
+    // ==========================================
+    // COPIA LOCAL Y TOKEN
+    // ==========================================
+
+    @Test
+    public void apply_storesListAndTokenForNextSync() {
+        assertNull(engine.readToken(KEY));
+
+        engine.apply(KEY, ROW_LIST, delta(true, "t1", rows(row(1, "Cemento"))), row -> row.id, null);
+        assertEquals("t1", engine.readToken(KEY));
+
+        List<Row> merged = engine.apply(KEY, ROW_LIST,
+                delta(false, "t2", rows(row(2, "Arena"))), row -> row.id, BY_NAME);
+
+        assertEquals(Arrays.asList("2:Arena", "1:Cemento"), describe(merged));
+        assertEquals("t2", engine.readToken(KEY));
+        List<Row> stored = gson.fromJson(store.readPayload(KEY), ROW_LIST);
+        assertEquals(describe(merged), describe(stored));
+    }
+
+    @Test
+    public void readToken_withoutLocalCopyAsksForFullList() {
+        engine.apply(KEY, ROW_LIST, delta(true, "t1", rows(row(1, "Cemento"))), row -> row.id, null);
+        store.deletePayload(KEY);
+
+        assertNull(engine.readToken(KEY));
+    }
+
+    @Test
+    public void apply_partialDeltaWithoutBaseThrowsAndClearsToken() {
+        store.writePayload("sync_token:" + KEY, "t1");
+
+        try {
+            engine.apply(KEY, ROW_LIST, delta(false, "t2", rows(row(1, "Cemento"))), row -> row.id, null);
+            fail("Un delta parcial sin copia local no se puede aplicar");
+        } catch (DeltaSyncEngine.MissingBaseException expected) {
+            // La siguiente sincronización pide la lista completa
+        }
+
+        assertNull(store.readPayload("sync_token:" + KEY));
+        assertNull(store.readPayload(KEY));
+    }
+
+    @Test
+    public void apply_unreadableLocalCopyCountsAsMissing() {
+        store.writePayload(KEY, "{no es una lista");
+        store.writePayload("sync_token:" + KEY, "t1");
+
+        try {
+            engine.apply(KEY, ROW_LIST, delta(false, "t2", rows()), row -> row.id, null);
+            fail("Una copia local inválida no sirve de base");
+        } catch (DeltaSyncEngine.MissingBaseException expected) {
+            // esperado
+        }
+
+        assertNull(store.readPayload("sync_token:" + KEY));
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private SyncDeltaResponse<Row> delta(boolean full, @Nullable String token, List<Row> changed,
+                                         Long... deleted) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("token", token);
+        body.put("full", full);
+        body.put("changed", changed);
+        body.put("deleted", Arrays.asList(deleted));
+        return gson.fromJson(gson.toJson(body), new TypeToken<SyncDeltaResponse<Row>>() {}.getType());
+    }
+
+    private static Row row(long id, String name) {
+        Row row = new Row();
+        row.id = id;
+        row.name = name;
+        return row;
+    }
+
+    private static List<Row> rows(Row... rows) {
+        return new ArrayList<>(Arrays.asList(rows));
+    }
+
+    private static List<String> describe(List<Row> rows) {
+        List<String> result = new ArrayList<>();
+        for (Row row : rows) {
+            result.add(row.id + ":" + row.name);
+        }
+        return result;
+    }
+
+    static class Row {
+        Long id;
+        String name;
+    }
+
+    static class MemoryStore implements PayloadStore {
+        private final Map<String, String> payloads = new HashMap<>();
+
+        @Nullable
+        @Override
+        public String readPayload(String key) {
+            return payloads.get(key);
+        }
+
+        @Override
+        public void writePayload(String key, String payload) {
+            payloads.put(key, payload);
+        }
+
+        @Override
+        public void deletePayload(String key) {
+            payloads.remove(key);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.regenerarestudio.regenerapp.data.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.regenerarestudio.regenerapp.data.api.ApiClient;
+import com.regenerarestudio.regenerapp.data.api.ApiService;
+import com.regenerarestudio.regenerapp.data.api.FakeCall;
+import com.regenerarestudio.regenerapp.data.local.OutboxStore;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
+import com.regenerarestudio.regenerapp.data.responses.BulkWriteResponse;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cola de escrituras: fusión al encolar, lotes, reasignación de IDs/versiones, conflictos y reintentos
+ * La red es un ApiService falso que devuelve {@link FakeCall}; el hilo de la cola corre en el de la prueba.
+ */
+public class MutationOutboxTest {
+
+    private static final long PROJECT = 5L;
+
+    private final Gson gson = ApiClient.getGson();
+    private final MemoryStore store = new MemoryStore();
+    private final FakeMainThread mainThread = new FakeMainThread();
+    private final Recorder recorder = new Recorder();
+
+    // Respuestas de red en orden (Response o IOException); sin respuesta = sin conexión
+    private final Deque<Object> replies = new ArrayDeque<>();
+    private final List<Sent> sent = new ArrayList<>();
+    private final ApiService api = (ApiService) Proxy.newProxyInstance(
+            ApiService.class.getClassLoader(), new Class<?>[]{ApiService.class}, (proxy, method, args) -> {
+                Sent request = new Sent(method.getName(), args);
+                sent.add(request);
+                if (request.onSend != null) {
+                    request.onSend.run();
+                }
+                FakeCall<Object> call = new FakeCall<>(method.getName());
+                Object reply = replies.poll();
+                if (reply instanceof Response) {
+                    @SuppressWarnings("unchecked")
+                    Response<Object> response = (Response<Object>) reply;
+                    return call.returning(response);
+                }
+                return call.throwing(reply instanceof IOException ? (IOException) reply : new IOException("sin red"));
+            });
+
+    // Acción a ejecutar mientras se envía la próxima petición (escritura "en vuelo")
+    private Runnable nextOnSend;
+
+    private MutationOutbox outbox;
+
+    // ==========================================
+    // ENCOLAR (FUSIÓN)
+    // ==========================================
+
+    @Test
+    public void enqueue_updateFoldsIntoPendingCreate() {
+        start();
+        PendingMutation create = create(-1L, payload("description", "Cemento", "amount", 10L));
+        outbox.enqueue(create);
+        outbox.enqueue(update(-1L, null, payload("amount", 12L)));
+
+        assertEquals(Arrays.asList(create.getKey()), new ArrayList<>(store.entries.keySet()));
+        assertEquals(Integer.valueOf(1), outbox.getPendingCount().getValue());
+
+        replies.add(Response.success(expense(40L, "v1")));
+        mainThread.runDelayed();
+
+        assertEquals(1, sent.size());
+        assertEquals("addExpense", sent.get(0).method);
+        Map<?, ?> body = (Map<?, ?>) sent.get(0).args[0];
+        assertEquals(12L, body.get("amount"));
+        assertEquals("Cemento", body.get("description"));
+        assertEquals(create.getKey(), sent.get(0).args[1]);
+        assertEquals(Arrays.asList(create.getKey()), recorder.applied);
+        assertTrue(store.entries.isEmpty());
+    }
+
+    @Test
+    public void enqueue_deleteOfUnsentCreateDropsEverything() {
+        start();
+        outbox.enqueue(create(-1L, payload("description", "Arena")));
+        outbox.enqueue(update(-1L, null, payload("amount", 3L)));
+        outbox.enqueue(delete(-1L));
+
+        assertTrue(store.entries.isEmpty());
+        assertFalse(outbox.hasPending(PROJECT, PendingMutation.RESOURCE_EXPENSE));
+
+        mainThread.runDelayed();
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void enqueue_consecutiveEditsKeepFirstBaseVersion() {
+        start();
+        PendingMutation first = update(7L, "v1", payload("amount", 1L));
+        outbox.enqueue(first);
+        outbox.enqueue(update(7L, "v2", payload("description", "Pintura")));
+
+        assertEquals(1, store.entries.size());
+        replies.add(Response.success(expense(7L, "v3")));
+        mainThread.runDelayed();
+
+        assertEquals("updateExpense", sent.get(0).method);
+        Map<?, ?> body = (Map<?, ?>) sent.get(0).args[1];
+        assertEquals(1L, body.get("amount"));
+        assertEquals("Pintura", body.get("description"));
+        assertEquals("v1", sent.get(0).args[3]);
+    }
+
+    // ==========================================
+    // LOTES Y REASIGNACIÓN DE IDS
+    // ==========================================
+
+    @Test
+    public void batch_cutsAtTemporaryIdAndRemapsAfterCreate() {
+        // La app se cerró con la creación en vuelo y una edición encolada detrás (ID temporal)
+        PendingMutation createA = create(-1L, payload("description", "A"));
+        PendingMutation createB = create(-2L, payload("description", "B"));
+        PendingMutation editA = update(-1L, null, payload("amount", 9L));
+        PendingMutation createC = create(-3L, payload("description", "C"));
+        store.preload(createA, createB, editA, createC);
+
+        // Abre sin conexión: la cola se recupera del disco y espera señal
+        start();
+        assertEquals(1, sent.size());
+        assertTrue(outbox.hasPending(PROJECT, PendingMutation.RESOURCE_EXPENSE));
+
+        sent.clear();
+        replies.add(Response.success(bulk(
+                result(createA, 50L, 201, expense(50L, "a1")),
+                result(createB, 51L, 201, expense(51L, "b1")))));
+        replies.add(Response.success(bulk(
+                result(editA, 50L, 200, expense(50L, "a2")),
+                result(createC, 52L, 201, expense(52L, "c1")))));
+        outbox.retryNow();
+
+        assertEquals(2, sent.size());
+
+        // Primer lote: se corta antes de la edición que apunta al ID temporal
+        assertEquals("bulkExpenses", sent.get(0).method);
+        assertEquals(Arrays.asList(createA.getKey(), createB.getKey()), keysOf(sent.get(0)));
+
+        // Segundo lote: la edición ya usa el ID real y la versión recién escrita
+        List<Map<?, ?>> operations = operationsOf(sent.get(1));
+        assertEquals(Arrays.asList(editA.getKey(), createC.getKey()), keysOf(sent.get(1)));
+        assertEquals(50L, operations.get(0).get("id"));
+        assertEquals("a1", operations.get(0).get("base_version"));
+
+        assertEquals(4, recorder.applied.size());
+        assertTrue(store.entries.isEmpty());
+    }
+
+    @Test
+    public void applied_laterEditOfSameItemStartsFromNewVersion() {
+        start();
+        outbox.enqueue(update(7L, "v1", payload("amount", 1L)));
+
+        // Mientras la primera edición está en vuelo, el usuario vuelve a editar
+        PendingMutation second = update(7L, "v1", payload("amount", 2L));
+        nextOnSend = () -> outbox.enqueue(second);
+        replies.add(Response.success(expense(7L, "v2")));
+        mainThread.runDelayed();
+
+        // No se fusiona con la que está en vuelo: sale después con la versión que esta escribió
+        assertEquals(2, sent.size());
+        assertEquals("v2", second.getBaseVersion());
+        assertEquals("v2", sent.get(1).args[3]);
+        assertTrue(store.entries.get(second.getKey()).contains("\"base_version\":\"v2\""));
+
+        replies.add(Response.success(expense(7L, "v3")));
+        outbox.retryNow();
+        assertEquals("v2", sent.get(2).args[3]);
+        assertTrue(store.entries.isEmpty());
+    }
+
+    // ==========================================
+    // CONFLICTOS
+    // ==========================================
+
+    @Test
+    public void conflict_rejectedCreateDropsItsDependents() {
+        PendingMutation createA = create(-1L, payload("description", "A"));
+        PendingMutation editA = update(-1L, null, payload("amount", 9L));
+        store.preload(createA, editA);
+        start();
+
+        replies.add(Response.error(400, ResponseBody.create(null, "{\"amount\": [\"Requerido\"]}")));
+        outbox.retryNow();
+
+        // La edición depende del ID temporal: la creación sale sola
+        assertEquals(2, sent.size());
+        assertEquals("addExpense", sent.get(1).method);
+        assertEquals(Arrays.asList(createA.getKey(), editA.getKey()), recorder.conflicts);
+        assertEquals(Integer.valueOf(400), recorder.conflictCodes.get(0));
+        assertTrue(recorder.messages.get(0).startsWith("HTTP 400"));
+        assertTrue(store.entries.isEmpty());
+        assertEquals(Integer.valueOf(0), outbox.getPendingCount().getValue());
+    }
+
+    @Test
+    public void conflict_oneOperationOfBatchOthersApplied() {
+        start();
+        PendingMutation createA = create(-1L, payload("description", "A"));
+        PendingMutation editB = update(8L, "v1", payload("amount", 2L));
+        outbox.enqueue(createA);
+        outbox.enqueue(editB);
+
+        replies.add(Response.success(bulk(
+                result(createA, 60L, 201, expense(60L, "a1")),
+                result(editB, 8L, 409, null))));
+        mainThread.runDelayed();
+
+        assertEquals(Arrays.asList(createA.getKey()), recorder.applied);
+        assertEquals(Arrays.asList(editB.getKey()), recorder.conflicts);
+        assertEquals(Integer.valueOf(409), recorder.conflictCodes.get(0));
+        assertTrue(store.entries.isEmpty());
+    }
+
+    // ==========================================
+    // REINTENTOS
+    // ==========================================
+
+    @Test
+    public void bulkWithoutSomeResults_retriesAfterBackoff() {
+        start();
+        PendingMutation createA = create(-1L, payload("description", "A"));
+        PendingMutation createB = create(-2L, payload("description", "B"));
+        outbox.enqueue(createA);
+        outbox.enqueue(createB);
+
+        // El servidor solo devuelve el resultado de A
+        replies.add(Response.success(bulk(result(createA, 60L, 201, expense(60L, "a1")))));
+        mainThread.runDelayed();
+
+        // B no se reenvía en el acto: espera el primer intervalo de reintento
+        assertEquals(1, sent.size());
+        assertEquals(Arrays.asList(5_000L), mainThread.delays());
+        assertEquals(Arrays.asList(createB.getKey()), new ArrayList<>(store.entries.keySet()));
+        assertTrue(store.entries.get(createB.getKey()).contains("\"attempts\":1"));
+
+        replies.add(Response.success(expense(61L, "b1")));
+        mainThread.runDelayed();
+
+        assertEquals(2, sent.size());
+        assertEquals("addExpense", sent.get(1).method);
+        assertEquals(createB.getKey(), sent.get(1).args[1]);
+        assertTrue(store.entries.isEmpty());
+    }
+
+    @Test
+    public void serverError_backoffGrows() {
+        start();
+        outbox.enqueue(update(7L, "v1", payload("amount", 1L)));
+
+        replies.add(Response.error(503, ResponseBody.create(null, "")));
+        mainThread.runDelayed();
+        assertEquals(Arrays.asList(5_000L), mainThread.delays());
+
+        replies.add(Response.error(503, ResponseBody.create(null, "")));
+        mainThread.runDelayed();
+        assertEquals(Arrays.asList(10_000L), mainThread.delays());
+
+        replies.add(Response.success(expense(7L, "v2")));
+        mainThread.runDelayed();
+        assertEquals(3, sent.size());
+        assertTrue(store.entries.isEmpty());
+        assertTrue(mainThread.delays().isEmpty());
+    }
+
+    @Test
+    public void offline_keepsQueueUntilRetry() {
+        start();
+        PendingMutation edit = update(7L, "v1", payload("amount", 1L));
+        outbox.enqueue(edit);
+        mainThread.runDelayed();
+
+        assertEquals(1, sent.size());
+        assertTrue(store.entries.containsKey(edit.getKey()));
+        assertTrue(mainThread.delays().isEmpty());
+
+        replies.add(Response.success(expense(7L, "v2")));
+        outbox.retryNow();
+        assertEquals(Arrays.asList(edit.getKey()), recorder.applied);
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private void start() {
+        outbox = new MutationOutbox(store, () -> api, Runnable::run, mainThread);
+        outbox.addListener(recorder);
+    }
+
+    private static PendingMutation create(long temporaryId, Map<String, Object> payload) {
+        return new PendingMutation(PendingMutation.RESOURCE_EXPENSE, PendingMutation.OP_CREATE,
+                PROJECT, temporaryId, payload, null);
+    }
+
+    private static PendingMutation update(long id, @Nullable String baseVersion, Map<String, Object> payload) {
+        return new PendingMutation(PendingMutation.RESOURCE_EXPENSE, PendingMutation.OP_UPDATE,
+                PROJECT, id, payload, baseVersion);
+    }
+
+    private static PendingMutation delete(long id) {
+        return new PendingMutation(PendingMutation.RESOURCE_EXPENSE, PendingMutation.OP_DELETE,
+                PROJECT, id, null, null);
+    }
+
+    private static Map<String, Object> payload(Object... keyValues) {
+        Map<String, Object> payload = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            payload.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return payload;
+    }
+
+    private ExpenseItem expense(long id, String updatedAt) {
+        return gson.fromJson("{\"id\": " + id + ", \"updated_at\": \"" + updatedAt + "\"}", ExpenseItem.class);
+    }
+
+    private static Map<String, Object> result(PendingMutation mutation, long id, int status, @Nullable Object item) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("op", mutation.getOperation());
+        result.put("key", mutation.getKey());
+        result.put("id", id);
+        result.put("status", status);
+        result.put("item", item);
+        return result;
+    }
+
+    @SafeVarargs
+    private final BulkWriteResponse<ExpenseItem> bulk(Map<String, Object>... results) {
+        String json = gson.toJson(Collections.singletonMap("results", Arrays.asList(results)));
+        return gson.fromJson(json, new TypeToken<BulkWriteResponse<ExpenseItem>>() {}.getType());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<?, ?>> operationsOf(Sent request) {
+        Map<?, ?> body = (Map<?, ?>) request.args[0];
+        return (List<Map<?, ?>>) body.get("operations");
+    }
+
+    private static List<Object> keysOf(Sent request) {
+        List<Object> keys = new ArrayList<>();
+        for (Map<?, ?> operation : operationsOf(request)) {
+            keys.add(operation.get("key"));
+        }
+        return keys;
+    }
+
+    private class Sent {
+        final String method;
+        final Object[] args;
+        final Runnable onSend;
+
+        Sent(String method, Object[] args) {
+            this.method = method;
+            this.args = args;
+            this.onSend = nextOnSend;
+            nextOnSend = null;
+        }
+    }
+
+    /**
+     * Cola en memoria (mismo contrato que la tabla outbox: orden de llegada, actualizar sin moverse)
+     */
+    private class MemoryStore implements OutboxStore {
+        final Map<String, String> entries = new LinkedHashMap<>();
+
+        void preload(PendingMutation... mutations) {
+            for (PendingMutation mutation : mutations) {
+                entries.put(mutation.getKey(), gson.toJson(mutation));
+            }
+        }
+
+        @Override
+        public Map<String, String> readOutbox() {
+            return new LinkedHashMap<>(entries);
+        }
+
+        @Override
+        public void writeOutboxEntry(String mutationKey, String payload) {
+            entries.put(mutationKey, payload);
+        }
+
+        @Override
+        public void deleteOutboxEntry(String mutationKey) {
+            entries.remove(mutationKey);
+        }
+    }
+
+    /**
+     * Hilo principal falso: las entregas corren en el acto; las esperas quedan pendientes
+     * hasta {@link #runDelayed} (ventana de lote y reintentos)
+     */
+    private static class FakeMainThread implements MutationOutbox.MainThread {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private final List<Long> delays = new ArrayList<>();
+
+        @Override
+        public void post(@NonNull Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void postDelayed(@NonNull Runnable task, long delayMs) {
+            tasks.add(task);
+            delays.add(delayMs);
+        }
+
+        List<Long> delays() {
+            return new ArrayList<>(delays);
+        }
+
+        void runDelayed() {
+            List<Runnable> due = new ArrayList<>(tasks);
+            tasks.clear();
+            delays.clear();
+            for (Runnable task : due) {
+                task.run();
+            }
+        }
+    }
+
+    private static class Recorder implements MutationOutbox.Listener {
+        final List<String> applied = new ArrayList<>();
+        final List<String> conflicts = new ArrayList<>();
+        final List<Integer> conflictCodes = new ArrayList<>();
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void onMutationApplied(@NonNull PendingMutation mutation, @Nullable Object serverRow) {
+            applied.add(mutation.getKey());
+        }
+
+        @Override
+        public void onMutationConflict(@NonNull PendingMutation mutation, int httpCode, @NonNull String message) {
+            conflicts.add(mutation.getKey());
+            conflictCodes.add(httpCode);
+            messages.add(message);
+        }
+    }
+}
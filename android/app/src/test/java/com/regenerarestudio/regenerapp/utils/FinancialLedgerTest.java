@@ -0,0 +1,201 @@
+package com.regenerarestudio.regenerapp.utils;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.google.gson.Gson;
+import com.regenerarestudio.regenerapp.data.models.BudgetItem;
+import com.regenerarestudio.regenerapp.data.models.ExpenseItem;
+import com.regenerarestudio.regenerapp.data.responses.DashboardResponse;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Totales del libro contra RealExpense.save y ProjectFinancialSummary.update_summary del backend
+ */
+public class FinancialLedgerTest {
+
+    private static final Long PROJECT_ID = 7L;
+    private static final double DELTA = 0.001;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final Gson gson = new Gson();
+    private final FinancialLedger ledger = FinancialLedger.getInstance();
+
+    @Before
+    public void setUp() {
+        ledger.clear();
+    }
+
+    // ==========================================
+    // GASTOS REALES
+    // ==========================================
+
+    @Test
+    public void expense_usesServerTotalPrice() {
+        // 10 × 12.5 = 125; -10% = 112.5; -20 fijo = 92.5
+        ExpenseItem expense = expense("{\"id\": 1, \"category\": \"construction\", \"quantity\": \"10.00\", " +
+                "\"unit_price\": \"12.50\", \"discount_percentage\": \"10.00\", \"discount_amount\": \"20.00\", " +
+                "\"total_price\": \"92.50\"}");
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(expense));
+
+        FinancialLedger.Snapshot snapshot = ledger.snapshot();
+        assertEquals(125.0, snapshot.getExpenseSubtotal(), DELTA);
+        assertEquals(32.5, snapshot.getExpenseDiscounts(), DELTA);
+        assertEquals(92.5, snapshot.getExpenseTotal(), DELTA);
+        assertEquals(92.5, snapshot.getSpentForCategory(FinancialLedger.CATEGORY_CONSTRUCTION), DELTA);
+    }
+
+    @Test
+    public void expense_serverTotalWinsOverLocalFormula() {
+        // El total guardado por el servidor manda aunque los campos den otro valor
+        ExpenseItem expense = expense("{\"id\": 1, \"quantity\": 3, \"unit_price\": 0.335, " +
+                "\"discount_percentage\": 0, \"total_price\": 1.00}");
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(expense));
+
+        assertEquals(1.0, ledger.snapshot().getExpenseTotal(), DELTA);
+    }
+
+    @Test
+    public void optimisticExpense_appliesFixedDiscountAndPercentage() {
+        ExpenseItem expense = expense("{\"id\": -5, \"category\": \"lighting\", \"quantity\": 4, " +
+                "\"unit_price\": 25, \"discount_percentage\": 5, \"discount_amount\": 15}");
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(expense));
+
+        // 100 - 5 - 15 = 80
+        FinancialLedger.Snapshot snapshot = ledger.snapshot();
+        assertEquals(80.0, snapshot.getExpenseTotal(), DELTA);
+        assertEquals(20.0, snapshot.getExpenseDiscounts(), DELTA);
+        assertEquals(80.0, snapshot.getSpentForCategory(FinancialLedger.CATEGORY_LIGHTING), DELTA);
+    }
+
+    @Test
+    public void optimisticExpense_isClampedAtZero() {
+        ExpenseItem expense = expense("{\"id\": -6, \"quantity\": 1, \"unit_price\": 30, " +
+                "\"discount_percentage\": 50, \"discount_amount\": 40}");
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(expense));
+
+        FinancialLedger.Snapshot snapshot = ledger.snapshot();
+        assertEquals(0.0, snapshot.getExpenseTotal(), DELTA);
+        assertEquals(30.0, snapshot.getExpenseDiscounts(), DELTA);
+        assertEquals(0.0, snapshot.getSpentForCategory(FinancialLedger.CATEGORY_OTHERS), DELTA);
+    }
+
+    @Test
+    public void putExpense_replacesPreviousContribution() {
+        ledger.replaceExpenses(PROJECT_ID, Arrays.asList(
+                expense("{\"id\": 1, \"category\": \"construction\", \"quantity\": 1, \"unit_price\": 50, \"total_price\": 50}"),
+                expense("{\"id\": 2, \"category\": \"lighting\", \"quantity\": 2, \"unit_price\": 10, \"total_price\": 20}")));
+
+        // Edición optimista del gasto 1: pasa a iluminación con descuento fijo
+        ledger.putExpense(expense("{\"id\": 1, \"category\": \"lighting\", \"quantity\": 1, " +
+                "\"unit_price\": 50, \"discount_amount\": 5}"));
+
+        FinancialLedger.Snapshot snapshot = ledger.snapshot();
+        assertEquals(2, snapshot.getExpenseCount());
+        assertEquals(65.0, snapshot.getExpenseTotal(), DELTA);
+        assertEquals(0.0, snapshot.getSpentForCategory(FinancialLedger.CATEGORY_CONSTRUCTION), DELTA);
+        assertEquals(65.0, snapshot.getSpentForCategory(FinancialLedger.CATEGORY_LIGHTING), DELTA);
+
+        ledger.removeExpense(1L);
+        assertEquals(20.0, ledger.snapshot().getExpenseTotal(), DELTA);
+    }
+
+    @Test
+    public void expenseCacheRoundTripKeepsTotals() {
+        ExpenseItem expense = expense("{\"id\": 3, \"quantity\": 2, \"unit_price\": 10, " +
+                "\"discount_amount\": 1.5, \"total_price\": 18.5}");
+
+        ExpenseItem cached = gson.fromJson(gson.toJson(expense), ExpenseItem.class);
+
+        assertEquals(1.5, cached.getDiscountAmount(), DELTA);
+        assertEquals(18.5, cached.getTotalPrice(), DELTA);
+        assertEquals(1.5, cached.getTotalDiscount(), DELTA);
+    }
+
+    // ==========================================
+    // PRESUPUESTO Y CONCILIACIÓN
+    // ==========================================
+
+    @Test
+    public void budgetAndBalanceByCategory() {
+        ledger.replaceBudgetItems(PROJECT_ID, Arrays.asList(
+                budgetItem("{\"id\": 1, \"category\": \"construction\", \"quantity\": 2, \"unit_price\": 100, \"total_price\": 200}"),
+                budgetItem("{\"id\": 2, \"category\": \"furniture\", \"quantity\": 1, \"unit_price\": 80.25}")));
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(
+                expense("{\"id\": 9, \"category\": \"construction\", \"quantity\": 1, \"unit_price\": 150, " +
+                        "\"discount_percentage\": 10, \"total_price\": 135}")));
+
+        FinancialLedger.Snapshot snapshot = ledger.snapshot();
+        assertTrue(snapshot.isComplete());
+        assertEquals(280.25, snapshot.getBudgetTotal(), DELTA);
+        assertEquals(80.25, snapshot.getBudgetForCategory(FinancialLedger.CATEGORY_OTHERS), DELTA);
+        assertEquals(145.25, snapshot.getBalance(), DELTA);
+
+        DashboardResponse.FinancialSummary summary = snapshot.toFinancialSummary();
+        assertEquals(135.0, summary.getTotalExpenses(), DELTA);
+        assertEquals(135.0 / 280.25 * 100, summary.getBudgetUtilizationPercentage(), DELTA);
+    }
+
+    @Test
+    public void reconcile_acceptsServerSummaryWithFixedDiscounts() {
+        ledger.replaceBudgetItems(PROJECT_ID, Collections.singletonList(
+                budgetItem("{\"id\": 1, \"quantity\": 1, \"unit_price\": 500, \"total_price\": 500}")));
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(
+                expense("{\"id\": 2, \"quantity\": 1, \"unit_price\": 100, \"discount_amount\": 30, \"total_price\": 70}")));
+
+        DashboardResponse.FinancialSummary server = new DashboardResponse.FinancialSummary();
+        server.setTotalBudget(500.0);
+        server.setTotalExpenses(70.0);
+
+        assertTrue(ledger.reconcile(PROJECT_ID, server));
+        assertTrue(ledger.snapshot().isReconciled());
+    }
+
+    @Test
+    public void reconcile_reportsDrift() {
+        ledger.replaceBudgetItems(PROJECT_ID, Collections.emptyList());
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(
+                expense("{\"id\": 2, \"quantity\": 1, \"unit_price\": 100, \"total_price\": 100}")));
+
+        DashboardResponse.FinancialSummary server = new DashboardResponse.FinancialSummary();
+        server.setTotalBudget(0.0);
+        server.setTotalExpenses(90.0);
+
+        assertFalse(ledger.reconcile(PROJECT_ID, server));
+        assertFalse(ledger.snapshot().isReconciled());
+    }
+
+    @Test
+    public void bindingAnotherProjectClearsTotals() {
+        ledger.replaceExpenses(PROJECT_ID, Collections.singletonList(
+                expense("{\"id\": 2, \"quantity\": 1, \"unit_price\": 100, \"total_price\": 100}")));
+
+        ledger.bindProject(PROJECT_ID + 1);
+
+        FinancialLedger.Snapshot snapshot = ledger.snapshot();
+        assertEquals(0, snapshot.getExpenseCount());
+        assertEquals(0.0, snapshot.getExpenseTotal(), DELTA);
+        assertFalse(snapshot.isComplete());
+    }
+
+    // ==========================================
+    // AUXILIARES
+    // ==========================================
+
+    private ExpenseItem expense(String json) {
+        return gson.fromJson(json, ExpenseItem.class);
+    }
+
+    private BudgetItem budgetItem(String json) {
+        return gson.fromJson(json, BudgetItem.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.regenerarestudio.regenerapp.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Normalización de las claves de búsqueda locales
+ */
+public class SearchTextTest {
+
+    @Test
+    public void normalize_lowercasesAndStripsAccents() {
+        assertEquals("cemento holcim 50kg", SearchText.normalize("Cemento Holcím-50kg"));
+        assertEquals("iluminacion electrico", SearchText.normalize("ILUMINACIÓN Eléctrico"));
+        assertEquals("pintura espanola", SearchText.normalize("Pintura Española"));
+    }
+
+    @Test
+    public void normalize_collapsesSeparators() {
+        assertEquals("tubo pvc 1 2", SearchText.normalize("  Tubo   PVC (1/2\")  "));
+        assertEquals("quito norte", SearchText.normalize("Quito - Norte"));
+        assertEquals("a b", SearchText.normalize("a\tb\n"));
+    }
+
+    @Test
+    public void normalize_nullOrBlankIsEmpty() {
+        assertEquals("", SearchText.normalize(null));
+        assertEquals("", SearchText.normalize(""));
+        assertEquals("", SearchText.normalize(" -/ "));
+    }
+
+    @Test
+    public void normalize_isIdempotent() {
+        String once = SearchText.normalize("Cerámica Graiman 60×60");
+        assertEquals(once, SearchText.normalize(once));
+    }
+
+    @Test
+    public void words_splitsNormalizedQuery() {
+        assertArrayEquals(new String[]{"cemento", "holcim"},
+                SearchText.words(SearchText.normalize("Cemento  HOLCIM")));
+    }
+
+    @Test
+    public void words_emptyQueryHasNoWords() {
+        assertEquals(0, SearchText.words("").length);
+        assertEquals(0, SearchText.words(SearchText.normalize("  ")).length);
+    }
+}
@@ -3,4 +3,8 @@ from django.apps import AppConfig
 class BudgetsConfig(AppConfig):
     default_auto_field = 'django.db.models.BigAutoField'
     name = 'apps.budgets'
-    verbose_name = 'Presupuestos'
\ No newline at end of file
+    verbose_name = 'Presupuestos'
+
+    def ready(self):
+        # Registros de eliminación para la sincronización delta
+        from . import signals  # noqa: F401
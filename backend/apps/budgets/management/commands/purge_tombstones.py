@@ -0,0 +1,33 @@
+"""
+Management command para borrar los registros de eliminación vencidos del sync incremental
+Path: backend/apps/budgets/management/commands/purge_tombstones.py
+
+Un token más viejo que SYNC_TOMBSTONE_RETENTION recibe la lista completa, así que ningún
+cliente vuelve a pedir estos registros. Programar una vez al día (cron o similar).
+
+Uso:
+    python manage.py purge_tombstones
+    python manage.py purge_tombstones --dry-run
+"""
+
+from django.core.management.base import BaseCommand
+from django.utils import timezone
+
+from apps.budgets.models import SyncTombstone, SYNC_TOMBSTONE_RETENTION
+
+
+class Command(BaseCommand):
+    help = 'Borrar registros de eliminación más viejos que la retención del sync incremental'
+
+    def add_arguments(self, parser):
+        parser.add_argument('--dry-run', action='store_true', help='Solo contar, sin borrar')
+
+    def handle(self, *args, **options):
+        expired = SyncTombstone.objects.filter(deleted_at__lt=timezone.now() - SYNC_TOMBSTONE_RETENTION)
+
+        if options['dry_run']:
+            self.stdout.write(f'{expired.count()} registros de eliminación vencidos (sin borrar)')
+            return
+
+        deleted, _ = expired.delete()
+        self.stdout.write(self.style.SUCCESS(f'🧹 {deleted} registros de eliminación vencidos borrados'))
@@ -0,0 +1,83 @@
+"""
+Management command para comparar JSON y MessagePack con datos reales de un proyecto
+Path: backend/apps/budgets/management/commands/wire_format_report.py
+
+Uso:
+    python manage.py wire_format_report --project 1
+    python manage.py wire_format_report --project 1 --repeat 200
+"""
+
+import gzip
+import json
+import time
+
+import msgpack
+from django.core.management.base import BaseCommand, CommandError
+from rest_framework.renderers import JSONRenderer
+
+from apps.budgets.models import BudgetItem, RealExpense
+from apps.budgets.serializers import BudgetItemListSerializer, RealExpenseListSerializer
+from apps.projects.models import Project
+from apps.suppliers.models import SupplierPrice
+from apps.suppliers.serializers import SupplierPriceSerializer
+from regenerapp_api.renderers import MessagePackRenderer
+
+
+class Command(BaseCommand):
+    help = 'Comparar tamaño y tiempo de decodificación JSON vs MessagePack en los listados grandes'
+
+    def add_arguments(self, parser):
+        parser.add_argument('--project', type=int, help='ID del proyecto (por defecto el seleccionado)')
+        parser.add_argument('--repeat', type=int, default=100, help='Repeticiones para medir tiempos')
+
+    def handle(self, *args, **options):
+        project = self._get_project(options.get('project'))
+        repeat = max(1, options['repeat'])
+
+        payloads = [
+            ('budget-items', BudgetItemListSerializer(
+                BudgetItem.objects.filter(project=project).select_related('material', 'supplier'),
+                many=True).data),
+            ('real-expenses', RealExpenseListSerializer(
+                RealExpense.objects.filter(project=project).select_related('material', 'supplier', 'budget_item'),
+                many=True).data),
+            ('suppliers/prices', SupplierPriceSerializer(
+                SupplierPrice.objects.filter(is_current=True).select_related('supplier', 'material'),
+                many=True).data),
+        ]
+
+        self.stdout.write(self.style.SUCCESS(f'📦 Formato de red - proyecto {project.id} ({project.name})'))
+        self.stdout.write(
+            f'{"endpoint":<18}{"filas":>7}{"json":>10}{"msgpack":>10}{"json.gz":>10}'
+            f'{"msgpack.gz":>12}{"dec json ms":>13}{"dec mp ms":>11}'
+        )
+
+        for name, data in payloads:
+            json_bytes = JSONRenderer().render(data)
+            msgpack_bytes = MessagePackRenderer().render(data)
+
+            json_ms = self._decode_ms(lambda: json.loads(json_bytes), repeat)
+            msgpack_ms = self._decode_ms(lambda: msgpack.unpackb(msgpack_bytes, raw=False), repeat)
+
+            self.stdout.write(
+                f'{name:<18}{len(data):>7}{len(json_bytes):>10}{len(msgpack_bytes):>10}'
+                f'{len(gzip.compress(json_bytes)):>10}{len(gzip.compress(msgpack_bytes)):>12}'
+                f'{json_ms:>13.3f}{msgpack_ms:>11.3f}'
+            )
+
+        self.stdout.write('Tiempos: promedio por decodificación en Python; en la app ver '
+                          'MessagePackConverterFactory.logStats()')
+
+    def _get_project(self, project_id):
+        try:
+            if project_id:
+                return Project.objects.get(pk=project_id)
+            return Project.objects.get(is_selected=True)
+        except Project.DoesNotExist:
+            raise CommandError('Proyecto no encontrado (usar --project ID)')
+
+    def _decode_ms(self, decode, repeat):
+        start = time.perf_counter()
+        for _ in range(repeat):
+            decode()
+        return (time.perf_counter() - start) * 1000 / repeat
@@ -0,0 +1,31 @@
+# Generated by Django 5.0.1 on 2026-10-17 10:00
+
+import django.db.models.deletion
+from django.db import migrations, models
+
+
+class Migration(migrations.Migration):
+
+    dependencies = [
+        ('budgets', '0001_initial'),
+        ('projects', '0001_initial'),
+    ]
+
+    operations = [
+        migrations.CreateModel(
+            name='SyncTombstone',
+            fields=[
+                ('id', models.BigAutoField(auto_created=True, primary_key=True, serialize=False, verbose_name='ID')),
+                ('resource', models.CharField(choices=[('budget_item', 'Item de Presupuesto'), ('real_expense', 'Gasto Real')], max_length=20, verbose_name='Recurso')),
+                ('object_id', models.BigIntegerField(verbose_name='ID eliminado')),
+                ('deleted_at', models.DateTimeField(auto_now_add=True, db_index=True)),
+                ('project', models.ForeignKey(on_delete=django.db.models.deletion.CASCADE, related_name='sync_tombstones', to='projects.project', verbose_name='Proyecto')),
+            ],
+            options={
+                'verbose_name': 'Registro de Eliminación',
+                'verbose_name_plural': 'Registros de Eliminación',
+                'db_table': 'budget_sync_tombstones',
+                'indexes': [models.Index(fields=['project', 'resource', 'deleted_at'], name='budget_sync_project_idx')],
+            },
+        ),
+    ]
@@ -0,0 +1,28 @@
+# Generated by Django 5.0.1 on 2026-10-17 12:00
+
+from django.db import migrations, models
+
+
+class Migration(migrations.Migration):
+
+    dependencies = [
+        ('budgets', '0002_synctombstone'),
+    ]
+
+    operations = [
+        migrations.CreateModel(
+            name='IdempotencyKey',
+            fields=[
+                ('id', models.BigAutoField(auto_created=True, primary_key=True, serialize=False, verbose_name='ID')),
+                ('key', models.CharField(max_length=64, unique=True, verbose_name='Clave')),
+                ('resource', models.CharField(choices=[('budget_item', 'Item de Presupuesto'), ('real_expense', 'Gasto Real')], max_length=20, verbose_name='Recurso')),
+                ('object_id', models.BigIntegerField(verbose_name='ID creado')),
+                ('created_at', models.DateTimeField(auto_now_add=True, db_index=True)),
+            ],
+            options={
+                'verbose_name': 'Clave de Idempotencia',
+                'verbose_name_plural': 'Claves de Idempotencia',
+                'db_table': 'budget_idempotency_keys',
+            },
+        ),
+    ]
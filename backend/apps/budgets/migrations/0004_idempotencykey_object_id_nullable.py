@@ -0,0 +1,18 @@
+# Generated by Django 5.0.1 on 2026-10-17 12:00
+
+from django.db import migrations, models
+
+
+class Migration(migrations.Migration):
+
+    dependencies = [
+        ('budgets', '0003_idempotencykey'),
+    ]
+
+    operations = [
+        migrations.AlterField(
+            model_name='idempotencykey',
+            name='object_id',
+            field=models.BigIntegerField(blank=True, null=True, verbose_name='ID del item'),
+        ),
+    ]
@@ -1,5 +1,6 @@
 from django.db import models
 from django.core.validators import MinValueValidator
+from datetime import timedelta
 from decimal import Decimal
 from apps.projects.models import Project
 from apps.materials.models import Material
@@ -468,4 +469,78 @@ class ProjectFinancialSummary(models.Model):
         # Calcular balance
         self.balance = self.total_budget - self.total_expenses
 
-        self.save()
\ No newline at end of file
+        self.save()
+
+
+# Los registros de eliminación se guardan este tiempo; tokens más viejos reciben la lista completa
+SYNC_TOMBSTONE_RETENTION = timedelta(days=30)
+
+
+class SyncTombstone(models.Model):
+    """
+    Registro de items eliminados para la sincronización incremental (delta)
+    Permite avisar a los clientes qué filas borrar de su copia local
+    """
+    RESOURCE_BUDGET_ITEM = 'budget_item'
+    RESOURCE_REAL_EXPENSE = 'real_expense'
+
+    RESOURCE_CHOICES = [
+        (RESOURCE_BUDGET_ITEM, 'Item de Presupuesto'),
+        (RESOURCE_REAL_EXPENSE, 'Gasto Real'),
+    ]
+
+    project = models.ForeignKey(
+        Project,
+        on_delete=models.CASCADE,
+        related_name='sync_tombstones',
+        verbose_name="Proyecto"
+    )
+
+    resource = models.CharField(
+        max_length=20,
+        choices=RESOURCE_CHOICES,
+        verbose_name="Recurso"
+    )
+
+    object_id = models.BigIntegerField(verbose_name="ID eliminado")
+
+    deleted_at = models.DateTimeField(auto_now_add=True, db_index=True)
+
+    class Meta:
+        verbose_name = "Registro de Eliminación"
+        verbose_name_plural = "Registros de Eliminación"
+        db_table = 'budget_sync_tombstones'
+        indexes = [
+            models.Index(fields=['project', 'resource', 'deleted_at'], name='budget_sync_project_idx'),
+        ]
+
+    def __str__(self):
+        return f"{self.resource} #{self.object_id} eliminado"
+
+
+
+class IdempotencyKey(models.Model):
+    """
+    Claves de idempotencia de escrituras enviadas desde la cola offline de la app
+    Si el cliente reintenta un POST o PUT con la misma clave, se devuelve el item ya escrito
+    La clave se inserta antes que el item (object_id vacío hasta confirmar la creación)
+    """
+    key = models.CharField(max_length=64, unique=True, verbose_name="Clave")
+
+    resource = models.CharField(
+        max_length=20,
+        choices=SyncTombstone.RESOURCE_CHOICES,
+        verbose_name="Recurso"
+    )
+
+    object_id = models.BigIntegerField(null=True, blank=True, verbose_name="ID del item")
+
+    created_at = models.DateTimeField(auto_now_add=True, db_index=True)
+
+    class Meta:
+        verbose_name = "Clave de Idempotencia"
+        verbose_name_plural = "Claves de Idempotencia"
+        db_table = 'budget_idempotency_keys'
+
+    def __str__(self):
+        return f"{self.key} -> {self.resource} #{self.object_id}"
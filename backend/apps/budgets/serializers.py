@@ -81,7 +81,7 @@ class RealExpenseListSerializer(serializers.ModelSerializer):
             'total_discount', 'purchase_date', 'invoice_number',
             'payment_method', 'material', 'material_name',
             'supplier', 'supplier_name', 'budget_item',
-            'budget_item_description', 'notes', 'created_at'
+            'budget_item_description', 'notes', 'created_at', 'updated_at'
         ]
 
 class RealExpenseDetailSerializer(serializers.ModelSerializer):
@@ -0,0 +1,35 @@
+"""
+Señales de la app de presupuestos
+Las eliminaciones dejan su registro para la sincronización incremental (delta) sin importar
+por dónde se borren: API, admin o borrado masivo (queryset.delete()).
+"""
+from django.db.models.signals import post_delete
+from django.dispatch import receiver
+
+from apps.projects.models import Project
+from .models import BudgetItem, RealExpense, SyncTombstone
+
+
+def _deleting_project(origin):
+    """¿La eliminación viene de borrar el proyecto? (sus registros se van con él)"""
+    if isinstance(origin, Project):
+        return True
+    return getattr(origin, 'model', None) is Project
+
+
+def _record_tombstone(instance, resource, origin):
+    if _deleting_project(origin):
+        return
+    SyncTombstone.objects.create(
+        project_id=instance.project_id, resource=resource, object_id=instance.id
+    )
+
+
+@receiver(post_delete, sender=BudgetItem, dispatch_uid='budget_item_tombstone')
+def budget_item_deleted(sender, instance, origin=None, **kwargs):
+    _record_tombstone(instance, SyncTombstone.RESOURCE_BUDGET_ITEM, origin)
+
+
+@receiver(post_delete, sender=RealExpense, dispatch_uid='real_expense_tombstone')
+def real_expense_deleted(sender, instance, origin=None, **kwargs):
+    _record_tombstone(instance, SyncTombstone.RESOURCE_REAL_EXPENSE, origin)
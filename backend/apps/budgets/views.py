@@ -6,7 +6,14 @@ from rest_framework.decorators import api_view
 from django_filters.rest_framework import DjangoFilterBackend
 from django.db.models import Sum, Count, Q
 from django.shortcuts import get_object_or_404
-from .models import BudgetItem, RealExpense, ProjectFinancialSummary
+from django.db import transaction
+from django.http import Http404
+from django.utils import timezone
+from django.utils.dateparse import parse_datetime
+from .models import (
+    BudgetItem, RealExpense, ProjectFinancialSummary, SyncTombstone, IdempotencyKey,
+    SYNC_TOMBSTONE_RETENTION
+)
 from .serializers import (
     BudgetItemListSerializer, BudgetItemDetailSerializer,
     BudgetItemCreateUpdateSerializer, RealExpenseListSerializer,
@@ -15,8 +22,334 @@ from .serializers import (
     CopyBudgetToExpenseSerializer
 )
 from apps.projects.models import Project
+from regenerapp_api.renderers import COMPACT_RENDERER_CLASSES
+from regenerapp_api.sync import SYNC_OVERLAP, make_sync_token, parse_sync_token
+
+# ==========================================
+# SINCRONIZACIÓN INCREMENTAL (DELTA)
+# ==========================================
+
+def _delta_sync_response(request, queryset, serializer_class, resource):
+    """
+    Respuesta de sincronización incremental para un proyecto
+    GET ...?project={id}&since={token}
+
+    - Sin token (o token expirado): full = true y todas las filas en changed
+    - Con token: solo filas modificadas desde el token y los IDs eliminados
+
+    Los registros de eliminación vencidos los borra el comando purge_tombstones.
+    """
+    project_id = request.query_params.get('project')
+    if not project_id:
+        return Response(
+            {'error': 'Se requiere project'},
+            status=status.HTTP_400_BAD_REQUEST
+        )
+
+    # El token se toma antes de consultar para no perder cambios concurrentes
+    now = timezone.now()
+    since = parse_sync_token(request.query_params.get('since'))
+    full = since is None or since < now - SYNC_TOMBSTONE_RETENTION
+
+    queryset = queryset.filter(project_id=project_id)
+    deleted = []
+
+    if not full:
+        window_start = since - SYNC_OVERLAP
+        queryset = queryset.filter(updated_at__gte=window_start)
+        deleted = list(
+            SyncTombstone.objects.filter(
+                project_id=project_id,
+                resource=resource,
+                deleted_at__gte=window_start
+            ).values_list('object_id', flat=True)
+        )
+
+    return Response({
+        'token': make_sync_token(now),
+        'full': full,
+        'changed': serializer_class(queryset, many=True).data,
+        'deleted': deleted
+    })
+
+
+# ==========================================
+# ESCRITURAS DESDE LA COLA OFFLINE
+# ==========================================
+
+# Límite de operaciones por petición en lote (una importación de presupuesto cabe en una)
+BULK_MAX_OPERATIONS = 200
+
+
+class BulkOperationError(Exception):
+    """Operación del lote rechazada: se deshace solo su savepoint"""
+
+    def __init__(self, status_code, detail):
+        super().__init__(detail)
+        self.status_code = status_code
+        self.detail = detail
+
+
+class OfflineWriteMixin:
+    """
+    Escrituras seguras para reintentos desde la cola offline de la app
+
+    - POST con cabecera Idempotency-Key: un reintento devuelve el item ya creado
+    - PUT con cabecera If-Match (updated_at que editó el cliente): 409 si alguien lo cambió antes
+    - PUT con Idempotency-Key: un reintento de una edición ya aplicada devuelve la fila actual
+      (su If-Match ya no coincide, pero el cambio que lo invalidó es el suyo)
+    - POST/PUT responden la fila canónica (misma forma que el listado) y su versión en ETag,
+      así la app reemplaza solo esa fila en vez de recargar el listado
+    - DELETE repetido con Idempotency-Key: 204 aunque el item ya no exista
+    - POST .../bulk/ con varias escrituras: una transacción y un solo recálculo del resumen
+    """
+    sync_resource = None
+    list_serializer_class = None
+    write_serializer_class = None
+
+    # Proyectos cuyo resumen se recalcula al terminar la escritura en lote (None = inmediato)
+    _deferred_summaries = None
+
+    def _idempotency_key(self, request):
+        return request.headers.get('Idempotency-Key')
+
+    def _claim_idempotency_key(self, key, object_id=None):
+        """
+        Reservar la clave antes de escribir (llamar dentro de la transacción de la escritura)
+        Devuelve (registro, True) si la clave es nueva o (registro, False) si ya se usó.
+
+        Con dos reintentos simultáneos, el índice único hace esperar al segundo hasta que el
+        primero confirme; entonces encuentra la clave y repite la respuesta en vez de duplicar.
+        """
+        return IdempotencyKey.objects.get_or_create(
+            key=key, defaults={'resource': self.sync_resource, 'object_id': object_id}
+        )
+
+    def _replayed_instance(self, record):
+        """Fila asociada a una clave ya usada, o None si fue eliminada"""
+        if record.object_id is None:
+            return None
+        return self.get_queryset().filter(pk=record.object_id).first()
+
+    def create(self, request, *args, **kwargs):
+        key = self._idempotency_key(request)
+        with transaction.atomic():
+            if key:
+                record, created = self._claim_idempotency_key(key)
+                if not created:
+                    instance = self._replayed_instance(record)
+                    if instance is None:
+                        return Response(
+                            {'error': 'El item creado con esta clave ya fue eliminado'},
+                            status=status.HTTP_409_CONFLICT
+                        )
+                    return self._row_response(instance, status.HTTP_201_CREATED)
+
+            serializer = self.get_serializer(data=request.data)
+            serializer.is_valid(raise_exception=True)
+            self.perform_create(serializer)
+            if key:
+                record.object_id = serializer.instance.id
+                record.save(update_fields=['object_id'])
+
+        return self._row_response(serializer.instance, status.HTTP_201_CREATED)
+
+    def _row_version(self, instance):
+        """Versión de la fila: su updated_at (el mismo valor que el cliente envía en If-Match)"""
+        return instance.updated_at.isoformat() if instance.updated_at else ''
+
+    def _row_response(self, instance, status_code):
+        """Fila canónica con la forma del listado (incluye ID, totales y nombres relacionados)"""
+        response = Response(self.list_serializer_class(instance).data, status=status_code)
+        version = self._row_version(instance)
+        if version:
+            response['ETag'] = f'"{version}"'
+        return response
+
+    def _is_stale(self, instance, expected):
+        """True si el updated_at que editó el cliente ya no es el actual"""
+        expected_at = parse_datetime(str(expected).strip('"'))
+        return expected_at is None or expected_at != instance.updated_at
+
+    def _conflict_data(self, instance):
+        return {
+            'error': 'El item fue modificado por otro usuario',
+            'current': self.list_serializer_class(instance).data
+        }
+
+    def update(self, request, *args, **kwargs):
+        partial = kwargs.pop('partial', False)
+        instance = self.get_object()
+        key = self._idempotency_key(request)
+
+        with transaction.atomic():
+            if key:
+                record, created = self._claim_idempotency_key(key, instance.id)
+                if not created:
+                    # Reintento de una edición ya aplicada: no se compara If-Match
+                    return self._row_response(instance, status.HTTP_200_OK)
+
+            expected = request.headers.get('If-Match')
+            if expected and self._is_stale(instance, expected):
+                # La clave se libera: la edición no se aplicó
+                transaction.set_rollback(True)
+                return Response(self._conflict_data(instance), status=status.HTTP_409_CONFLICT)
 
-class BudgetItemViewSet(viewsets.ModelViewSet):
+            serializer = self.get_serializer(instance, data=request.data, partial=partial)
+            serializer.is_valid(raise_exception=True)
+            self.perform_update(serializer)
+
+        return self._row_response(serializer.instance, status.HTTP_200_OK)
+
+    def destroy(self, request, *args, **kwargs):
+        try:
+            return super().destroy(request, *args, **kwargs)
+        except Http404:
+            # Reintento de un borrado que ya se aplicó
+            if self._idempotency_key(request):
+                return Response(status=status.HTTP_204_NO_CONTENT)
+            raise
+
+    def _defer_summary(self, project):
+        """Durante una escritura en lote solo se anota el proyecto; se recalcula al final"""
+        if self._deferred_summaries is None:
+            return False
+        self._deferred_summaries[project.pk] = project
+        return True
+
+    @action(detail=False, methods=['post'])
+    def bulk(self, request):
+        """
+        Varias escrituras en una sola petición (importaciones y cola offline de la app)
+        POST .../bulk/
+        {"operations": [
+            {"op": "create", "key": "uuid", "data": {...}},
+            {"op": "update", "id": 5, "key": "uuid", "base_version": "updated_at", "data": {...}},
+            {"op": "delete", "id": 7, "key": "uuid"}
+        ]}
+
+        Todo corre en una transacción; cada operación tiene su propio savepoint, así una
+        operación rechazada no deshace las demás. El resultado de cada una va en el mismo orden.
+        """
+        operations = request.data.get('operations')
+        if not isinstance(operations, list) or not operations:
+            return Response(
+                {'error': 'Se requiere operations (lista no vacía)'},
+                status=status.HTTP_400_BAD_REQUEST
+            )
+        if len(operations) > BULK_MAX_OPERATIONS:
+            return Response(
+                {'error': f'Máximo {BULK_MAX_OPERATIONS} operaciones por petición'},
+                status=status.HTTP_400_BAD_REQUEST
+            )
+
+        results = []
+        self._deferred_summaries = {}
+        try:
+            with transaction.atomic():
+                for operation in operations:
+                    results.append(self._apply_bulk_operation(operation))
+
+                # Un solo recálculo del resumen por proyecto afectado
+                projects = list(self._deferred_summaries.values())
+                self._deferred_summaries = None
+                for project in projects:
+                    self._update_financial_summary(project)
+        finally:
+            self._deferred_summaries = None
+
+        applied = sum(1 for result in results if result['status'] < 400)
+        return Response({
+            'results': results,
+            'applied': applied,
+            'failed': len(results) - applied
+        })
+
+    def _apply_bulk_operation(self, operation):
+        """Aplicar una operación del lote dentro de su propio savepoint"""
+        if not isinstance(operation, dict):
+            return {'status': status.HTTP_400_BAD_REQUEST, 'error': 'Operación inválida'}
+
+        op = operation.get('op')
+        result = {'op': op, 'key': operation.get('key'), 'id': operation.get('id')}
+        try:
+            with transaction.atomic():
+                if op == 'create':
+                    code, body = self._bulk_create(operation)
+                elif op == 'update':
+                    code, body = self._bulk_update(operation)
+                elif op == 'delete':
+                    code, body = self._bulk_delete(operation)
+                else:
+                    raise BulkOperationError(status.HTTP_400_BAD_REQUEST, f'Operación desconocida: {op}')
+        except BulkOperationError as error:
+            result.update(status=error.status_code, error=error.detail)
+            return result
+
+        result['status'] = code
+        if body is not None:
+            result['id'] = body['id']
+            result['item'] = body
+        return result
+
+    def _bulk_create(self, operation):
+        key = operation.get('key')
+        if key:
+            record, created = self._claim_idempotency_key(key)
+            if not created:
+                instance = self._replayed_instance(record)
+                if instance is None:
+                    raise BulkOperationError(
+                        status.HTTP_409_CONFLICT, 'El item creado con esta clave ya fue eliminado'
+                    )
+                return status.HTTP_201_CREATED, self.list_serializer_class(instance).data
+
+        serializer = self.write_serializer_class(data=operation.get('data') or {})
+        if not serializer.is_valid():
+            raise BulkOperationError(status.HTTP_400_BAD_REQUEST, serializer.errors)
+        self.perform_create(serializer)
+        if key:
+            record.object_id = serializer.instance.id
+            record.save(update_fields=['object_id'])
+        return status.HTTP_201_CREATED, self.list_serializer_class(serializer.instance).data
+
+    def _bulk_update(self, operation):
+        instance = self.get_queryset().filter(pk=operation.get('id')).first()
+        if instance is None:
+            raise BulkOperationError(status.HTTP_404_NOT_FOUND, 'El item ya no existe')
+
+        # La clave se reserva en el savepoint de la operación: si se rechaza, se libera
+        key = operation.get('key')
+        if key:
+            record, created = self._claim_idempotency_key(key, instance.id)
+            if not created:
+                # Reintento de una edición ya aplicada: no se compara base_version
+                return status.HTTP_200_OK, self.list_serializer_class(instance).data
+
+        expected = operation.get('base_version')
+        if expected and self._is_stale(instance, expected):
+            raise BulkOperationError(status.HTTP_409_CONFLICT, self._conflict_data(instance))
+
+        serializer = self.write_serializer_class(
+            instance, data=operation.get('data') or {}, partial=bool(operation.get('partial'))
+        )
+        if not serializer.is_valid():
+            raise BulkOperationError(status.HTTP_400_BAD_REQUEST, serializer.errors)
+        self.perform_update(serializer)
+        return status.HTTP_200_OK, self.list_serializer_class(serializer.instance).data
+
+    def _bulk_delete(self, operation):
+        instance = self.get_queryset().filter(pk=operation.get('id')).first()
+        if instance is None:
+            # Reintento de un borrado que ya se aplicó
+            if operation.get('key'):
+                return status.HTTP_204_NO_CONTENT, None
+            raise BulkOperationError(status.HTTP_404_NOT_FOUND, 'El item ya no existe')
+        self.perform_destroy(instance)
+        return status.HTTP_204_NO_CONTENT, None
+
+
+class BudgetItemViewSet(OfflineWriteMixin, viewsets.ModelViewSet):
     """
     ViewSet para items del presupuesto inicial
     """
@@ -26,6 +359,10 @@ class BudgetItemViewSet(viewsets.ModelViewSet):
     ordering_fields = ['description', 'category', 'total_price', 'created_at']
     ordering = ['category', 'description']
     filterset_fields = ['project', 'category', 'supplier', 'material', 'created_from_calculation']
+    renderer_classes = COMPACT_RENDERER_CLASSES
+    sync_resource = SyncTombstone.RESOURCE_BUDGET_ITEM
+    list_serializer_class = BudgetItemListSerializer
+    write_serializer_class = BudgetItemCreateUpdateSerializer
     
     def get_serializer_class(self):
         """Retorna serializer según la acción"""
@@ -81,11 +418,13 @@ class BudgetItemViewSet(viewsets.ModelViewSet):
     def perform_destroy(self, instance):
         """Acciones adicionales al eliminar item"""
         project = instance.project
-        instance.delete()
+        instance.delete()  # el registro para el sync lo deja la señal post_delete
         self._update_financial_summary(project)
     
     def _update_financial_summary(self, project):
         """Actualizar resumen financiero del proyecto"""
+        if self._defer_summary(project):
+            return
         summary, created = ProjectFinancialSummary.objects.get_or_create(project=project)
         summary.update_summary()
     
@@ -137,6 +476,17 @@ class BudgetItemViewSet(viewsets.ModelViewSet):
             )
         return Response(serializer.errors, status=status.HTTP_400_BAD_REQUEST)
     
+    @action(detail=False, methods=['get'])
+    def sync(self, request):
+        """
+        Sincronización incremental del presupuesto inicial
+        GET /api/budgets/budget-items/sync/?project=1&since={token}
+        """
+        return _delta_sync_response(
+            request, BudgetItem.objects.select_related('material', 'supplier'), BudgetItemListSerializer,
+            SyncTombstone.RESOURCE_BUDGET_ITEM
+        )
+
     @action(detail=False, methods=['get'])
     def summary_by_category(self, request):
         """
@@ -176,7 +526,7 @@ class BudgetItemViewSet(viewsets.ModelViewSet):
             'total_items': sum(item['items_count'] for item in summary)
         })
 
-class RealExpenseViewSet(viewsets.ModelViewSet):
+class RealExpenseViewSet(OfflineWriteMixin, viewsets.ModelViewSet):
     """
     ViewSet para gastos reales
     """
@@ -184,8 +534,12 @@ class RealExpenseViewSet(viewsets.ModelViewSet):
     filter_backends = [SearchFilter, OrderingFilter, DjangoFilterBackend]
     search_fields = ['description', 'invoice_number', 'notes']
     ordering_fields = ['description', 'total_price', 'purchase_date', 'created_at']
-    ordering = ['-purchase_date']
+    ordering = ['-purchase_date', 'category']  # mismo orden que Meta.ordering y la copia local de la app
     filterset_fields = ['project', 'category', 'supplier', 'material', 'payment_method']
+    renderer_classes = COMPACT_RENDERER_CLASSES
+    sync_resource = SyncTombstone.RESOURCE_REAL_EXPENSE
+    list_serializer_class = RealExpenseListSerializer
+    write_serializer_class = RealExpenseCreateUpdateSerializer
     
     def get_serializer_class(self):
         """Retorna serializer según la acción"""
@@ -232,14 +586,28 @@ class RealExpenseViewSet(viewsets.ModelViewSet):
     def perform_destroy(self, instance):
         """Acciones adicionales al eliminar gasto"""
         project = instance.project
-        instance.delete()
+        instance.delete()  # el registro para el sync lo deja la señal post_delete
         self._update_financial_summary(project)
     
     def _update_financial_summary(self, project):
         """Actualizar resumen financiero del proyecto"""
+        if self._defer_summary(project):
+            return
         summary, created = ProjectFinancialSummary.objects.get_or_create(project=project)
         summary.update_summary()
     
+    @action(detail=False, methods=['get'])
+    def sync(self, request):
+        """
+        Sincronización incremental de gastos reales
+        GET /api/budgets/real-expenses/sync/?project=1&since={token}
+        """
+        return _delta_sync_response(
+            request, RealExpense.objects.select_related('material', 'supplier', 'budget_item'),
+            RealExpenseListSerializer,
+            SyncTombstone.RESOURCE_REAL_EXPENSE
+        )
+
     @action(detail=False, methods=['get'])
     def summary_by_category(self, request):
         """
@@ -246,6 +246,60 @@ class AddCalculationToBudgetSerializer(serializers.Serializer):
                 raise serializers.ValidationError("El proveedor no existe")
         return value
 
+class BatchCalculationItemSerializer(serializers.Serializer):
+    """
+    Resultado de un espacio calculado en el cliente (modo multi-espacio)
+    """
+    space = serializers.CharField(max_length=200)
+    input_data = serializers.DictField()
+    calculated_quantity = serializers.FloatField(min_value=0.001)
+    unit = serializers.CharField(max_length=20)
+    estimated_cost = serializers.FloatField(required=False, allow_null=True)
+    detailed_results = serializers.DictField(required=False, default=dict)
+
+class BatchCalculationRequestSerializer(serializers.Serializer):
+    """
+    Serializer para guardar varios cálculos (uno por espacio) en una sola transacción
+    """
+    project_id = serializers.IntegerField()
+    calculation_type = serializers.CharField(max_length=50)
+    items = BatchCalculationItemSerializer(many=True)
+    add_to_budget = serializers.BooleanField(default=False)
+    material_id = serializers.IntegerField(required=False, allow_null=True)
+    supplier_id = serializers.IntegerField(required=False, allow_null=True)
+    unit_price = serializers.DecimalField(
+        max_digits=10, decimal_places=2, required=False, allow_null=True
+    )
+    notes = serializers.CharField(max_length=500, required=False, allow_blank=True)
+
+    def validate_project_id(self, value):
+        """Validar que el proyecto existe"""
+        from apps.projects.models import Project
+        if not Project.objects.filter(id=value).exists():
+            raise serializers.ValidationError("El proyecto no existe")
+        return value
+
+    def validate_calculation_type(self, value):
+        """Validar que el tipo de cálculo existe y está activo"""
+        if not CalculationType.objects.filter(code=value, is_active=True).exists():
+            raise serializers.ValidationError("Tipo de cálculo no válido")
+        return value
+
+    def validate_items(self, value):
+        if not value:
+            raise serializers.ValidationError("Debe incluir al menos un espacio")
+        if len(value) > 100:
+            raise serializers.ValidationError("Máximo 100 espacios por lote")
+        return value
+
+    def validate(self, data):
+        """Para crear items de presupuesto se necesita un precio unitario"""
+        if data.get('add_to_budget') and not data.get('unit_price') and not data.get('material_id'):
+            raise serializers.ValidationError(
+                {"unit_price": "Se requiere precio unitario o material para agregar al presupuesto"}
+            )
+        return data
+
 class CalculationResultSerializer(serializers.Serializer):
     """
     Serializer para respuesta unificada de cálculos
@@ -1,3 +1,78 @@
-from django.test import TestCase
+"""
+Tests del guardado en lote del modo multi-espacio (calculate_batch)
+Path: backend/apps/calculations/tests.py
+"""
+from datetime import date
+from decimal import Decimal
 
-# Create your tests here.
+from rest_framework import status
+from rest_framework.test import APITestCase
+
+from apps.budgets.models import BudgetItem
+from apps.projects.models import Project
+from .models import Calculation, CalculationType
+
+BATCH_URL = '/api/calculations/calculate/batch/'
+
+
+class CalculateBatchTestCase(APITestCase):
+
+    def setUp(self):
+        self.project = Project.objects.create(
+            name='Casa Prueba', client='Cliente', location='Quito', start_date=date(2025, 1, 1)
+        )
+        CalculationType.objects.create(
+            name='Pintura', code='paint', category='construction', description='Pintura de paredes'
+        )
+
+    def _batch(self, **overrides):
+        # Resultados ya calculados por el motor local de la app (2 capas, 10 m²/L)
+        data = {
+            'project_id': self.project.id,
+            'calculation_type': 'paint',
+            'items': [
+                {'space': 'Sala', 'input_data': {'area_to_paint': 25.5, 'number_of_coats': 2},
+                 'calculated_quantity': 5.355, 'unit': 'litros'},
+                {'space': 'Baño', 'input_data': {'area_to_paint': 4.25, 'number_of_coats': 2},
+                 'calculated_quantity': 0.8925, 'unit': 'litros'},
+            ],
+        }
+        data.update(overrides)
+        return self.client.post(BATCH_URL, data, format='json')
+
+    def test_batch_saves_one_calculation_per_space(self):
+        response = self._batch()
+
+        self.assertEqual(response.status_code, status.HTTP_201_CREATED)
+        self.assertEqual(response.data['count'], 2)
+        self.assertEqual([row['space'] for row in response.data['results']], ['Sala', 'Baño'])
+
+        calculations = Calculation.objects.filter(project=self.project).order_by('id')
+        self.assertEqual(calculations.count(), 2)
+        self.assertEqual(calculations[0].calculated_quantity, Decimal('5.355'))
+        self.assertEqual(calculations[1].input_data['space'], 'Baño')
+        self.assertEqual(BudgetItem.objects.count(), 0)
+
+    def test_batch_adds_one_budget_item_per_space(self):
+        response = self._batch(add_to_budget=True, unit_price='12.50')
+
+        self.assertEqual(response.status_code, status.HTTP_201_CREATED)
+        items = BudgetItem.objects.filter(project=self.project).order_by('id')
+        self.assertEqual([item.spaces for item in items], ['Sala', 'Baño'])
+        self.assertEqual(items[0].unit_price, Decimal('12.50'))
+        for row in response.data['results']:
+            self.assertIsNotNone(row['budget_item_id'])
+
+    def test_batch_failed_space_rolls_back_the_whole_batch(self):
+        # Proveedor inexistente: el item de presupuesto del primer espacio ya es inválido
+        response = self._batch(add_to_budget=True, unit_price='12.50', supplier_id=999999)
+
+        self.assertEqual(response.status_code, status.HTTP_400_BAD_REQUEST)
+        self.assertEqual(Calculation.objects.count(), 0)
+        self.assertEqual(BudgetItem.objects.count(), 0)
+
+    def test_batch_requires_price_to_add_to_budget(self):
+        response = self._batch(add_to_budget=True)
+
+        self.assertEqual(response.status_code, status.HTTP_400_BAD_REQUEST)
+        self.assertEqual(Calculation.objects.count(), 0)
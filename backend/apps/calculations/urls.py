@@ -19,4 +19,5 @@ urlpatterns = [
     path('calculate/led/', CalculationViewSet.as_view({'post': 'calculate_led_strip'}), name='calculate-led'),
     path('calculate/profiles/', CalculationViewSet.as_view({'post': 'calculate_profiles'}), name='calculate-profiles'),
     path('calculate/cables/', CalculationViewSet.as_view({'post': 'calculate_cable'}), name='calculate-cables'),
+    path('calculate/batch/', CalculationViewSet.as_view({'post': 'calculate_batch'}), name='calculate-batch'),
 ]
\ No newline at end of file
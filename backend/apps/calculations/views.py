@@ -4,6 +4,7 @@ from rest_framework.response import Response
 from rest_framework.filters import SearchFilter, OrderingFilter
 from django_filters.rest_framework import DjangoFilterBackend
 from django.shortcuts import get_object_or_404
+from django.db import transaction
 from decimal import Decimal
 import math
 from .models import (
@@ -17,7 +18,7 @@ from .serializers import (
     CableCalculationSerializer, PaintCalculationRequestSerializer,
     GypsumCalculationRequestSerializer, LEDStripCalculationRequestSerializer,
     CableCalculationRequestSerializer, AddCalculationToBudgetSerializer,
-    CalculationResultSerializer
+    CalculationResultSerializer, BatchCalculationRequestSerializer
 )
 from apps.projects.models import Project
 from apps.materials.models import Material
@@ -590,6 +591,97 @@ class CalculationViewSet(viewsets.ModelViewSet):
             'material_suggestions': self._get_material_suggestions('lighting', 'perfil', profile_size)
         })
     
+    @action(detail=False, methods=['post'])
+    def calculate_batch(self, request):
+        """
+        Guardar varios cálculos del mismo tipo (uno por espacio) y, opcionalmente,
+        sus items de presupuesto en una sola transacción
+        POST /api/calculations/calculate/batch/
+
+        Los resultados ya vienen calculados por el cliente (motor local con las mismas
+        fórmulas que las calculadoras individuales); aquí solo se persisten.
+        """
+        serializer = BatchCalculationRequestSerializer(data=request.data)
+        if not serializer.is_valid():
+            return Response(serializer.errors, status=status.HTTP_400_BAD_REQUEST)
+
+        data = serializer.validated_data
+
+        from apps.budgets.serializers import BudgetItemCreateUpdateSerializer
+
+        calculation_type = CalculationType.objects.get(code=data['calculation_type'])
+        category = 'construction' if calculation_type.category == 'construction' else 'lighting'
+
+        material = None
+        if data.get('material_id'):
+            material = Material.objects.filter(id=data['material_id']).first()
+
+        unit_price = data.get('unit_price')
+        if not unit_price and material and material.reference_price:
+            unit_price = material.reference_price
+
+        created = []
+        try:
+            with transaction.atomic():
+                for index, item in enumerate(data['items']):
+                    quantity = Decimal(str(round(item['calculated_quantity'], 3)))
+                    estimated_cost = item.get('estimated_cost')
+
+                    calculation = Calculation.objects.create(
+                        project_id=data['project_id'],
+                        calculation_type=calculation_type,
+                        material=material,
+                        input_data=dict(item['input_data'], space=item['space']),
+                        calculated_quantity=quantity,
+                        unit=item['unit'],
+                        estimated_cost=Decimal(str(round(estimated_cost, 2))) if estimated_cost else None,
+                        detailed_results=item.get('detailed_results', {})
+                    )
+
+                    budget_item_id = None
+                    if data['add_to_budget']:
+                        if not unit_price:
+                            raise ValueError(f"Espacio {index + 1}: sin precio unitario")
+
+                        budget_serializer = BudgetItemCreateUpdateSerializer(data={
+                            'project': data['project_id'],
+                            'description': f"{calculation_type.name} - {quantity} {item['unit']}",
+                            'category': category,
+                            'spaces': item['space'],
+                            'quantity': quantity,
+                            'unit': item['unit'],
+                            'unit_price': unit_price,
+                            'material': material.id if material else None,
+                            'supplier': data.get('supplier_id'),
+                            'notes': data.get('notes') or f"Generado desde calculadora: {calculation_type.name}"
+                        })
+                        if not budget_serializer.is_valid():
+                            raise ValueError(f"Espacio {index + 1}: {budget_serializer.errors}")
+
+                        budget_item = budget_serializer.save()
+                        calculation.added_to_budget = True
+                        calculation.budget_item_created = budget_item
+                        calculation.save(update_fields=['added_to_budget', 'budget_item_created'])
+                        budget_item_id = budget_item.id
+
+                    created.append({
+                        'calculation_id': calculation.id,
+                        'space': item['space'],
+                        'calculated_quantity': float(quantity),
+                        'unit': item['unit'],
+                        'budget_item_id': budget_item_id
+                    })
+        except ValueError as e:
+            # La transacción se revierte completa: no quedan cálculos a medias
+            return Response({'error': str(e)}, status=status.HTTP_400_BAD_REQUEST)
+
+        return Response({
+            'calculation_type': data['calculation_type'],
+            'count': len(created),
+            'added_to_budget': data['add_to_budget'],
+            'results': created
+        }, status=status.HTTP_201_CREATED)
+
     @action(detail=True, methods=['post'])
     def add_to_budget(self, request, pk=None):
         """
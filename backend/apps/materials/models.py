@@ -34,6 +34,9 @@ class MaterialCategory(models.Model):
         verbose_name="Activo"
     )
 
+    # Los materiales copian nombre y tipo de la categoría: el sync del catálogo la consulta
+    updated_at = models.DateTimeField(auto_now=True)
+
     class Meta:
         verbose_name = "Categoría de Material"
         verbose_name_plural = "Categorías de Materiales"
@@ -98,6 +98,22 @@ class MaterialForCalculatorSerializer(serializers.ModelSerializer):
         
         return data
 
+class MaterialCatalogSerializer(serializers.ModelSerializer):
+    """
+    Serializer compacto para el catálogo sin conexión de la app
+    Categoría plana (ID, nombre, tipo): con miles de filas no se repite el objeto completo
+    """
+    category_id = serializers.IntegerField(read_only=True)
+    category_name = serializers.CharField(source='category.name', read_only=True)
+    category_type = serializers.CharField(source='category.category_type', read_only=True)
+
+    class Meta:
+        model = Material
+        fields = [
+            'id', 'name', 'code', 'category_id', 'category_name', 'category_type',
+            'unit', 'reference_price', 'is_active'
+        ]
+
 class MaterialCreateUpdateSerializer(serializers.ModelSerializer):
     """
     Serializer para crear/actualizar materiales
@@ -4,12 +4,21 @@ from rest_framework.response import Response
 from rest_framework.filters import SearchFilter, OrderingFilter
 from django_filters.rest_framework import DjangoFilterBackend
 from django.db.models import Q
+from django.utils import timezone
+from datetime import timedelta
 from .models import MaterialCategory, Material, MaterialSpecification
 from .serializers import (
     MaterialCategorySerializer, MaterialListSerializer, 
     MaterialDetailSerializer, MaterialForCalculatorSerializer,
-    MaterialCreateUpdateSerializer, MaterialSearchSerializer, MaterialSpecificationSerializer
+    MaterialCreateUpdateSerializer, MaterialSearchSerializer, MaterialSpecificationSerializer,
+    MaterialCatalogSerializer
 )
+from regenerapp_api.sync import SYNC_OVERLAP, make_sync_token, parse_sync_token
+from regenerapp_api.renderers import COMPACT_RENDERER_CLASSES
+
+# Los materiales no guardan registros de eliminación: tokens más viejos que esto
+# reciben el catálogo completo (así desaparecen también los borrados físicos)
+CATALOG_FULL_REFRESH = timedelta(days=7)
 
 class MaterialCategoryViewSet(viewsets.ReadOnlyModelViewSet):
     """
@@ -80,6 +89,44 @@ class MaterialViewSet(viewsets.ModelViewSet):
         serializer = MaterialForCalculatorSerializer(materials, many=True)
         return Response(serializer.data)
     
+    @action(detail=False, methods=['get'], renderer_classes=COMPACT_RENDERER_CLASSES)
+    def catalog(self, request):
+        """
+        Catálogo activo completo para la búsqueda sin conexión (sincronización incremental)
+        GET /api/materials/materials/catalog/?since={token}
+
+        - Sin token (o token de más de CATALOG_FULL_REFRESH): full = true y todo el catálogo activo
+        - Con token: materiales modificados desde el token, o cuya categoría cambió (nombre,
+          tipo o estado); los desactivados (o de una categoría desactivada) llegan en deleted
+        """
+        # El token se toma antes de consultar para no perder cambios concurrentes
+        now = timezone.now()
+        since = parse_sync_token(request.query_params.get('since'))
+        full = since is None or since < now - CATALOG_FULL_REFRESH
+
+        queryset = Material.objects.select_related('category')
+        deleted = []
+
+        if not full:
+            window_start = since - SYNC_OVERLAP
+            queryset = queryset.filter(
+                Q(updated_at__gte=window_start) | Q(category__updated_at__gte=window_start)
+            )
+            deleted = list(
+                queryset.filter(
+                    Q(is_active=False) | Q(category__is_active=False)
+                ).values_list('id', flat=True)
+            )
+
+        active = queryset.filter(is_active=True, category__is_active=True).order_by('name')
+
+        return Response({
+            'token': make_sync_token(now),
+            'full': full,
+            'changed': MaterialCatalogSerializer(active, many=True).data,
+            'deleted': deleted
+        })
+
     @action(detail=False, methods=['get'])
     def by_category(self, request):
         """
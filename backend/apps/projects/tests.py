@@ -1,3 +1,75 @@
-from django.test import TestCase
+"""
+Tests del dashboard del proyecto (refresh_dashboard)
+Path: backend/apps/projects/tests.py
+"""
+from datetime import date
+from decimal import Decimal
 
-# Create your tests here.
+from rest_framework import status
+from rest_framework.test import APITestCase
+
+from apps.budgets.models import BudgetItem, ProjectFinancialSummary, RealExpense
+from .models import Project
+
+
+class RefreshDashboardTestCase(APITestCase):
+
+    def setUp(self):
+        self.project = Project.objects.create(
+            name='Casa Prueba', client='Cliente', location='Quito', start_date=date(2025, 1, 1)
+        )
+        self.url = f'/api/projects/projects/{self.project.id}/refresh_dashboard/'
+
+    def _add_budget_item(self, category, quantity, unit_price):
+        # Alta directa en la base: el resumen guardado queda desactualizado a propósito
+        return BudgetItem.objects.create(
+            project=self.project, description='Item', category=category,
+            quantity=Decimal(quantity), unit='u', unit_price=Decimal(unit_price)
+        )
+
+    def test_refresh_recalculates_stale_summary_and_returns_dashboard(self):
+        ProjectFinancialSummary.objects.create(project=self.project)
+        self._add_budget_item('construction', '10', '25.00')
+        self._add_budget_item('lighting', '2', '50.00')
+        RealExpense.objects.create(
+            project=self.project, description='Cemento', category='construction',
+            quantity=Decimal('4'), unit='u', unit_price=Decimal('25.00'), purchase_date=date(2025, 2, 1)
+        )
+
+        response = self.client.post(self.url)
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(response.data['project']['id'], self.project.id)
+
+        financial = response.data['financial_summary']
+        self.assertEqual(financial['total_budget'], 350.0)
+        self.assertEqual(financial['total_expenses'], 100.0)
+        self.assertEqual(financial['balance'], 250.0)
+        self.assertEqual(financial['budget_by_category']['lighting']['budgeted'], 100.0)
+
+        statistics = response.data['statistics']
+        self.assertEqual(statistics['budget_items_count'], 2)
+        self.assertEqual(statistics['expenses_count'], 1)
+
+        # El recálculo queda guardado para el resto de endpoints
+        summary = ProjectFinancialSummary.objects.get(project=self.project)
+        self.assertEqual(summary.total_budget, Decimal('350.00'))
+
+    def test_refresh_creates_missing_summary(self):
+        self._add_budget_item('construction', '1', '80.00')
+
+        response = self.client.post(self.url)
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(response.data['financial_summary']['total_budget'], 80.0)
+        self.assertTrue(ProjectFinancialSummary.objects.filter(project=self.project).exists())
+
+    def test_refresh_is_post_only(self):
+        response = self.client.get(self.url)
+
+        self.assertEqual(response.status_code, status.HTTP_405_METHOD_NOT_ALLOWED)
+
+    def test_refresh_unknown_project_returns_404(self):
+        response = self.client.post('/api/projects/projects/999999/refresh_dashboard/')
+
+        self.assertEqual(response.status_code, status.HTTP_404_NOT_FOUND)
@@ -177,6 +177,21 @@ class ProjectViewSet(viewsets.ModelViewSet):
             'statistics': stats
         })
     
+    @action(detail=True, methods=['post'])
+    def refresh_dashboard(self, request, pk=None):
+        """
+        Recalcular el resumen financiero y devolver el dashboard en una sola llamada
+        POST /api/projects/{id}/refresh_dashboard/
+        Reemplaza la secuencia for_selected_project -> refresh -> dashboard del pull-to-refresh
+        """
+        project = self.get_object()
+
+        from apps.budgets.models import ProjectFinancialSummary
+        summary, created = ProjectFinancialSummary.objects.get_or_create(project=project)
+        summary.update_summary()
+
+        return self.dashboard(request, pk=pk)
+
     @action(detail=True, methods=['post'])
     def advance_phase(self, request, pk=None):
         """
@@ -17,6 +17,7 @@ class SupplierListSerializer(serializers.ModelSerializer):
             'id', 'name', 'display_name', 'commercial_name',
             'supplier_type', 'supplier_type_display', 'phone',
             'city', 'zone', 'rating', 'rating_stars',
+            'payment_terms', 'delivery_time', 'offers_delivery',
             'is_active', 'is_preferred', 'categories_list'
         ]
     
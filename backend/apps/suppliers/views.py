@@ -12,6 +12,7 @@ from .serializers import (
     SupplierPriceSerializer, SupplierSearchSerializer,
     SupplierMaterialPriceSerializer
 )
+from regenerapp_api.renderers import COMPACT_RENDERER_CLASSES
 
 class SupplierViewSet(viewsets.ModelViewSet):
     """
@@ -23,6 +24,7 @@ class SupplierViewSet(viewsets.ModelViewSet):
     ordering_fields = ['name', 'rating', 'city', 'created_at']
     ordering = ['name']
     filterset_fields = ['supplier_type', 'city', 'rating', 'is_preferred', 'offers_delivery']
+    renderer_classes = COMPACT_RENDERER_CLASSES
     
     def get_serializer_class(self):
         """Retorna serializer según la acción"""
@@ -36,7 +38,8 @@ class SupplierViewSet(viewsets.ModelViewSet):
     
     def get_queryset(self):
         """Personalizar queryset según filtros"""
-        queryset = Supplier.objects.filter(is_active=True)
+        # categories_list de cada fila: una sola consulta para toda la página
+        queryset = Supplier.objects.filter(is_active=True).prefetch_related('categories')
         
         # Filtro por zona
         zone = self.request.query_params.get('zone')
@@ -217,6 +220,7 @@ class SupplierPriceViewSet(viewsets.ModelViewSet):
     serializer_class = SupplierPriceSerializer
     filter_backends = [DjangoFilterBackend, OrderingFilter]
     filterset_fields = ['supplier', 'material', 'is_current', 'currency']
+    renderer_classes = COMPACT_RENDERER_CLASSES
     ordering_fields = ['price', 'created_at', 'valid_from']
     ordering = ['-created_at']
     
@@ -234,4 +238,46 @@ class SupplierPriceViewSet(viewsets.ModelViewSet):
         if active_suppliers_only.lower() == 'true':
             queryset = queryset.filter(supplier__is_active=True)
         
-        return queryset
\ No newline at end of file
+        return queryset
+
+    @action(detail=False, methods=['get'])
+    def matrix(self, request):
+        """
+        Matriz completa de precios vigentes (material × proveedor) para consultas locales
+        GET /api/suppliers/prices/matrix/
+
+        Formato columnar: material, supplier, price, discount, currency y updated_at son listas
+        alineadas por posición (ordenadas por material y precio); los datos de cada proveedor
+        van una sola vez en suppliers. Sin paginar: si no cambió nada, el ETag da un 304.
+        """
+        rows = SupplierPrice.objects.filter(
+            is_current=True,
+            supplier__is_active=True,
+            material__is_active=True
+        ).order_by('material_id', 'price', 'supplier_id').values_list(
+            'material_id', 'supplier_id', 'price', 'discount_percentage', 'currency', 'updated_at'
+        )
+
+        materials, suppliers, prices, discounts, currencies, updated = [], [], [], [], [], []
+        for material_id, supplier_id, price, discount, currency, updated_at in rows:
+            materials.append(material_id)
+            suppliers.append(supplier_id)
+            prices.append(float(price))
+            discounts.append(float(discount or 0))
+            currencies.append(currency)
+            updated.append(int(updated_at.timestamp() * 1000))
+
+        supplier_info = Supplier.objects.filter(id__in=set(suppliers)).values(
+            'id', 'name', 'commercial_name', 'city', 'zone', 'rating',
+            'delivery_time', 'is_preferred', 'phone'
+        )
+
+        return Response({
+            'material': materials,
+            'supplier': suppliers,
+            'price': prices,
+            'discount': discounts,
+            'currency': currencies,
+            'updated_at': updated,
+            'suppliers': list(supplier_info)
+        })
\ No newline at end of file
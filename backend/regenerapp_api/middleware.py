@@ -0,0 +1,139 @@
+"""
+Middlewares propios de RegenerApp API
+"""
+import io
+import logging
+import zlib
+
+from django.conf import settings
+from django.http import JsonResponse
+from django.middleware.gzip import GZipMiddleware
+from django.utils.cache import patch_cache_control, patch_vary_headers
+
+logger = logging.getLogger(__name__)
+
+
+class ApiCacheControlMiddleware:
+    """
+    Emite Cache-Control para las APIs según API_CACHE_POLICIES (settings.py)
+
+    - Rutas de datos de referencia (categorías, tipos de cálculo, proveedores...):
+      max-age configurable, el cliente las sirve desde su caché HTTP sin tocar la red
+    - Resto de GET de la API: no-cache, el cliente guarda la respuesta pero siempre
+      revalida con If-None-Match (ConditionalGetMiddleware responde 304 sin cuerpo)
+    """
+
+    def __init__(self, get_response):
+        self.get_response = get_response
+        self.api_prefix = getattr(settings, 'API_CACHE_PREFIX', '/api/')
+        # Ordenar por longitud para que la ruta más específica gane
+        self.policies = sorted(
+            getattr(settings, 'API_CACHE_POLICIES', {}).items(),
+            key=lambda item: len(item[0]),
+            reverse=True
+        )
+
+    def __call__(self, request):
+        response = self.get_response(request)
+
+        if request.method not in ('GET', 'HEAD') or not request.path.startswith(self.api_prefix):
+            return response
+
+        if response.status_code not in (200, 304) or response.has_header('Cache-Control'):
+            return response
+
+        max_age = self._max_age_for(request.path[len(self.api_prefix):])
+        if max_age:
+            patch_cache_control(response, private=True, max_age=max_age)
+        else:
+            patch_cache_control(response, private=True, no_cache=True)
+
+        patch_vary_headers(response, ('Accept',))
+        return response
+
+    def _max_age_for(self, api_path):
+        for prefix, max_age in self.policies:
+            if api_path.startswith(prefix):
+                return max_age
+        return 0
+
+
+class ApiGZipMiddleware(GZipMiddleware):
+    """
+    Comprime con gzip las respuestas de la API a partir de API_GZIP_MIN_LENGTH bytes
+
+    - Las respuestas pequeñas se envían tal cual (gzip no compensa la cabecera)
+    - X-Uncompressed-Length lleva el tamaño original para que el cliente mida
+      la relación de compresión por endpoint
+    - Debe ir antes de ConditionalGetMiddleware: el ETag se calcula sobre el
+      contenido sin comprimir y GZipMiddleware lo marca como débil
+    """
+
+    def __init__(self, get_response):
+        super().__init__(get_response)
+        self.api_prefix = getattr(settings, 'API_CACHE_PREFIX', '/api/')
+        self.min_length = getattr(settings, 'API_GZIP_MIN_LENGTH', 1024)
+
+    def process_response(self, request, response):
+        if not request.path.startswith(self.api_prefix):
+            return response
+        if response.streaming or len(response.content) < self.min_length:
+            return response
+
+        original_length = len(response.content)
+        response = super().process_response(request, response)
+
+        if response.get('Content-Encoding') == 'gzip':
+            compressed_length = len(response.content)
+            response['X-Uncompressed-Length'] = str(original_length)
+            logger.debug(
+                f"gzip {request.method} {request.path}: {original_length} -> "
+                f"{compressed_length} bytes ({compressed_length * 100 // original_length}%)"
+            )
+        return response
+
+
+class GZipRequestMiddleware:
+    """
+    Descomprime los cuerpos de petición enviados con Content-Encoding: gzip
+
+    El cliente comprime los POST/PUT grandes (operaciones bulk, lotes de cálculos).
+    El tamaño descomprimido se limita con DATA_UPLOAD_MAX_MEMORY_SIZE para no
+    aceptar bombas de compresión.
+    """
+
+    def __init__(self, get_response):
+        self.get_response = get_response
+        self.max_length = getattr(settings, 'DATA_UPLOAD_MAX_MEMORY_SIZE', None) or 2621440
+
+    def __call__(self, request):
+        encoding = request.META.get('HTTP_CONTENT_ENCODING', '').strip().lower()
+        if not encoding or encoding == 'identity':
+            return self.get_response(request)
+
+        if encoding != 'gzip':
+            return JsonResponse(
+                {'error': f'Content-Encoding no soportado: {encoding}'},
+                status=415
+            )
+
+        compressed = request.body
+        decompressor = zlib.decompressobj(16 + zlib.MAX_WBITS)
+        try:
+            body = decompressor.decompress(compressed, self.max_length + 1)
+        except zlib.error:
+            return JsonResponse({'error': 'Cuerpo gzip inválido'}, status=400)
+
+        if len(body) > self.max_length or decompressor.unconsumed_tail:
+            return JsonResponse({'error': 'Cuerpo de la petición demasiado grande'}, status=413)
+
+        # Reemplazar el cuerpo para que DRF lea el contenido ya descomprimido
+        request._body = body
+        request._stream = io.BytesIO(body)
+        request.META['CONTENT_LENGTH'] = str(len(body))
+        del request.META['HTTP_CONTENT_ENCODING']
+
+        logger.debug(
+            f"gzip request {request.method} {request.path}: {len(compressed)} -> {len(body)} bytes"
+        )
+        return self.get_response(request)
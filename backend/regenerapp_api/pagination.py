@@ -0,0 +1,19 @@
+"""
+Paginación estándar de RegenerApp API
+"""
+from rest_framework.pagination import PageNumberPagination
+
+
+class StandardResultsSetPagination(PageNumberPagination):
+    """
+    Paginación por número de página con tamaño configurable por el cliente
+
+    - ?page=N           número de página (desde 1)
+    - ?page_size=M      items por página (máximo max_page_size)
+
+    La app Android descarga todas las páginas en paralelo cuando necesita totales,
+    por lo que pide páginas grandes para reducir el número de peticiones.
+    """
+    page_size = 20
+    page_size_query_param = 'page_size'
+    max_page_size = 200
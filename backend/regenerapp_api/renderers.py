@@ -0,0 +1,51 @@
+"""
+Renderers propios de RegenerApp API
+"""
+import datetime
+import decimal
+import uuid
+
+import msgpack
+from django.utils.encoding import force_str
+from django.utils.functional import Promise
+from rest_framework.renderers import BaseRenderer, JSONRenderer
+
+
+def _encode_default(value):
+    """Tipos que msgpack no conoce: mismo texto que emitiría el JSONRenderer de DRF"""
+    if isinstance(value, Promise):
+        return force_str(value)
+    if isinstance(value, datetime.datetime):
+        text = value.isoformat()
+        if text.endswith('+00:00'):
+            text = text[:-6] + 'Z'
+        return text
+    if isinstance(value, (datetime.date, datetime.time)):
+        return value.isoformat()
+    if isinstance(value, (decimal.Decimal, uuid.UUID)):
+        return str(value)
+    if isinstance(value, (set, frozenset, tuple)):
+        return list(value)
+    raise TypeError(f'Tipo no serializable en MessagePack: {type(value).__name__}')
+
+
+class MessagePackRenderer(BaseRenderer):
+    """
+    MessagePack: mismo contenido que el JSON (mismas claves y valores) en binario compacto
+
+    El cliente lo pide con Accept: application/msgpack; sin esa cabecera se responde JSON.
+    Pensado para los listados grandes (presupuesto, gastos, precios de proveedores).
+    """
+    media_type = 'application/msgpack'
+    format = 'msgpack'
+    charset = None
+    render_style = 'binary'
+
+    def render(self, data, accepted_media_type=None, renderer_context=None):
+        if data is None:
+            return b''
+        return msgpack.packb(data, default=_encode_default, use_bin_type=True)
+
+
+# Para los ViewSets de alto volumen: JSON por defecto, MessagePack por negociación
+COMPACT_RENDERER_CLASSES = [JSONRenderer, MessagePackRenderer]
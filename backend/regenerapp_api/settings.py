@@ -52,8 +52,12 @@ INSTALLED_APPS = DJANGO_APPS + THIRD_PARTY_APPS + LOCAL_APPS
 MIDDLEWARE = [
     'corsheaders.middleware.CorsMiddleware',
     'django.middleware.security.SecurityMiddleware',
+    'regenerapp_api.middleware.ApiGZipMiddleware',  # gzip de respuestas grandes
+    'regenerapp_api.middleware.GZipRequestMiddleware',  # cuerpos de petición con gzip
     'django.contrib.sessions.middleware.SessionMiddleware',
     'django.middleware.common.CommonMiddleware',
+    'regenerapp_api.middleware.ApiCacheControlMiddleware',
+    'django.middleware.http.ConditionalGetMiddleware',  # ETag + respuestas 304
     'django.middleware.csrf.CsrfViewMiddleware',
     'django.contrib.auth.middleware.AuthenticationMiddleware',
     'django.contrib.messages.middleware.MessageMiddleware',
@@ -142,7 +146,7 @@ REST_FRAMEWORK = {
     'DEFAULT_RENDERER_CLASSES': [
         'rest_framework.renderers.JSONRenderer',
     ],
-    'DEFAULT_PAGINATION_CLASS': 'rest_framework.pagination.PageNumberPagination',
+    'DEFAULT_PAGINATION_CLASS': 'regenerapp_api.pagination.StandardResultsSetPagination',
     'PAGE_SIZE': 20,
     'DEFAULT_FILTER_BACKENDS': [
         'rest_framework.filters.SearchFilter',
@@ -150,6 +154,19 @@ REST_FRAMEWORK = {
     ],
 }
 
+# Políticas de caché HTTP por endpoint (segundos de frescura, ruta relativa a /api/)
+# Las rutas no listadas se responden con no-cache: el cliente revalida con ETag en cada uso
+# Es la única fuente de estas políticas: la app respeta el Cache-Control y no guarda copia de la tabla
+API_CACHE_POLICIES = {
+    'materials/categories/': 60 * 60 * 24,
+    'materials/materials/for_calculator/': 60 * 60 * 6,
+    'calculations/types/': 60 * 60 * 24,
+    'suppliers/suppliers/': 60 * 60,
+}
+
+# Compresión gzip de respuestas de la API (bytes mínimos; por debajo no compensa)
+API_GZIP_MIN_LENGTH = 1024
+
 # CORS settings (para desarrollo con Android)
 CORS_ALLOWED_ORIGINS = [
     "http://localhost:3000",
@@ -167,8 +184,12 @@ CORS_ALLOW_HEADERS = [
     'accept',
     'accept-encoding',
     'authorization',
+    'content-encoding',
     'content-type',
     'dnt',
+    'idempotency-key',
+    'if-match',
+    'if-none-match',
     'origin',
     'user-agent',
     'x-csrftoken',
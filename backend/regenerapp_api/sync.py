@@ -0,0 +1,22 @@
+"""
+Tokens de la sincronización incremental (delta) de RegenerApp API
+Compartidos por los endpoints de sync de presupuestos, gastos y catálogo de materiales.
+"""
+from datetime import datetime, timedelta, timezone as dt_timezone
+
+# Margen de solapamiento: cubre transacciones que confirman después de generar el token.
+# Las filas repetidas no son problema porque el cliente las fusiona por ID.
+SYNC_OVERLAP = timedelta(seconds=5)
+
+
+def make_sync_token(moment):
+    """Token opaco: microsegundos desde epoch"""
+    return str(int(moment.timestamp() * 1_000_000))
+
+
+def parse_sync_token(token):
+    """Devuelve el datetime del token o None si no es válido"""
+    try:
+        return datetime.fromtimestamp(int(token) / 1_000_000, tz=dt_timezone.utc)
+    except (TypeError, ValueError, OverflowError, OSError):
+        return None
@@ -0,0 +1,243 @@
+"""
+Tests de los renderers y middlewares propios de RegenerApp API
+Path: backend/regenerapp_api/tests.py
+"""
+import datetime
+import decimal
+import gzip
+import json
+import uuid
+from datetime import date
+
+import msgpack
+from django.http import HttpResponse, StreamingHttpResponse
+from django.test import RequestFactory, SimpleTestCase, override_settings
+from django.utils.translation import gettext_lazy
+from rest_framework.renderers import JSONRenderer
+from rest_framework.test import APITestCase
+
+from apps.budgets.models import BudgetItem
+from apps.projects.models import Project
+from .middleware import ApiGZipMiddleware, GZipRequestMiddleware
+from .renderers import MessagePackRenderer
+
+
+# ==========================================
+# MESSAGEPACK
+# ==========================================
+
+class MessagePackRendererTestCase(SimpleTestCase):
+
+    def _round_trip(self, data):
+        return msgpack.unpackb(MessagePackRenderer().render(data), raw=False)
+
+    def test_same_content_as_json(self):
+        data = {
+            'id': 5,
+            'total_price': decimal.Decimal('12.50'),
+            'quantity': 2.5,
+            'active': True,
+            'notes': None,
+            'purchase_date': date(2025, 2, 1),
+            'updated_at': datetime.datetime(2025, 2, 1, 10, 30, tzinfo=datetime.timezone.utc),
+            'uuid': uuid.UUID('12345678-1234-5678-1234-567812345678'),
+            'category_display': gettext_lazy('Construcción'),
+            'tags': ('obra', 'gris'),
+            'items': [{'id': 1}, {'id': 2}],
+        }
+
+        self.assertEqual(self._round_trip(data), json.loads(JSONRenderer().render(data)))
+
+    def test_datetime_in_utc_uses_z_like_json(self):
+        moment = datetime.datetime(2025, 2, 1, 10, 30, 0, 123000, tzinfo=datetime.timezone.utc)
+
+        rendered = self._round_trip({'at': moment})
+
+        self.assertEqual(rendered, json.loads(JSONRenderer().render({'at': moment})))
+        self.assertTrue(rendered['at'].endswith('Z'))
+
+    def test_none_renders_empty_body(self):
+        self.assertEqual(MessagePackRenderer().render(None), b'')
+
+    def test_unknown_type_is_rejected(self):
+        with self.assertRaises(TypeError):
+            MessagePackRenderer().render({'value': object()})
+
+
+class MessagePackNegotiationTestCase(APITestCase):
+
+    def setUp(self):
+        project = Project.objects.create(
+            name='Casa Prueba', client='Cliente', location='Quito', start_date=date(2025, 1, 1)
+        )
+        BudgetItem.objects.create(
+            project=project, description='Cemento', category='construction',
+            quantity=decimal.Decimal('2.5'), unit='saco', unit_price=decimal.Decimal('12.50')
+        )
+        self.url = f'/api/budgets/budget-items/?project={project.id}'
+
+    def test_list_in_msgpack_matches_json(self):
+        json_response = self.client.get(self.url)
+        msgpack_response = self.client.get(self.url, HTTP_ACCEPT='application/msgpack')
+
+        self.assertEqual(msgpack_response.status_code, 200)
+        self.assertEqual(msgpack_response['Content-Type'], 'application/msgpack')
+        self.assertEqual(
+            msgpack.unpackb(msgpack_response.content, raw=False),
+            json.loads(json_response.content)
+        )
+
+    def test_without_msgpack_accept_responds_json(self):
+        response = self.client.get(self.url, HTTP_ACCEPT='application/json')
+
+        self.assertTrue(response['Content-Type'].startswith('application/json'))
+
+
+# ==========================================
+# GZIP
+# ==========================================
+
+@override_settings(API_GZIP_MIN_LENGTH=1024)
+class ApiGZipMiddlewareTestCase(SimpleTestCase):
+
+    def _response_for(self, path, content, accept_encoding='gzip'):
+        middleware = ApiGZipMiddleware(lambda request: HttpResponse(content, content_type='application/json'))
+        request = RequestFactory().get(path, HTTP_ACCEPT_ENCODING=accept_encoding)
+        return middleware(request)
+
+    def test_response_below_min_length_is_not_compressed(self):
+        response = self._response_for('/api/projects/projects/', b'a' * 1023)
+
+        self.assertFalse(response.has_header('Content-Encoding'))
+        self.assertFalse(response.has_header('X-Uncompressed-Length'))
+        self.assertEqual(response.content, b'a' * 1023)
+
+    def test_response_at_min_length_is_compressed(self):
+        response = self._response_for('/api/projects/projects/', b'a' * 1024)
+
+        self.assertEqual(response['Content-Encoding'], 'gzip')
+        self.assertEqual(response['X-Uncompressed-Length'], '1024')
+        self.assertEqual(gzip.decompress(response.content), b'a' * 1024)
+
+    def test_client_without_gzip_gets_plain_response(self):
+        response = self._response_for('/api/projects/projects/', b'a' * 4096, accept_encoding='identity')
+
+        self.assertFalse(response.has_header('Content-Encoding'))
+        self.assertFalse(response.has_header('X-Uncompressed-Length'))
+
+    def test_paths_outside_api_are_not_compressed(self):
+        response = self._response_for('/admin/', b'a' * 4096)
+
+        self.assertFalse(response.has_header('Content-Encoding'))
+
+    def test_streaming_response_is_not_compressed(self):
+        middleware = ApiGZipMiddleware(lambda request: StreamingHttpResponse(iter([b'a' * 4096])))
+        response = middleware(RequestFactory().get('/api/reports/', HTTP_ACCEPT_ENCODING='gzip'))
+
+        self.assertFalse(response.has_header('Content-Encoding'))
+
+
+class GZipRequestMiddlewareTestCase(SimpleTestCase):
+
+    def setUp(self):
+        self.received = []
+
+    def _view(self, request):
+        self.received.append((request.body, request.META.get('HTTP_CONTENT_ENCODING')))
+        return HttpResponse(status=201)
+
+    def _post(self, body, encoding):
+        request = RequestFactory().post('/api/budgets/budget-items/bulk/', data=body,
+                                        content_type='application/json',
+                                        HTTP_CONTENT_ENCODING=encoding)
+        return GZipRequestMiddleware(self._view)(request)
+
+    def test_gzip_body_reaches_view_decompressed(self):
+        body = json.dumps({'operations': [{'op': 'delete', 'id': index} for index in range(200)]}).encode()
+
+        response = self._post(gzip.compress(body), 'gzip')
+
+        self.assertEqual(response.status_code, 201)
+        self.assertEqual(self.received, [(body, None)])
+
+    def test_identity_body_is_passed_through(self):
+        response = self._post(b'{"operations": []}', 'identity')
+
+        self.assertEqual(response.status_code, 201)
+        self.assertEqual(self.received[0][0], b'{"operations": []}')
+
+    def test_unsupported_encoding_returns_415(self):
+        response = self._post(b'{"operations": []}', 'br')
+
+        self.assertEqual(response.status_code, 415)
+        self.assertEqual(self.received, [])
+
+    def test_invalid_gzip_returns_400(self):
+        response = self._post(b'no es gzip', 'gzip')
+
+        self.assertEqual(response.status_code, 400)
+        self.assertEqual(self.received, [])
+
+    @override_settings(DATA_UPLOAD_MAX_MEMORY_SIZE=1024)
+    def test_body_over_upload_limit_returns_413(self):
+        # Comprimido ocupa pocos bytes, descomprimido supera el límite
+        response = self._post(gzip.compress(b'a' * 1025), 'gzip')
+
+        self.assertEqual(response.status_code, 413)
+        self.assertEqual(self.received, [])
+
+    @override_settings(DATA_UPLOAD_MAX_MEMORY_SIZE=1024)
+    def test_body_at_upload_limit_is_accepted(self):
+        response = self._post(gzip.compress(b'a' * 1024), 'gzip')
+
+        self.assertEqual(response.status_code, 201)
+        self.assertEqual(len(self.received[0][0]), 1024)
+
+
+class GZipRequestIntegrationTestCase(APITestCase):
+
+    def test_gzip_create_is_saved(self):
+        project = Project.objects.create(
+            name='Casa Prueba', client='Cliente', location='Quito', start_date=date(2025, 1, 1)
+        )
+        body = json.dumps({
+            'project': project.id,
+            'description': 'Porcelanato',
+            'category': 'construction',
+            'quantity': '10.000',
+            'unit': 'm2',
+            'unit_price': '25.00',
+        }).encode()
+
+        response = self.client.generic('POST', '/api/budgets/budget-items/', gzip.compress(body),
+                                       content_type='application/json', HTTP_CONTENT_ENCODING='gzip')
+
+        self.assertEqual(response.status_code, 201)
+        self.assertEqual(BudgetItem.objects.get().description, 'Porcelanato')
+
+
+# ==========================================
+# PRECALENTAMIENTO
+# ==========================================
+
+class PingTestCase(SimpleTestCase):
+    """
+    SimpleTestCase no permite consultas: la prueba falla si ping toca la base de datos
+    """
+
+    def test_head_returns_no_content(self):
+        response = self.client.head('/api/ping/')
+
+        self.assertEqual(response.status_code, 204)
+        self.assertEqual(response.content, b'')
+        self.assertEqual(response['Cache-Control'], 'no-store')
+
+    def test_get_returns_no_content(self):
+        response = self.client.get('/api/ping/')
+
+        self.assertEqual(response.status_code, 204)
+
+    def test_post_is_not_allowed(self):
+        response = self.client.post('/api/ping/')
+
+        self.assertEqual(response.status_code, 405)
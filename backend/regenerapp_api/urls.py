@@ -7,10 +7,15 @@ from django.urls import path, include
 from django.conf import settings
 from django.conf.urls.static import static
 
+from .views import ping
+
 urlpatterns = [
     # Panel de administración
     path('admin/', admin.site.urls),
     
+    # Precalentamiento de conexión desde la app (HEAD -> 204)
+    path('api/ping/', ping, name='api-ping'),
+
     # APIs REST con prefijos específicos por módulo
     path('api/projects/', include('apps.projects.urls', namespace='projects')),
     path('api/materials/', include('apps.materials.urls', namespace='materials')),
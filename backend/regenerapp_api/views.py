@@ -0,0 +1,16 @@
+"""
+Vistas generales de RegenerApp API
+"""
+from django.views.decorators.http import require_http_methods
+from django.http import HttpResponse
+
+
+@require_http_methods(['GET', 'HEAD'])
+def ping(request):
+    """
+    Endpoint liviano para que la app abra la conexión al arrancar (DNS + TCP + TLS)
+    No toca la base de datos y responde 204 sin cuerpo.
+    """
+    response = HttpResponse(status=204)
+    response['Cache-Control'] = 'no-store'
+    return response